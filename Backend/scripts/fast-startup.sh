@@ -0,0 +1,98 @@
+#!/bin/sh
+# =============================================
+# Artefacto de arranque rápido (perfil Maven fast-startup)
+#
+#   extract   <jar> <dir>   descomprime el jar en el layout que necesita CDS
+#   train     <dir>         corrida de entrenamiento: arranca el contexto y sale,
+#                           dejando <dir>/application.jsa
+#   benchmark <dir> <jar>   tiempo hasta el primer /actuator/health con
+#                           AOT + CDS y con el jar común, y falla si el
+#                           arranque rápido supera STARTUP_MAX_SECONDS
+#
+# El entrenamiento y el benchmark usan H2 en memoria para no depender de
+# MySQL; el archivo CDS sólo guarda clases, no datos.
+# El archivo CDS es válido para la JVM que lo generó: en Docker se entrena
+# dentro de la imagen (Dockerfile.fast-startup).
+# =============================================
+
+set -e
+
+PROFILES="${FAST_STARTUP_PROFILES:-prod,fast-startup}"
+STARTUP_MAX_SECONDS="${STARTUP_MAX_SECONDS:-20}"
+BENCHMARK_PORT="${BENCHMARK_PORT:-18080}"
+
+# Base en memoria para las corridas sin servicios externos
+OFFLINE_ARGS="--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1 \
+ --spring.datasource.driver-class-name=org.h2.Driver \
+ --spring.datasource.username=sa --spring.datasource.password= \
+ --spring.jpa.database-platform=org.hibernate.dialect.H2Dialect \
+ --spring.jpa.hibernate.ddl-auto=create-drop"
+
+app_jar() {
+    ls "$1"/*.jar | head -1
+}
+
+extract() {
+    rm -rf "$2"
+    java -Djarmode=tools -jar "$1" extract --destination "$2"
+    echo "📦 Jar descomprimido en $2"
+}
+
+train() {
+    jar=$(app_jar "$1")
+    java -XX:ArchiveClassesAtExit="$1/application.jsa" \
+        -Dspring.aot.enabled=true \
+        -Dspring.context.exit=onRefresh \
+        -jar "$jar" --spring.profiles.active="$PROFILES" $OFFLINE_ARGS > "$1/training.log" 2>&1 \
+        || { tail -40 "$1/training.log"; exit 1; }
+    echo "✅ Archivo CDS generado: $1/application.jsa"
+}
+
+# Milisegundos desde el arranque de la JVM hasta que /actuator/health responde (cualquier código)
+time_to_health() {
+    start=$(date +%s%N)
+    "$@" --server.port="$BENCHMARK_PORT" --spring.profiles.active="$PROFILES" $OFFLINE_ARGS > /dev/null 2>&1 &
+    pid=$!
+    code=000
+    while [ "$code" = "000" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "-1"
+            return
+        fi
+        sleep 0.1
+        code=$(curl -s -o /dev/null -w '%{http_code}' "http://127.0.0.1:$BENCHMARK_PORT/actuator/health" || true)
+    done
+    end=$(date +%s%N)
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+benchmark() {
+    jar=$(app_jar "$1")
+    baseline=$(time_to_health java -jar "$2")
+    fast=$(time_to_health java -XX:SharedArchiveFile="$1/application.jsa" -Dspring.aot.enabled=true -jar "$jar")
+
+    echo "⏱️  Arranque hasta /actuator/health"
+    echo "    jar común:     ${baseline} ms"
+    echo "    AOT + CDS:     ${fast} ms (máximo ${STARTUP_MAX_SECONDS} s)"
+
+    if [ "$fast" -lt 0 ]; then
+        echo "❌ La aplicación no arrancó con AOT + CDS"
+        exit 1
+    fi
+    if [ "$fast" -gt $((STARTUP_MAX_SECONDS * 1000)) ]; then
+        echo "❌ El arranque rápido supera ${STARTUP_MAX_SECONDS} s"
+        exit 1
+    fi
+}
+
+case "$1" in
+    extract) extract "$2" "$3" ;;
+    train) train "$2" ;;
+    benchmark) benchmark "$2" "$3" ;;
+    *)
+        echo "Uso: $0 extract <jar> <dir> | train <dir> | benchmark <dir> <jar>"
+        exit 1
+        ;;
+esac
@@ -25,6 +25,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
 
+    // Único endpoint de /api/data/** que requiere token (ADMIN): devuelve líneas del log de la aplicación
+    static final String CORE_EVENT_LOGS_PATH = "/api/data/subscriptions/logs";
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -127,7 +130,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     
     private boolean isPublicEndpoint(String requestURI) {
         return requestURI.startsWith("/api/core/") ||
-               requestURI.startsWith("/api/data/") ||
+               (requestURI.startsWith("/api/data/") && !requestURI.equals(CORE_EVENT_LOGS_PATH)) ||
                requestURI.equals("/api/auth/register") ||
                requestURI.equals("/api/auth/login") ||
                requestURI.startsWith("/actuator/") ||
@@ -1,5 +1,6 @@
 package backend_api.Backend.Auth;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -87,6 +88,9 @@ public class SecurityConfig {
                 .sessionManagement((session) -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests((authorize) -> authorize
 
+                        // Respuestas de SSE/long-poll: el request original ya fue autorizado
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         .requestMatchers(SWAGGER_WHITELIST).permitAll()
 
                         .requestMatchers("/api/auth/register").permitAll()
@@ -95,12 +99,15 @@ public class SecurityConfig {
                         // Asegurar acceso público a Actuator también en la cadena principal
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/health").permitAll()
+                        // Logs de la aplicación (tail, búsqueda y seguimiento): traen emails, ids y montos de pagos
+                        .requestMatchers("/logs", "/logs/**").hasRole(ROLE_ADMIN)
                         // Endpoints de prueba para eventos (solo para desarrollo)
                         .requestMatchers("/api/test/events/**").permitAll()
                         // CORE HUB Integration endpoints - públicos
                         .requestMatchers("/api/core/**").permitAll()
                         .requestMatchers("/api/rabbitmq/**").permitAll()
-                        // Data subscription endpoints - públicos
+                        // Data subscription endpoints - públicos, salvo los logs: traen ids, montos y emails de pagos
+                        .requestMatchers(HttpMethod.GET, JwtAuthFilter.CORE_EVENT_LOGS_PATH).hasRole(ROLE_ADMIN)
                         .requestMatchers("/api/data/**").permitAll()
                         // Webhook endpoints - públicos
                         .requestMatchers("/api/core/webhook/**").permitAll()
@@ -132,6 +139,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/payments/{id}/retry-balance").hasAnyRole(ROLE_USER)
                         .requestMatchers(HttpMethod.GET, "/api/payments/{id}/exists").hasAnyRole(ROLE_USER, ROLE_MERCHANT, ROLE_ADMIN)
                         .requestMatchers(HttpMethod.GET, "/api/payments/{id}/timeline").hasAnyRole(ROLE_USER, ROLE_MERCHANT, ROLE_ADMIN)
+                        .requestMatchers(HttpMethod.GET, "/api/payments/{id}/status/stream").hasAnyRole(ROLE_USER, ROLE_MERCHANT, ROLE_ADMIN)
+                        .requestMatchers(HttpMethod.GET, "/api/payments/{id}/status/poll").hasAnyRole(ROLE_USER, ROLE_MERCHANT, ROLE_ADMIN)
                         
                         // Otros endpoints específicos
                         .requestMatchers(HttpMethod.POST, "/api/payments").hasAnyRole(ROLE_USER, ROLE_MERCHANT)
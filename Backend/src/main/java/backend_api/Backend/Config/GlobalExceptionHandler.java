@@ -1,5 +1,6 @@
 package backend_api.Backend.Config;
 
+import backend_api.Backend.document.DocumentRenderRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -104,6 +105,26 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles PDF render pool saturation or render timeouts (503 Service Unavailable)
+     * The client can retry after a few seconds
+     */
+    @ExceptionHandler(DocumentRenderRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleDocumentRenderRejectedException(
+            DocumentRenderRejectedException ex, WebRequest request) {
+        
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.put("error", "Service Unavailable");
+        errorResponse.put("message", ex.getMessage());
+        errorResponse.put("path", request.getDescription(false).replace("uri=", ""));
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(org.springframework.http.HttpHeaders.RETRY_AFTER, "5")
+                .body(errorResponse);
+    }
+
     /**
      * Handles runtime exceptions (500 Internal Server Error)
      * This includes JWT processing errors and other unexpected errors
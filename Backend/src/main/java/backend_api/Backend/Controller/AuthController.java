@@ -6,14 +6,21 @@ import backend_api.Backend.DTO.auth.AuthResponse;
 import backend_api.Backend.Entity.user.User;
 import backend_api.Backend.Entity.user.UserRole;
 import backend_api.Backend.Entity.UserData;
-import backend_api.Backend.Entity.ProviderData;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Repository.UserDataRepository;
-import backend_api.Backend.Repository.ProviderDataRepository;
 import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.login.LoginBusyException;
+import backend_api.Backend.login.LoginIdentity;
+import backend_api.Backend.login.LoginIdentityIndex;
+import backend_api.Backend.login.PasswordVerifier;
+import backend_api.Backend.login.VerifiedCredentialCache;
+import backend_api.Backend.resilience.DependencyGuard;
+import backend_api.Backend.resilience.DependencyUnavailableException;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -54,9 +61,6 @@ public class AuthController {
     @Autowired
     private UserDataRepository userDataRepository;
     
-    @Autowired
-    private ProviderDataRepository providerDataRepository;
-    
     @Autowired
     private PasswordEncoder passwordEncoder;
     
@@ -64,8 +68,25 @@ public class AuthController {
     private JwtUtil jwtUtil;
     
     @Autowired
+    private LoginIdentityIndex loginIdentityIndex;
+    
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+    
+    @Autowired
+    private PasswordVerifier passwordVerifier;
+    
+    @Autowired
+    @Qualifier("userModuleRestTemplate")
     private RestTemplate restTemplate;
 
+    @Autowired
+    @Qualifier("userModuleGuard")
+    private DependencyGuard userModuleGuard;
+
+    @Value("${users.module.login-url:http://dev.desarrollo2-usuarios.shop:8081/api/users/login}")
+    private String userModuleLoginUrl;
+
     @Operation(
         summary = "Registrar nuevo usuario",
         description = "Crea una nueva cuenta de usuario en el sistema. Los usuarios tipo USER reciben un saldo inicial aleatorio entre $10,000 y $50,000."
@@ -229,6 +250,11 @@ public class AuthController {
                 )
             )
         ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Demasiados logins en curso; reintentar después de Retry-After",
+            content = @Content(mediaType = "application/json")
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Error interno del servidor",
@@ -254,62 +280,42 @@ public class AuthController {
             String email = request.getEmail();
             String password = request.getPassword();
             
-            // 1. Primero buscar en usuarios sincronizados (user_data table) - PRIORIDAD
-            log.info("🔍 Buscando usuario sincronizado para email: {}", email);
-            Optional<UserData> syncedUser;
-            UserData userData = null;
-            try {
-                syncedUser = userDataRepository.findFirstByEmail(email); // Usar findFirst para evitar NonUniqueResultException
-                log.info("🔍 Resultado búsqueda user_data: {}", syncedUser.isPresent() ? "ENCONTRADO" : "NO ENCONTRADO");
-                
-                // Cerrar la transacción de lectura antes de la llamada HTTP externa
-                if (syncedUser.isPresent()) {
-                    userData = syncedUser.get();
-                    log.info("✅ Usuario sincronizado encontrado - userId: {}, email: {}, name: {}, role: {}", 
-                        userData.getUserId(), userData.getEmail(), userData.getName(), userData.getRole());
-                }
-            } catch (Exception e) {
-                log.error("❌ Error buscando en user_data: {}", e.getMessage(), e);
-                syncedUser = Optional.empty();
-            }
+            // 1. Identidad por email: user_data (PRIORIDAD), provider_data y users, en ese orden
+            Optional<LoginIdentity> identity = loginIdentityIndex.resolve(email);
             
-            // Validar usuario sincronizado (fuera de la transacción de DB para evitar connection leak)
-            if (userData != null) {
+            if (identity.isPresent() && identity.get().kind() == LoginIdentity.Kind.USER) {
+                LoginIdentity userData = identity.get();
+                log.info("✅ Usuario sincronizado encontrado - userId: {}, email: {}, name: {}, role: {}", 
+                    userData.id(), userData.email(), userData.name(), userData.role());
                 try {
                     // Validar si el usuario está activo
-                    if (userData.getActive() == null || !userData.getActive()) {
+                    if (!userData.active()) {
                         log.warn("❌ Usuario desactivado intentando hacer login: {}", email);
-                        Map<String, Object> errorResponse = new java.util.HashMap<>();
-                        errorResponse.put("error", "Usuario desactivado");
-                        errorResponse.put("message", "Su cuenta ha sido desactivada. Por favor, contacte al administrador para más información.");
-                        errorResponse.put("code", "USER_DEACTIVATED");
-                        errorResponse.put("active", false);
-                        return new ResponseEntity<Map<String, Object>>(errorResponse, HttpStatus.FORBIDDEN);
+                        return deactivatedResponse("Usuario desactivado", "USER_DEACTIVATED");
                     }
                     
                     // Para usuarios sincronizados, DEBE validarse contra el módulo externo
                     // NO hay fallback inseguro - si el módulo no responde, el login falla
-                    boolean passwordValid = validatePasswordWithUserModule(email, password);
+                    boolean passwordValid = validatePasswordWithUserModule(userData, password);
                     
                     log.info("🔐 Validación de contraseña: {}", passwordValid);
                     
                     if (passwordValid) {
-                        String systemRole = convertUserModuleRoleToSystemRole(userData.getRole());
-                        log.info("🔄 Rol convertido de '{}' a '{}'", userData.getRole(), systemRole);
+                        String systemRole = convertUserModuleRoleToSystemRole(userData.role());
+                        log.info("🔄 Rol convertido de '{}' a '{}'", userData.role(), systemRole);
                         
                         // Validar que no haya valores nulos antes de generar token
-                        String userName = userData.getName() != null ? userData.getName() : "Usuario";
-                        log.info("📝 Usando nombre: {}", userName);
+                        String userName = userData.name() != null ? userData.name() : "Usuario";
                         
-                        String token = jwtUtil.generateToken(userData.getEmail(), 86400000L, List.of(systemRole));
+                        String token = jwtUtil.generateToken(userData.email(), 86400000L, List.of(systemRole));
                         AuthResponse response = new AuthResponse(
                             token, 
-                            userData.getUserId(), 
-                            userData.getEmail(), 
+                            userData.id(), 
+                            userData.email(), 
                             userName, 
                             systemRole
                         );
-                        log.info("🎉 Login exitoso con usuario sincronizado - userId: {}", userData.getUserId());
+                        log.info("🎉 Login exitoso con usuario sincronizado - userId: {}", userData.id());
                         return new ResponseEntity<>(response, HttpStatus.OK);
                     } else {
                         log.warn("❌ Contraseña inválida o módulo de usuarios no disponible para usuario sincronizado: {}", email);
@@ -319,76 +325,55 @@ public class AuthController {
                     log.error("❌ Error procesando usuario sincronizado: {}", e.getMessage(), e);
                     return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
                 }
-            } else {
-                log.info("❌ Usuario sincronizado NO encontrado para email: {}", email);
             }
             
-            // 1b. Buscar también en provider_data (prestadores sincronizados)
-            ProviderData providerData = null;
-            try {
-                Optional<ProviderData> syncedProvider = providerDataRepository.findByEmail(email);
-                log.info("🔍 Buscando prestador sincronizado para email: {}", email);
-                if (syncedProvider.isPresent()) {
-                    providerData = syncedProvider.get();
-                    log.info("✅ Prestador sincronizado encontrado - providerId: {}, email: {}", 
-                        providerData.getProviderId(), providerData.getEmail());
-                }
-            } catch (Exception e) {
-                log.error("❌ Error buscando prestador sincronizado: {}", e.getMessage(), e);
-            }
-            
-            // Validar prestador sincronizado (fuera de la transacción de DB)
-            if (providerData != null) {
+            // 1b. Prestador sincronizado (provider_data)
+            if (identity.isPresent() && identity.get().kind() == LoginIdentity.Kind.PROVIDER) {
+                LoginIdentity providerData = identity.get();
+                log.info("✅ Prestador sincronizado encontrado - providerId: {}, email: {}", 
+                    providerData.id(), providerData.email());
                 // Validar si el prestador está activo
-                if (providerData.getActive() == null || !providerData.getActive()) {
+                if (!providerData.active()) {
                     log.warn("❌ Prestador desactivado intentando hacer login: {}", email);
-                    Map<String, Object> errorResponse = new java.util.HashMap<>();
-                    errorResponse.put("error", "Prestador desactivado");
-                    errorResponse.put("message", "Su cuenta ha sido desactivada. Por favor, contacte al administrador para más información.");
-                    errorResponse.put("code", "PROVIDER_DEACTIVATED");
-                    errorResponse.put("active", false);
-                    return new ResponseEntity<Map<String, Object>>(errorResponse, HttpStatus.FORBIDDEN);
+                    return deactivatedResponse("Prestador desactivado", "PROVIDER_DEACTIVATED");
                 }
                 
                 // Validar contraseña con el módulo externo - NO hay fallback inseguro
-                boolean passwordValid = validatePasswordWithUserModule(email, password);
+                boolean passwordValid = validatePasswordWithUserModule(providerData, password);
                 
                 log.info("🔐 Validación de contraseña para prestador: {}", passwordValid);
                 
                 if (passwordValid) {
                     // Prestadores son MERCHANT por defecto
-                    String token = jwtUtil.generateToken(providerData.getEmail(), 86400000L, List.of("MERCHANT"));
+                    String token = jwtUtil.generateToken(providerData.email(), 86400000L, List.of("MERCHANT"));
                     AuthResponse response = new AuthResponse(
                         token, 
-                        providerData.getProviderId(), 
-                        providerData.getEmail(), 
-                        providerData.getName(), 
+                        providerData.id(), 
+                        providerData.email(), 
+                        providerData.name(), 
                         "MERCHANT"
                     );
-                    log.info("🎉 Login exitoso con prestador sincronizado - providerId: {}", providerData.getProviderId());
+                    log.info("🎉 Login exitoso con prestador sincronizado - providerId: {}", providerData.id());
                     return new ResponseEntity<>(response, HttpStatus.OK);
                 } else {
                     log.warn("❌ Contraseña inválida o módulo de usuarios no disponible para prestador sincronizado: {}", email);
                     return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
                 }
-            } else {
-                log.info("❌ Prestador sincronizado NO encontrado para email: {}", email);
             }
             
-            // 2. Si no está en usuarios sincronizados, buscar en usuarios locales (users table)
-            Optional<User> localUser = userRepository.findByEmail(email);
-            if (localUser.isPresent()) {
-                User user = localUser.get();
-                log.info("✅ Usuario local encontrado - userId: {}, email: {}, role: {}", user.getId(), user.getEmail(), user.getRole());
-                if (passwordEncoder.matches(password, user.getPassword())) {
-                    String token = jwtUtil.generateToken(user.getEmail(), 86400000L, List.of(user.getRole().toString()));
-                    log.info("🎉 Token generado con rol: {}", user.getRole().toString());
+            // 2. Usuario local (users table): BCrypt en el pool acotado, no en el hilo de Tomcat
+            if (identity.isPresent()) {
+                LoginIdentity user = identity.get();
+                log.info("✅ Usuario local encontrado - userId: {}, email: {}, role: {}", user.id(), user.email(), user.role());
+                if (passwordVerifier.matches(password, user.passwordHash())) {
+                    String token = jwtUtil.generateToken(user.email(), 86400000L, List.of(user.role()));
+                    log.info("🎉 Token generado con rol: {}", user.role());
                     AuthResponse response = new AuthResponse(
                         token, 
-                        user.getId(), 
-                        user.getEmail(), 
-                        user.getName(), 
-                        user.getRole().toString()
+                        user.id(), 
+                        user.email(), 
+                        user.name(), 
+                        user.role()
                     );
                     return new ResponseEntity<>(response, HttpStatus.OK);
                 } else {
@@ -417,6 +402,15 @@ public class AuthController {
             // 4. Usuario no encontrado en ninguna tabla
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
             
+        } catch (LoginBusyException e) {
+            log.warn("⏳ Login rechazado por carga: {}", e.getMessage());
+            Map<String, Object> errorResponse = new java.util.HashMap<>();
+            errorResponse.put("error", "Servicio saturado");
+            errorResponse.put("message", "Demasiados intentos de login en curso. Reintente en unos segundos.");
+            errorResponse.put("code", "LOGIN_BUSY");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
         } catch (Exception e) {
             // En caso de error inesperado, devolver 500 para excepciones de base de datos
             // y 401 para otros errores de autenticación
@@ -432,6 +426,31 @@ public class AuthController {
         }
     }
     
+    private ResponseEntity<Map<String, Object>> deactivatedResponse(String error, String code) {
+        Map<String, Object> errorResponse = new java.util.HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", "Su cuenta ha sido desactivada. Por favor, contacte al administrador para más información.");
+        errorResponse.put("code", code);
+        errorResponse.put("active", false);
+        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+    }
+    
+    /**
+     * Valida la contraseña de un usuario o prestador sincronizado: primero contra las
+     * credenciales validadas hace poco y, si no está, contra el módulo de usuarios
+     */
+    private boolean validatePasswordWithUserModule(LoginIdentity identity, String password) {
+        if (password != null && verifiedCredentialCache.matches(identity, password)) {
+            log.debug("⚡ Credenciales de {} validadas desde cache", identity.email());
+            return true;
+        }
+        boolean valid = validatePasswordWithUserModule(identity.email(), password);
+        if (valid) {
+            verifiedCredentialCache.put(identity, password);
+        }
+        return valid;
+    }
+    
     private String convertUserModuleRoleToSystemRole(String userModuleRole) {
         log.debug("🔄 Convirtiendo rol del módulo: '{}'", userModuleRole);
         
@@ -471,7 +490,6 @@ public class AuthController {
                 return false;
             }
             
-            String userModuleUrl = "http://dev.desarrollo2-usuarios.shop:8081/api/users/login";
             Map<String, String> loginRequest = Map.of(
                 "email", email,
                 "password", password
@@ -479,13 +497,17 @@ public class AuthController {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(loginRequest, headers);
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                userModuleUrl, 
+            ResponseEntity<Map<String, Object>> response = userModuleGuard.execute(() -> restTemplate.exchange(
+                userModuleLoginUrl, 
                 HttpMethod.POST, 
                 requestEntity, 
                 new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
-            );
+            ));
             return response.getStatusCode().is2xxSuccessful();
+        } catch (DependencyUnavailableException e) {
+            // Falla rápida: el módulo está degradado, no se espera el timeout completo
+            log.warn("⚡ Módulo de usuarios no disponible, login de {} rechazado: {}", email, e.getMessage());
+            return false;
         } catch (org.springframework.web.client.ResourceAccessException e) {
             // Timeout o problemas de conexión
             if (e.getMessage() != null && e.getMessage().contains("timeout")) {
@@ -506,7 +528,6 @@ public class AuthController {
      */
     private Map<String, Object> validateAndGetUserDataFromUserModule(String email, String password) {
         try {
-            String userModuleUrl = "http://dev.desarrollo2-usuarios.shop:8081/api/users/login";
             Map<String, String> loginRequest = Map.of(
                 "email", email,
                 "password", password
@@ -516,12 +537,12 @@ public class AuthController {
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(loginRequest, headers);
             
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                userModuleUrl, 
+            ResponseEntity<Map<String, Object>> response = userModuleGuard.execute(() -> restTemplate.exchange(
+                userModuleLoginUrl, 
                 HttpMethod.POST, 
                 requestEntity, 
                 new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> responseData = response.getBody();
@@ -7,7 +7,9 @@ import backend_api.Backend.messaging.service.UserEventProcessorService;
 import backend_api.Backend.messaging.service.CoreHubService;
 import backend_api.Backend.messaging.service.PaymentRequestProcessorService;
 import backend_api.Backend.messaging.service.ProviderEventProcessorService;
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
 import backend_api.Backend.Service.Interface.PaymentEventService;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.payment.PaymentEventType;
 import backend_api.Backend.Entity.payment.PaymentEvent;
 import backend_api.Backend.Repository.PaymentEventRepository;
@@ -36,7 +38,7 @@ public class CoreWebhookController {
     private final ProviderEventProcessorService providerEventProcessorService;
     private final PaymentEventService paymentEventService;
     private final PaymentEventRepository paymentEventRepository;
-    private final ObjectMapper objectMapper;
+    private final PaymentEventPayloadCodec paymentEventPayloadCodec;
 
     @PostMapping("/payment-events")
     public ResponseEntity<Map<String, String>> receivePaymentEvent(@RequestBody Object rawMessage) {
@@ -621,23 +623,13 @@ public class CoreWebhookController {
             // Mapear newStatus a PaymentEventType
             PaymentEventType eventType = mapStatusToEventType(newStatusStr);
 
-            // Crear payload JSON para el evento
-            Map<String, Object> eventPayload = new java.util.HashMap<>();
-            eventPayload.put("oldStatus", oldStatusStr);
-            eventPayload.put("newStatus", newStatusStr);
-            eventPayload.put("reason", reason);
-            eventPayload.put("amountTotal", payload.get("amountTotal"));
-            eventPayload.put("currency", payload.get("currency"));
-            eventPayload.put("gatewayTxnId", payload.get("gatewayTxnId"));
-            eventPayload.put("coreMessageId", message.getMessageId());
-
-            String payloadJson = objectMapper.writeValueAsString(eventPayload);
-
             // Guardar evento en payment_events con correlationId para idempotencia
             PaymentEvent event = new PaymentEvent();
             event.setPaymentId(paymentId);
             event.setType(eventType);
-            event.setPayload(payloadJson);
+            paymentEventPayloadCodec.write(event, new PaymentEventPayload.CoreStatusUpdated(
+                    oldStatusStr, newStatusStr, reason, payload.get("amountTotal"), payload.get("currency"),
+                    payload.get("gatewayTxnId"), message.getMessageId()));
             event.setActor("CORE");
             event.setEventSource("CORE_WEBHOOK");
             event.setCorrelationId(message.getMessageId()); // Guardar messageId para idempotencia
@@ -672,22 +664,13 @@ public class CoreWebhookController {
             }
             Long paymentId = ((Number) paymentIdObj).longValue();
 
-            // Crear payload JSON para el evento
-            Map<String, Object> eventPayload = new java.util.HashMap<>();
-            eventPayload.put("methodType", payload.get("methodType"));
-            eventPayload.put("methodId", payload.get("methodId"));
-            eventPayload.put("userId", payload.get("userId"));
-            eventPayload.put("selectedAt", payload.get("selectedAt"));
-            eventPayload.put("methodSnapshot", payload.get("methodSnapshot"));
-            eventPayload.put("coreMessageId", message.getMessageId());
-
-            String payloadJson = objectMapper.writeValueAsString(eventPayload);
-
             // Guardar evento en payment_events con correlationId para idempotencia
             PaymentEvent event = new PaymentEvent();
             event.setPaymentId(paymentId);
             event.setType(PaymentEventType.PAYMENT_METHOD_UPDATED);
-            event.setPayload(payloadJson);
+            paymentEventPayloadCodec.write(event, new PaymentEventPayload.CoreMethodSelected(
+                    payload.get("methodType"), payload.get("methodId"), payload.get("userId"),
+                    payload.get("selectedAt"), payload.get("methodSnapshot"), message.getMessageId()));
             event.setActor("CORE");
             event.setEventSource("CORE_WEBHOOK");
             event.setCorrelationId(message.getMessageId()); // Guardar messageId para idempotencia
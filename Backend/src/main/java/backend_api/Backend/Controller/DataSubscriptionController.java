@@ -5,6 +5,7 @@ import backend_api.Backend.Auth.JwtUtil;
 import backend_api.Backend.Entity.UserData;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Service.Implementation.DataStorageServiceImpl;
+import backend_api.Backend.logs.LogAccessService;
 import backend_api.Backend.messaging.service.CoreHubService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,7 @@ import backend_api.Backend.Repository.ProviderDataRepository;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/data/subscriptions")
@@ -27,12 +29,15 @@ import java.util.Optional;
 @Slf4j
 public class DataSubscriptionController {
 
+    private static final Pattern CORE_EVENT_LOG_PATTERN = Pattern.compile("Pago|Payment|CORE|Evento");
+
     private final CoreHubService coreHubService;
     private final UserDataRepository userDataRepository;
     private final RestTemplate restTemplate;
     private final JwtUtil jwtUtil;
     private final DataStorageServiceImpl dataStorageService;
     private final ProviderDataRepository providerDataRepository;
+    private final LogAccessService logAccessService;
 
     @PostMapping("/subscribe-all")
     public ResponseEntity<?> subscribeToAllDataEvents() {
@@ -224,16 +229,13 @@ public class DataSubscriptionController {
     }
 
     @GetMapping("/logs")
-    public ResponseEntity<?> getRecentLogs() {
+    public ResponseEntity<?> getRecentLogs(@RequestParam(defaultValue = "20") int lines) {
         try {
             return ResponseEntity.ok(Map.of(
                 "status", "success",
-                "message", "Para ver los logs en tiempo real, ejecuta:",
-                "commands", new String[]{
-                    "tail -f logs/application.log | grep -E '(Pago|Payment|CORE|Evento)'",
-                    "grep -E '(Pago|Payment|CORE|Evento)' logs/application.log | tail -20",
-                    "docker logs -f <container_name> | grep -E '(Pago|Payment|CORE|Evento)'"
-                },
+                "message", "Últimos eventos enviados al CORE Hub (GET /logs/follow?q=CORE para seguirlos en vivo)",
+                "file", logAccessService.getLogFile().toString(),
+                "lines", logAccessService.tail(lines, CORE_EVENT_LOG_PATTERN),
                 "note", "Los logs muestran cuando se envían eventos al CORE Hub",
                 "lookFor", new String[]{
                     "🚀 Enviando evento de pago al CORE Hub",
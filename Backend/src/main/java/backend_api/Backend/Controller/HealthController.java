@@ -1,8 +1,16 @@
 package backend_api.Backend.Controller;
 
+import backend_api.Backend.logs.LogAccessService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,14 +18,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.regex.Pattern;
 
 @RestController
 @Tag(name = "Health Check", description = "Endpoint para verificar el estado del servicio")
+@RequiredArgsConstructor
 public class HealthController {
 
+    private final LogAccessService logAccessService;
+
     @Operation(
         summary = "Verificar estado del servicio",
         description = "Endpoint simple para verificar que el servicio está funcionando correctamente"
@@ -42,27 +55,64 @@ public class HealthController {
 
     @Operation(
         summary = "Ver logs de la aplicación",
-        description = "Endpoint para ver los logs recientes de la aplicación"
+        description = "Últimas líneas del log de la aplicación, leídas desde el final del archivo"
     )
     @GetMapping("/logs")
-    public ResponseEntity<String> logs() {
+    public ResponseEntity<String> logs(@RequestParam(defaultValue = "50") int lines) {
         try {
-            // Intentar leer el archivo de logs
-            List<String> logLines = Files.readAllLines(Paths.get("/app/logs/application.log"));
-            
-            // Tomar las últimas 50 líneas
-            int startIndex = Math.max(0, logLines.size() - 50);
-            List<String> recentLogs = logLines.subList(startIndex, logLines.size());
-            
-            String logs = String.join("\n", recentLogs);
-            return ResponseEntity.ok("=== ÚLTIMOS LOGS ===\n" + logs);
-            
+            List<String> recentLogs = logAccessService.tail(lines, null);
+            // Los logs llevan emojis y acentos: sin charset explícito salen en ISO-8859-1
+            return ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body("=== ÚLTIMOS LOGS ===\n" + String.join("\n", recentLogs));
         } catch (IOException e) {
             return ResponseEntity.ok("Error leyendo logs: " + e.getMessage() + 
                 "\n\n=== LOGS DE CONSOLA ===\n" +
                 "Los logs están en la consola del contenedor Docker");
         }
     }
-}
 
+    @Operation(
+        summary = "Buscar en los logs",
+        description = "Líneas que contienen la palabra clave (o coinciden con la regex) en el log actual y los rotados. " +
+                      "El resultado se escribe a medida que se encuentra y se corta en max coincidencias o por timeout"
+    )
+    @GetMapping("/logs/search")
+    public ResponseEntity<StreamingResponseBody> searchLogs(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean regex,
+            @RequestParam(defaultValue = "200") int max,
+            @RequestParam(defaultValue = "true") boolean rotated) {
+        Pattern pattern = logAccessService.compile(q, regex);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            LogAccessService.SearchSummary summary = logAccessService.search(pattern, max, rotated, writer);
+            writer.write("=== " + summary.matches() + " coincidencias en " + summary.files() + " archivos"
+                    + (summary.truncated() ? " (búsqueda cortada)" : "") + " ===\n");
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(body);
+    }
 
+    @Operation(
+        summary = "Seguir los logs en vivo",
+        description = "Stream SSE (evento log) con las líneas nuevas del log, opcionalmente filtradas por palabra clave o regex"
+    )
+    @GetMapping(value = "/logs/follow", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> followLogs(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "false") boolean regex,
+            @RequestParam(defaultValue = "20") int lines) throws IOException {
+        Pattern filter = q != null ? logAccessService.compile(q, regex) : null;
+        return logAccessService.follow(filter, lines)
+                // El converter de String usa el charset del Content-Type de la respuesta
+                .map(emitter -> ResponseEntity.ok()
+                        .contentType(new MediaType(MediaType.TEXT_EVENT_STREAM, StandardCharsets.UTF_8))
+                        .body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "30")
+                        .build());
+    }
+}
@@ -5,11 +5,20 @@ import backend_api.Backend.Entity.invoice.InvoiceStatus;
 import backend_api.Backend.Service.Interface.InvoiceService;
 import backend_api.Backend.Service.Common.AuthenticationService;
 import backend_api.Backend.Service.Common.EntityValidationService;
+import backend_api.Backend.Service.Common.ResourceETagService;
+import backend_api.Backend.Service.Common.AggregateReadCoalescer;
+import backend_api.Backend.Auth.SecurityUtils;
 import backend_api.Backend.Entity.user.User;
+import backend_api.Backend.document.DocumentResponses;
+import backend_api.Backend.document.StoredDocument;
+import backend_api.Backend.invoicing.InvoiceGenerationEngine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -17,9 +26,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -41,6 +55,9 @@ public class InvoiceController {
     
     private final InvoiceService invoiceService;
     private final AuthenticationService authenticationService;
+    private final ResourceETagService resourceETagService;
+    private final AggregateReadCoalescer aggregateReadCoalescer;
+    private final InvoiceGenerationEngine invoiceGenerationEngine;
     
     
     @Operation(
@@ -168,18 +185,21 @@ public class InvoiceController {
             required = true,
             example = "1"
         )
-        @PathVariable Long id) {
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Obteniendo factura con ID: {}", id);
-        InvoiceResponse response = invoiceService.getInvoiceById(id);
-        return ResponseEntity.ok(response);
+        return conditionalGet(resourceETagService.invoiceETag(id, currentRoles()), ifNoneMatch,
+                () -> invoiceService.getInvoiceById(id));
     }
     
     @GetMapping("/number/{invoiceNumber}")
     @PreAuthorize("hasRole('MERCHANT') or hasRole('USER')")
-    public ResponseEntity<InvoiceResponse> getInvoiceByNumber(@PathVariable String invoiceNumber) {
+    public ResponseEntity<InvoiceResponse> getInvoiceByNumber(
+            @PathVariable String invoiceNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Obteniendo factura con número: {}", invoiceNumber);
-        InvoiceResponse response = invoiceService.getInvoiceByNumber(invoiceNumber);
-        return ResponseEntity.ok(response);
+        return conditionalGet(resourceETagService.invoiceETagByNumber(invoiceNumber, currentRoles()), ifNoneMatch,
+                () -> invoiceService.getInvoiceByNumber(invoiceNumber));
     }
     
     @PutMapping("/{id}")
@@ -252,9 +272,10 @@ public class InvoiceController {
     public ResponseEntity<Page<InvoiceResponse>> getInvoicesByUserId(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean includeLines) {
         log.info("Obteniendo facturas para el ID de usuario: {}", userId);
-        Page<InvoiceResponse> response = invoiceService.getInvoicesByUserId(userId, page, size);
+        Page<InvoiceResponse> response = invoiceService.getInvoicesByUserId(userId, page, size, includeLines);
         return ResponseEntity.ok(response);
     }
     
@@ -263,9 +284,10 @@ public class InvoiceController {
     public ResponseEntity<Page<InvoiceResponse>> getInvoicesByProviderId(
             @PathVariable Long providerId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean includeLines) {
         log.info("Obteniendo facturas para el ID de proveedor: {}", providerId);
-        Page<InvoiceResponse> response = invoiceService.getInvoicesByProviderId(providerId, page, size);
+        Page<InvoiceResponse> response = invoiceService.getInvoicesByProviderId(providerId, page, size, includeLines);
         return ResponseEntity.ok(response);
     }
     
@@ -274,10 +296,11 @@ public class InvoiceController {
     public ResponseEntity<Page<InvoiceResponse>> getInvoicesByStatus(
             @PathVariable String status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean includeLines) {
         log.info("Buscando facturas con estado: {}", status);
         InvoiceStatus invoiceStatus = InvoiceStatus.valueOf(status.toUpperCase());
-        Page<InvoiceResponse> response = invoiceService.getInvoicesByStatus(invoiceStatus, page, size);
+        Page<InvoiceResponse> response = invoiceService.getInvoicesByStatus(invoiceStatus, page, size, includeLines);
         return ResponseEntity.ok(response);
     }
     
@@ -316,27 +339,21 @@ public class InvoiceController {
     
     @GetMapping("/{id}/pdf/download")
     @PreAuthorize("hasRole('MERCHANT') or hasRole('USER')")
-    public ResponseEntity<byte[]> downloadPdf(@PathVariable Long id) {
+    public void downloadPdf(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         log.info("Descargando PDF para la factura ID: {}", id);
-        byte[] pdfContent = invoiceService.downloadPdf(id);
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", "invoice_" + id + ".pdf");
-        headers.setContentLength(pdfContent.length);
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(pdfContent);
+        StoredDocument document = invoiceService.getPdfDocument(id);
+        DocumentResponses.writePdf(document, "invoice_" + id + ".pdf", request, response);
     }
     
     
     @GetMapping("/{id}/timeline")
     @PreAuthorize("hasRole('MERCHANT') or hasRole('USER')")
-    public ResponseEntity<List<InvoiceEventResponse>> getInvoiceTimeline(@PathVariable Long id) {
+    public ResponseEntity<List<InvoiceEventResponse>> getInvoiceTimeline(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Obteniendo la línea de tiempo para la factura ID: {}", id);
-        List<InvoiceEventResponse> response = invoiceService.getInvoiceTimeline(id);
-        return ResponseEntity.ok(response);
+        return conditionalGet(resourceETagService.timelineETag(id, currentRoles()), ifNoneMatch,
+                () -> invoiceService.getInvoiceTimeline(id));
     }
     
     
@@ -344,7 +361,8 @@ public class InvoiceController {
     @PreAuthorize("hasRole('MERCHANT')")
     public ResponseEntity<InvoiceSummaryResponse> getInvoiceSummary(@PathVariable Long providerId) {
         log.info("Obteniendo resumen de facturas para el ID de proveedor: {}", providerId);
-        InvoiceSummaryResponse response = invoiceService.getInvoiceSummary(providerId);
+        InvoiceSummaryResponse response = aggregateReadCoalescer.load(AggregateReadCoalescer.Query.INVOICE_SUMMARY,
+                null, providerId, () -> invoiceService.getInvoiceSummary(providerId));
         return ResponseEntity.ok(response);
     }
     
@@ -352,16 +370,18 @@ public class InvoiceController {
     @PreAuthorize("hasRole('MERCHANT') or hasRole('USER')")
     public ResponseEntity<InvoiceSummaryResponse> getInvoiceSummaryByUser(@PathVariable Long userId) {
         log.info("Obteniendo resumen de facturas para el ID de usuario: {}", userId);
-        InvoiceSummaryResponse response = invoiceService.getInvoiceSummaryByUser(userId);
+        InvoiceSummaryResponse response = aggregateReadCoalescer.load(AggregateReadCoalescer.Query.INVOICE_SUMMARY_BY_USER,
+                null, userId, () -> invoiceService.getInvoiceSummaryByUser(userId));
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/due-soon")
     @PreAuthorize("hasRole('MERCHANT')")
     public ResponseEntity<List<InvoiceResponse>> getInvoicesDueSoon(
-            @RequestParam(defaultValue = "7") int days) {
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "true") boolean includeLines) {
         log.info("Obteniendo facturas que vencen en {} días", days);
-        List<InvoiceResponse> response = invoiceService.getInvoicesDueSoon(days);
+        List<InvoiceResponse> response = invoiceService.getInvoicesDueSoon(days, includeLines);
         return ResponseEntity.ok(response);
     }
     
@@ -374,6 +394,19 @@ public class InvoiceController {
         InvoiceResponse response = invoiceService.createInvoiceFromPayment(paymentId);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    // POST /api/invoices/generate-from-payments - Facturar en lote los pagos aprobados sin factura del rango
+    @PostMapping("/generate-from-payments")
+    @PreAuthorize("hasRole('MERCHANT')")
+    public ResponseEntity<InvoiceGenerationEngine.GenerationResult> generateInvoicesFromPayments(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("El inicio del rango debe ser anterior al fin");
+        }
+        log.info("Generando facturas de pagos aprobados entre {} y {}", from, to);
+        return ResponseEntity.ok(invoiceGenerationEngine.backfill(from, to));
+    }
     
     
     // GET /api/invoices/my-invoices - Obtener MIS facturas usando el token
@@ -381,6 +414,7 @@ public class InvoiceController {
     public ResponseEntity<Page<InvoiceResponse>> getMyInvoices(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean includeLines,
             @RequestHeader("Authorization") String authHeader) {
         try {
             User user = authenticationService.getUserFromToken(authHeader);
@@ -388,7 +422,7 @@ public class InvoiceController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
 
-            Page<InvoiceResponse> response = invoiceService.getInvoicesByUserId(user.getId(), page, size);
+            Page<InvoiceResponse> response = invoiceService.getInvoicesByUserId(user.getId(), page, size, includeLines);
             return ResponseEntity.ok(response);
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -408,7 +442,8 @@ public class InvoiceController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
 
-            InvoiceSummaryResponse response = invoiceService.getInvoiceSummaryByUser(user.getId());
+            InvoiceSummaryResponse response = aggregateReadCoalescer.load(AggregateReadCoalescer.Query.INVOICE_SUMMARY_BY_USER,
+                    null, user.getId(), () -> invoiceService.getInvoiceSummaryByUser(user.getId()));
             return ResponseEntity.ok(response);
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -417,4 +452,26 @@ public class InvoiceController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // Sin ETag (la consulta de versión no encontró el recurso) se delega al service, que responde 404 como siempre
+    private <T> ResponseEntity<T> conditionalGet(Optional<String> etag, String ifNoneMatch, Supplier<T> body) {
+        if (etag.isEmpty()) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (ResourceETagService.matches(ifNoneMatch, etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag.get())
+                    .cacheControl(ResourceETagService.REVALIDATE)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag.get())
+                .cacheControl(ResourceETagService.REVALIDATE)
+                .body(body.get());
+    }
+
+    private static String currentRoles() {
+        Collection<String> roles = SecurityUtils.getCurrentUserRoles();
+        return roles == null ? "" : String.join(",", roles.stream().sorted().toList());
+    }
 }
@@ -8,15 +8,20 @@ import backend_api.Backend.Entity.payment.types.PaymentMethodType;
 import backend_api.Backend.Service.Interface.PaymentService;
 import backend_api.Backend.Service.Interface.PaymentMethodService;
 import backend_api.Backend.Service.Interface.BalanceService;
+import backend_api.Backend.DTO.payment.PaymentField;
 import backend_api.Backend.DTO.payment.PaymentResponse;
 import backend_api.Backend.DTO.payment.PagedPaymentResponse;
 import backend_api.Backend.Service.Common.AuthenticationService;
 import backend_api.Backend.Service.Common.EntityValidationService;
 import backend_api.Backend.Service.Common.ResponseMapperService;
+import backend_api.Backend.Service.Common.ResourceETagService;
+import backend_api.Backend.Service.Common.TerminalPaymentResponseCache;
+import backend_api.Backend.Service.Common.AggregateReadCoalescer;
 import backend_api.Backend.Entity.user.User;
 import backend_api.Backend.Entity.UserData;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Repository.UserRepository;
+import backend_api.Backend.Repository.PaymentRepository;
 import backend_api.Backend.DTO.payment.CreatePaymentRequest;
 import backend_api.Backend.DTO.payment.PaymentSearchRequest;
 import backend_api.Backend.DTO.payment.SelectPaymentMethodRequest;
@@ -26,16 +31,26 @@ import backend_api.Backend.Entity.payment.PaymentAttempt;
 import backend_api.Backend.Service.Interface.PaymentEventService;
 import backend_api.Backend.Service.Interface.PaymentAttemptService;
 import backend_api.Backend.Service.Interface.CardValidationService;
+import backend_api.Backend.DTO.payment.PaymentStatusEventResponse;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
+import backend_api.Backend.realtime.PaymentStatusEventBus;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.persistence.Tuple;
 import jakarta.validation.Valid;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
 import jakarta.persistence.EntityNotFoundException;
@@ -85,6 +100,18 @@ public class PaymentController {
     @Autowired
     private CardValidationService cardValidationService;
 
+    @Autowired
+    private PaymentStatusEventBus paymentStatusEventBus;
+
+    @Autowired
+    private ResourceETagService resourceETagService;
+
+    @Autowired
+    private TerminalPaymentResponseCache terminalPaymentResponseCache;
+
+    @Autowired
+    private AggregateReadCoalescer aggregateReadCoalescer;
+
     //  CREAR NUEVO PAGO 
     @Operation(
         summary = "Crear nuevo pago",
@@ -147,8 +174,7 @@ public class PaymentController {
             paymentEventService.createEvent(
                 savedPayment.getId(),
                 PaymentEventType.PAYMENT_PENDING,
-                String.format("{\"amount_total\": %s, \"currency\": \"%s\"}",
-                    savedPayment.getAmount_total(), savedPayment.getCurrency()),
+                new PaymentEventPayload.PaymentCreated(savedPayment.getAmount_total(), savedPayment.getCurrency()),
                 "user_" + user.getId()
             );
             
@@ -325,7 +351,7 @@ public class PaymentController {
                 paymentEventService.createEvent(
                     paymentId,
                     eventType,
-                    "{\"status\": \"pending_bank_approval\", \"method\": \"" + payment.getMethod().getType() + "\"}",
+                    new PaymentEventPayload.StatusChange("pending_bank_approval", payment.getMethod().getType()),
                     "system"
                 );
                 
@@ -363,7 +389,7 @@ public class PaymentController {
                         paymentEventService.createEvent(
                             paymentId,
                             PaymentEventType.PAYMENT_REJECTED,
-                            "{\"status\": \"rejected_insufficient_balance\", \"method\": \"" + payment.getMethod().getType() + "\"}",
+                            new PaymentEventPayload.StatusChange("rejected_insufficient_balance", payment.getMethod().getType()),
                             "system"
                         );
                         
@@ -382,7 +408,7 @@ public class PaymentController {
                 paymentEventService.createEvent(
                     paymentId,
                     eventType,
-                    "{\"status\": \"approved_directly\", \"method\": \"" + payment.getMethod().getType() + "\"}",
+                    new PaymentEventPayload.StatusChange("approved_directly", payment.getMethod().getType()),
                     "system"
                 );
             }
@@ -603,7 +629,7 @@ public class PaymentController {
             paymentEventService.createEvent(
                 paymentId,
                 PaymentEventType.PAYMENT_PENDING,
-                "{\"status\": \"retry_attempt\", \"attempt\": " + updatedPayment.getRetry_attempts() + ", \"reason\": \"balance_retry\"}",
+                new PaymentEventPayload.BalanceRetry("retry_attempt", updatedPayment.getRetry_attempts(), "balance_retry"),
                 "user_" + user.getId()
             );
             
@@ -655,19 +681,38 @@ public class PaymentController {
     @GetMapping("/{paymentId}")
     public ResponseEntity<PaymentResponse> getPaymentById(
             @PathVariable Long paymentId,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             User currentUser = authenticationService.getUserFromToken(authHeader);
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
-            Payment payment = entityValidationService.getPaymentOrThrow(paymentId);
+            String role = currentUser.getRole().name();
 
-            entityValidationService.validatePaymentOwnership(paymentId, currentUser.getId(), currentUser.getRole().name());
-            
-            PaymentResponse response = responseMapperService.mapPaymentToResponse(payment, currentUser.getRole().name());
+            // Proyección liviana: alcanza para validar acceso y calcular el ETag sin cargar el pago completo
+            PaymentRepository.PaymentVersion version = entityValidationService.getPaymentVersionOrThrow(paymentId);
+            entityValidationService.validatePaymentOwnership(version, currentUser.getId(), role);
 
-            return ResponseEntity.ok(response);
+            String etag = resourceETagService.paymentETag(version, role);
+            if (ResourceETagService.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(ResourceETagService.REVALIDATE)
+                    .build();
+            }
+
+            PaymentResponse response = terminalPaymentResponseCache.get(paymentId, role, etag).orElse(null);
+            if (response == null) {
+                Payment payment = entityValidationService.getPaymentOrThrow(paymentId);
+                response = responseMapperService.mapPaymentToResponse(payment, role);
+                terminalPaymentResponseCache.put(paymentId, role, version.getStatus(), etag, response);
+            }
+
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(ResourceETagService.REVALIDATE)
+                .body(response);
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         } catch (EntityNotFoundException e) {
@@ -677,9 +722,74 @@ public class PaymentController {
         }
     }
 
+
+    // GET /api/payments/{paymentId}/status/stream - Cambios de estado por SSE (reemplaza el polling)
+    @Operation(
+        summary = "Stream de estado del pago",
+        description = "Server-sent events con el estado actual del pago y cada cambio posterior. El stream se cierra cuando el pago llega a un estado final.",
+        security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @GetMapping(value = "/{paymentId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPaymentStatus(
+            @PathVariable Long paymentId,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            User currentUser = authenticationService.getUserFromToken(authHeader);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            entityValidationService.validatePaymentOwnership(paymentId, currentUser.getId(), currentUser.getRole().name());
+
+            return ResponseEntity.ok(paymentStatusEventBus.openStream(paymentId, () -> currentPaymentStatus(paymentId)));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // GET /api/payments/{paymentId}/status/poll?since=PENDING_APPROVAL - Long-poll para clientes sin SSE
+    @Operation(
+        summary = "Long-poll de estado del pago",
+        description = "Responde en cuanto el estado difiere de 'since' o es final; si no hay cambios antes del timeout responde 204.",
+        security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @GetMapping("/{paymentId}/status/poll")
+    public DeferredResult<ResponseEntity<PaymentStatusEventResponse>> pollPaymentStatus(
+            @PathVariable Long paymentId,
+            @RequestParam(required = false) PaymentStatus since,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            User currentUser = authenticationService.getUserFromToken(authHeader);
+            if (currentUser == null) {
+                return immediate(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+            }
+            entityValidationService.validatePaymentOwnership(paymentId, currentUser.getId(), currentUser.getRole().name());
+
+            return paymentStatusEventBus.awaitChange(paymentId, since, () -> currentPaymentStatus(paymentId));
+        } catch (SecurityException e) {
+            return immediate(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        } catch (EntityNotFoundException e) {
+            return immediate(ResponseEntity.notFound().build());
+        }
+    }
+
+    private PaymentStatusEventResponse currentPaymentStatus(Long paymentId) {
+        return paymentService.getPaymentById(paymentId)
+                .map(PaymentStatusEventResponse::fromPayment)
+                .orElseThrow(() -> new EntityNotFoundException("Pago no encontrado con ID " + paymentId));
+    }
+
+    private static DeferredResult<ResponseEntity<PaymentStatusEventResponse>> immediate(
+            ResponseEntity<PaymentStatusEventResponse> response) {
+        DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
     
    // GET /api/payments/my-payments - Obtener MIS pagos usando el token
-    @GetMapping("/my-payments")
+    // Sin fields ni view: PaymentResponse completo; con alguno de los dos responde getMyPaymentFields
+    @GetMapping(value = "/my-payments", params = {"!fields", "!view"})
     public ResponseEntity<List<PaymentResponse>> getMyPayments(
             @RequestHeader("Authorization") String authHeader,
             @RequestParam(defaultValue = "0") int page,
@@ -719,6 +829,40 @@ public class PaymentController {
         }
     }
     
+    // GET /api/payments/my-payments?fields=id,status,... o ?view=list|detail|admin - MIS pagos con sólo esos campos
+    @Operation(summary = "Mis pagos con campos seleccionados",
+               description = "Lee de la base sólo las columnas de los campos pedidos (fields separados por coma y/o una vista) "
+                       + "y responde cada pago con esos campos. id siempre se incluye.")
+    @GetMapping("/my-payments")
+    public ResponseEntity<List<Map<String, Object>>> getMyPaymentFields(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        // Un campo o vista inexistente es un 400, no un error del listado
+        Set<PaymentField> selected = PaymentField.select(fields, view);
+        try {
+            User user = authenticationService.getUserFromToken(authHeader);
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            String role = user.getRole().name();
+            Long userId = role.equals("ADMIN") || role.equals("MERCHANT") ? null : user.getId();
+            Long providerId = role.equals("MERCHANT") ? user.getId() : null;
+            List<Tuple> rows = paymentService.getPaymentFields(selected, userId, providerId, page, size);
+            log.info("📊 {} pagos con {} campos para {} (id: {})", rows.size(), selected.size(), role, user.getId());
+
+            return ResponseEntity.ok(responseMapperService.mapPaymentFields(rows, selected, role));
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (Exception e) {
+            log.error("Error en getMyPaymentFields: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // GET /api/payments/my-payments/status/{status} - MIS pagos por estado
     @GetMapping("/my-payments/status/{status}")
     public ResponseEntity<List<PaymentResponse>> getMyPaymentsByStatus(
@@ -760,15 +904,17 @@ public class PaymentController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
 
-            BigDecimal total;
-
-            if (user.getRole().name().equals("ADMIN")) {
-                total = paymentService.getTotalAmountAllApprovedPayments();
-            } else if (user.getRole().name().equals("MERCHANT")) {
-                total = paymentService.getTotalAmountByProviderId(user.getId());
-            } else {
-                total = paymentService.getTotalAmountByUserId(user.getId());
-            }
+            String role = user.getRole().name();
+            // Los paneles de admin comparten el total general: la clave no lleva id
+            Long subjectId = role.equals("ADMIN") ? null : user.getId();
+            BigDecimal total = aggregateReadCoalescer.load(AggregateReadCoalescer.Query.PAYMENT_TOTAL, role, subjectId, () -> {
+                if (role.equals("ADMIN")) {
+                    return paymentService.getTotalAmountAllApprovedPayments();
+                } else if (role.equals("MERCHANT")) {
+                    return paymentService.getTotalAmountByProviderId(user.getId());
+                }
+                return paymentService.getTotalAmountByUserId(user.getId());
+            });
 
             return ResponseEntity.ok(total);
         } catch (SecurityException e) {
@@ -795,7 +941,8 @@ public class PaymentController {
                         .build();
             }
 
-            BigDecimal balance = balanceService.getCurrentBalance(user.getId());
+            BigDecimal balance = aggregateReadCoalescer.load(AggregateReadCoalescer.Query.BALANCE,
+                    user.getRole().name(), user.getId(), () -> balanceService.getCurrentBalance(user.getId()));
             return ResponseEntity.ok(balance);
         } catch (SecurityException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
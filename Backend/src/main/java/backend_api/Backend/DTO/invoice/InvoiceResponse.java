@@ -2,6 +2,7 @@ package backend_api.Backend.DTO.invoice;
 
 import backend_api.Backend.Entity.invoice.InvoiceStatus;
 import backend_api.Backend.Entity.invoice.InvoiceType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -40,6 +41,8 @@ public class InvoiceResponse {
     private LocalDateTime paidAt;
     private String metadata;
     
+    // null en respuestas resumidas (includeLines=false)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<InvoiceLineResponse> lines;
     
     @Data
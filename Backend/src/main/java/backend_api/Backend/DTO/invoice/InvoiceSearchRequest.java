@@ -37,4 +37,7 @@ public class InvoiceSearchRequest {
     private Integer size = 10;
     private String sortBy = "createdAt";
     private String sortDirection = "desc";
+    
+    // false devuelve sólo la cabecera de cada factura, sin cargar líneas
+    private Boolean includeLines = true;
 }
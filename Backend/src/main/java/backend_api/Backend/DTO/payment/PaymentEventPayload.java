@@ -0,0 +1,104 @@
+package backend_api.Backend.DTO.payment;
+
+import backend_api.Backend.Entity.payment.types.PaymentMethodType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Contenido tipado de PaymentEvent.payload. Los nombres de las claves son los
+ * mismos que escribían las plantillas JSON anteriores, así que el timeline y
+ * los consumidores del CORE no cambian; "v" es la versión del esquema y un
+ * record que cambie sus campos la incrementa.
+ */
+@JsonPropertyOrder({"v"})
+public sealed interface PaymentEventPayload {
+
+    @JsonProperty("v")
+    default int schemaVersion() {
+        return 1;
+    }
+
+    record PaymentCreated(@JsonProperty("amount_total") BigDecimal amountTotal,
+                          String currency) implements PaymentEventPayload {
+    }
+
+    record MatchingRequestReceived(@JsonProperty("amount_total") BigDecimal amountTotal,
+                                   String currency,
+                                   @JsonProperty("solicitud_id") Long solicitudId,
+                                   String source,
+                                   String idCorrelacion) implements PaymentEventPayload {
+    }
+
+    record CoreEventReceived(Long paymentId,
+                             Long solicitudId,
+                             String status,
+                             Double amount,
+                             String currency,
+                             String source,
+                             String messageId) implements PaymentEventPayload {
+    }
+
+    // Valores tal como llegan del CORE en status_updated / method_selected
+    record CoreStatusUpdated(String oldStatus,
+                             String newStatus,
+                             String reason,
+                             Object amountTotal,
+                             Object currency,
+                             Object gatewayTxnId,
+                             String coreMessageId) implements PaymentEventPayload {
+    }
+
+    record CoreMethodSelected(Object methodType,
+                              Object methodId,
+                              Object userId,
+                              Object selectedAt,
+                              Object methodSnapshot,
+                              String coreMessageId) implements PaymentEventPayload {
+    }
+
+    // Cambio de estado con el método del pago: pending_bank_approval, approved_automatically, rejected_insufficient_balance...
+    record StatusChange(String status, PaymentMethodType method) implements PaymentEventPayload {
+    }
+
+    record BankApproval(String status,
+                        PaymentMethodType method,
+                        @JsonProperty("approval_time") LocalDateTime approvalTime) implements PaymentEventPayload {
+    }
+
+    record BankRejection(String status,
+                         PaymentMethodType method,
+                         @JsonProperty("rejection_reason") String rejectionReason,
+                         @JsonProperty("rejection_time") LocalDateTime rejectionTime) implements PaymentEventPayload {
+    }
+
+    record BalanceRetry(String status, Integer attempt, String reason) implements PaymentEventPayload {
+    }
+
+    record AuthorizationStarted(@JsonProperty("payment_method_type") String paymentMethodType,
+                                @JsonProperty("capture_immediately") boolean captureImmediately) implements PaymentEventPayload {
+    }
+
+    record Captured(@JsonProperty("gateway_txn_id") String gatewayTxnId,
+                    @JsonProperty("captured_at") LocalDateTime capturedAt) implements PaymentEventPayload {
+    }
+
+    record Declined(String reason, @JsonProperty("retry_allowed") boolean retryAllowed) implements PaymentEventPayload {
+    }
+
+    record Cancelled(String reason) implements PaymentEventPayload {
+    }
+
+    record Expired(@JsonProperty("expired_at") LocalDateTime expiredAt) implements PaymentEventPayload {
+    }
+
+    record RetryScheduled(@JsonProperty("attempt_number") int attemptNumber,
+                          @JsonProperty("max_attempts") int maxAttempts) implements PaymentEventPayload {
+    }
+
+    record MethodUpdated(@JsonProperty("payment_method_type") PaymentMethodType paymentMethodType,
+                         @JsonProperty("payment_method_id") Long paymentMethodId) implements PaymentEventPayload {
+    }
+}
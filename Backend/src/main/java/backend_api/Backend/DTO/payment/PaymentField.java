@@ -0,0 +1,110 @@
+package backend_api.Backend.DTO.payment;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Campos de {@link PaymentResponse} que se pueden pedir con fields= o con una
+ * vista (view=list|detail|admin). path es la expresión JPQL sobre el alias p
+ * del pago; method sale del JOIN con m y los nombres se resuelven aparte a
+ * partir de user_id / provider_id.
+ */
+public enum PaymentField {
+
+    ID("id", "p.id"),
+    USER_ID("user_id", "p.user_id"),
+    PROVIDER_ID("provider_id", "p.provider_id"),
+    SOLICITUD_ID("solicitud_id", "p.solicitud_id"),
+    COTIZACION_ID("cotizacion_id", "p.cotizacion_id"),
+    AMOUNT_SUBTOTAL("amount_subtotal", "p.amount_subtotal"),
+    TAXES("taxes", "p.taxes"),
+    FEES("fees", "p.fees"),
+    AMOUNT_TOTAL("amount_total", "p.amount_total"),
+    CURRENCY("currency", "p.currency"),
+    METHOD("method", "m"),
+    STATUS("status", "p.status"),
+    CREATED_AT("created_at", "p.created_at"),
+    UPDATED_AT("updated_at", "p.updated_at"),
+    CAPTURED_AT("captured_at", "p.captured_at"),
+    EXPIRED_AT("expired_at", "p.expired_at"),
+    METADATA("metadata", "p.metadata"),
+    DESCRIPCION("descripcion", "p.descripcion"),
+    DESCRIPCION_SOLICITUD("descripcion_solicitud", "p.descripcionSolicitud"),
+    GATEWAY_TXN_ID("gateway_txn_id", "p.gateway_txn_id"),
+    REJECTED_BY_BALANCE("rejected_by_balance", "p.rejected_by_balance"),
+    RETRY_ATTEMPTS("retry_attempts", "p.retry_attempts"),
+    USER_NAME("user_name", null),
+    PROVIDER_NAME("provider_name", null);
+
+    /**
+     * Vistas con nombre: list para listados (móvil), detail para la pantalla
+     * de un pago y admin con todos los campos.
+     */
+    public enum View {
+        LIST(EnumSet.of(ID, STATUS, AMOUNT_TOTAL, CURRENCY, CREATED_AT, DESCRIPCION, USER_NAME, PROVIDER_NAME)),
+        DETAIL(EnumSet.complementOf(EnumSet.of(METADATA, GATEWAY_TXN_ID, REJECTED_BY_BALANCE, RETRY_ATTEMPTS))),
+        ADMIN(EnumSet.allOf(PaymentField.class));
+
+        private final Set<PaymentField> fields;
+
+        View(Set<PaymentField> fields) {
+            this.fields = fields;
+        }
+
+        public Set<PaymentField> fields() {
+            return fields;
+        }
+    }
+
+    private final String property;
+    private final String path;
+
+    PaymentField(String property, String path) {
+        this.property = property;
+        this.path = path;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Expresión JPQL del campo, o null si no es una columna del pago.
+     */
+    public String path() {
+        return path;
+    }
+
+    /**
+     * Une los campos de fields (separados por coma) y los de la vista; id
+     * siempre se incluye. IllegalArgumentException si un nombre no existe.
+     */
+    public static EnumSet<PaymentField> select(String fields, String view) {
+        EnumSet<PaymentField> selected = EnumSet.of(ID);
+        if (view != null && !view.isBlank()) {
+            try {
+                selected.addAll(View.valueOf(view.trim().toUpperCase(Locale.ROOT)).fields());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Vista desconocida: " + view + " (list, detail o admin)");
+            }
+        }
+        if (fields != null) {
+            for (String name : fields.split(",")) {
+                if (!name.isBlank()) {
+                    selected.add(fromProperty(name.trim()));
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static PaymentField fromProperty(String property) {
+        for (PaymentField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Campo de pago desconocido: " + property);
+    }
+}
@@ -0,0 +1,50 @@
+package backend_api.Backend.DTO.payment;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contenido de Payment.metadata. idCorrelacion, metodoPreferido y matchingId
+ * además se guardan en columnas propias del pago; el resto de las claves
+ * desconocidas se conserva tal cual en attributes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentMetadata {
+
+    private String idCorrelacion;
+
+    // Se escribe aunque sea null: el matching lo completa después (ver PaymentRequestProcessorService)
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    private String metodoPreferido;
+
+    private Long matchingId;
+    private String userName;
+    private String userEmail;
+    private String providerName;
+    private String providerEmail;
+
+    @Builder.Default
+    private Map<String, Object> attributes = new LinkedHashMap<>();
+
+    @JsonAnyGetter
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @JsonAnySetter
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+}
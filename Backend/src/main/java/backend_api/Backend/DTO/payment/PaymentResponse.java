@@ -7,6 +7,7 @@ import backend_api.Backend.Entity.user.User;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Service.Implementation.UserDataIntegrationService;
 import lombok.Data;
+import org.hibernate.Hibernate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -58,7 +59,8 @@ public class PaymentResponse {
         response.setFees(payment.getFees());
         response.setAmount_total(payment.getAmount_total());
         response.setCurrency(payment.getCurrency());
-        response.setMethod(payment.getMethod());
+        // method es LAZY: se desenvuelve el proxy para que Jackson serialice la entidad real
+        response.setMethod((PaymentMethod) Hibernate.unproxy(payment.getMethod()));
         response.setStatus(payment.getStatus());
         response.setCreated_at(payment.getCreated_at());
         response.setUpdated_at(payment.getUpdated_at());
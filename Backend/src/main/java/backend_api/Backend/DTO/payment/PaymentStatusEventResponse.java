@@ -0,0 +1,42 @@
+package backend_api.Backend.DTO.payment;
+
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Estado de un pago tal como se envía por SSE o long-poll: sólo lo necesario
+ * para que el frontend decida si sigue esperando o consulta el detalle.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusEventResponse {
+
+    // Estados con los que termina la espera del cliente
+    private static final Set<PaymentStatus> TERMINAL_STATUSES = EnumSet.of(
+            PaymentStatus.APPROVED, PaymentStatus.COMPLETED, PaymentStatus.REJECTED,
+            PaymentStatus.CANCELLED, PaymentStatus.EXPIRED);
+
+    private Long paymentId;
+    private PaymentStatus status;
+    private PaymentStatus previousStatus;
+    private LocalDateTime updatedAt;
+    private boolean terminal;
+
+    public static PaymentStatusEventResponse of(Long paymentId, PaymentStatus previousStatus,
+                                                PaymentStatus status, LocalDateTime updatedAt) {
+        return new PaymentStatusEventResponse(paymentId, status, previousStatus, updatedAt,
+                status != null && TERMINAL_STATUSES.contains(status));
+    }
+
+    public static PaymentStatusEventResponse fromPayment(Payment payment) {
+        return of(payment.getId(), null, payment.getStatus(), payment.getUpdated_at());
+    }
+}
@@ -0,0 +1,45 @@
+package backend_api.Backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progreso de un job batch por chunks. Si el proceso se corta a mitad de una
+ * corrida, la siguiente retoma desde lastProcessedId con el mismo cutoff.
+ */
+@Entity
+@Table(name = "batch_job_checkpoints")
+@Data
+@NoArgsConstructor
+public class BatchJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "last_processed_id", nullable = false)
+    private Long lastProcessedId = 0L;
+
+    // Instante de referencia de la corrida (fecha "ahora" contra la que se evalúan vencimientos)
+    @Column(name = "cutoff", nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "processed_count", nullable = false)
+    private Long processedCount = 0L;
+
+    @Column(name = "completed", nullable = false)
+    private Boolean completed = Boolean.FALSE;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public BatchJobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+}
@@ -10,14 +10,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "provider_data")
+@Table(name = "provider_data", indexes = @Index(name = "idx_provider_data_email", columnList = "email"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProviderData {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provider_data_seq")
+    @SequenceGenerator(name = "provider_data_seq", sequenceName = "provider_data_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "provider_id", unique = true, nullable = false)
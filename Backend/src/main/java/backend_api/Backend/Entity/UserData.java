@@ -10,14 +10,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "user_data")
+@Table(name = "user_data", indexes = @Index(name = "idx_user_data_email", columnList = "email"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserData {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_data_seq")
+    @SequenceGenerator(name = "user_data_seq", sequenceName = "user_data_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", unique = true, nullable = false)
@@ -5,17 +5,31 @@ import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+    @Index(name = "idx_invoices_status_due_date", columnList = "status, due_date"),
+    @Index(name = "idx_invoices_payment_id", columnList = "payment_id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = Invoice.UK_STANDARD_PAYMENT_ID, columnNames = "standard_payment_id")
+})
 @Data
 @Entity
 public class Invoice {
+
+    public static final String UK_STANDARD_PAYMENT_ID = "uk_invoices_standard_payment_id";
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoices_seq")
+    @SequenceGenerator(name = "invoices_seq", sequenceName = "invoices_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "payment_id", nullable = false)
     private Long paymentId;
+
+    // payment_id sólo en las STANDARD: con el índice único un pago tiene una sola factura estándar
+    // aunque la facturen a la vez el pipeline, el backfill y create-from-payment. Lo calcula la base
+    @Column(name = "standard_payment_id", insertable = false, updatable = false,
+            columnDefinition = "BIGINT GENERATED ALWAYS AS (CASE WHEN type = 'STANDARD' THEN payment_id END)")
+    private Long standardPaymentId;
     
     @Column(name = "invoice_number", unique = true, nullable = false)
     private String invoiceNumber;
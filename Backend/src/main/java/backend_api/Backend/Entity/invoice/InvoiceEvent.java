@@ -4,13 +4,17 @@ import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
 
-@Table(name = "invoice_events")
+@Table(name = "invoice_events", indexes = {
+        @Index(name = "idx_invoice_events_invoice", columnList = "invoice_id, created_at"),
+        @Index(name = "idx_invoice_events_created_at", columnList = "created_at")
+})
 @Data
 @Entity
 public class InvoiceEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_events_seq")
+    @SequenceGenerator(name = "invoice_events_seq", sequenceName = "invoice_events_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "invoice_id", nullable = false)
@@ -0,0 +1,66 @@
+package backend_api.Backend.Entity.invoice;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Copia de un InvoiceEvent que superó el horizonte de retención. Conserva el id
+ * original; archive_month (yyyymm) es la clave de partición mensual en MySQL.
+ */
+@Table(name = "invoice_events_archive", indexes = {
+        @Index(name = "idx_invoice_events_archive_invoice", columnList = "invoice_id, created_at"),
+        @Index(name = "idx_invoice_events_archive_month", columnList = "archive_month")
+})
+@Data
+@Entity
+public class InvoiceEventArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private InvoiceEventType eventType;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "event_data", columnDefinition = "JSON")
+    private String eventData;
+
+    @Column(name = "ip_address")
+    private String ipAddress;
+
+    @Column(name = "user_agent")
+    private String userAgent;
+
+    @Column(name = "archive_month", nullable = false)
+    private Integer archiveMonth;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public InvoiceEvent toEvent() {
+        InvoiceEvent event = new InvoiceEvent();
+        event.setId(id);
+        event.setInvoiceId(invoiceId);
+        event.setEventType(eventType);
+        event.setDescription(description);
+        event.setCreatedBy(createdBy);
+        event.setCreatedAt(createdAt);
+        event.setEventData(eventData);
+        event.setIpAddress(ipAddress);
+        event.setUserAgent(userAgent);
+        return event;
+    }
+}
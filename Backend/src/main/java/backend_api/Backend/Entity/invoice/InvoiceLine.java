@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class InvoiceLine {
     
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_lines_seq")
+    @SequenceGenerator(name = "invoice_lines_seq", sequenceName = "invoice_lines_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "invoice_id", nullable = false)
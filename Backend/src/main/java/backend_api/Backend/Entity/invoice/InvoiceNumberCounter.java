@@ -0,0 +1,28 @@
+package backend_api.Backend.Entity.invoice;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Próximo número de factura libre. InvoiceNumberAllocator reserva bloques
+ * corriendo nextValue con la fila bloqueada; los números de un bloque que
+ * no se llega a usar quedan sin asignar.
+ */
+@Entity
+@Table(name = "invoice_number_counters")
+@Data
+@NoArgsConstructor
+public class InvoiceNumberCounter {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue = 1L;
+
+    public InvoiceNumberCounter(String name) {
+        this.name = name;
+    }
+}
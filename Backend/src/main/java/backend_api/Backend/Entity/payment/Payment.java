@@ -2,6 +2,8 @@ package backend_api.Backend.Entity.payment;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -9,15 +11,19 @@ import java.time.LocalDateTime;
     @Index(name = "idx_payments_user_id", columnList = "user_id"),
     @Index(name = "idx_payments_provider_id", columnList = "provider_id"),
     @Index(name = "idx_payments_status", columnList = "status"),
+    @Index(name = "idx_payments_status_expired_at", columnList = "status,expired_at"),
     @Index(name = "idx_payments_created_at", columnList = "created_at"),
     @Index(name = "idx_payments_user_created", columnList = "user_id,created_at"),
-    @Index(name = "idx_payments_provider_created", columnList = "provider_id,created_at")
+    @Index(name = "idx_payments_provider_created", columnList = "provider_id,created_at"),
+    @Index(name = "idx_payments_matching_id", columnList = "matching_id"),
+    @Index(name = "idx_payments_id_correlacion", columnList = "id_correlacion")
 })
 @Data
 @Entity
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     private Long user_id;
     private Long provider_id;
@@ -32,14 +38,24 @@ public class Payment {
     private PaymentStatus status; // la idea es que tenga diferentes estados de pago 
     private String gateway_txn_id; // id de la transaccion de gateway
     
-    @ManyToOne
+    // LAZY: las consultas que necesitan el método lo piden con un fetch graph
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_method_id")
-    private PaymentMethod method; 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PaymentMethod method;
     private LocalDateTime created_at;
     private LocalDateTime updated_at;
     private LocalDateTime captured_at;
     private LocalDateTime expired_at;
     private String metadata; //caso de info adicional
+    // Claves de metadata promovidas a columnas (las mantiene PaymentMetadataCodec)
+    @Column(name = "matching_id")
+    private Long matchingId;
+    @Column(name = "id_correlacion", length = 100)
+    private String idCorrelacion;
+    @Column(name = "metodo_preferido", length = 50)
+    private String metodoPreferido;
     @Column(name = "descripcion", columnDefinition = "TEXT")
     private String descripcion; // Descripción del pago
     @Column(name = "descripcion_solicitud", columnDefinition = "TEXT")
@@ -47,4 +63,10 @@ public class Payment {
     
     private Boolean rejected_by_balance = false; // Si fue rechazado por saldo insuficiente
     private Integer retry_attempts = 0; // Número de intentos de reintento
+
+    // updated_at forma parte del ETag de GET /api/payments/{id}: cualquier cambio del pago debe moverlo
+    @PreUpdate
+    protected void onUpdate() {
+        updated_at = LocalDateTime.now();
+    }
 }
\ No newline at end of file
@@ -5,12 +5,16 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payment_attempts")
+@Table(name = "payment_attempts", indexes = {
+        @Index(name = "idx_payment_attempts_payment", columnList = "payment_id, attempt_number"),
+        @Index(name = "idx_payment_attempts_created_at", columnList = "created_at")
+})
 @Data
 public class PaymentAttempt {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_attempts_seq")
+    @SequenceGenerator(name = "payment_attempts_seq", sequenceName = "payment_attempts_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "payment_id", nullable = false)
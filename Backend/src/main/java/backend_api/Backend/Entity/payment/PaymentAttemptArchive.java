@@ -0,0 +1,76 @@
+package backend_api.Backend.Entity.payment;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Copia de un PaymentAttempt que superó el horizonte de retención. Conserva el id
+ * original; archive_month (yyyymm) es la clave de partición mensual en MySQL.
+ */
+@Entity
+@Table(name = "payment_attempts_archive", indexes = {
+        @Index(name = "idx_payment_attempts_archive_payment", columnList = "payment_id, attempt_number"),
+        @Index(name = "idx_payment_attempts_archive_month", columnList = "archive_month")
+})
+@Data
+public class PaymentAttemptArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "attempt_number", nullable = false)
+    private Integer attemptNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentStatus status;
+
+    @Column(name = "response_code")
+    private String responseCode;
+
+    @Column(name = "gateway_response_code")
+    private String gatewayResponseCode;
+
+    @Column(name = "gateway_message")
+    private String gatewayMessage;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "gateway_txn_id")
+    private String gatewayTxnId;
+    private String metadata;
+
+    @Column(name = "archive_month", nullable = false)
+    private Integer archiveMonth;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public PaymentAttempt toAttempt() {
+        PaymentAttempt attempt = new PaymentAttempt();
+        attempt.setId(id);
+        attempt.setPaymentId(paymentId);
+        attempt.setAttemptNumber(attemptNumber);
+        attempt.setStatus(status);
+        attempt.setResponseCode(responseCode);
+        attempt.setGatewayResponseCode(gatewayResponseCode);
+        attempt.setGatewayMessage(gatewayMessage);
+        attempt.setFailureReason(failureReason);
+        attempt.setCreatedAt(createdAt);
+        attempt.setCompletedAt(completedAt);
+        attempt.setGatewayTxnId(gatewayTxnId);
+        attempt.setMetadata(metadata);
+        return attempt;
+    }
+}
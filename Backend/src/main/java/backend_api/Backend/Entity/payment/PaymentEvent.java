@@ -1,16 +1,27 @@
 package backend_api.Backend.Entity.payment;
 
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "payment_events")
+@Table(name = "payment_events", indexes = {
+        @Index(name = "idx_payment_events_payment", columnList = "payment_id, created_at"),
+        @Index(name = "idx_payment_events_created_at", columnList = "created_at"),
+        @Index(name = "idx_payment_events_type", columnList = "type, created_at"),
+        @Index(name = "idx_payment_events_correlation", columnList = "correlation_id")
+})
 public class PaymentEvent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_events_seq")
+    @SequenceGenerator(name = "payment_events_seq", sequenceName = "payment_events_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "payment_id", nullable = false)
@@ -22,6 +33,17 @@ public class PaymentEvent {
     
     @Column(columnDefinition = "TEXT")
     private String payload;
+
+    // Payload en Smile (payments.events.payload-storage=smile); en ese caso payload queda null
+    @JsonIgnore
+    @Lob
+    @Column(name = "payload_binary", length = 65535)
+    private byte[] payloadBinary;
+
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient String decodedPayload;
     
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -38,4 +60,19 @@ public class PaymentEvent {
     @Column(name = "correlation_id")
     private String correlationId;
     private String metadata;
+
+    /**
+     * Payload en JSON. Si se guardó en Smile se decodifica en la primera lectura.
+     */
+    public String getPayload() {
+        if (payload == null && payloadBinary != null && decodedPayload == null) {
+            decodedPayload = PaymentEventPayloadCodec.toJson(payloadBinary);
+        }
+        return payload != null ? payload : decodedPayload;
+    }
+
+    public void setPayloadBinary(byte[] payloadBinary) {
+        this.payloadBinary = payloadBinary;
+        this.decodedPayload = null;
+    }
 }
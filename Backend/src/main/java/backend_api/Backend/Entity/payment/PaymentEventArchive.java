@@ -0,0 +1,73 @@
+package backend_api.Backend.Entity.payment;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Copia de un PaymentEvent que superó el horizonte de retención. Conserva el id
+ * original; archive_month (yyyymm) es la clave de partición mensual en MySQL.
+ */
+@Data
+@Entity
+@Table(name = "payment_events_archive", indexes = {
+        @Index(name = "idx_payment_events_archive_payment", columnList = "payment_id, created_at"),
+        @Index(name = "idx_payment_events_archive_month", columnList = "archive_month")
+})
+public class PaymentEventArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentEventType type;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Lob
+    @Column(name = "payload_binary", length = 65535)
+    private byte[] payloadBinary;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private String actor;
+
+    @Column(name = "event_source")
+    private String eventSource;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "correlation_id")
+    private String correlationId;
+    private String metadata;
+
+    @Column(name = "archive_month", nullable = false)
+    private Integer archiveMonth;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public PaymentEvent toEvent() {
+        PaymentEvent event = new PaymentEvent();
+        event.setId(id);
+        event.setPaymentId(paymentId);
+        event.setType(type);
+        event.setPayload(payload);
+        event.setPayloadBinary(payloadBinary);
+        event.setCreatedAt(createdAt);
+        event.setActor(actor);
+        event.setEventSource(eventSource);
+        event.setDescription(description);
+        event.setCorrelationId(correlationId);
+        event.setMetadata(metadata);
+        return event;
+    }
+}
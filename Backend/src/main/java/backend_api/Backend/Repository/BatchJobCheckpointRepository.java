@@ -0,0 +1,25 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.Entity.BatchJobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BatchJobCheckpointRepository extends JpaRepository<BatchJobCheckpoint, String> {
+
+    // Bloquea la fila del job: dos instancias no procesan el mismo chunk a la vez
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM BatchJobCheckpoint c WHERE c.jobName = :jobName")
+    Optional<BatchJobCheckpoint> findForUpdate(@Param("jobName") String jobName);
+
+    // Jobs con una corrida empezada y sin terminar (cortada por el apagado o una caída)
+    @Query("SELECT c.jobName FROM BatchJobCheckpoint c WHERE c.completed = false")
+    List<String> findIncompleteJobNames();
+}
@@ -0,0 +1,29 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.Entity.invoice.InvoiceEventArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface InvoiceEventArchiveRepository extends JpaRepository<InvoiceEventArchive, Long> {
+
+    List<InvoiceEventArchive> findByInvoiceIdOrderByCreatedAtDesc(Long invoiceId);
+
+    @Query("SELECT COUNT(ie) FROM InvoiceEventArchive ie WHERE ie.invoiceId = :invoiceId")
+    Long countByInvoiceId(@Param("invoiceId") Long invoiceId);
+
+    // Copia set-based desde la tabla caliente; el mes de archivo sale de created_at
+    @Modifying
+    @Query("INSERT INTO InvoiceEventArchive (id, invoiceId, eventType, description, createdBy, createdAt, eventData, " +
+           "ipAddress, userAgent, archiveMonth, archivedAt) " +
+           "SELECT ie.id, ie.invoiceId, ie.eventType, ie.description, ie.createdBy, ie.createdAt, ie.eventData, " +
+           "ie.ipAddress, ie.userAgent, year(ie.createdAt) * 100 + month(ie.createdAt), :archivedAt " +
+           "FROM InvoiceEvent ie WHERE ie.id IN :ids")
+    int archiveByIds(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -5,6 +5,7 @@ import backend_api.Backend.Entity.invoice.InvoiceEventType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +17,15 @@ import java.util.List;
 public interface InvoiceEventRepository extends JpaRepository<InvoiceEvent, Long> {
     
     List<InvoiceEvent> findByInvoiceIdOrderByCreatedAtDesc(Long invoiceId);
+
+    // Los eventos sólo se insertan: cantidad y último id identifican la versión del timeline
+    @Query("SELECT COUNT(e) AS eventCount, MAX(e.id) AS lastEventId FROM InvoiceEvent e WHERE e.invoiceId = :invoiceId")
+    TimelineVersion findTimelineVersion(@Param("invoiceId") Long invoiceId);
+
+    interface TimelineVersion {
+        Long getEventCount();
+        Long getLastEventId();
+    }
     
     Page<InvoiceEvent> findByInvoiceId(Long invoiceId, Pageable pageable);
     
@@ -34,4 +44,12 @@ public interface InvoiceEventRepository extends JpaRepository<InvoiceEvent, Long
     
     @Query("SELECT COUNT(ie) FROM InvoiceEvent ie WHERE ie.invoiceId = :invoiceId AND ie.eventType = :eventType")
     Long countByInvoiceIdAndEventType(@Param("invoiceId") Long invoiceId, @Param("eventType") InvoiceEventType eventType);
+    
+    // Archivado: recorre por id (keyset) los eventos anteriores al horizonte y los borra por conjunto
+    @Query("SELECT ie.id FROM InvoiceEvent ie WHERE ie.createdAt < :cutoff AND ie.id > :afterId ORDER BY ie.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM InvoiceEvent ie WHERE ie.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,6 +17,9 @@ public interface InvoiceLineRepository extends JpaRepository<InvoiceLine, Long>
     
     List<InvoiceLine> findByInvoiceId(Long invoiceId);
     
+    // Líneas de varias facturas en una sola query, ya agrupables por invoiceId
+    List<InvoiceLine> findByInvoiceIdInOrderByInvoiceIdAscLineNumberAsc(Collection<Long> invoiceIds);
+    
     List<InvoiceLine> findByProductId(Long productId);
     
     @Query("SELECT SUM(il.totalAmount) FROM InvoiceLine il WHERE il.invoiceId = :invoiceId")
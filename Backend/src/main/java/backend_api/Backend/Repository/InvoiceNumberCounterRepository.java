@@ -0,0 +1,20 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.Entity.invoice.InvoiceNumberCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InvoiceNumberCounterRepository extends JpaRepository<InvoiceNumberCounter, String> {
+
+    // Bloquea el contador: dos instancias no reservan el mismo bloque
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM InvoiceNumberCounter c WHERE c.name = :name")
+    Optional<InvoiceNumberCounter> findForUpdate(@Param("name") String name);
+}
@@ -1,17 +1,20 @@
 package backend_api.Backend.Repository;
 
 import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
 import backend_api.Backend.Entity.invoice.InvoiceStatus;
 import backend_api.Backend.Entity.invoice.InvoiceType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,8 +22,32 @@ import java.util.Optional;
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
+
+    // Versión de la factura para el ETag: cambia si cambia la factura o alguna de sus líneas
+    String VERSION_SELECT = "SELECT i.id AS id, i.updatedAt AS updatedAt, i.createdAt AS createdAt, " +
+            "(SELECT COUNT(l) FROM InvoiceLine l WHERE l.invoiceId = i.id) AS lineCount, " +
+            "(SELECT MAX(COALESCE(l.updatedAt, l.createdAt)) FROM InvoiceLine l WHERE l.invoiceId = i.id) AS linesUpdatedAt " +
+            "FROM Invoice i ";
+
+    @Query(VERSION_SELECT + "WHERE i.id = :id")
+    Optional<InvoiceVersion> findVersionById(@Param("id") Long id);
+
+    @Query(VERSION_SELECT + "WHERE i.invoiceNumber = :invoiceNumber")
+    Optional<InvoiceVersion> findVersionByInvoiceNumber(@Param("invoiceNumber") String invoiceNumber);
+
+    interface InvoiceVersion {
+        Long getId();
+        LocalDateTime getUpdatedAt();
+        LocalDateTime getCreatedAt();
+        Long getLineCount();
+        LocalDateTime getLinesUpdatedAt();
+    }
     
     List<Invoice> findByPaymentId(Long paymentId);
+
+    // Generación por lotes: qué pagos del lote ya tienen factura, en una sola query
+    @Query("SELECT DISTINCT i.paymentId FROM Invoice i WHERE i.paymentId IN :paymentIds")
+    List<Long> findPaymentIdsWithInvoice(@Param("paymentIds") Collection<Long> paymentIds);
     
     Page<Invoice> findByUserId(Long userId, Pageable pageable);
     
@@ -83,4 +110,34 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findInvoicesDueSoon(@Param("notificationDate") LocalDateTime notificationDate);
     
     boolean existsByInvoiceNumber(String invoiceNumber);
+    
+    // Consultas del batch de vencimientos: recorren por id (keyset) y actualizan por conjunto
+    @Query("SELECT i.id FROM Invoice i WHERE i.status = :status AND i.dueDate < :cutoff AND i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsByStatusAndDueDateBefore(@Param("status") InvoiceStatus status,
+                                               @Param("cutoff") LocalDateTime cutoff,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+    
+    @Query("SELECT i.id FROM Invoice i WHERE i.status = :status AND i.dueDate BETWEEN :cutoff AND :notificationDate " +
+           "AND i.id > :afterId AND NOT EXISTS (SELECT 1 FROM InvoiceEvent e WHERE e.invoiceId = i.id " +
+           "AND e.eventType = :reminderType AND e.createdAt >= :remindedSince) ORDER BY i.id")
+    List<Long> findIdsDueSoonWithoutReminder(@Param("status") InvoiceStatus status,
+                                             @Param("cutoff") LocalDateTime cutoff,
+                                             @Param("notificationDate") LocalDateTime notificationDate,
+                                             @Param("reminderType") InvoiceEventType reminderType,
+                                             @Param("remindedSince") LocalDateTime remindedSince,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = :newStatus, i.updatedAt = :updatedAt WHERE i.id IN :ids AND i.status = :expectedStatus")
+    int updateStatusForIds(@Param("ids") List<Long> ids,
+                           @Param("expectedStatus") InvoiceStatus expectedStatus,
+                           @Param("newStatus") InvoiceStatus newStatus,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query("SELECT i.id FROM Invoice i WHERE i.id IN :ids AND i.status = :status AND i.updatedAt = :updatedAt")
+    List<Long> findIdsByIdInAndStatusAndUpdatedAt(@Param("ids") List<Long> ids,
+                                                  @Param("status") InvoiceStatus status,
+                                                  @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,30 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.Entity.payment.PaymentAttemptArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentAttemptArchiveRepository extends JpaRepository<PaymentAttemptArchive, Long> {
+
+    List<PaymentAttemptArchive> findByPaymentIdOrderByAttemptNumberDesc(Long paymentId);
+
+    @Query("SELECT COUNT(pa) FROM PaymentAttemptArchive pa WHERE pa.paymentId = :paymentId")
+    Integer countByPaymentId(@Param("paymentId") Long paymentId);
+
+    // Copia set-based desde la tabla caliente; el mes de archivo sale de created_at
+    @Modifying
+    @Query("INSERT INTO PaymentAttemptArchive (id, paymentId, attemptNumber, status, responseCode, gatewayResponseCode, " +
+           "gatewayMessage, failureReason, createdAt, completedAt, gatewayTxnId, metadata, archiveMonth, archivedAt) " +
+           "SELECT pa.id, pa.paymentId, pa.attemptNumber, pa.status, pa.responseCode, pa.gatewayResponseCode, " +
+           "pa.gatewayMessage, pa.failureReason, pa.createdAt, pa.completedAt, pa.gatewayTxnId, pa.metadata, " +
+           "year(pa.createdAt) * 100 + month(pa.createdAt), :archivedAt " +
+           "FROM PaymentAttempt pa WHERE pa.id IN :ids")
+    int archiveByIds(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
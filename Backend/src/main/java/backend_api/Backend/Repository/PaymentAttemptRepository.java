@@ -2,11 +2,14 @@ package backend_api.Backend.Repository;
 
 import backend_api.Backend.Entity.payment.PaymentAttempt;
 import backend_api.Backend.Entity.payment.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +28,12 @@ public interface PaymentAttemptRepository extends JpaRepository<PaymentAttempt,
     
     @Query("SELECT pa FROM PaymentAttempt pa WHERE pa.paymentId = :paymentId AND pa.status = 'APPROVED'")
     Optional<PaymentAttempt> findSuccessfulAttemptByPaymentId(@Param("paymentId") Long paymentId);
+    
+    // Archivado: recorre por id (keyset) los intentos anteriores al horizonte y los borra por conjunto
+    @Query("SELECT pa.id FROM PaymentAttempt pa WHERE pa.createdAt < :cutoff AND pa.id > :afterId ORDER BY pa.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM PaymentAttempt pa WHERE pa.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,27 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.Entity.payment.PaymentEventArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentEventArchiveRepository extends JpaRepository<PaymentEventArchive, Long> {
+
+    @Query("SELECT pe FROM PaymentEventArchive pe WHERE pe.paymentId = :paymentId ORDER BY pe.createdAt ASC")
+    List<PaymentEventArchive> findByPaymentIdOrderByCreatedAt(@Param("paymentId") Long paymentId);
+
+    // Copia set-based desde la tabla caliente; el mes de archivo sale de created_at
+    @Modifying
+    @Query("INSERT INTO PaymentEventArchive (id, paymentId, type, payload, payloadBinary, createdAt, actor, eventSource, description, " +
+           "correlationId, metadata, archiveMonth, archivedAt) " +
+           "SELECT pe.id, pe.paymentId, pe.type, pe.payload, pe.payloadBinary, pe.createdAt, pe.actor, pe.eventSource, pe.description, " +
+           "pe.correlationId, pe.metadata, year(pe.createdAt) * 100 + month(pe.createdAt), :archivedAt " +
+           "FROM PaymentEvent pe WHERE pe.id IN :ids")
+    int archiveByIds(@Param("ids") List<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
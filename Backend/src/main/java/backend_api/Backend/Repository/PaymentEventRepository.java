@@ -2,7 +2,9 @@ package backend_api.Backend.Repository;
 
 import backend_api.Backend.Entity.payment.PaymentEvent;
 import backend_api.Backend.Entity.payment.PaymentEventType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,4 +33,12 @@ public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long
     
     @Query("SELECT pe FROM PaymentEvent pe WHERE pe.correlationId = :correlationId AND pe.paymentId = :paymentId")
     java.util.Optional<PaymentEvent> findByCorrelationIdAndPaymentId(@Param("correlationId") String correlationId, @Param("paymentId") Long paymentId);
+    
+    // Archivado: recorre por id (keyset) los eventos anteriores al horizonte y los borra por conjunto
+    @Query("SELECT pe.id FROM PaymentEvent pe WHERE pe.createdAt < :cutoff AND pe.id > :afterId ORDER BY pe.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM PaymentEvent pe WHERE pe.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,24 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.DTO.payment.PaymentField;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Listados de pagos que leen sólo las columnas pedidas (fields= / view=) en
+ * lugar de hidratar la entidad completa con su método de pago.
+ */
+public interface PaymentProjectionRepository {
+
+    /**
+     * Pagos del usuario (userId), del prestador (providerId) o todos si ambos
+     * son null, del más nuevo al más viejo. Cada Tuple tiene un elemento por
+     * campo con columna, con alias = {@link PaymentField#property()}.
+     * USER_NAME / PROVIDER_NAME agregan user_id / provider_id para resolver
+     * los nombres.
+     */
+    List<Tuple> findFields(Set<PaymentField> fields, Long userId, Long providerId, Pageable pageable);
+}
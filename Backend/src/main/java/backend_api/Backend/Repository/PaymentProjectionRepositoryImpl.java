@@ -0,0 +1,59 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.DTO.payment.PaymentField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Pageable;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Arma el SELECT con las columnas de los campos pedidos. Los paths salen del
+ * enum, nunca del request, así que la JPQL no admite texto del cliente.
+ */
+class PaymentProjectionRepositoryImpl implements PaymentProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFields(Set<PaymentField> fields, Long userId, Long providerId, Pageable pageable) {
+        EnumSet<PaymentField> columns = EnumSet.copyOf(fields);
+        if (columns.remove(PaymentField.USER_NAME)) {
+            columns.add(PaymentField.USER_ID);
+        }
+        if (columns.remove(PaymentField.PROVIDER_NAME)) {
+            columns.add(PaymentField.PROVIDER_ID);
+        }
+
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM Payment p");
+        for (PaymentField field : columns) {
+            select.add(field.path() + " AS " + field.property());
+        }
+        StringBuilder jpql = new StringBuilder(select.toString());
+        if (columns.contains(PaymentField.METHOD)) {
+            jpql.append(" LEFT JOIN p.method m");
+        }
+        if (userId != null) {
+            jpql.append(" WHERE p.user_id = :userId");
+        } else if (providerId != null) {
+            jpql.append(" WHERE p.provider_id = :providerId");
+        }
+        jpql.append(" ORDER BY p.created_at DESC, p.id DESC");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        } else if (providerId != null) {
+            query.setParameter("providerId", providerId);
+        }
+        return query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
@@ -10,21 +10,49 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentProjectionRepository {
 
+    // Payment.method es LAZY. Las consultas cuyo resultado se mapea a PaymentResponse
+    // o que leen el tipo de método usan el fetch graph "method"; el resto no hace el JOIN.
 
+    @EntityGraph(attributePaths = "method")
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findWithMethodById(@Param("id") Long id);
+
+    // Sólo lo necesario para validar ownership y calcular el ETag, sin cargar el método ni los datos del usuario
+    @Query("SELECT p.id AS id, p.user_id AS userId, p.provider_id AS providerId, p.status AS status, " +
+           "p.updated_at AS updatedAt FROM Payment p WHERE p.id = :id")
+    Optional<PaymentVersion> findVersionById(@Param("id") Long id);
+
+    interface PaymentVersion {
+        Long getId();
+        Long getUserId();
+        Long getProviderId();
+        PaymentStatus getStatus();
+        LocalDateTime getUpdatedAt();
+    }
+
+    @Override
+    @EntityGraph(attributePaths = "method")
+    List<Payment> findAll();
+
+    @EntityGraph(attributePaths = "method")
     @Query("SELECT p FROM Payment p WHERE p.user_id = :userId")
     List<Payment> findByUserId(@Param("userId") Long userId);
 
+    @EntityGraph(attributePaths = "method")
     @Query("SELECT p FROM Payment p WHERE p.provider_id = :providerId")
     List<Payment> findByProviderId(@Param("providerId") Long providerId);
     
@@ -38,6 +66,7 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT DISTINCT p FROM Payment p LEFT JOIN FETCH p.method ORDER BY p.created_at DESC")
     Page<Payment> findAllOptimized(Pageable pageable);
 
+    @EntityGraph(attributePaths = "method")
     List<Payment> findByStatus(PaymentStatus status);
 
     List<Payment> findByMethod(PaymentMethod method);
@@ -48,6 +77,11 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT p FROM Payment p WHERE p.solicitud_id = :solicitudId")
     List<Payment> findBySolicitudId(@Param("solicitudId") Long solicitudId);
 
+    // Usan las columnas promovidas de metadata (indexadas)
+    List<Payment> findByIdCorrelacion(String idCorrelacion);
+
+    List<Payment> findByMatchingId(Long matchingId);
+
     // Se integra con el módulo Cotizacion
     @Query("SELECT p FROM Payment p WHERE p.cotizacion_id = :cotizacionId")
     List<Payment> findByCotizacionId(@Param("cotizacionId") Long cotizacionId);
@@ -58,9 +92,11 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT p FROM Payment p WHERE p.created_at BETWEEN :startDate AND :endDate")
     List<Payment> findByCreatedAtBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    @EntityGraph(attributePaths = "method")
     @Query("SELECT p FROM Payment p WHERE p.user_id = :userId AND p.status = :status")
     List<Payment> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") PaymentStatus status);
 
+    @EntityGraph(attributePaths = "method")
     @Query("SELECT p FROM Payment p WHERE p.provider_id = :providerId AND p.status = :status")
     List<Payment> findByProviderIdAndStatus(@Param("providerId") Long providerId, @Param("status") PaymentStatus status);
 
@@ -119,5 +155,34 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // Total amount de todos los pagos APPROVED (para ADMIN)
     @Query("SELECT COALESCE(SUM(p.amount_total), 0) FROM Payment p WHERE p.status = 'APPROVED'")
     BigDecimal getTotalAmountAllApprovedPayments();
+
+    // Barrido de vencimientos: recorre idx_payments_status_expired_at y actualiza por conjunto
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status AND p.expired_at < :now ORDER BY p.expired_at")
+    List<Long> findIdsByStatusAndExpiredAtBefore(@Param("status") PaymentStatus status,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :newStatus, p.updated_at = :now " +
+           "WHERE p.id IN :ids AND p.status = :expectedStatus AND p.expired_at < :now")
+    int expireByIds(@Param("ids") List<Long> ids,
+                    @Param("expectedStatus") PaymentStatus expectedStatus,
+                    @Param("newStatus") PaymentStatus newStatus,
+                    @Param("now") LocalDateTime now);
+
+    // Backfill de facturas: pagos aprobados en el rango sin factura, recorridos por id (keyset)
+    @Query("SELECT p.id FROM Payment p WHERE p.status = :status " +
+           "AND COALESCE(p.captured_at, p.created_at) >= :from AND COALESCE(p.captured_at, p.created_at) < :to " +
+           "AND p.id > :afterId AND NOT EXISTS (SELECT 1 FROM Invoice i WHERE i.paymentId = p.id) ORDER BY p.id")
+    List<Long> findIdsWithoutInvoice(@Param("status") PaymentStatus status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    @Query("SELECT p FROM Payment p WHERE p.id IN :ids AND p.status = :status AND p.updated_at = :updatedAt")
+    List<Payment> findByIdInAndStatusAndUpdatedAt(@Param("ids") List<Long> ids,
+                                                  @Param("status") PaymentStatus status,
+                                                  @Param("updatedAt") LocalDateTime updatedAt);
     
 }
\ No newline at end of file
@@ -12,4 +12,5 @@ public interface ProviderDataRepository extends JpaRepository<ProviderData, Long
     boolean existsByProviderId(Long providerId);
     boolean existsByEmail(String email);
     java.util.List<ProviderData> findByProviderIdIn(java.util.Collection<Long> providerIds);
+    java.util.List<ProviderData> findByEmailIn(java.util.Collection<String> emails);
 }
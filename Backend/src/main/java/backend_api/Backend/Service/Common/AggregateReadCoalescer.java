@@ -0,0 +1,182 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.login.LoginIdentityChangedEvent;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight para las lecturas agregadas de los dashboards (totales,
+ * saldo, resúmenes de facturas). Los requests idénticos concurrentes (misma
+ * consulta, rol y sujeto) esperan la única ejecución en curso en lugar de
+ * repetir las queries; el resultado queda además unos milisegundos
+ * (aggregates.coalescing.result-ttl, 0 lo desactiva) para las ráfagas.
+ *
+ * La carga corre en el thread del primer request, dentro de su transacción
+ * de sólo lectura. Los cambios de estado de pagos, saldos y facturas
+ * descartan lo guardado de las consultas afectadas; una carga que empezó
+ * antes de la invalidación se entrega a quienes ya la esperaban pero no se
+ * guarda.
+ */
+@Component
+public class AggregateReadCoalescer {
+
+    public enum Query {
+        PAYMENT_TOTAL, BALANCE, INVOICE_SUMMARY, INVOICE_SUMMARY_BY_USER
+    }
+
+    private record Key(Query query, String role, Long subjectId) {
+    }
+
+    private static final class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final long generation;
+        private volatile long completedAt;
+
+        private Flight(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(Query.values().length);
+
+    private final Map<Query, Counter> executed = new EnumMap<>(Query.class);
+    private final Map<Query, Counter> coalesced = new EnumMap<>(Query.class);
+    private final Map<Query, Counter> cached = new EnumMap<>(Query.class);
+
+    @Autowired
+    public AggregateReadCoalescer(MeterRegistry meterRegistry,
+                                  @Value("${aggregates.coalescing.result-ttl:500ms}") Duration resultTtl,
+                                  @Value("${aggregates.coalescing.max-entries:10000}") int maxEntries) {
+        this(meterRegistry, resultTtl, maxEntries, System::nanoTime);
+    }
+
+    AggregateReadCoalescer(MeterRegistry meterRegistry, Duration resultTtl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = resultTtl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+        for (Query query : Query.values()) {
+            String name = query.name().toLowerCase();
+            executed.put(query, readCounter(meterRegistry, name, "executed"));
+            coalesced.put(query, readCounter(meterRegistry, name, "coalesced"));
+            cached.put(query, readCounter(meterRegistry, name, "cached"));
+        }
+        meterRegistry.gauge("aggregates.reads.entries", this, AggregateReadCoalescer::size);
+    }
+
+    public <T> T load(Query query, String role, Long subjectId, Supplier<T> loader) {
+        Key key = new Key(query, role, subjectId);
+        while (true) {
+            Flight existing = flights.get(key);
+            if (existing != null) {
+                if (!existing.result.isDone()) {
+                    coalesced.get(query).increment();
+                    return await(existing);
+                }
+                if (nanoClock.getAsLong() - existing.completedAt < ttlNanos
+                        && existing.generation == generations.get(query.ordinal())) {
+                    cached.get(query).increment();
+                    return await(existing);
+                }
+                flights.remove(key, existing);
+            }
+
+            Flight flight = new Flight(generations.get(query.ordinal()));
+            if (flights.putIfAbsent(key, flight) == null) {
+                executed.get(query).increment();
+                return execute(key, flight, loader);
+            }
+            // Otro request ganó la carrera: se une a su ejecución
+        }
+    }
+
+    public void invalidate(Query... queries) {
+        for (Query query : queries) {
+            generations.incrementAndGet(query.ordinal());
+            flights.keySet().removeIf(key -> key.query() == query);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        // Aprobar un pago descuenta saldo
+        invalidate(Query.PAYMENT_TOTAL, Query.BALANCE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIdentityChanged(LoginIdentityChangedEvent event) {
+        // El saldo de user_data llega con la sincronización de usuarios del CORE
+        invalidate(Query.BALANCE);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceChanged(InvoiceChangedEvent event) {
+        invalidate(Query.INVOICE_SUMMARY, Query.INVOICE_SUMMARY_BY_USER);
+    }
+
+    public int size() {
+        return flights.size();
+    }
+
+    private <T> T execute(Key key, Flight flight, Supplier<T> loader) {
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        flight.completedAt = nanoClock.getAsLong();
+        flight.result.complete(value);
+        if (ttlNanos <= 0 || flight.generation != generations.get(key.query().ordinal())) {
+            flights.remove(key, flight);
+        } else if (flights.size() > maxEntries) {
+            long now = nanoClock.getAsLong();
+            flights.values().removeIf(f -> f.result.isDone() && now - f.completedAt >= ttlNanos);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T await(Flight flight) {
+        try {
+            return (T) flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String query, String result) {
+        return Counter.builder("aggregates.reads")
+                .description("Lecturas agregadas por resultado: ejecutada, unida a una en curso o servida de la ventana corta")
+                .tags("query", query, "result", result)
+                .register(meterRegistry);
+    }
+}
@@ -22,7 +22,8 @@ public class EntityValidationService {
     private final UserRepository userRepository;
 
     public Payment getPaymentOrThrow(Long paymentId) {
-        return paymentRepository.findById(paymentId)
+        // Los llamadores (confirmación, selección de método, detalle) leen el método de pago
+        return paymentRepository.findWithMethodById(paymentId)
                 .orElseThrow(() -> new EntityNotFoundException("Pago no encontrado con ID " + paymentId));
     }
 
@@ -65,11 +66,28 @@ public class EntityValidationService {
         }
         
         Payment payment = getPaymentOrThrow(paymentId);
-        boolean hasAccess = false;
+        checkPaymentAccess(payment.getUser_id(), payment.getProvider_id(), userId, userRole);
+    }
+
+    // Lectura liviana del pago (sin método ni datos de usuario) para ownership y ETag
+    public PaymentRepository.PaymentVersion getPaymentVersionOrThrow(Long paymentId) {
+        return paymentRepository.findVersionById(paymentId)
+                .orElseThrow(() -> new EntityNotFoundException("Pago no encontrado con ID " + paymentId));
+    }
+
+    public void validatePaymentOwnership(PaymentRepository.PaymentVersion payment, Long userId, String userRole) {
+        if ("ADMIN".equals(userRole)) {
+            return;
+        }
+        checkPaymentAccess(payment.getUserId(), payment.getProviderId(), userId, userRole);
+    }
+
+    private void checkPaymentAccess(Long paymentUserId, Long paymentProviderId, Long userId, String userRole) {
+        boolean hasAccess;
         if ("MERCHANT".equals(userRole)) {
-            hasAccess = payment.getProvider_id().equals(userId);
+            hasAccess = paymentProviderId.equals(userId);
         } else {
-            hasAccess = payment.getUser_id().equals(userId);
+            hasAccess = paymentUserId.equals(userId);
         }
 
         if (!hasAccess) {
@@ -0,0 +1,12 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+
+import java.util.List;
+
+/**
+ * Evento en proceso publicado cada vez que se registra un InvoiceEvent
+ * (InvoiceEventServiceImpl y vencimientos del batch).
+ */
+public record InvoiceChangedEvent(List<Long> invoiceIds, InvoiceEventType eventType) {
+}
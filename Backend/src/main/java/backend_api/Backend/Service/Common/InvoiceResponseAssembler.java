@@ -0,0 +1,123 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.DTO.invoice.InvoiceResponse;
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Arma InvoiceResponse a partir de entidades. Para listados recibe todas las
+ * líneas de la página de una sola vez (una query IN) y las reparte por factura
+ * con un índice de ids primitivos, sin un Map<Long, List> por página.
+ */
+@Service
+public class InvoiceResponseAssembler {
+
+    public InvoiceResponse toResponse(Invoice invoice, List<InvoiceLine> lines) {
+        List<InvoiceResponse.InvoiceLineResponse> lineResponses = lines.stream()
+                .map(this::toLineResponse)
+                .collect(Collectors.toList());
+        return baseBuilder(invoice).lines(lineResponses).build();
+    }
+
+    /** Respuesta sin líneas, para listados que sólo muestran la cabecera. */
+    public InvoiceResponse toSummaryResponse(Invoice invoice) {
+        return baseBuilder(invoice).build();
+    }
+
+    /**
+     * @param lines líneas de todas las facturas, ordenadas por invoiceId y lineNumber
+     */
+    public List<InvoiceResponse> toResponses(List<Invoice> invoices, List<InvoiceLine> lines) {
+        long[] sortedIds = invoiceIds(invoices);
+        Arrays.sort(sortedIds);
+
+        List<List<InvoiceLine>> linesByIndex = new ArrayList<>(Collections.nCopies(sortedIds.length, null));
+        for (InvoiceLine line : lines) {
+            int index = Arrays.binarySearch(sortedIds, line.getInvoiceId());
+            if (index < 0) {
+                continue;
+            }
+            if (linesByIndex.get(index) == null) {
+                linesByIndex.set(index, new ArrayList<>());
+            }
+            linesByIndex.get(index).add(line);
+        }
+
+        List<InvoiceResponse> responses = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            List<InvoiceLine> invoiceLines = linesByIndex.get(Arrays.binarySearch(sortedIds, invoice.getId()));
+            responses.add(toResponse(invoice, invoiceLines != null ? invoiceLines : Collections.emptyList()));
+        }
+        return responses;
+    }
+
+    public List<InvoiceResponse> toSummaryResponses(List<Invoice> invoices) {
+        return invoices.stream()
+                .map(this::toSummaryResponse)
+                .collect(Collectors.toList());
+    }
+
+    public static long[] invoiceIds(List<Invoice> invoices) {
+        long[] ids = new long[invoices.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = invoices.get(i).getId();
+        }
+        return ids;
+    }
+
+    private InvoiceResponse.InvoiceResponseBuilder baseBuilder(Invoice invoice) {
+        return InvoiceResponse.builder()
+                .id(invoice.getId())
+                .paymentId(invoice.getPaymentId())
+                .invoiceNumber(invoice.getInvoiceNumber())
+                .issueDate(invoice.getIssueDate())
+                .dueDate(invoice.getDueDate())
+                .totalAmount(invoice.getTotalAmount())
+                .subtotalAmount(invoice.getSubtotalAmount())
+                .taxAmount(invoice.getTaxAmount())
+                .discountAmount(invoice.getDiscountAmount())
+                .status(invoice.getStatus())
+                .type(invoice.getType())
+                .userId(invoice.getUserId())
+                .providerId(invoice.getProviderId())
+                .currency(invoice.getCurrency())
+                .legalFields(invoice.getLegalFields())
+                .pdfUrl(invoice.getPdfUrl())
+                .notes(invoice.getNotes())
+                .createdAt(invoice.getCreatedAt())
+                .updatedAt(invoice.getUpdatedAt())
+                .sentAt(invoice.getSentAt())
+                .paidAt(invoice.getPaidAt())
+                .metadata(invoice.getMetadata());
+    }
+
+    private InvoiceResponse.InvoiceLineResponse toLineResponse(InvoiceLine line) {
+        return InvoiceResponse.InvoiceLineResponse.builder()
+                .id(line.getId())
+                .invoiceId(line.getInvoiceId())
+                .productId(line.getProductId())
+                .description(line.getDescription())
+                .productName(line.getProductName())
+                .productCode(line.getProductCode())
+                .quantity(line.getQuantity())
+                .unitPrice(line.getUnitPrice())
+                .subtotal(line.getSubtotal())
+                .taxRate(line.getTaxRate())
+                .taxAmount(line.getTaxAmount())
+                .discountRate(line.getDiscountRate())
+                .discountAmount(line.getDiscountAmount())
+                .totalAmount(line.getTotalAmount())
+                .lineNumber(line.getLineNumber())
+                .unitOfMeasure(line.getUnitOfMeasure())
+                .createdAt(line.getCreatedAt())
+                .updatedAt(line.getUpdatedAt())
+                .build();
+    }
+}
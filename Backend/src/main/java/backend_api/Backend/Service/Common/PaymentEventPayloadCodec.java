@@ -0,0 +1,136 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.Entity.payment.PaymentEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serialización de PaymentEvent.payload y de los mensajes que se publican al
+ * CORE. Los writers se arman una vez por tipo (con Blackbird, que reemplaza la
+ * reflexión por accessors generados) y se reutilizan en cada evento.
+ *
+ * Con payments.events.payload-storage=smile el payload se guarda en
+ * payload_binary en formato Smile (JSON binario, claves compartidas) y
+ * PaymentEvent.getPayload() lo pasa a JSON recién cuando alguien lo lee. Los
+ * eventos ya guardados como texto se siguen leyendo igual.
+ */
+@Component
+@Slf4j
+public class PaymentEventPayloadCodec {
+
+    public enum Storage {
+        JSON,
+        SMILE
+    }
+
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final Storage storage;
+    private final Map<Class<?>, ObjectWriter> jsonWriters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> smileWriters = new ConcurrentHashMap<>();
+
+    public PaymentEventPayloadCodec(ObjectMapper objectMapper,
+                                    @Value("${payments.events.payload-storage:json}") Storage storage) {
+        // Fechas ISO como en las plantillas anteriores, con o sin la configuración de Spring
+        this.jsonMapper = objectMapper.copy()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.smileMapper = jsonMapper.copyWith(SMILE_FACTORY);
+        this.storage = storage;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Guarda el payload en el evento según payments.events.payload-storage.
+     */
+    public void write(PaymentEvent event, Object payload) {
+        if (payload == null) {
+            return;
+        }
+        try {
+            if (storage == Storage.SMILE) {
+                event.setPayload(null);
+                event.setPayloadBinary(smileWriter(payload.getClass()).writeValueAsBytes(payload));
+            } else {
+                event.setPayload(jsonWriter(payload.getClass()).writeValueAsString(payload));
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Error serializando payload de evento {}: {}", payload.getClass().getSimpleName(), e.getMessage());
+            event.setPayload("{}");
+        }
+    }
+
+    /**
+     * JSON con el writer precompilado del tipo.
+     */
+    public byte[] writeJson(Object value) throws JsonProcessingException {
+        return jsonWriter(value.getClass()).writeValueAsBytes(value);
+    }
+
+    /**
+     * Payload del evento como árbol, leído directo del formato en que se guardó;
+     * null si no tiene. Lanza JsonProcessingException si el texto no es JSON.
+     */
+    public JsonNode readTree(PaymentEvent event) throws JsonProcessingException {
+        if (event.getPayloadBinary() != null) {
+            try {
+                return smileMapper.readTree(event.getPayloadBinary());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        String payload = event.getPayload();
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        return jsonMapper.readTree(payload);
+    }
+
+    /**
+     * Smile a texto JSON copiando tokens, sin armar objetos intermedios.
+     */
+    public static String toJson(byte[] smile) {
+        StringWriter json = new StringWriter(smile.length * 2);
+        try (JsonParser parser = SMILE_FACTORY.createParser(smile);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payload Smile inválido", e);
+        }
+        return json.toString();
+    }
+
+    private ObjectWriter jsonWriter(Class<?> type) {
+        return jsonWriters.computeIfAbsent(type, jsonMapper::writerFor);
+    }
+
+    private ObjectWriter smileWriter(Class<?> type) {
+        return smileWriters.computeIfAbsent(type, smileMapper::writerFor);
+    }
+}
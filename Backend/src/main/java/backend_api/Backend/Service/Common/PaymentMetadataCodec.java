@@ -0,0 +1,113 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.DTO.payment.PaymentMetadata;
+import backend_api.Backend.Entity.payment.Payment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Lectura y escritura de Payment.metadata con un reader/writer armados una
+ * sola vez, y sincronización de las claves promovidas a columnas
+ * (matching_id, id_correlacion, metodo_preferido).
+ *
+ * Las columnas son la fuente para las consultas y para el camino de cambio de
+ * estado; el JSON se mantiene porque es lo que devuelve la API. Los pagos
+ * creados por POST /api/payments traen metadata libre (no necesariamente
+ * JSON), por eso la columna sigue siendo texto.
+ */
+@Component
+@Slf4j
+public class PaymentMetadataCodec {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public PaymentMetadataCodec(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(PaymentMetadata.class);
+        this.writer = objectMapper.writerFor(PaymentMetadata.class);
+    }
+
+    /**
+     * Guarda la metadata en el pago: el JSON completo y las columnas promovidas.
+     */
+    public void apply(Payment payment, PaymentMetadata metadata) {
+        payment.setIdCorrelacion(metadata.getIdCorrelacion());
+        payment.setMetodoPreferido(metadata.getMetodoPreferido());
+        payment.setMatchingId(metadata.getMatchingId());
+        try {
+            payment.setMetadata(writer.writeValueAsString(metadata));
+        } catch (JsonProcessingException e) {
+            log.error("Error serializando metadata: {}", e.getMessage());
+            payment.setMetadata("{}");
+        }
+    }
+
+    /**
+     * Metadata como objeto, o vacío si el pago no tiene o no es un objeto JSON.
+     */
+    public Optional<PaymentMetadata> read(String metadata) {
+        if (metadata == null || !metadata.trim().startsWith("{")) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(reader.readValue(metadata));
+        } catch (JsonProcessingException e) {
+            log.debug("Metadata de pago no interpretable: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Completa las columnas promovidas que estén vacías a partir del JSON.
+     * Se usa con metadata que llega armada (API) y con pagos anteriores a las
+     * columnas. Devuelve true si cambió alguna.
+     */
+    public boolean promote(Payment payment) {
+        Optional<PaymentMetadata> parsed = read(payment.getMetadata());
+        if (parsed.isEmpty()) {
+            return false;
+        }
+        PaymentMetadata metadata = parsed.get();
+        boolean changed = false;
+        if (payment.getIdCorrelacion() == null && metadata.getIdCorrelacion() != null) {
+            payment.setIdCorrelacion(metadata.getIdCorrelacion());
+            changed = true;
+        }
+        if (payment.getMetodoPreferido() == null && metadata.getMetodoPreferido() != null) {
+            payment.setMetodoPreferido(metadata.getMetodoPreferido());
+            changed = true;
+        }
+        if (payment.getMatchingId() == null && metadata.getMatchingId() != null) {
+            payment.setMatchingId(metadata.getMatchingId());
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Registra el método preferido si el pago todavía no tiene uno. Devuelve
+     * true si el pago cambió.
+     */
+    public boolean fillMetodoPreferido(Payment payment, String metodoPreferido) {
+        if (metodoPreferido == null || payment.getMetodoPreferido() != null) {
+            return false;
+        }
+        Optional<PaymentMetadata> parsed = read(payment.getMetadata());
+        if (parsed.isEmpty()) {
+            return false;
+        }
+        PaymentMetadata metadata = parsed.get();
+        if (metadata.getMetodoPreferido() == null) {
+            metadata.setMetodoPreferido(metodoPreferido);
+        }
+        // Pagos anteriores a la columna: si el JSON ya tenía un método se conserva y sólo se promueve
+        apply(payment, metadata);
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * ETags fuertes para las lecturas de pagos y facturas, calculados con una
+ * consulta liviana de versión (updated_at, líneas, eventos) más el rol del
+ * llamador, porque la respuesta cambia según el rol. Con If-None-Match el
+ * controller responde 304 sin armar la respuesta completa.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceETagService {
+
+    // El navegador guarda la respuesta pero revalida siempre con If-None-Match
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceEventRepository invoiceEventRepository;
+
+    public String paymentETag(PaymentRepository.PaymentVersion version, String role) {
+        return strongETag("payment", version.getId(), version.getStatus(), version.getUpdatedAt(), role);
+    }
+
+    public Optional<String> invoiceETag(Long invoiceId, String role) {
+        return invoiceRepository.findVersionById(invoiceId).map(version -> invoiceETag(version, role));
+    }
+
+    public Optional<String> invoiceETagByNumber(String invoiceNumber, String role) {
+        return invoiceRepository.findVersionByInvoiceNumber(invoiceNumber).map(version -> invoiceETag(version, role));
+    }
+
+    public Optional<String> timelineETag(Long invoiceId, String role) {
+        InvoiceEventRepository.TimelineVersion version = invoiceEventRepository.findTimelineVersion(invoiceId);
+        if (version == null || version.getEventCount() == null || version.getEventCount() == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(strongETag("timeline", invoiceId, version.getEventCount(), version.getLastEventId(), role));
+    }
+
+    /**
+     * If-None-Match puede traer varios ETags separados por coma o "*"; la
+     * comparación es débil (RFC 9110), así que se ignora el prefijo W/.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String invoiceETag(InvoiceRepository.InvoiceVersion version, String role) {
+        return strongETag("invoice", version.getId(), version.getCreatedAt(), version.getUpdatedAt(),
+                version.getLineCount(), version.getLinesUpdatedAt(), role);
+    }
+
+    static String strongETag(Object... parts) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : parts) {
+            source.append(part).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package backend_api.Backend.Service.Common;
 
+import backend_api.Backend.DTO.payment.PaymentField;
 import backend_api.Backend.DTO.payment.PaymentResponse;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Service.Implementation.UserDataIntegrationService;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -46,4 +48,49 @@ public class ResponseMapperService {
         
         return PaymentResponse.fromEntityWithRealUserData(payment, userInfoMap, userRole);
     }
-}
\ No newline at end of file
+
+    /**
+     * Filas de PaymentRepository.findFields como mapas con sólo los campos
+     * pedidos, en el orden de {@link PaymentField}. Los nombres siguen la misma
+     * visibilidad por rol que fromEntityWithRealUserData y sólo se buscan si
+     * se pidieron.
+     */
+    public List<Map<String, Object>> mapPaymentFields(List<Tuple> rows, Set<PaymentField> fields, String userRole) {
+        boolean userName = fields.contains(PaymentField.USER_NAME)
+            && ("MERCHANT".equals(userRole) || "ADMIN".equals(userRole));
+        boolean providerName = fields.contains(PaymentField.PROVIDER_NAME) && !"MERCHANT".equals(userRole);
+
+        Map<Long, UserDataIntegrationService.UserInfo> userInfoMap = Map.of();
+        if (userName || providerName) {
+            Set<Long> ids = new java.util.HashSet<>();
+            for (Tuple row : rows) {
+                if (userName) ids.add(row.get(PaymentField.USER_ID.property(), Long.class));
+                if (providerName) ids.add(row.get(PaymentField.PROVIDER_ID.property(), Long.class));
+            }
+            ids.remove(null);
+            userInfoMap = userDataIntegrationService.getUserInfoBatch(ids);
+        }
+
+        List<Map<String, Object>> responses = new java.util.ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> response = new java.util.LinkedHashMap<>();
+            for (PaymentField field : fields) {
+                if (field == PaymentField.USER_NAME) {
+                    response.put(field.property(), userName ? nameOf(userInfoMap, row, PaymentField.USER_ID) : null);
+                } else if (field == PaymentField.PROVIDER_NAME) {
+                    response.put(field.property(), providerName ? nameOf(userInfoMap, row, PaymentField.PROVIDER_ID) : null);
+                } else {
+                    response.put(field.property(), row.get(field.property()));
+                }
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private static String nameOf(Map<Long, UserDataIntegrationService.UserInfo> userInfoMap, Tuple row, PaymentField idField) {
+        Long id = row.get(idField.property(), Long.class);
+        UserDataIntegrationService.UserInfo info = id != null ? userInfoMap.get(id) : null;
+        return info != null ? info.getName() : null;
+    }
+}
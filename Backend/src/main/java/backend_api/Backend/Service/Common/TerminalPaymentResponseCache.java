@@ -0,0 +1,91 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.DTO.payment.PaymentResponse;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cache LRU acotado de respuestas de GET /api/payments/{id} para pagos en
+ * estado final. La entrada sólo se usa si su ETag coincide con el actual y se
+ * descarta ante cualquier cambio de estado del pago.
+ */
+@Component
+public class TerminalPaymentResponseCache {
+
+    private static final Set<PaymentStatus> CACHEABLE_STATUSES =
+            EnumSet.of(PaymentStatus.APPROVED, PaymentStatus.CANCELLED, PaymentStatus.EXPIRED);
+
+    private record Entry(String etag, PaymentResponse response) {
+    }
+
+    // paymentId -> (rol -> respuesta); el orden de acceso define qué pago se descarta primero
+    private final LinkedHashMap<Long, Map<String, Entry>> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public TerminalPaymentResponseCache(MeterRegistry meterRegistry,
+                                        @Value("${payments.response-cache.max-entries:5000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Map<String, Entry>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("payments.response.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("payments.response.cache").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("payments.response.cache.size", this, TerminalPaymentResponseCache::size);
+    }
+
+    public Optional<PaymentResponse> get(Long paymentId, String role, String etag) {
+        Entry entry;
+        synchronized (entries) {
+            Map<String, Entry> byRole = entries.get(paymentId);
+            entry = byRole != null ? byRole.get(role) : null;
+        }
+        if (entry != null && entry.etag().equals(etag)) {
+            hits.increment();
+            return Optional.of(entry.response());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(Long paymentId, String role, PaymentStatus status, String etag, PaymentResponse response) {
+        if (!CACHEABLE_STATUSES.contains(status)) {
+            return;
+        }
+        synchronized (entries) {
+            entries.computeIfAbsent(paymentId, id -> new HashMap<>(2)).put(role, new Entry(etag, response));
+        }
+    }
+
+    public void invalidate(Long paymentId) {
+        synchronized (entries) {
+            entries.remove(paymentId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        invalidate(event.paymentId());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -6,11 +6,19 @@ import backend_api.Backend.Entity.SolicitudData;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Repository.ProviderDataRepository;
 import backend_api.Backend.Repository.SolicitudDataRepository;
+import backend_api.Backend.login.LoginIdentity;
+import backend_api.Backend.login.LoginIdentityChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import backend_api.Backend.persistence.ElementCollections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.math.BigDecimal;
@@ -23,6 +31,11 @@ public class DataStorageServiceImpl {
     private final UserDataRepository userDataRepository;
     private final ProviderDataRepository providerDataRepository;
     private final SolicitudDataRepository solicitudDataRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /** Datos de un usuario o prestador (userId / providerId) listos para el upsert. */
+    public record SyncUpdate(Long id, Map<String, Object> data, String secondaryId) {
+    }
 
     @Transactional
     public void saveUserData(Long userId, Map<String, Object> userDataMap, String secondaryId) {
@@ -39,118 +52,155 @@ public class DataStorageServiceImpl {
                 userData.setUserId(userId);
                 log.info("Creando nuevo usuario: userId={}", userId);
             }
-            
-            // Actualizar datos básicos
-            if (userDataMap.containsKey("name")) {
-                userData.setName((String) userDataMap.get("name"));
-            }
-            if (userDataMap.containsKey("firstName")) {
-                userData.setFirstName((String) userDataMap.get("firstName"));
-            }
-            if (userDataMap.containsKey("lastName")) {
-                userData.setLastName((String) userDataMap.get("lastName"));
-            }
-            if (userDataMap.containsKey("email")) {
-                userData.setEmail((String) userDataMap.get("email"));
-            }
-            if (userDataMap.containsKey("phone")) {
-                userData.setPhone((String) userDataMap.get("phone"));
-            }
-            if (secondaryId != null) {
-                userData.setSecondaryId(secondaryId);
-            }
-            if (userDataMap.containsKey("dni")) {
-                userData.setDni((String) userDataMap.get("dni"));
+
+            String previousEmail = userData.getEmail();
+            applyUserData(userData, userDataMap, secondaryId);
+
+            userDataRepository.save(userData);
+            publishUserChanged(userId, previousEmail, userData.getEmail());
+            log.info("Datos de usuario guardados exitosamente: userId={}, name={}, email={}, active={}", 
+                userId, userData.getName(), userData.getEmail(), userData.getActive());
+        } catch (Exception e) {
+            log.error("Error guardando datos de usuario: userId={}, error={}", userId, e.getMessage(), e);
+            throw new RuntimeException("Error al guardar datos de usuario", e);
+        }
+    }
+
+    /**
+     * Upsert de varios usuarios en una transacción: una consulta para los
+     * existentes y un saveAll (INSERT/UPDATE en batch). Lo usa el pipeline de
+     * sincronización con eventos ya coalescidos, uno por userId.
+     */
+    @Transactional
+    public int saveUserDataBatch(List<SyncUpdate> updates) {
+        Map<Long, UserData> existing = new HashMap<>();
+        for (UserData userData : userDataRepository.findByUserIdIn(updates.stream().map(SyncUpdate::id).toList())) {
+            existing.put(userData.getUserId(), userData);
+        }
+
+        List<UserData> toSave = new ArrayList<>(updates.size());
+        for (SyncUpdate update : updates) {
+            UserData userData = existing.get(update.id());
+            if (userData == null) {
+                userData = new UserData();
+                userData.setUserId(update.id());
             }
-            
-            // Actualizar role si está presente
-            if (userDataMap.containsKey("role")) {
-                userData.setRole((String) userDataMap.get("role"));
+            String previousEmail = userData.getEmail();
+            applyUserData(userData, update.data(), update.secondaryId());
+            toSave.add(userData);
+            publishUserChanged(update.id(), previousEmail, userData.getEmail());
+        }
+        userDataRepository.saveAll(toSave);
+        log.debug("Batch de usuarios guardado: {} registros ({} nuevos)", toSave.size(), toSave.size() - existing.size());
+        return toSave.size();
+    }
+
+    private void applyUserData(UserData userData, Map<String, Object> userDataMap, String secondaryId) {
+        Long userId = userData.getUserId();
+
+        // Actualizar datos básicos
+        if (userDataMap.containsKey("name")) {
+            userData.setName((String) userDataMap.get("name"));
+        }
+        if (userDataMap.containsKey("firstName")) {
+            userData.setFirstName((String) userDataMap.get("firstName"));
+        }
+        if (userDataMap.containsKey("lastName")) {
+            userData.setLastName((String) userDataMap.get("lastName"));
+        }
+        if (userDataMap.containsKey("email")) {
+            userData.setEmail((String) userDataMap.get("email"));
+        }
+        if (userDataMap.containsKey("phone")) {
+            userData.setPhone((String) userDataMap.get("phone"));
+        }
+        if (secondaryId != null) {
+            userData.setSecondaryId(secondaryId);
+        }
+        if (userDataMap.containsKey("dni")) {
+            userData.setDni((String) userDataMap.get("dni"));
+        }
+        
+        // Actualizar role si está presente
+        if (userDataMap.containsKey("role")) {
+            userData.setRole((String) userDataMap.get("role"));
+        }
+        
+        // Actualizar active si está presente
+        if (userDataMap.containsKey("active")) {
+            Object activeObj = userDataMap.get("active");
+            if (activeObj instanceof Boolean) {
+                userData.setActive((Boolean) activeObj);
+            } else if (activeObj instanceof Number) {
+                userData.setActive(((Number) activeObj).intValue() == 1);
             }
-            
-            // Actualizar active si está presente
-            if (userDataMap.containsKey("active")) {
-                Object activeObj = userDataMap.get("active");
-                if (activeObj instanceof Boolean) {
-                    userData.setActive((Boolean) activeObj);
-                } else if (activeObj instanceof Number) {
-                    userData.setActive(((Number) activeObj).intValue() == 1);
+        }
+        
+        // Actualizar dirección (tomar la primera dirección del array si viene)
+        if (userDataMap.containsKey("address")) {
+            @SuppressWarnings("unchecked")
+            java.util.List<Map<String, Object>> addresses = (java.util.List<Map<String, Object>>) userDataMap.get("address");
+            if (addresses != null && !addresses.isEmpty()) {
+                Map<String, Object> firstAddress = addresses.get(0);
+                if (firstAddress.containsKey("state")) {
+                    userData.setState((String) firstAddress.get("state"));
                 }
-            }
-            
-            // Actualizar dirección (tomar la primera dirección del array si viene)
-            if (userDataMap.containsKey("address")) {
-                @SuppressWarnings("unchecked")
-                java.util.List<Map<String, Object>> addresses = (java.util.List<Map<String, Object>>) userDataMap.get("address");
-                if (addresses != null && !addresses.isEmpty()) {
-                    Map<String, Object> firstAddress = addresses.get(0);
-                    if (firstAddress.containsKey("state")) {
-                        userData.setState((String) firstAddress.get("state"));
-                    }
-                    if (firstAddress.containsKey("city")) {
-                        userData.setCity((String) firstAddress.get("city"));
-                    }
-                    if (firstAddress.containsKey("street")) {
-                        userData.setStreet((String) firstAddress.get("street"));
-                    }
-                    if (firstAddress.containsKey("number")) {
-                        userData.setNumber((String) firstAddress.get("number"));
-                    }
-                    if (firstAddress.containsKey("floor")) {
-                        userData.setFloor((String) firstAddress.get("floor"));
-                    }
-                    if (firstAddress.containsKey("apartment")) {
-                        userData.setApartment((String) firstAddress.get("apartment"));
-                    }
+                if (firstAddress.containsKey("city")) {
+                    userData.setCity((String) firstAddress.get("city"));
                 }
-            }
-            
-            // Actualizar zones si está presente
-            if (userDataMap.containsKey("zones")) {
-                @SuppressWarnings("unchecked")
-                java.util.List<String> zones = (java.util.List<String>) userDataMap.get("zones");
-                if (zones != null) {
-                    userData.setZones(zones);
+                if (firstAddress.containsKey("street")) {
+                    userData.setStreet((String) firstAddress.get("street"));
                 }
-            }
-            
-            // Actualizar skills si está presente
-            if (userDataMap.containsKey("skills")) {
-                @SuppressWarnings("unchecked")
-                java.util.List<String> skills = (java.util.List<String>) userDataMap.get("skills");
-                if (skills != null) {
-                    userData.setSkills(skills);
+                if (firstAddress.containsKey("number")) {
+                    userData.setNumber((String) firstAddress.get("number"));
                 }
-            }
-            
-            // Actualizar saldoDisponible si está presente
-            if (userDataMap.containsKey("saldoDisponible")) {
-                Object saldo = userDataMap.get("saldoDisponible");
-                if (saldo instanceof BigDecimal) {
-                    userData.setSaldoDisponible((BigDecimal) saldo);
-                } else if (saldo instanceof Number) {
-                    userData.setSaldoDisponible(BigDecimal.valueOf(((Number) saldo).doubleValue()));
+                if (firstAddress.containsKey("floor")) {
+                    userData.setFloor((String) firstAddress.get("floor"));
                 }
-            }
-            
-            // Manejar estado de desactivación
-            if (userDataMap.containsKey("status")) {
-                String status = (String) userDataMap.get("status");
-                if ("DEACTIVATED".equals(status)) {
-                    userData.setActive(false);
-                    log.info("Usuario desactivado: userId={}, reason={}", userId, userDataMap.get("deactivationReason"));
-                } else if ("REJECTED".equals(status)) {
-                    userData.setActive(false);
-                    log.info("Usuario rechazado: userId={}, reason={}", userId, userDataMap.get("rejectionReason"));
+                if (firstAddress.containsKey("apartment")) {
+                    userData.setApartment((String) firstAddress.get("apartment"));
                 }
             }
-
-            userDataRepository.save(userData);
-            log.info("Datos de usuario guardados exitosamente: userId={}, name={}, email={}, active={}", 
-                userId, userData.getName(), userData.getEmail(), userData.getActive());
-        } catch (Exception e) {
-            log.error("Error guardando datos de usuario: userId={}, error={}", userId, e.getMessage(), e);
-            throw new RuntimeException("Error al guardar datos de usuario", e);
+        }
+        
+        // Actualizar zones si está presente
+        if (userDataMap.containsKey("zones")) {
+            @SuppressWarnings("unchecked")
+            java.util.List<String> zones = (java.util.List<String>) userDataMap.get("zones");
+            if (zones != null) {
+                ElementCollections.replaceIfChanged(userData.getZones(), zones);
+            }
+        }
+        
+        // Actualizar skills si está presente
+        if (userDataMap.containsKey("skills")) {
+            @SuppressWarnings("unchecked")
+            java.util.List<String> skills = (java.util.List<String>) userDataMap.get("skills");
+            if (skills != null) {
+                ElementCollections.replaceIfChanged(userData.getSkills(), skills);
+            }
+        }
+        
+        // Actualizar saldoDisponible si está presente
+        if (userDataMap.containsKey("saldoDisponible")) {
+            Object saldo = userDataMap.get("saldoDisponible");
+            if (saldo instanceof BigDecimal) {
+                userData.setSaldoDisponible((BigDecimal) saldo);
+            } else if (saldo instanceof Number) {
+                userData.setSaldoDisponible(BigDecimal.valueOf(((Number) saldo).doubleValue()));
+            }
+        }
+        
+        // Manejar estado de desactivación
+        if (userDataMap.containsKey("status")) {
+            String status = (String) userDataMap.get("status");
+            if ("DEACTIVATED".equals(status)) {
+                userData.setActive(false);
+                log.info("Usuario desactivado: userId={}, reason={}", userId, userDataMap.get("deactivationReason"));
+            } else if ("REJECTED".equals(status)) {
+                userData.setActive(false);
+                log.info("Usuario rechazado: userId={}, reason={}", userId, userDataMap.get("rejectionReason"));
+            }
         }
     }
 
@@ -165,63 +215,110 @@ public class DataStorageServiceImpl {
 
             if (provider.getProviderId() == null) provider.setProviderId(providerId);
 
-            // 2) básicos
-            // 2) básicos
-            if (m.containsKey("firstName")) provider.setFirstName((String) m.get("firstName"));
-            if (m.containsKey("lastName"))  provider.setLastName((String) m.get("lastName"));
-            if (m.containsKey("name"))      provider.setName((String) m.get("name")); // display
-            if (m.containsKey("email"))     provider.setEmail((String) m.get("email"));
-            if (m.containsKey("phone"))     provider.setPhone((String) m.get("phone"));
-            if (secondaryId != null)        provider.setSecondaryId(secondaryId);
+            String previousEmail = provider.getEmail();
+            applyProviderData(provider, m, secondaryId);
 
-// Si no vino "name" pero sí first/last, generá display name consistente:
-            if ((provider.getName() == null || provider.getName().isBlank())) {
-                String fn = provider.getFirstName() != null ? provider.getFirstName() : "";
-                String ln = provider.getLastName()  != null ? provider.getLastName()  : "";
-                String display = (fn + " " + ln).trim();
-                if (!display.isBlank()) provider.setName(display);
-            }
+            providerDataRepository.save(provider);
+            publishProviderChanged(provider.getProviderId(), previousEmail, provider.getEmail());
+            log.info("✅ Provider upsert: providerId={}, email={}", provider.getProviderId(), provider.getEmail());
+        } catch (Exception e) {
+            log.error("Error guardando datos de prestador: providerId={}, error={}", providerId, e.getMessage(), e);
+            throw new RuntimeException("Error al guardar datos de prestador", e);
+        }
+    }
 
-            // photo / active (si vienen)
-            if (m.containsKey("photo"))      provider.setPhoto((String) m.get("photo"));
-            Object activeObj = m.get("active");
-            if (activeObj instanceof Boolean) provider.setActive((Boolean) activeObj);
-            else if (activeObj instanceof Number) provider.setActive(((Number)activeObj).intValue() == 1);
-
-            // 3) address (primera)
-            if (m.containsKey("address")) {
-                @SuppressWarnings("unchecked")
-                java.util.List<Map<String,Object>> addrList = (java.util.List<Map<String,Object>>) m.get("address");
-                if (addrList != null && !addrList.isEmpty()) {
-                    Map<String,Object> a = addrList.get(0);
-                    if (a.get("state")      != null) provider.setState((String) a.get("state"));
-                    if (a.get("city")       != null) provider.setCity((String) a.get("city"));
-                    if (a.get("street")     != null) provider.setStreet((String) a.get("street"));
-                    if (a.get("number")     != null) provider.setNumber((String) a.get("number"));
-                    if (a.get("floor")      != null) provider.setFloor((String) a.get("floor"));
-                    if (a.get("apartment")  != null) provider.setApartment((String) a.get("apartment"));
-                }
+    /**
+     * Igual que saveUserDataBatch para prestadores. Los que no existen por
+     * providerId se buscan por email, como en saveProviderData.
+     */
+    @Transactional
+    public int saveProviderDataBatch(List<SyncUpdate> updates) {
+        Map<Long, ProviderData> existing = new HashMap<>();
+        for (ProviderData provider : providerDataRepository.findByProviderIdIn(updates.stream().map(SyncUpdate::id).toList())) {
+            existing.put(provider.getProviderId(), provider);
+        }
+
+        List<String> missingEmails = updates.stream()
+                .filter(update -> !existing.containsKey(update.id()))
+                .map(update -> update.data().get("email"))
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .distinct()
+                .toList();
+        Map<String, ProviderData> byEmail = new HashMap<>();
+        if (!missingEmails.isEmpty()) {
+            for (ProviderData provider : providerDataRepository.findByEmailIn(missingEmails)) {
+                byEmail.putIfAbsent(provider.getEmail(), provider);
             }
+        }
 
-            // 4) zones / skills
-            if (m.containsKey("zones")) {
-                @SuppressWarnings("unchecked")
-                java.util.List<String> zones = (java.util.List<String>) m.get("zones");
-                provider.getZones().clear();
-                if (zones != null) provider.getZones().addAll(zones);
+        List<ProviderData> toSave = new ArrayList<>(updates.size());
+        for (SyncUpdate update : updates) {
+            ProviderData provider = existing.get(update.id());
+            if (provider == null) {
+                Object email = update.data().get("email");
+                provider = email != null && byEmail.containsKey(email) ? byEmail.remove(email) : new ProviderData();
             }
-            if (m.containsKey("skills")) {
-                @SuppressWarnings("unchecked")
-                java.util.List<String> skills = (java.util.List<String>) m.get("skills");
-                provider.getSkills().clear();
-                if (skills != null) provider.getSkills().addAll(skills);
+            if (provider.getProviderId() == null) provider.setProviderId(update.id());
+            String previousEmail = provider.getEmail();
+            applyProviderData(provider, update.data(), update.secondaryId());
+            toSave.add(provider);
+            publishProviderChanged(provider.getProviderId(), previousEmail, provider.getEmail());
+        }
+        providerDataRepository.saveAll(toSave);
+        log.debug("Batch de prestadores guardado: {} registros", toSave.size());
+        return toSave.size();
+    }
+
+    private void applyProviderData(ProviderData provider, Map<String, Object> m, String secondaryId) {
+        // 2) básicos
+        if (m.containsKey("firstName")) provider.setFirstName((String) m.get("firstName"));
+        if (m.containsKey("lastName"))  provider.setLastName((String) m.get("lastName"));
+        if (m.containsKey("name"))      provider.setName((String) m.get("name")); // display
+        if (m.containsKey("email"))     provider.setEmail((String) m.get("email"));
+        if (m.containsKey("phone"))     provider.setPhone((String) m.get("phone"));
+        if (secondaryId != null)        provider.setSecondaryId(secondaryId);
+
+// Si no vino "name" pero sí first/last, generá display name consistente:
+        if ((provider.getName() == null || provider.getName().isBlank())) {
+            String fn = provider.getFirstName() != null ? provider.getFirstName() : "";
+            String ln = provider.getLastName()  != null ? provider.getLastName()  : "";
+            String display = (fn + " " + ln).trim();
+            if (!display.isBlank()) provider.setName(display);
+        }
+
+        // photo / active (si vienen)
+        if (m.containsKey("photo"))      provider.setPhoto((String) m.get("photo"));
+        Object activeObj = m.get("active");
+        if (activeObj instanceof Boolean) provider.setActive((Boolean) activeObj);
+        else if (activeObj instanceof Number) provider.setActive(((Number)activeObj).intValue() == 1);
+
+        // 3) address (primera)
+        if (m.containsKey("address")) {
+            @SuppressWarnings("unchecked")
+            java.util.List<Map<String,Object>> addrList = (java.util.List<Map<String,Object>>) m.get("address");
+            if (addrList != null && !addrList.isEmpty()) {
+                Map<String,Object> a = addrList.get(0);
+                if (a.get("state")      != null) provider.setState((String) a.get("state"));
+                if (a.get("city")       != null) provider.setCity((String) a.get("city"));
+                if (a.get("street")     != null) provider.setStreet((String) a.get("street"));
+                if (a.get("number")     != null) provider.setNumber((String) a.get("number"));
+                if (a.get("floor")      != null) provider.setFloor((String) a.get("floor"));
+                if (a.get("apartment")  != null) provider.setApartment((String) a.get("apartment"));
             }
+        }
 
-            providerDataRepository.save(provider);
-            log.info("✅ Provider upsert: providerId={}, email={}", provider.getProviderId(), provider.getEmail());
-        } catch (Exception e) {
-            log.error("Error guardando datos de prestador: providerId={}, error={}", providerId, e.getMessage(), e);
-            throw new RuntimeException("Error al guardar datos de prestador", e);
+        // 4) zones / skills
+        // Sólo se tocan las tablas de la colección si el contenido cambió
+        if (m.containsKey("zones")) {
+            @SuppressWarnings("unchecked")
+            java.util.List<String> zones = (java.util.List<String>) m.get("zones");
+            ElementCollections.replaceIfChanged(provider.getZones(), zones != null ? zones : List.of());
+        }
+        if (m.containsKey("skills")) {
+            @SuppressWarnings("unchecked")
+            java.util.List<String> skills = (java.util.List<String>) m.get("skills");
+            ElementCollections.replaceIfChanged(provider.getSkills(), skills != null ? skills : List.of());
         }
     }
 
@@ -282,6 +379,7 @@ public class DataStorageServiceImpl {
             
             // Usar consulta directa para actualizar solo el campo active sin tocar el resto
             int updated = userDataRepository.deactivateByUserId(userId);
+            publishUserChanged(userId, null, null);
             
             if (updated > 0) {
                 log.info("Usuario desactivado exitosamente: userId={}, reason={}", userId, reason);
@@ -305,6 +403,7 @@ public class DataStorageServiceImpl {
             
             // Usar consulta directa para actualizar solo el campo active sin tocar el resto
             int updated = userDataRepository.deactivateByEmail(email);
+            publishUserChanged(null, email, null);
             
             if (updated > 0) {
                 log.info("Usuario desactivado exitosamente por email: email={}, reason={}", email, reason);
@@ -323,6 +422,7 @@ public class DataStorageServiceImpl {
             Optional<UserData> userDataOpt = userDataRepository.findByUserId(userId);
             if (userDataOpt.isPresent()) {
                 userDataRepository.delete(userDataOpt.get());
+                publishUserChanged(userId, userDataOpt.get().getEmail(), null);
                 log.info("Datos de usuario eliminados: userId={}", userId);
             } else {
                 log.warn("Usuario no encontrado para eliminar: userId={}", userId);
@@ -332,4 +432,23 @@ public class DataStorageServiceImpl {
             throw new RuntimeException("Error al eliminar datos de usuario", e);
         }
     }
+
+    /**
+     * Avisa a los caches del login; con un cambio de email se descartan las
+     * entradas del email anterior y del nuevo.
+     */
+    private void publishUserChanged(Long userId, String previousEmail, String currentEmail) {
+        publishIdentityChanged(LoginIdentity.Kind.USER, userId, previousEmail, currentEmail);
+    }
+
+    private void publishProviderChanged(Long providerId, String previousEmail, String currentEmail) {
+        publishIdentityChanged(LoginIdentity.Kind.PROVIDER, providerId, previousEmail, currentEmail);
+    }
+
+    private void publishIdentityChanged(LoginIdentity.Kind kind, Long id, String previousEmail, String currentEmail) {
+        applicationEventPublisher.publishEvent(new LoginIdentityChangedEvent(kind, id, previousEmail));
+        if (currentEmail != null && !currentEmail.equals(previousEmail)) {
+            applicationEventPublisher.publishEvent(new LoginIdentityChangedEvent(kind, id, currentEmail));
+        }
+    }
 }
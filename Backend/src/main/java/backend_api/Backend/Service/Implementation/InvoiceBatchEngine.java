@@ -0,0 +1,231 @@
+package backend_api.Backend.Service.Implementation;
+
+import backend_api.Backend.Entity.BatchJobCheckpoint;
+import backend_api.Backend.Entity.invoice.InvoiceEvent;
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.Repository.BatchJobCheckpointRepository;
+import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Service.Common.InvoiceChangedEvent;
+import backend_api.Backend.lifecycle.DrainCoordinator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Procesa vencimientos y recordatorios de facturas por conjuntos: cada chunk
+ * selecciona ids por keyset, los actualiza con un único UPDATE, inserta los
+ * InvoiceEvent en batch y avanza el checkpoint del job, todo en una transacción
+ * propia. Una corrida interrumpida (o cortada por el apagado) retoma desde el
+ * último chunk confirmado.
+ */
+@Service
+@Slf4j
+public class InvoiceBatchEngine {
+
+    public static final String OVERDUE_JOB = "invoice-overdue";
+    public static final String REMINDER_JOB = "invoice-reminders";
+
+    private static final String OVERDUE_DESCRIPTION = "Factura marcada como vencida automáticamente";
+    private static final String REMINDER_DESCRIPTION = "Recordatorio de vencimiento enviado";
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceEventRepository invoiceEventRepository;
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final DrainCoordinator drainCoordinator;
+
+    @Value("${invoice.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${invoice.batch.reminder-days:3}")
+    private int reminderDays;
+
+    public InvoiceBatchEngine(InvoiceRepository invoiceRepository,
+                              InvoiceEventRepository invoiceEventRepository,
+                              BatchJobCheckpointRepository checkpointRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              ApplicationEventPublisher applicationEventPublisher,
+                              DrainCoordinator drainCoordinator) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceEventRepository = invoiceEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.drainCoordinator = drainCoordinator;
+    }
+
+    public record BatchRunResult(String job, long processed, int chunks, Duration elapsed) {
+    }
+
+    private record ChunkResult(long lastId, int processed) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkStep {
+        ChunkResult process(BatchJobCheckpoint checkpoint, LocalDateTime now);
+    }
+
+    /**
+     * PENDING con dueDate anterior al cutoff de la corrida pasan a OVERDUE.
+     */
+    public BatchRunResult markOverdueInvoices() {
+        return run(OVERDUE_JOB, (checkpoint, now) -> {
+            List<Long> ids = invoiceRepository.findIdsByStatusAndDueDateBefore(
+                    InvoiceStatus.PENDING, checkpoint.getCutoff(), checkpoint.getLastProcessedId(),
+                    PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            int updated = invoiceRepository.updateStatusForIds(ids, InvoiceStatus.PENDING, InvoiceStatus.OVERDUE, now);
+            // Si otra transacción cambió alguna factura entre el SELECT y el UPDATE, sólo se registran las que cambió este chunk
+            List<Long> flipped = updated == ids.size()
+                    ? ids
+                    : invoiceRepository.findIdsByIdInAndStatusAndUpdatedAt(ids, InvoiceStatus.OVERDUE, now);
+
+            saveEvents(flipped, InvoiceEventType.INVOICE_OVERDUE, OVERDUE_DESCRIPTION);
+            if (!flipped.isEmpty()) {
+                applicationEventPublisher.publishEvent(new InvoiceChangedEvent(flipped, InvoiceEventType.INVOICE_OVERDUE));
+            }
+            return new ChunkResult(ids.get(ids.size() - 1), flipped.size());
+        });
+    }
+
+    /**
+     * Un recordatorio por factura PENDING que vence en los próximos reminderDays días;
+     * las que ya recibieron uno durante el día no se repiten.
+     */
+    public BatchRunResult sendDueReminders() {
+        return run(REMINDER_JOB, (checkpoint, now) -> {
+            LocalDateTime cutoff = checkpoint.getCutoff();
+            List<Long> ids = invoiceRepository.findIdsDueSoonWithoutReminder(
+                    InvoiceStatus.PENDING, cutoff, cutoff.plusDays(reminderDays),
+                    InvoiceEventType.REMINDER_SENT, cutoff.toLocalDate().atStartOfDay(),
+                    checkpoint.getLastProcessedId(), PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            saveEvents(ids, InvoiceEventType.REMINDER_SENT, REMINDER_DESCRIPTION);
+            return new ChunkResult(ids.get(ids.size() - 1), ids.size());
+        });
+    }
+
+    private BatchRunResult run(String job, ChunkStep step) {
+        long runStart = System.nanoTime();
+        chunkTransaction.executeWithoutResult(status -> startOrResume(job));
+
+        Timer chunkTimer = Timer.builder("invoice.batch.chunk")
+                .description("Duración de cada chunk del batch de facturas")
+                .tag("job", job)
+                .register(meterRegistry);
+        Counter rowsCounter = Counter.builder("invoice.batch.rows")
+                .description("Facturas procesadas por el batch")
+                .tag("job", job)
+                .register(meterRegistry);
+
+        long processed = 0;
+        int chunks = 0;
+        while (true) {
+            long chunkStart = System.nanoTime();
+            Integer chunkRows = chunkTransaction.execute(status -> processChunk(job, step));
+            if (chunkRows == null) {
+                break;
+            }
+            long chunkNanos = System.nanoTime() - chunkStart;
+            chunkTimer.record(Duration.ofNanos(chunkNanos));
+            rowsCounter.increment(chunkRows);
+            processed += chunkRows;
+            chunks++;
+            log.info("📦 Batch {} - chunk {}: {} facturas en {} ms ({} facturas/s)",
+                    job, chunks, chunkRows, chunkNanos / 1_000_000, throughput(chunkRows, chunkNanos));
+            if (drainCoordinator.isDraining()) {
+                log.info("⏸️ Batch {} cortado por el apagado tras {} chunks; la próxima corrida retoma desde el checkpoint",
+                        job, chunks);
+                break;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - runStart);
+        if (!drainCoordinator.isDraining()) {
+            log.info("✅ Batch {} completado: {} facturas en {} chunks, {} ms ({} facturas/s)",
+                    job, processed, chunks, elapsed.toMillis(), throughput(processed, elapsed.toNanos()));
+        }
+        return new BatchRunResult(job, processed, chunks, elapsed);
+    }
+
+    private void startOrResume(String job) {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findForUpdate(job)
+                .orElseGet(() -> new BatchJobCheckpoint(job));
+        if (checkpoint.getCutoff() != null && !Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            log.info("↩️ Batch {} retoma desde id {} ({} facturas ya procesadas)",
+                    job, checkpoint.getLastProcessedId(), checkpoint.getProcessedCount());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setLastProcessedId(0L);
+        checkpoint.setProcessedCount(0L);
+        checkpoint.setCompleted(Boolean.FALSE);
+        checkpoint.setCutoff(now);
+        checkpoint.setStartedAt(now);
+        checkpoint.setUpdatedAt(now);
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Devuelve las filas procesadas, o null cuando no quedan más (o otra instancia ya terminó la corrida)
+    private Integer processChunk(String job, ChunkStep step) {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findForUpdate(job).orElseThrow();
+        if (Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            return null;
+        }
+
+        // Truncado a microsegundos: es la precisión de DATETIME(6) y se compara por igualdad en updatedAt
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        ChunkResult result = step.process(checkpoint, now);
+        checkpoint.setUpdatedAt(now);
+        if (result == null) {
+            checkpoint.setCompleted(Boolean.TRUE);
+            return null;
+        }
+        checkpoint.setLastProcessedId(result.lastId());
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + result.processed());
+        return result.processed();
+    }
+
+    private void saveEvents(List<Long> invoiceIds, InvoiceEventType eventType, String description) {
+        List<InvoiceEvent> events = new ArrayList<>(invoiceIds.size());
+        for (Long invoiceId : invoiceIds) {
+            InvoiceEvent event = new InvoiceEvent();
+            event.setInvoiceId(invoiceId);
+            event.setEventType(eventType);
+            event.setDescription(description);
+            events.add(event);
+        }
+        invoiceEventRepository.saveAll(events);
+    }
+
+    private static long throughput(long rows, long nanos) {
+        return nanos > 0 ? rows * 1_000_000_000L / nanos : rows;
+    }
+}
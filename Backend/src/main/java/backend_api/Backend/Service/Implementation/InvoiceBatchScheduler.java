@@ -0,0 +1,77 @@
+package backend_api.Backend.Service.Implementation;
+
+import backend_api.Backend.Repository.BatchJobCheckpointRepository;
+import backend_api.Backend.lifecycle.DrainCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Dispara los jobs nocturnos de facturación. Los horarios se configuran con
+ * invoice.batch.overdue-cron e invoice.batch.reminder-cron. Durante el
+ * apagado no arranca corridas nuevas; la que quedó cortada se retoma al
+ * arrancar la próxima instancia.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceBatchScheduler {
+
+    private final InvoiceBatchEngine invoiceBatchEngine;
+    private final DrainCoordinator drainCoordinator;
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final TaskScheduler taskScheduler;
+
+    @Scheduled(cron = "${invoice.batch.overdue-cron:0 15 0 * * *}")
+    public void processOverdueInvoices() {
+        drainCoordinator.claimScheduled(InvoiceBatchEngine.OVERDUE_JOB).ifPresent(work -> {
+            try (work) {
+                invoiceBatchEngine.markOverdueInvoices();
+            } catch (Exception e) {
+                log.error("❌ Error en el batch de facturas vencidas", e);
+            }
+        });
+    }
+
+    @Scheduled(cron = "${invoice.batch.reminder-cron:0 0 9 * * *}")
+    public void sendDueReminders() {
+        drainCoordinator.claimScheduled(InvoiceBatchEngine.REMINDER_JOB).ifPresent(work -> {
+            try (work) {
+                invoiceBatchEngine.sendDueReminders();
+            } catch (Exception e) {
+                log.error("❌ Error en el batch de recordatorios de vencimiento", e);
+            }
+        });
+    }
+
+    /**
+     * Una corrida cortada por un deploy no espera al próximo cron (hasta 24 h
+     * con el cutoff viejo): se retoma desde el checkpoint en el hilo de los
+     * schedulers apenas la aplicación está lista.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        List<String> incomplete;
+        try {
+            incomplete = checkpointRepository.findIncompleteJobNames();
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudieron leer los checkpoints de facturación, las corridas cortadas esperan al próximo cron", e);
+            return;
+        }
+        if (incomplete.contains(InvoiceBatchEngine.OVERDUE_JOB)) {
+            log.info("↩️ Batch {} quedó sin terminar, se retoma al arrancar", InvoiceBatchEngine.OVERDUE_JOB);
+            taskScheduler.schedule(this::processOverdueInvoices, Instant.now());
+        }
+        if (incomplete.contains(InvoiceBatchEngine.REMINDER_JOB)) {
+            log.info("↩️ Batch {} quedó sin terminar, se retoma al arrancar", InvoiceBatchEngine.REMINDER_JOB);
+            taskScheduler.schedule(this::sendDueReminders, Instant.now());
+        }
+    }
+}
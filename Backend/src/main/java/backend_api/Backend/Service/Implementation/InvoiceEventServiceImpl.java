@@ -2,12 +2,18 @@ package backend_api.Backend.Service.Implementation;
 
 import backend_api.Backend.DTO.invoice.InvoiceEventResponse;
 import backend_api.Backend.Entity.invoice.InvoiceEvent;
+import backend_api.Backend.Entity.invoice.InvoiceEventArchive;
 import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Repository.InvoiceEventArchiveRepository;
 import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Service.Common.InvoiceChangedEvent;
 import backend_api.Backend.Service.Interface.InvoiceEventService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,6 +22,8 @@ import java.util.stream.Collectors;
 public class InvoiceEventServiceImpl implements InvoiceEventService {
     
     private final InvoiceEventRepository invoiceEventRepository;
+    private final InvoiceEventArchiveRepository invoiceEventArchiveRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
     
     @Override
     public void createEvent(Long invoiceId, InvoiceEventType eventType, String description, Long createdBy) {
@@ -39,11 +47,20 @@ public class InvoiceEventServiceImpl implements InvoiceEventService {
         event.setUserAgent(userAgent);
         
         invoiceEventRepository.save(event);
+        applicationEventPublisher.publishEvent(new InvoiceChangedEvent(List.of(invoiceId), eventType));
     }
     
     @Override
     public List<InvoiceEventResponse> getEventsByInvoiceId(Long invoiceId) {
         List<InvoiceEvent> events = invoiceEventRepository.findByInvoiceIdOrderByCreatedAtDesc(invoiceId);
+        List<InvoiceEventArchive> archived = invoiceEventArchiveRepository.findByInvoiceIdOrderByCreatedAtDesc(invoiceId);
+        if (!archived.isEmpty()) {
+            // Facturas con eventos anteriores al horizonte de retención: se une el archivo con la tabla caliente
+            List<InvoiceEvent> merged = new ArrayList<>(events);
+            archived.forEach(event -> merged.add(event.toEvent()));
+            merged.sort(Comparator.comparing(InvoiceEvent::getCreatedAt).reversed());
+            events = merged;
+        }
         return events.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
@@ -59,7 +76,9 @@ public class InvoiceEventServiceImpl implements InvoiceEventService {
     
     @Override
     public Long countEventsByInvoiceId(Long invoiceId) {
-        return invoiceEventRepository.countByInvoiceId(invoiceId);
+        Long count = invoiceEventRepository.countByInvoiceId(invoiceId);
+        Long archived = invoiceEventArchiveRepository.countByInvoiceId(invoiceId);
+        return (count != null ? count : 0L) + (archived != null ? archived : 0L);
     }
     
     @Override
@@ -9,20 +9,32 @@ import backend_api.Backend.Service.Interface.InvoiceEventService;
 import backend_api.Backend.Service.Interface.InvoiceService;
 import backend_api.Backend.Service.Common.InvoiceCalculationService;
 import backend_api.Backend.Service.Common.EntityValidationService;
+import backend_api.Backend.Service.Common.InvoiceResponseAssembler;
+import backend_api.Backend.document.InvoiceDocumentService;
+import backend_api.Backend.document.StoredDocument;
+import backend_api.Backend.invoicing.InvoiceGenerationEngine;
+import backend_api.Backend.persistence.ReadOnlyTransactional;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -38,6 +50,16 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final InvoiceEventService invoiceEventService;
     private final InvoiceCalculationService invoiceCalculationService;
     private final EntityValidationService entityValidationService;
+    private final InvoiceResponseAssembler invoiceResponseAssembler;
+    private final InvoiceBatchEngine invoiceBatchEngine;
+    private final InvoiceDocumentService invoiceDocumentService;
+    private final PlatformTransactionManager transactionManager;
+
+    // Máximo de ids por query IN al cargar líneas de un listado
+    private static final int LINE_BATCH_SIZE = 500;
+
+    private record PdfSource(Invoice invoice, List<InvoiceLine> lines) {
+    }
     
     @Override
     public InvoiceResponse createInvoice(CreateInvoiceRequest request) {
@@ -61,7 +83,16 @@ public class InvoiceServiceImpl implements InvoiceService {
         
         invoiceCalculationService.calculateInvoiceTotals(invoice, request.getLines());
         
-        Invoice savedInvoice = invoiceRepository.save(invoice);
+        Invoice savedInvoice;
+        try {
+            // flush acá: el índice único de standard_payment_id avisa si otro camino ya facturó el pago
+            savedInvoice = invoiceRepository.saveAndFlush(invoice);
+        } catch (RuntimeException e) {
+            if (InvoiceGenerationEngine.isDuplicateStandardInvoice(e)) {
+                throw new IllegalStateException("Ya existe una factura para este pago");
+            }
+            throw e;
+        }
         
         List<InvoiceLine> lines = request.getLines().stream()
                 .map(lineRequest -> createInvoiceLineFromRequest(savedInvoice.getId(), lineRequest))
@@ -77,7 +108,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         );
         
         log.info("Factura creada con éxito: {}", savedInvoice.getInvoiceNumber());
-        return convertToResponse(savedInvoice, savedLines);
+        return invoiceResponseAssembler.toResponse(savedInvoice, savedLines);
     }
     
     @Override
@@ -86,7 +117,7 @@ public class InvoiceServiceImpl implements InvoiceService {
 
         List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(id);
 
-        return convertToResponse(invoice, lines);
+        return invoiceResponseAssembler.toResponse(invoice, lines);
     }
     
     @Override
@@ -95,7 +126,7 @@ public class InvoiceServiceImpl implements InvoiceService {
 
         List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
 
-        return convertToResponse(invoice, lines);
+        return invoiceResponseAssembler.toResponse(invoice, lines);
     }
     
     @Override
@@ -131,7 +162,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             null 
         );
         
-        return convertToResponse(updatedInvoice, lines);
+        return invoiceResponseAssembler.toResponse(updatedInvoice, lines);
     }
     
     
@@ -180,7 +211,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         );
         
         List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(id);
-        return convertToResponse(updatedInvoice, lines);
+        return invoiceResponseAssembler.toResponse(updatedInvoice, lines);
     }
     
     @Override
@@ -316,63 +347,31 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
     
     
-    private InvoiceResponse convertToResponse(Invoice invoice, List<InvoiceLine> lines) {
-        List<InvoiceResponse.InvoiceLineResponse> lineResponses = lines.stream()
-                .map(this::convertLineToResponse)
-                .collect(Collectors.toList());
-        
-        return InvoiceResponse.builder()
-                .id(invoice.getId())
-                .paymentId(invoice.getPaymentId())
-                .invoiceNumber(invoice.getInvoiceNumber())
-                .issueDate(invoice.getIssueDate())
-                .dueDate(invoice.getDueDate())
-                .totalAmount(invoice.getTotalAmount())
-                .subtotalAmount(invoice.getSubtotalAmount())
-                .taxAmount(invoice.getTaxAmount())
-                .discountAmount(invoice.getDiscountAmount())
-                .status(invoice.getStatus())
-                .type(invoice.getType())
-                .userId(invoice.getUserId())
-                .providerId(invoice.getProviderId())
-                .currency(invoice.getCurrency())
-                .legalFields(invoice.getLegalFields())
-                .pdfUrl(invoice.getPdfUrl())
-                .notes(invoice.getNotes())
-                .createdAt(invoice.getCreatedAt())
-                .updatedAt(invoice.getUpdatedAt())
-                .sentAt(invoice.getSentAt())
-                .paidAt(invoice.getPaidAt())
-                .metadata(invoice.getMetadata())
-                .lines(lineResponses)
-                .build();
-    }
-    
-    private InvoiceResponse.InvoiceLineResponse convertLineToResponse(InvoiceLine line) {
-        return InvoiceResponse.InvoiceLineResponse.builder()
-                .id(line.getId())
-                .invoiceId(line.getInvoiceId())
-                .productId(line.getProductId())
-                .description(line.getDescription())
-                .productName(line.getProductName())
-                .productCode(line.getProductCode())
-                .quantity(line.getQuantity())
-                .unitPrice(line.getUnitPrice())
-                .subtotal(line.getSubtotal())
-                .taxRate(line.getTaxRate())
-                .taxAmount(line.getTaxAmount())
-                .discountRate(line.getDiscountRate())
-                .discountAmount(line.getDiscountAmount())
-                .totalAmount(line.getTotalAmount())
-                .lineNumber(line.getLineNumber())
-                .unitOfMeasure(line.getUnitOfMeasure())
-                .createdAt(line.getCreatedAt())
-                .updatedAt(line.getUpdatedAt())
-                .build();
+    private Page<InvoiceResponse> toResponsePage(Page<Invoice> invoices, boolean includeLines) {
+        return new PageImpl<>(toResponses(invoices.getContent(), includeLines), invoices.getPageable(), invoices.getTotalElements());
     }
     
+    // Una query IN por bloque de LINE_BATCH_SIZE facturas en lugar de una por factura
+    private List<InvoiceResponse> toResponses(List<Invoice> invoices, boolean includeLines) {
+        if (!includeLines) {
+            return invoiceResponseAssembler.toSummaryResponses(invoices);
+        }
+        if (invoices.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long[] ids = InvoiceResponseAssembler.invoiceIds(invoices);
+        List<InvoiceLine> lines = new ArrayList<>();
+        for (int from = 0; from < ids.length; from += LINE_BATCH_SIZE) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(from + LINE_BATCH_SIZE, ids.length))
+                    .boxed()
+                    .collect(Collectors.toList());
+            lines.addAll(invoiceLineRepository.findByInvoiceIdInOrderByInvoiceIdAscLineNumberAsc(chunk));
+        }
+        return invoiceResponseAssembler.toResponses(invoices, lines);
+    }
     
     @Override
+    @ReadOnlyTransactional
     public Page<InvoiceResponse> searchInvoices(InvoiceSearchRequest request) {
         Pageable pageable = PageRequest.of(
             request.getPage(), 
@@ -393,97 +392,130 @@ public class InvoiceServiceImpl implements InvoiceService {
             pageable
         );
         
-        return invoices.map(invoice -> {
-            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
-            return convertToResponse(invoice, lines);
-        });
+        return toResponsePage(invoices, !Boolean.FALSE.equals(request.getIncludeLines()));
     }
     
     @Override
+    @ReadOnlyTransactional
     public Page<InvoiceResponse> getInvoicesByUserId(Long userId, int page, int size) {
+        return getInvoicesByUserId(userId, page, size, true);
+    }
+    
+    @Override
+    @ReadOnlyTransactional
+    public Page<InvoiceResponse> getInvoicesByUserId(Long userId, int page, int size, boolean includeLines) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Invoice> invoices = invoiceRepository.findByUserId(userId, pageable);
         
-        return invoices.map(invoice -> {
-            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
-            return convertToResponse(invoice, lines);
-        });
+        return toResponsePage(invoices, includeLines);
     }
     
     @Override
+    @ReadOnlyTransactional
     public Page<InvoiceResponse> getInvoicesByProviderId(Long providerId, int page, int size) {
+        return getInvoicesByProviderId(providerId, page, size, true);
+    }
+    
+    @Override
+    @ReadOnlyTransactional
+    public Page<InvoiceResponse> getInvoicesByProviderId(Long providerId, int page, int size, boolean includeLines) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Invoice> invoices = invoiceRepository.findByProviderId(providerId, pageable);
         
-        return invoices.map(invoice -> {
-            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
-            return convertToResponse(invoice, lines);
-        });
+        return toResponsePage(invoices, includeLines);
     }
     
     @Override
+    @ReadOnlyTransactional
     public Page<InvoiceResponse> getInvoicesByStatus(InvoiceStatus status, int page, int size) {
+        return getInvoicesByStatus(status, page, size, true);
+    }
+    
+    @Override
+    @ReadOnlyTransactional
+    public Page<InvoiceResponse> getInvoicesByStatus(InvoiceStatus status, int page, int size, boolean includeLines) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Invoice> invoices = invoiceRepository.findByStatus(status, pageable);
         
-        return invoices.map(invoice -> {
-            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
-            return convertToResponse(invoice, lines);
-        });
+        return toResponsePage(invoices, includeLines);
     }
     
     @Override
     public List<InvoiceResponse> getInvoicesByPaymentId(Long paymentId) {
         List<Invoice> invoices = invoiceRepository.findByPaymentId(paymentId);
         
-        return invoices.stream().map(invoice -> {
-            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
-            return convertToResponse(invoice, lines);
-        }).collect(Collectors.toList());
+        return toResponses(invoices, true);
     }
     
+    // Los métodos de PDF no toman transacción: el render puede esperar un lugar en el pool
+    // acotado hasta el timeout, y no debe hacerlo con una conexión de Hikari tomada
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public String generatePdf(Long id) {
-        Invoice invoice = entityValidationService.getInvoiceOrThrow(id);
-        
-        String pdfUrl = String.format("/api/invoices/%d/pdf", id);
-        invoice.setPdfUrl(pdfUrl);
-        invoiceRepository.save(invoice);
-        
-        invoiceEventService.createEvent(
-            id,
-            InvoiceEventType.PDF_GENERATED,
-            "PDF generado exitosamente",
-            null
-        );
+        StoredDocument document = renderPdf(loadPdfSource(id));
         
+        String pdfUrl = pdfUrl(id, document);
+        savePdfUrl(id, pdfUrl, InvoiceEventType.PDF_GENERATED, "PDF generado exitosamente");
         return pdfUrl;
     }
     
+    // El PDF se direcciona por hash de contenido: si la factura no cambió, se reutiliza el mismo archivo
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public String regeneratePdf(Long id) {
-        Invoice invoice = entityValidationService.getInvoiceOrThrow(id);
-        
-        String pdfUrl = String.format("/api/invoices/%d/pdf?v=%d", id, System.currentTimeMillis());
-        invoice.setPdfUrl(pdfUrl);
-        invoiceRepository.save(invoice);
-        
-        invoiceEventService.createEvent(
-            id,
-            InvoiceEventType.PDF_REGENERATED,
-            "PDF regenerado",
-            null
-        );
+        PdfSource source = loadPdfSource(id);
+        StoredDocument document = renderPdf(source);
         
+        String pdfUrl = pdfUrl(id, document);
+        if (pdfUrl.equals(source.invoice().getPdfUrl())) {
+            log.info("PDF de la factura {} sin cambios de contenido, no se regenera", id);
+            return pdfUrl;
+        }
+        savePdfUrl(id, pdfUrl, InvoiceEventType.PDF_REGENERATED, "PDF regenerado");
         return pdfUrl;
     }
     
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public byte[] downloadPdf(Long id) {
-        entityValidationService.getInvoiceOrThrow(id);
-        
-        String content = "PDF content for invoice " + id;
-        return content.getBytes();
+        try {
+            return Files.readAllBytes(getPdfDocument(id).path());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el PDF de la factura " + id, e);
+        }
+    }
+    
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public StoredDocument getPdfDocument(Long id) {
+        return renderPdf(loadPdfSource(id));
+    }
+    
+    // Factura y líneas en una transacción corta de sólo lectura, antes del render
+    private PdfSource loadPdfSource(Long id) {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        return read.execute(status -> new PdfSource(
+                entityValidationService.getInvoiceOrThrow(id),
+                invoiceLineRepository.findByInvoiceIdOrderByLineNumber(id)));
+    }
+    
+    private StoredDocument renderPdf(PdfSource source) {
+        return invoiceDocumentService.getOrRender(source.invoice(), source.lines());
+    }
+    
+    // Se relee la factura: la cargada para el render pudo cambiar mientras tanto
+    private void savePdfUrl(Long id, String pdfUrl, InvoiceEventType eventType, String description) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Invoice invoice = entityValidationService.getInvoiceOrThrow(id);
+            invoice.setPdfUrl(pdfUrl);
+            invoiceRepository.save(invoice);
+            invoiceEventService.createEvent(id, eventType, description, null);
+        });
+    }
+    
+    private String pdfUrl(Long id, StoredDocument document) {
+        return String.format("/api/invoices/%d/pdf/download?v=%s", id, document.key().substring(0, 12));
     }
     
     @Override
@@ -496,6 +528,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
     
     @Override
+    @ReadOnlyTransactional
     public InvoiceSummaryResponse getInvoiceSummary(Long providerId) {
         long totalInvoices = invoiceRepository.findByProviderId(providerId, Pageable.unpaged()).getTotalElements();
         long paidInvoices = invoiceRepository.countByProviderIdAndStatus(providerId, InvoiceStatus.PAID);
@@ -524,6 +557,7 @@ public class InvoiceServiceImpl implements InvoiceService {
     }
     
     @Override
+    @ReadOnlyTransactional
     public InvoiceSummaryResponse getInvoiceSummaryByUser(Long userId) {
         long totalInvoices = invoiceRepository.findByUserId(userId, Pageable.unpaged()).getTotalElements();
         long paidInvoices = invoiceRepository.countByUserIdAndStatus(userId, InvoiceStatus.PAID);
@@ -542,51 +576,32 @@ public class InvoiceServiceImpl implements InvoiceService {
             .build();
     }
     
+    // Sin transacción externa: el engine confirma cada chunk por separado
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void processOverdueInvoices() {
-        List<Invoice> overdueInvoices = invoiceRepository.findOverdueInvoices();
-        
-        for (Invoice invoice : overdueInvoices) {
-            invoice.setStatus(InvoiceStatus.OVERDUE);
-            invoiceRepository.save(invoice);
-            
-            invoiceEventService.createEvent(
-                invoice.getId(),
-                InvoiceEventType.INVOICE_OVERDUE,
-                "Factura marcada como vencida automáticamente",
-                null
-            );
-        }
-
-        log.info("Procesando {} facturas vencidas", overdueInvoices.size());
+        InvoiceBatchEngine.BatchRunResult result = invoiceBatchEngine.markOverdueInvoices();
+        log.info("Procesadas {} facturas vencidas", result.processed());
     }
     
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void sendDueReminders() {
-        LocalDateTime reminderDate = LocalDateTime.now().plusDays(3);
-        List<Invoice> invoicesDueSoon = invoiceRepository.findInvoicesDueSoon(reminderDate);
-        
-        for (Invoice invoice : invoicesDueSoon) {
-            invoiceEventService.createEvent(
-                invoice.getId(),
-                InvoiceEventType.REMINDER_SENT,
-                "Recordatorio de vencimiento enviado",
-                null
-            );
-        }
-
-        log.info("Se enviaron recordatorios para {} facturas que vencen pronto", invoicesDueSoon.size());
+        InvoiceBatchEngine.BatchRunResult result = invoiceBatchEngine.sendDueReminders();
+        log.info("Se enviaron recordatorios para {} facturas que vencen pronto", result.processed());
     }
     
     @Override
     public List<InvoiceResponse> getInvoicesDueSoon(int days) {
+        return getInvoicesDueSoon(days, true);
+    }
+    
+    @Override
+    public List<InvoiceResponse> getInvoicesDueSoon(int days, boolean includeLines) {
         LocalDateTime futureDate = LocalDateTime.now().plusDays(days);
         List<Invoice> invoices = invoiceRepository.findInvoicesDueSoon(futureDate);
         
-        return invoices.stream().map(invoice -> {
-            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceIdOrderByLineNumber(invoice.getId());
-            return convertToResponse(invoice, lines);
-        }).collect(Collectors.toList());
+        return toResponses(invoices, includeLines);
     }
     
     @Override
@@ -2,6 +2,7 @@ package backend_api.Backend.Service.Implementation;
 
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.payment.PaymentEventType;
 import backend_api.Backend.Entity.payment.types.PaymentMethodType;
 import backend_api.Backend.Entity.UserData;
@@ -11,7 +12,9 @@ import backend_api.Backend.Service.Interface.PaymentEventService;
 import backend_api.Backend.Service.Interface.BalanceService;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Repository.UserRepository;
+import backend_api.Backend.lifecycle.DrainCoordinator;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -21,6 +24,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Slf4j
 public class PaymentApprovalScheduler {
 
     @Autowired
@@ -38,15 +42,28 @@ public class PaymentApprovalScheduler {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DrainCoordinator drainCoordinator;
+
     private static final int APPROVAL_DELAY_SECONDS = 60;
 
     /**
      * Ejecuta cada 30 segundos para revisar pagos pendientes de aprobación
      * que ya han pasado el tiempo de espera simulado
      * Disabled during tests to prevent stack overflow
+     * Durante el apagado no arranca y corta entre pagos: los que quedan se
+     * aprueban en la próxima corrida
      */
     @Scheduled(fixedDelay = 30000)
     public void processAutomaticApprovals() {
+        drainCoordinator.claimScheduled("payment-approval").ifPresent(work -> {
+            try (work) {
+                reviewPendingApprovals();
+            }
+        });
+    }
+
+    private void reviewPendingApprovals() {
         try {
             System.out.println("DEBUG - PaymentApprovalScheduler: Revisando pagos pendientes de aprobación...");
 
@@ -63,6 +80,10 @@ public class PaymentApprovalScheduler {
             LocalDateTime now = LocalDateTime.now();
 
             for (Payment payment : pendingPayments) {
+                if (drainCoordinator.isDraining()) {
+                    log.info("⏸️ Aprobaciones automáticas cortadas por el apagado; las pendientes se retoman en la próxima corrida");
+                    break;
+                }
                 if (requiresBankApproval(payment)) {
                     LocalDateTime approvalDeadline = payment.getUpdated_at().plusSeconds(APPROVAL_DELAY_SECONDS);
                     long secondsUntilApproval = java.time.Duration.between(now, approvalDeadline).getSeconds();
@@ -143,7 +164,7 @@ public class PaymentApprovalScheduler {
                             paymentEventService.createEvent(
                                     payment.getId(),
                                     PaymentEventType.PAYMENT_REJECTED,
-                                    String.format("{\"status\": \"rejected_insufficient_balance\", \"method\": \"%s\"}",
+                                    new PaymentEventPayload.StatusChange("rejected_insufficient_balance",
                                             payment.getMethod().getType()),
                                     "bank_simulator");
 
@@ -164,8 +185,7 @@ public class PaymentApprovalScheduler {
             paymentEventService.createEvent(
                     payment.getId(),
                     PaymentEventType.PAYMENT_APPROVED,
-                    String.format(
-                            "{\"status\": \"auto_approved_by_bank\", \"method\": \"%s\", \"approval_time\": \"%s\"}",
+                    new PaymentEventPayload.BankApproval("auto_approved_by_bank",
                             payment.getMethod().getType(), LocalDateTime.now()),
                     "bank_simulator");
 
@@ -184,9 +204,8 @@ public class PaymentApprovalScheduler {
             paymentEventService.createEvent(
                     payment.getId(),
                     PaymentEventType.PAYMENT_REJECTED,
-                    String.format(
-                            "{\"status\": \"rejected_by_bank\", \"method\": \"%s\", \"rejection_reason\": \"Insufficient funds\", \"rejection_time\": \"%s\"}",
-                            payment.getMethod().getType(), LocalDateTime.now()),
+                    new PaymentEventPayload.BankRejection("rejected_by_bank",
+                            payment.getMethod().getType(), "Insufficient funds", LocalDateTime.now()),
                     "bank_simulator");
 
             System.out.println("❌ Payment ID " + payment.getId() + " rechazado automáticamente por el banco");
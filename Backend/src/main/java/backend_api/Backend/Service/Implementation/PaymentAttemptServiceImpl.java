@@ -1,13 +1,17 @@
 package backend_api.Backend.Service.Implementation;
 
 import backend_api.Backend.Entity.payment.PaymentAttempt;
+import backend_api.Backend.Entity.payment.PaymentAttemptArchive;
 import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.PaymentAttemptArchiveRepository;
 import backend_api.Backend.Repository.PaymentAttemptRepository;
 import backend_api.Backend.Service.Interface.PaymentAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +21,9 @@ public class PaymentAttemptServiceImpl implements PaymentAttemptService {
     @Autowired
     private PaymentAttemptRepository paymentAttemptRepository;
     
+    @Autowired
+    private PaymentAttemptArchiveRepository paymentAttemptArchiveRepository;
+    
     @Override
     public PaymentAttempt createAttempt(Long paymentId, PaymentStatus status, String responseCode, String gatewayResponseCode) {
         return createAttempt(paymentId, status, responseCode, gatewayResponseCode, null, null);
@@ -45,23 +52,47 @@ public class PaymentAttemptServiceImpl implements PaymentAttemptService {
     
     @Override
     public List<PaymentAttempt> getAttemptsByPaymentId(Long paymentId) {
-        return paymentAttemptRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId);
+        List<PaymentAttempt> hot = paymentAttemptRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId);
+        List<PaymentAttemptArchive> archived = paymentAttemptArchiveRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<PaymentAttempt> attempts = new ArrayList<>(hot.size() + archived.size());
+        attempts.addAll(hot);
+        archived.forEach(attempt -> attempts.add(attempt.toAttempt()));
+        attempts.sort(Comparator.comparing(PaymentAttempt::getAttemptNumber).reversed());
+        return attempts;
     }
     
     @Override
     public Optional<PaymentAttempt> getLastAttempt(Long paymentId) {
-        return paymentAttemptRepository.findLastAttemptByPaymentId(paymentId);
+        Optional<PaymentAttempt> last = paymentAttemptRepository.findLastAttemptByPaymentId(paymentId);
+        if (last.isPresent()) {
+            return last;
+        }
+        return paymentAttemptArchiveRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId).stream()
+                .findFirst()
+                .map(PaymentAttemptArchive::toAttempt);
     }
     
     @Override
     public Integer getAttemptCount(Long paymentId) {
+        // Los intentos archivados también cuentan: la numeración sigue desde el último aunque ya no esté en la tabla caliente
         Integer count = paymentAttemptRepository.countByPaymentId(paymentId);
-        return count != null ? count : 0;
+        Integer archived = paymentAttemptArchiveRepository.countByPaymentId(paymentId);
+        return (count != null ? count : 0) + (archived != null ? archived : 0);
     }
     
     @Override
     public Optional<PaymentAttempt> getSuccessfulAttempt(Long paymentId) {
-        return paymentAttemptRepository.findSuccessfulAttemptByPaymentId(paymentId);
+        Optional<PaymentAttempt> successful = paymentAttemptRepository.findSuccessfulAttemptByPaymentId(paymentId);
+        if (successful.isPresent()) {
+            return successful;
+        }
+        return paymentAttemptArchiveRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId).stream()
+                .filter(attempt -> attempt.getStatus() == PaymentStatus.APPROVED)
+                .findFirst()
+                .map(PaymentAttemptArchive::toAttempt);
     }
     
     @Override
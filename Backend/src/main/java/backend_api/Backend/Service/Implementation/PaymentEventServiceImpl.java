@@ -1,13 +1,19 @@
 package backend_api.Backend.Service.Implementation;
 
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.payment.PaymentEvent;
+import backend_api.Backend.Entity.payment.PaymentEventArchive;
 import backend_api.Backend.Entity.payment.PaymentEventType;
+import backend_api.Backend.Repository.PaymentEventArchiveRepository;
 import backend_api.Backend.Repository.PaymentEventRepository;
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
 import backend_api.Backend.Service.Interface.PaymentEventService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +23,12 @@ public class PaymentEventServiceImpl implements PaymentEventService {
     @Autowired
     private PaymentEventRepository paymentEventRepository;
     
+    @Autowired
+    private PaymentEventArchiveRepository paymentEventArchiveRepository;
+    
+    @Autowired
+    private PaymentEventPayloadCodec paymentEventPayloadCodec;
+    
     @Override
     public PaymentEvent createEvent(Long paymentId, PaymentEventType type, String payload, String actor) {
         return createEvent(paymentId, type, payload, actor, "SYSTEM");
@@ -24,20 +36,48 @@ public class PaymentEventServiceImpl implements PaymentEventService {
     
     @Override
     public PaymentEvent createEvent(Long paymentId, PaymentEventType type, String payload, String actor, String eventSource) {
+        PaymentEvent event = newEvent(paymentId, type, actor, eventSource);
+        event.setPayload(payload);
+        
+        return paymentEventRepository.save(event);
+    }
+    
+    @Override
+    public PaymentEvent createEvent(Long paymentId, PaymentEventType type, PaymentEventPayload payload, String actor) {
+        return createEvent(paymentId, type, payload, actor, "SYSTEM");
+    }
+    
+    @Override
+    public PaymentEvent createEvent(Long paymentId, PaymentEventType type, PaymentEventPayload payload, String actor, String eventSource) {
+        PaymentEvent event = newEvent(paymentId, type, actor, eventSource);
+        paymentEventPayloadCodec.write(event, payload);
+        
+        return paymentEventRepository.save(event);
+    }
+    
+    private PaymentEvent newEvent(Long paymentId, PaymentEventType type, String actor, String eventSource) {
         PaymentEvent event = new PaymentEvent();
         event.setPaymentId(paymentId);
         event.setType(type);
-        event.setPayload(payload);
         event.setActor(actor);
         event.setEventSource(eventSource);
         event.setCreatedAt(LocalDateTime.now());
-        
-        return paymentEventRepository.save(event);
+        return event;
     }
     
     @Override
     public List<PaymentEvent> getPaymentTimeline(Long paymentId) {
-        return paymentEventRepository.findByPaymentIdOrderByCreatedAt(paymentId);
+        List<PaymentEvent> hot = paymentEventRepository.findByPaymentIdOrderByCreatedAt(paymentId);
+        List<PaymentEventArchive> archived = paymentEventArchiveRepository.findByPaymentIdOrderByCreatedAt(paymentId);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        // Pagos con eventos anteriores al horizonte de retención: se une el archivo con la tabla caliente
+        List<PaymentEvent> timeline = new ArrayList<>(archived.size() + hot.size());
+        archived.forEach(event -> timeline.add(event.toEvent()));
+        timeline.addAll(hot);
+        timeline.sort(Comparator.comparing(PaymentEvent::getCreatedAt));
+        return timeline;
     }
     
     @Override
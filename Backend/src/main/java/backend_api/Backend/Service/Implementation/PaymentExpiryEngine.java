@@ -0,0 +1,227 @@
+package backend_api.Backend.Service.Implementation;
+
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
+import backend_api.Backend.DTO.payment.PaymentMetadata;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentEvent;
+import backend_api.Backend.Entity.payment.PaymentEventType;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.PaymentEventRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
+import backend_api.Backend.Service.Common.PaymentMetadataCodec;
+import backend_api.Backend.lifecycle.DrainCoordinator;
+import backend_api.Backend.lifecycle.PendingWorkFlusher;
+import backend_api.Backend.messaging.dto.PaymentStatusUpdateMessage;
+import backend_api.Backend.messaging.publisher.PaymentStatusPublisher;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vence los pagos PENDING_PAYMENT cuyo expired_at ya pasó. Cada chunk, en su
+ * propia transacción, toma ids por idx_payments_status_expired_at, los pasa a
+ * EXPIRED con un único UPDATE, inserta los PAYMENT_EXPIRED en batch y, ya
+ * confirmado, encola las notificaciones status_updated al CORE como una sola
+ * tarea. El UPDATE vuelve a exigir PENDING_PAYMENT: un pago confirmado entre
+ * el SELECT y el UPDATE no se vence.
+ *
+ * Al apagar, el barrido corta después del chunk en curso (el resto lo toma
+ * la próxima corrida) y se espera a que salgan las notificaciones encoladas.
+ */
+@Service
+@Slf4j
+public class PaymentExpiryEngine implements PendingWorkFlusher {
+
+    private static final String EXPIRED_REASON = "Payment expired";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentEventRepository paymentEventRepository;
+    private final PaymentEventPayloadCodec paymentEventPayloadCodec;
+    private final PaymentMetadataCodec paymentMetadataCodec;
+    private final PaymentStatusPublisher paymentStatusPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final DrainCoordinator drainCoordinator;
+    private final TransactionTemplate chunkTransaction;
+    private final ThreadPoolExecutor notifier;
+
+    private final Timer chunkTimer;
+    private final Counter expiredCounter;
+
+    @Value("${payments.expiry.chunk-size:1000}")
+    private int chunkSize;
+
+    public PaymentExpiryEngine(PaymentRepository paymentRepository,
+                               PaymentEventRepository paymentEventRepository,
+                               PaymentEventPayloadCodec paymentEventPayloadCodec,
+                               PaymentMetadataCodec paymentMetadataCodec,
+                               PaymentStatusPublisher paymentStatusPublisher,
+                               ApplicationEventPublisher applicationEventPublisher,
+                               DrainCoordinator drainCoordinator,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${payments.expiry.notification-queue-capacity:64}") int notificationQueueCapacity) {
+        this.paymentRepository = paymentRepository;
+        this.paymentEventRepository = paymentEventRepository;
+        this.paymentEventPayloadCodec = paymentEventPayloadCodec;
+        this.paymentMetadataCodec = paymentMetadataCodec;
+        this.paymentStatusPublisher = paymentStatusPublisher;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.drainCoordinator = drainCoordinator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Un hilo: las notificaciones salen en el orden de los chunks. Con la cola llena
+        // publica el propio barrido, que así se frena al ritmo del CORE sin perder avisos
+        this.notifier = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(notificationQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-expiry-notifier");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.notifier.allowCoreThreadTimeOut(true);
+
+        this.chunkTimer = Timer.builder("payments.expiry.chunk")
+                .description("Duración de cada chunk del barrido de vencimientos")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("payments.expiry.expired")
+                .description("Pagos vencidos por el barrido")
+                .register(meterRegistry);
+        meterRegistry.gauge("payments.expiry.notifications.queue", notifier, pool -> pool.getQueue().size());
+    }
+
+    public record SweepResult(long expired, int chunks, Duration elapsed) {
+    }
+
+    public SweepResult expireDuePayments() {
+        long sweepStart = System.nanoTime();
+        long expired = 0;
+        int chunks = 0;
+        while (true) {
+            long chunkStart = System.nanoTime();
+            List<PaymentStatusUpdateMessage> notifications = chunkTransaction.execute(status -> expireChunk());
+            if (notifications == null) {
+                break;
+            }
+            long chunkNanos = System.nanoTime() - chunkStart;
+            chunkTimer.record(Duration.ofNanos(chunkNanos));
+            expiredCounter.increment(notifications.size());
+            expired += notifications.size();
+            chunks++;
+            if (!notifications.isEmpty()) {
+                notifier.execute(() -> paymentStatusPublisher.publishPaymentStatusUpdates(notifications));
+            }
+            log.info("⌛ Vencimientos - chunk {}: {} pagos en {} ms ({} pagos/s)",
+                    chunks, notifications.size(), chunkNanos / 1_000_000, throughput(notifications.size(), chunkNanos));
+            if (drainCoordinator.isDraining()) {
+                log.info("⏸️ Barrido de vencimientos cortado por el apagado tras {} chunks", chunks);
+                break;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - sweepStart);
+        if (expired > 0) {
+            log.info("✅ Barrido de vencimientos completado: {} pagos en {} chunks, {} ms ({} pagos/s)",
+                    expired, chunks, elapsed.toMillis(), throughput(expired, elapsed.toNanos()));
+        }
+        return new SweepResult(expired, chunks, elapsed);
+    }
+
+    @Override
+    public void flushPending(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (notifier.getActiveCount() > 0 || !notifier.getQueue().isEmpty()) {
+            if (System.nanoTime() >= deadline) {
+                log.warn("⚠️ Quedaron {} notificaciones de vencimiento sin enviar al apagar", notifier.getQueue().size());
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Notificaciones de los pagos que venció este chunk, o null cuando no quedan pagos vencidos
+    private List<PaymentStatusUpdateMessage> expireChunk() {
+        // Truncado a microsegundos: es la precisión de DATETIME(6) y se compara por igualdad en updated_at
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> ids = paymentRepository.findIdsByStatusAndExpiredAtBefore(
+                PaymentStatus.PENDING_PAYMENT, now, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        paymentRepository.expireByIds(ids, PaymentStatus.PENDING_PAYMENT, PaymentStatus.EXPIRED, now);
+        // Sólo los que cambió este UPDATE: otra transacción pudo confirmar o cancelar alguno
+        List<Payment> expired = paymentRepository.findByIdInAndStatusAndUpdatedAt(ids, PaymentStatus.EXPIRED, now);
+
+        List<PaymentEvent> events = new ArrayList<>(expired.size());
+        List<PaymentStatusUpdateMessage> notifications = new ArrayList<>(expired.size());
+        for (Payment payment : expired) {
+            PaymentEvent event = new PaymentEvent();
+            event.setPaymentId(payment.getId());
+            event.setType(PaymentEventType.PAYMENT_EXPIRED);
+            event.setActor("system");
+            event.setEventSource("SYSTEM");
+            event.setCreatedAt(now);
+            paymentEventPayloadCodec.write(event, new PaymentEventPayload.Expired(payment.getExpired_at()));
+            events.add(event);
+
+            notifications.add(toNotification(payment));
+            // Suscriptores SSE y caches de respuestas; se entrega después del commit
+            applicationEventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                    payment.getId(), PaymentStatus.PENDING_PAYMENT, PaymentStatus.EXPIRED, now));
+        }
+        paymentEventRepository.saveAll(events);
+        return notifications;
+    }
+
+    private PaymentStatusUpdateMessage toNotification(Payment payment) {
+        PaymentStatusUpdateMessage message = new PaymentStatusUpdateMessage();
+        message.setPaymentId(payment.getId());
+        message.setMatchingId(matchingId(payment));
+        message.setOldStatus(PaymentStatus.PENDING_PAYMENT);
+        message.setNewStatus(PaymentStatus.EXPIRED);
+        message.setReason(EXPIRED_REASON);
+        message.setUpdatedAt(payment.getUpdated_at());
+        message.setAmountTotal(payment.getAmount_total());
+        message.setCurrency(payment.getCurrency());
+        message.setGatewayTxnId(payment.getGateway_txn_id());
+        return message;
+    }
+
+    // Pagos anteriores a la columna matching_id: se lee del JSON sin tocar la fila, que ya quedó vencida con este updated_at
+    private Long matchingId(Payment payment) {
+        if (payment.getMatchingId() != null) {
+            return payment.getMatchingId();
+        }
+        return paymentMetadataCodec.read(payment.getMetadata()).map(PaymentMetadata::getMatchingId).orElse(null);
+    }
+
+    private static long throughput(long rows, long nanos) {
+        return nanos > 0 ? rows * 1_000_000_000L / nanos : rows;
+    }
+}
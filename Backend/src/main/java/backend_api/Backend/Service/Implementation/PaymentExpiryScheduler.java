@@ -0,0 +1,34 @@
+package backend_api.Backend.Service.Implementation;
+
+import backend_api.Backend.lifecycle.DrainCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Dispara el barrido de pagos vencidos cada payments.expiry.sweep-interval.
+ * Durante el apagado no arranca barridos nuevos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "payments.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentExpiryScheduler {
+
+    private final PaymentExpiryEngine paymentExpiryEngine;
+    private final DrainCoordinator drainCoordinator;
+
+    @Scheduled(fixedDelayString = "${payments.expiry.sweep-interval:60s}",
+               initialDelayString = "${payments.expiry.sweep-interval:60s}")
+    public void expireDuePayments() {
+        drainCoordinator.claimScheduled("payment-expiry").ifPresent(work -> {
+            try (work) {
+                paymentExpiryEngine.expireDuePayments();
+            } catch (Exception e) {
+                log.error("❌ Error en el barrido de pagos vencidos", e);
+            }
+        });
+    }
+}
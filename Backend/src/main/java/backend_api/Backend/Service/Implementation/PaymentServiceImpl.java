@@ -3,6 +3,8 @@ package backend_api.Backend.Service.Implementation;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentMethod;
 import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
+import backend_api.Backend.DTO.payment.PaymentField;
 import backend_api.Backend.Entity.payment.PaymentEventType;
 import backend_api.Backend.Repository.PaymentRepository;
 import backend_api.Backend.Service.Interface.PaymentService;
@@ -21,18 +23,25 @@ import backend_api.Backend.Entity.UserData;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Service.Interface.BalanceService;
+import backend_api.Backend.Service.Common.PaymentMetadataCodec;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import lombok.extern.slf4j.Slf4j;
+import jakarta.persistence.Tuple;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -63,6 +72,16 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private UserDataRepository userDataRepository;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private PaymentMetadataCodec paymentMetadataCodec;
+
+    // Vida de un pago PENDING_PAYMENT sin confirmar; después lo vence PaymentExpiryEngine
+    @Value("${payments.expiry.pending-ttl:24h}")
+    private Duration pendingPaymentTtl;
+
     @Override
     public Payment createPayment(Payment payment) {
         // Solo setear created_at si no viene con valor (para mantener compatibilidad)
@@ -70,6 +89,14 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setCreated_at(LocalDateTime.now());
         }
         payment.setUpdated_at(LocalDateTime.now());
+        if (payment.getStatus() == PaymentStatus.PENDING_PAYMENT && payment.getExpired_at() == null
+                && pendingPaymentTtl != null && !pendingPaymentTtl.isZero()) {
+            payment.setExpired_at(payment.getCreated_at().plus(pendingPaymentTtl));
+        }
+        // Metadata que llega armada (API): sus claves conocidas se copian a las columnas
+        if (payment.getMetadata() != null && payment.getIdCorrelacion() == null && payment.getMatchingId() == null) {
+            paymentMetadataCodec.promote(payment);
+        }
         return paymentRepository.save(payment);
     }
 
@@ -105,6 +132,11 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentPage.getContent();
     }
 
+    @Override
+    public List<Tuple> getPaymentFields(Set<PaymentField> fields, Long userId, Long providerId, int page, int size) {
+        return paymentRepository.findFields(fields, userId, providerId, Pageable.ofSize(size).withPage(page));
+    }
+
     @Override
     public List<Payment> getPaymentsByUserId(Long userId) {
         return paymentRepository.findByUserId(userId);
@@ -178,10 +210,16 @@ public class PaymentServiceImpl implements PaymentService {
             if (status == PaymentStatus.APPROVED) {
                 paymentToUpdate.setCaptured_at(LocalDateTime.now());
             }
+            // Pagos anteriores a la columna matching_id: se promueve una vez y queda guardada con este cambio
+            String metadata = paymentToUpdate.getMetadata();
+            if (paymentToUpdate.getMatchingId() == null && metadata != null && metadata.contains("matchingId")) {
+                paymentMetadataCodec.promote(paymentToUpdate);
+            }
 
             Payment savedPayment = paymentRepository.save(paymentToUpdate);
 
             publishPaymentStatusUpdate(savedPayment, oldStatus, status);
+            publishStatusChanged(savedPayment, oldStatus, status);
 
             return savedPayment;
         }
@@ -239,8 +277,7 @@ public class PaymentServiceImpl implements PaymentService {
         paymentEventService.createEvent(
                 paymentId,
                 PaymentEventType.AUTHORIZATION_STARTED,
-                String.format("{\"payment_method_type\": \"%s\", \"capture_immediately\": %s}", paymentMethodType,
-                        captureImmediately),
+                new PaymentEventPayload.AuthorizationStarted(paymentMethodType, captureImmediately),
                 "system");
 
         boolean success = simulateGatewayCall();
@@ -255,8 +292,7 @@ public class PaymentServiceImpl implements PaymentService {
             paymentEventService.createEvent(
                     paymentId,
                     PaymentEventType.PAYMENT_APPROVED,
-                    String.format("{\"gateway_txn_id\": \"%s\", \"captured_at\": \"%s\"}", payment.getGateway_txn_id(),
-                            payment.getCaptured_at()),
+                    new PaymentEventPayload.Captured(payment.getGateway_txn_id(), payment.getCaptured_at()),
                     "gateway");
 
             paymentAttemptService.createAttempt(paymentId, PaymentStatus.APPROVED, "success", "approved",
@@ -267,7 +303,7 @@ public class PaymentServiceImpl implements PaymentService {
             paymentEventService.createEvent(
                     paymentId,
                     PaymentEventType.PAYMENT_REJECTED,
-                    "{\"reason\": \"gateway_declined\", \"retry_allowed\": true}",
+                    new PaymentEventPayload.Declined("gateway_declined", true),
                     "gateway");
 
             paymentAttemptService.createAttempt(paymentId, PaymentStatus.REJECTED, "declined", "card_declined",
@@ -287,7 +323,7 @@ public class PaymentServiceImpl implements PaymentService {
         paymentEventService.createEvent(
                 paymentId,
                 PaymentEventType.PAYMENT_CANCELLED,
-                String.format("{\"reason\": \"%s\"}", reason),
+                new PaymentEventPayload.Cancelled(reason),
                 "system");
 
         return updatePaymentStatus(paymentId, PaymentStatus.CANCELLED);
@@ -303,7 +339,7 @@ public class PaymentServiceImpl implements PaymentService {
         paymentEventService.createEvent(
                 paymentId,
                 PaymentEventType.PAYMENT_EXPIRED,
-                "{\"expired_at\": \"" + LocalDateTime.now() + "\"}",
+                new PaymentEventPayload.Expired(LocalDateTime.now()),
                 "system");
 
         return updatePaymentStatus(paymentId, PaymentStatus.EXPIRED);
@@ -330,8 +366,7 @@ public class PaymentServiceImpl implements PaymentService {
         paymentEventService.createEvent(
                 paymentId,
                 PaymentEventType.RETRY_ATTEMPTED,
-                String.format("{\"attempt_number\": %d, \"max_attempts\": %d}",
-                        paymentAttemptService.getAttemptCount(paymentId) + 1, maxAttempts),
+                new PaymentEventPayload.RetryScheduled(paymentAttemptService.getAttemptCount(paymentId) + 1, maxAttempts),
                 "system");
 
         return confirmPayment(paymentId, "credit_card", null, true);
@@ -353,18 +388,7 @@ public class PaymentServiceImpl implements PaymentService {
             message.setGatewayTxnId(payment.getGateway_txn_id());
             message.setCapturedAt(payment.getCaptured_at());
 
-            if (payment.getMetadata() != null && payment.getMetadata().contains("matchingId")) {
-                try {
-                    com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                    @SuppressWarnings("unchecked")
-                    java.util.Map<String, Object> metadataMap = mapper.readValue(payment.getMetadata(),
-                            java.util.Map.class);
-                    if (metadataMap.containsKey("matchingId")) {
-                        message.setMatchingId(((Number) metadataMap.get("matchingId")).longValue());
-                    }
-                } catch (Exception e) {
-                }
-            }
+            message.setMatchingId(payment.getMatchingId());
 
             String reason = determineStatusChangeReason(oldStatus, newStatus);
             message.setReason(reason);
@@ -436,8 +460,7 @@ public class PaymentServiceImpl implements PaymentService {
         paymentEventService.createEvent(
                 paymentId,
                 PaymentEventType.PAYMENT_METHOD_UPDATED,
-                String.format("{\"payment_method_type\": \"%s\", \"payment_method_id\": %d}",
-                        paymentMethod.getType(), paymentMethod.getId()),
+                new PaymentEventPayload.MethodUpdated(paymentMethod.getType(), paymentMethod.getId()),
                 "user");
 
         Payment savedPayment = paymentRepository.save(payment);
@@ -493,11 +516,12 @@ public class PaymentServiceImpl implements PaymentService {
                         savedPayment.setRejected_by_balance(true);
                         savedPayment.setUpdated_at(LocalDateTime.now());
                         savedPayment = paymentRepository.save(savedPayment);
+                        publishStatusChanged(savedPayment, PaymentStatus.PENDING_PAYMENT, PaymentStatus.REJECTED);
 
                         paymentEventService.createEvent(
                                 paymentId,
                                 PaymentEventType.PAYMENT_REJECTED,
-                                String.format("{\"status\": \"rejected_insufficient_balance\", \"method\": \"%s\"}",
+                                new PaymentEventPayload.StatusChange("rejected_insufficient_balance",
                                         paymentMethod.getType()),
                                 "system");
 
@@ -516,13 +540,14 @@ public class PaymentServiceImpl implements PaymentService {
                 savedPayment.setCaptured_at(LocalDateTime.now());
                 savedPayment.setUpdated_at(LocalDateTime.now());
                 savedPayment = paymentRepository.save(savedPayment);
+                // Facturación automática y suscriptores SSE, igual que por updatePaymentStatus
+                publishStatusChanged(savedPayment, PaymentStatus.PENDING_PAYMENT, PaymentStatus.APPROVED);
 
                 // Registrar evento de aprobación
                 paymentEventService.createEvent(
                         paymentId,
                         PaymentEventType.PAYMENT_APPROVED,
-                        String.format("{\"status\": \"approved_automatically\", \"method\": \"%s\"}",
-                                paymentMethod.getType()),
+                        new PaymentEventPayload.StatusChange("approved_automatically", paymentMethod.getType()),
                         "system");
 
                 // Publicar actualización de estado al CORE
@@ -562,13 +587,13 @@ public class PaymentServiceImpl implements PaymentService {
             savedPayment.setStatus(PaymentStatus.PENDING_APPROVAL);
             savedPayment.setUpdated_at(LocalDateTime.now());
             savedPayment = paymentRepository.save(savedPayment);
+            publishStatusChanged(savedPayment, PaymentStatus.PENDING_PAYMENT, PaymentStatus.PENDING_APPROVAL);
 
             // Registrar evento de cambio a pendiente de aprobación
             paymentEventService.createEvent(
                     paymentId,
                     PaymentEventType.PAYMENT_PENDING,
-                    String.format("{\"status\": \"pending_bank_approval\", \"method\": \"%s\"}",
-                            paymentMethod.getType()),
+                    new PaymentEventPayload.StatusChange("pending_bank_approval", paymentMethod.getType()),
                     "system");
 
             log.info(
@@ -582,6 +607,12 @@ public class PaymentServiceImpl implements PaymentService {
         return savedPayment;
     }
 
+    // Suscriptores SSE/long-poll y facturación automática; se entrega después del commit
+    private void publishStatusChanged(Payment payment, PaymentStatus oldStatus, PaymentStatus newStatus) {
+        applicationEventPublisher.publishEvent(new PaymentStatusChangedEvent(
+                payment.getId(), oldStatus, newStatus, payment.getUpdated_at()));
+    }
+
     private void publishMethodSelectedEvent(Payment payment, PaymentMethod paymentMethod) {
         try {
             PaymentMethodSelectedMessage message = new PaymentMethodSelectedMessage();
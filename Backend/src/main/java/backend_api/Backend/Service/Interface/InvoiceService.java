@@ -2,6 +2,7 @@ package backend_api.Backend.Service.Interface;
 
 import backend_api.Backend.DTO.invoice.*;
 import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.document.StoredDocument;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -22,13 +23,17 @@ public interface InvoiceService {
     
     Page<InvoiceResponse> searchInvoices(InvoiceSearchRequest request);
     Page<InvoiceResponse> getInvoicesByUserId(Long userId, int page, int size);
+    Page<InvoiceResponse> getInvoicesByUserId(Long userId, int page, int size, boolean includeLines);
     Page<InvoiceResponse> getInvoicesByProviderId(Long providerId, int page, int size);
+    Page<InvoiceResponse> getInvoicesByProviderId(Long providerId, int page, int size, boolean includeLines);
     Page<InvoiceResponse> getInvoicesByStatus(InvoiceStatus status, int page, int size);
+    Page<InvoiceResponse> getInvoicesByStatus(InvoiceStatus status, int page, int size, boolean includeLines);
     List<InvoiceResponse> getInvoicesByPaymentId(Long paymentId);
     
     String generatePdf(Long id);
     String regeneratePdf(Long id);
     byte[] downloadPdf(Long id);
+    StoredDocument getPdfDocument(Long id);
     
     List<InvoiceEventResponse> getInvoiceTimeline(Long id);
     
@@ -38,6 +43,7 @@ public interface InvoiceService {
     void processOverdueInvoices();
     void sendDueReminders();
     List<InvoiceResponse> getInvoicesDueSoon(int days);
+    List<InvoiceResponse> getInvoicesDueSoon(int days, boolean includeLines);
     
     boolean validateInvoiceOwnership(Long invoiceId, Long userId);
     boolean canModifyInvoice(Long invoiceId);
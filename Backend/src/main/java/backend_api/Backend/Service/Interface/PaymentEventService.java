@@ -1,5 +1,6 @@
 package backend_api.Backend.Service.Interface;
 
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.payment.PaymentEvent;
 import backend_api.Backend.Entity.payment.PaymentEventType;
 
@@ -12,6 +13,10 @@ public interface PaymentEventService {
     
     PaymentEvent createEvent(Long paymentId, PaymentEventType type, String payload, String actor, String eventSource);
     
+    PaymentEvent createEvent(Long paymentId, PaymentEventType type, PaymentEventPayload payload, String actor);
+    
+    PaymentEvent createEvent(Long paymentId, PaymentEventType type, PaymentEventPayload payload, String actor, String eventSource);
+    
     List<PaymentEvent> getPaymentTimeline(Long paymentId);
     
     List<PaymentEvent> getEventsByType(PaymentEventType type);
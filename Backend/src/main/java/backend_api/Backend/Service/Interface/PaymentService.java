@@ -1,13 +1,17 @@
 package backend_api.Backend.Service.Interface;
 
+import backend_api.Backend.DTO.payment.PaymentField;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentMethod;
 import backend_api.Backend.Entity.payment.PaymentStatus;
 
+import jakarta.persistence.Tuple;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +28,9 @@ public interface PaymentService {
     List<Payment> getPaymentsByUserId(Long userId, int page, int size);
     List<Payment> getPaymentsByProviderId(Long providerId, int page, int size);
 
+    // Listados con sólo los campos pedidos (userId y providerId null: todos los pagos)
+    List<Tuple> getPaymentFields(Set<PaymentField> fields, Long userId, Long providerId, int page, int size);
+
 
     List<Payment> getPaymentsByUserId(Long userId);
 
@@ -0,0 +1,56 @@
+package backend_api.Backend.archive;
+
+import backend_api.Backend.Repository.BatchJobCheckpointRepository;
+import backend_api.Backend.lifecycle.DrainCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Dispara el archivado de eventos fuera del horario de tráfico (archive.cron).
+ * Durante el apagado no arranca corridas nuevas; si el apagado cortó una, se
+ * retoma al arrancar.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventArchiveScheduler {
+
+    private static final List<String> JOBS = List.of(
+            EventArchiver.PAYMENT_EVENTS_JOB, EventArchiver.PAYMENT_ATTEMPTS_JOB, EventArchiver.INVOICE_EVENTS_JOB);
+
+    private final EventArchiver eventArchiver;
+    private final DrainCoordinator drainCoordinator;
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final TaskScheduler taskScheduler;
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void archiveEvents() {
+        drainCoordinator.claimScheduled("event-archive").ifPresent(work -> {
+            try (work) {
+                eventArchiver.archiveAll();
+            } catch (Exception e) {
+                log.error("❌ Error archivando eventos", e);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRuns() {
+        try {
+            if (checkpointRepository.findIncompleteJobNames().stream().anyMatch(JOBS::contains)) {
+                log.info("↩️ Archivado de eventos sin terminar, se retoma al arrancar");
+                taskScheduler.schedule(this::archiveEvents, Instant.now());
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudieron leer los checkpoints del archivado, se retoma en el próximo cron", e);
+        }
+    }
+}
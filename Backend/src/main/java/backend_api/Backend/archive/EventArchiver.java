@@ -0,0 +1,238 @@
+package backend_api.Backend.archive;
+
+import backend_api.Backend.Entity.BatchJobCheckpoint;
+import backend_api.Backend.Repository.BatchJobCheckpointRepository;
+import backend_api.Backend.Repository.InvoiceEventArchiveRepository;
+import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Repository.PaymentAttemptArchiveRepository;
+import backend_api.Backend.Repository.PaymentAttemptRepository;
+import backend_api.Backend.Repository.PaymentEventArchiveRepository;
+import backend_api.Backend.Repository.PaymentEventRepository;
+import backend_api.Backend.lifecycle.DrainCoordinator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mueve a las tablas *_archive los eventos e intentos anteriores al horizonte de
+ * retención, para que payment_events, payment_attempts e invoice_events (y sus
+ * índices) conserven sólo la ventana reciente. Cada chunk copia por INSERT ... SELECT
+ * y borra de la tabla caliente en la misma transacción, con el checkpoint del job
+ * bloqueado; entre chunks se duerme archive.throttle para no competir con el tráfico
+ * y cada corrida procesa como máximo archive.max-chunks-per-run chunks por tabla.
+ * Lo que quede pendiente (o lo que cortó el apagado) lo retoma la corrida
+ * siguiente con el mismo horizonte.
+ */
+@Component
+@Slf4j
+public class EventArchiver {
+
+    public static final String PAYMENT_EVENTS_JOB = "archive-payment-events";
+    public static final String PAYMENT_ATTEMPTS_JOB = "archive-payment-attempts";
+    public static final String INVOICE_EVENTS_JOB = "archive-invoice-events";
+
+    private final BatchJobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final MeterRegistry meterRegistry;
+    private final DrainCoordinator drainCoordinator;
+    private final List<Tier> tiers;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.horizon:180d}")
+    private Duration horizon;
+
+    @Value("${archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${archive.throttle:200ms}")
+    private Duration throttle;
+
+    @Value("${archive.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    public EventArchiver(PaymentEventRepository paymentEventRepository,
+                         PaymentEventArchiveRepository paymentEventArchiveRepository,
+                         PaymentAttemptRepository paymentAttemptRepository,
+                         PaymentAttemptArchiveRepository paymentAttemptArchiveRepository,
+                         InvoiceEventRepository invoiceEventRepository,
+                         InvoiceEventArchiveRepository invoiceEventArchiveRepository,
+                         BatchJobCheckpointRepository checkpointRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         DrainCoordinator drainCoordinator) {
+        this.checkpointRepository = checkpointRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.drainCoordinator = drainCoordinator;
+        this.tiers = List.of(
+                new Tier(PAYMENT_EVENTS_JOB, paymentEventRepository::findIdsCreatedBefore,
+                        paymentEventArchiveRepository::archiveByIds, paymentEventRepository::deleteByIds),
+                new Tier(PAYMENT_ATTEMPTS_JOB, paymentAttemptRepository::findIdsCreatedBefore,
+                        paymentAttemptArchiveRepository::archiveByIds, paymentAttemptRepository::deleteByIds),
+                new Tier(INVOICE_EVENTS_JOB, invoiceEventRepository::findIdsCreatedBefore,
+                        invoiceEventArchiveRepository::archiveByIds, invoiceEventRepository::deleteByIds));
+    }
+
+    public record ArchiveRunResult(String job, long archived, int chunks, boolean completed, Duration elapsed) {
+    }
+
+    @FunctionalInterface
+    private interface IdSelector {
+        List<Long> select(LocalDateTime cutoff, Long afterId, Pageable pageable);
+    }
+
+    @FunctionalInterface
+    private interface ArchiveCopy {
+        int copy(List<Long> ids, LocalDateTime archivedAt);
+    }
+
+    @FunctionalInterface
+    private interface HotDelete {
+        int delete(List<Long> ids);
+    }
+
+    private record Tier(String job, IdSelector selector, ArchiveCopy copy, HotDelete delete) {
+    }
+
+    /**
+     * Archiva las tres tablas en secuencia. Con archive.enabled=false no hace nada.
+     */
+    public List<ArchiveRunResult> archiveAll() {
+        List<ArchiveRunResult> results = new ArrayList<>(tiers.size());
+        if (!enabled) {
+            return results;
+        }
+        for (Tier tier : tiers) {
+            ArchiveRunResult result = run(tier);
+            results.add(result);
+            if (Thread.currentThread().isInterrupted() || drainCoordinator.isDraining()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private ArchiveRunResult run(Tier tier) {
+        long runStart = System.nanoTime();
+        chunkTransaction.executeWithoutResult(status -> startOrResume(tier.job()));
+
+        Timer chunkTimer = Timer.builder("archive.chunk")
+                .description("Duración de cada chunk del archivado de eventos")
+                .tag("job", tier.job())
+                .register(meterRegistry);
+        Counter rowsCounter = Counter.builder("archive.rows")
+                .description("Filas movidas de la tabla caliente al archivo")
+                .tag("job", tier.job())
+                .register(meterRegistry);
+
+        long archived = 0;
+        int chunks = 0;
+        boolean completed = false;
+        while (chunks < maxChunksPerRun) {
+            long chunkStart = System.nanoTime();
+            Integer chunkRows = chunkTransaction.execute(status -> processChunk(tier));
+            if (chunkRows == null) {
+                completed = true;
+                break;
+            }
+            long chunkNanos = System.nanoTime() - chunkStart;
+            chunkTimer.record(Duration.ofNanos(chunkNanos));
+            rowsCounter.increment(chunkRows);
+            archived += chunkRows;
+            chunks++;
+            log.info("🗄️ Archivado {} - chunk {}: {} filas en {} ms", tier.job(), chunks, chunkRows, chunkNanos / 1_000_000);
+            if (!pause()) {
+                break;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - runStart);
+        if (completed) {
+            log.info("✅ Archivado {} completado: {} filas en {} chunks, {} ms", tier.job(), archived, chunks, elapsed.toMillis());
+        } else {
+            log.info("⏸️ Archivado {} pausado tras {} chunks ({} filas); la próxima corrida retoma desde el checkpoint",
+                    tier.job(), chunks, archived);
+        }
+        return new ArchiveRunResult(tier.job(), archived, chunks, completed, elapsed);
+    }
+
+    private void startOrResume(String job) {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findForUpdate(job)
+                .orElseGet(() -> new BatchJobCheckpoint(job));
+        if (checkpoint.getCutoff() != null && !Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            log.info("↩️ Archivado {} retoma desde id {} ({} filas ya archivadas)",
+                    job, checkpoint.getLastProcessedId(), checkpoint.getProcessedCount());
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setLastProcessedId(0L);
+        checkpoint.setProcessedCount(0L);
+        checkpoint.setCompleted(Boolean.FALSE);
+        // El cutoff del checkpoint es el horizonte: se archiva lo creado antes de esa fecha
+        checkpoint.setCutoff(now.minus(horizon));
+        checkpoint.setStartedAt(now);
+        checkpoint.setUpdatedAt(now);
+        checkpointRepository.save(checkpoint);
+    }
+
+    // Devuelve las filas archivadas, o null cuando no quedan más (o otra instancia ya terminó la corrida)
+    private Integer processChunk(Tier tier) {
+        BatchJobCheckpoint checkpoint = checkpointRepository.findForUpdate(tier.job()).orElseThrow();
+        if (Boolean.TRUE.equals(checkpoint.getCompleted())) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        checkpoint.setUpdatedAt(now);
+        List<Long> ids = tier.selector().select(checkpoint.getCutoff(), checkpoint.getLastProcessedId(),
+                PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            checkpoint.setCompleted(Boolean.TRUE);
+            return null;
+        }
+
+        int copied = tier.copy().copy(ids, now);
+        int deleted = tier.delete().delete(ids);
+        if (copied != deleted) {
+            // Rollback del chunk: nunca se borra de la tabla caliente algo que no quedó en el archivo
+            throw new IllegalStateException("Archivado " + tier.job() + ": se copiaron " + copied
+                    + " filas y se borraron " + deleted);
+        }
+        checkpoint.setLastProcessedId(ids.get(ids.size() - 1));
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + deleted);
+        return deleted;
+    }
+
+    private boolean pause() {
+        if (drainCoordinator.isDraining()) {
+            return false;
+        }
+        if (throttle.isZero() || throttle.isNegative()) {
+            return true;
+        }
+        try {
+            Thread.sleep(throttle.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
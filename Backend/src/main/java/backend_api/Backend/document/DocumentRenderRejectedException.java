@@ -0,0 +1,14 @@
+package backend_api.Backend.document;
+
+/**
+ * El pool de render está saturado o el render superó el tiempo máximo.
+ * Se responde 503 para que el cliente reintente.
+ */
+public class DocumentRenderRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DocumentRenderRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package backend_api.Backend.document;
+
+import java.util.Optional;
+
+/**
+ * Almacenamiento de documentos renderizados, direccionado por hash de contenido.
+ * Las implementaciones deben dejar el archivo en disco local (directamente o
+ * como caché de un almacenamiento remoto) para poder servirlo con FileChannel.
+ */
+public interface DocumentStore {
+
+    Optional<StoredDocument> find(String key);
+
+    StoredDocument put(String key, byte[] content);
+}
@@ -0,0 +1,121 @@
+package backend_api.Backend.document;
+
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Devuelve el PDF de una factura desde el {@link DocumentStore} y sólo lo
+ * renderiza cuando no existe uno para el hash de contenido actual. Los renders
+ * corren en un pool acotado; pedidos concurrentes de la misma factura
+ * comparten un único render.
+ */
+@Service
+@Slf4j
+public class InvoiceDocumentService {
+
+    private final InvoicePdfRenderer renderer;
+    private final DocumentStore documentStore;
+    private final ThreadPoolExecutor renderPool;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredDocument>> inFlight = new ConcurrentHashMap<>();
+    private final Duration renderTimeout;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer renderTimer;
+
+    public InvoiceDocumentService(InvoicePdfRenderer renderer,
+                                  DocumentStore documentStore,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${invoice.documents.render-threads:2}") int renderThreads,
+                                  @Value("${invoice.documents.render-queue-capacity:32}") int queueCapacity,
+                                  @Value("${invoice.documents.render-timeout:10s}") Duration renderTimeout) {
+        this.renderer = renderer;
+        this.documentStore = documentStore;
+        this.renderTimeout = renderTimeout;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.renderPool = new ThreadPoolExecutor(renderThreads, renderThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "invoice-pdf-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.renderPool.allowCoreThreadTimeOut(true);
+
+        this.hits = Counter.builder("invoice.documents.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("invoice.documents.requests").tag("result", "miss").register(meterRegistry);
+        this.renderTimer = Timer.builder("invoice.documents.render")
+                .description("Tiempo de render y guardado de PDFs de factura")
+                .register(meterRegistry);
+        meterRegistry.gauge("invoice.documents.render.queue", renderPool, pool -> pool.getQueue().size());
+    }
+
+    public StoredDocument getOrRender(Invoice invoice, List<InvoiceLine> lines) {
+        InvoicePdfRenderer.PreparedDocument prepared = renderer.prepare(invoice, lines);
+
+        Optional<StoredDocument> stored = documentStore.find(prepared.contentKey());
+        if (stored.isPresent()) {
+            hits.increment();
+            return stored.get();
+        }
+        misses.increment();
+
+        CompletableFuture<StoredDocument> render;
+        try {
+            render = inFlight.computeIfAbsent(prepared.contentKey(), key -> submit(prepared));
+        } catch (RejectedExecutionException e) {
+            throw new DocumentRenderRejectedException("Pool de render de PDFs saturado", e);
+        }
+        // Fuera de computeIfAbsent: si el render ya terminó, el callback corre en este hilo
+        render.whenComplete((document, error) -> inFlight.remove(prepared.contentKey(), render));
+
+        try {
+            return render.get(renderTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new DocumentRenderRejectedException("El render del PDF superó " + renderTimeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentRenderRejectedException("Render del PDF interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error renderizando el PDF de la factura " + invoice.getId(), e.getCause());
+        }
+    }
+
+    private CompletableFuture<StoredDocument> submit(InvoicePdfRenderer.PreparedDocument prepared) {
+        return CompletableFuture.supplyAsync(() -> renderTimer.record(() -> {
+            // Otro nodo o un pedido anterior pudo haberlo guardado mientras esperaba en la cola
+            return documentStore.find(prepared.contentKey())
+                    .orElseGet(() -> documentStore.put(prepared.contentKey(), renderer.render(prepared)));
+        }), renderPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdown();
+    }
+}
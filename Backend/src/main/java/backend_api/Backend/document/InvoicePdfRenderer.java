@@ -0,0 +1,146 @@
+package backend_api.Backend.document;
+
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Arma el PDF de una factura a partir de templates/invoice-pdf.txt. El texto
+ * resultante de aplicar la plantilla es también la base del hash de contenido:
+ * si no cambian ni los datos de la factura ni la plantilla, la clave es la misma.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    private static final String TEMPLATE_PATH = "templates/invoice-pdf.txt";
+    private static final String ROW_PREFIX = "@row ";
+    private static final String COMMENT_PREFIX = "##";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)(?::(>?)(\\d+))?}}");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final List<String> templateLines;
+
+    public InvoicePdfRenderer() {
+        try {
+            String template = new ClassPathResource(TEMPLATE_PATH).getContentAsString(StandardCharsets.UTF_8);
+            this.templateLines = template.lines()
+                    .filter(line -> !line.startsWith(COMMENT_PREFIX))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la plantilla " + TEMPLATE_PATH, e);
+        }
+    }
+
+    /** Texto de la factura ya aplicado a la plantilla, con su clave de contenido. */
+    public record PreparedDocument(String contentKey, List<String> textLines) {
+    }
+
+    public PreparedDocument prepare(Invoice invoice, List<InvoiceLine> lines) {
+        Map<String, String> header = headerValues(invoice);
+        List<String> text = new ArrayList<>();
+        for (String templateLine : templateLines) {
+            if (templateLine.startsWith(ROW_PREFIX)) {
+                String rowTemplate = templateLine.substring(ROW_PREFIX.length());
+                for (InvoiceLine line : lines) {
+                    text.add(apply(rowTemplate, lineValues(line)));
+                }
+            } else {
+                text.add(apply(templateLine, header));
+            }
+        }
+        return new PreparedDocument(sha256(String.join("\n", text)), text);
+    }
+
+    public byte[] render(PreparedDocument document) {
+        return PdfDocumentBuilder.build(document.textLines());
+    }
+
+    private Map<String, String> headerValues(Invoice invoice) {
+        Map<String, String> values = new HashMap<>();
+        values.put("invoiceNumber", text(invoice.getInvoiceNumber()));
+        values.put("issueDate", date(invoice.getIssueDate()));
+        values.put("dueDate", date(invoice.getDueDate()));
+        values.put("type", text(invoice.getType()));
+        values.put("status", text(invoice.getStatus()));
+        values.put("userId", text(invoice.getUserId()));
+        values.put("providerId", text(invoice.getProviderId()));
+        values.put("paymentId", text(invoice.getPaymentId()));
+        values.put("subtotalAmount", amount(invoice.getSubtotalAmount()));
+        values.put("taxAmount", amount(invoice.getTaxAmount()));
+        values.put("discountAmount", amount(invoice.getDiscountAmount()));
+        values.put("totalAmount", amount(invoice.getTotalAmount()));
+        values.put("currency", text(invoice.getCurrency()));
+        values.put("notes", text(invoice.getNotes()));
+        return values;
+    }
+
+    private Map<String, String> lineValues(InvoiceLine line) {
+        Map<String, String> values = new HashMap<>();
+        values.put("lineNumber", text(line.getLineNumber()));
+        values.put("description", text(line.getDescription()));
+        values.put("quantity", text(line.getQuantity()));
+        values.put("unitPrice", amount(line.getUnitPrice()));
+        BigDecimal lineTotal = line.getTotalAmount() != null ? line.getTotalAmount() : line.getSubtotal();
+        values.put("lineTotal", amount(lineTotal));
+        return values;
+    }
+
+    private static String apply(String template, Map<String, String> values) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            String value = values.getOrDefault(matcher.group(1), "");
+            if (matcher.group(3) != null) {
+                int width = Integer.parseInt(matcher.group(3));
+                if (value.length() > width) {
+                    value = value.substring(0, width);
+                }
+                value = ">".equals(matcher.group(2))
+                        ? " ".repeat(width - value.length()) + value
+                        : value + " ".repeat(width - value.length());
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(out);
+        return out.toString().stripTrailing();
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static String date(LocalDateTime value) {
+        return value != null ? value.format(DATE_FORMAT) : "";
+    }
+
+    private static String amount(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP).toPlainString() : "";
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
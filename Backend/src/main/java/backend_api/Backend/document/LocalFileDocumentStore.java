@@ -0,0 +1,71 @@
+package backend_api.Backend.document;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Guarda cada documento en {dir}/{2 primeros caracteres del hash}/{hash}.pdf.
+ * La escritura va a un temporal y se mueve de forma atómica, así un lector
+ * nunca ve un PDF a medio escribir.
+ */
+@Component
+@ConditionalOnProperty(name = "invoice.documents.store", havingValue = "local", matchIfMissing = true)
+public class LocalFileDocumentStore implements DocumentStore {
+
+    private final Path baseDir;
+
+    public LocalFileDocumentStore(@Value("${invoice.documents.dir:${java.io.tmpdir}/invoice-documents}") String baseDir) {
+        this.baseDir = Paths.get(baseDir);
+    }
+
+    @Override
+    public Optional<StoredDocument> find(String key) {
+        Path path = pathFor(key);
+        try {
+            return Files.isRegularFile(path)
+                    ? Optional.of(new StoredDocument(key, path, Files.size(path)))
+                    : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public StoredDocument put(String key, byte[] content) {
+        Path path = pathFor(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, content);
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return new StoredDocument(key, path, content.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el documento " + key, e);
+        }
+    }
+
+    private Path pathFor(String key) {
+        if (!key.matches("[0-9a-f]{16,128}")) {
+            throw new IllegalArgumentException("Clave de documento inválida: " + key);
+        }
+        return baseDir.resolve(key.substring(0, 2)).resolve(key + ".pdf");
+    }
+}
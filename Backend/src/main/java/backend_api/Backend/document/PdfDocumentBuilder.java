@@ -0,0 +1,119 @@
+package backend_api.Backend.document;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escritor mínimo de PDF 1.4: páginas A4 de texto monoespaciado con la fuente
+ * estándar Courier (no requiere embeber fuentes). La salida es determinista,
+ * sin fechas de creación, para que el mismo contenido produzca los mismos bytes.
+ */
+final class PdfDocumentBuilder {
+
+    private static final Charset WIN_ANSI = Charset.forName("windows-1252");
+
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+    private static final int MARGIN = 50;
+    private static final int FONT_SIZE = 9;
+    private static final int LEADING = 12;
+
+    static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING;
+
+    private PdfDocumentBuilder() {
+    }
+
+    static byte[] build(List<String> textLines) {
+        List<List<String>> pages = new ArrayList<>();
+        for (int from = 0; from < Math.max(textLines.size(), 1); from += LINES_PER_PAGE) {
+            pages.add(textLines.subList(Math.min(from, textLines.size()), Math.min(from + LINES_PER_PAGE, textLines.size())));
+        }
+
+        PdfOutput out = new PdfOutput();
+        out.raw("%PDF-1.4\n%âãÏÓ\n");
+
+        // 1: catálogo, 2: árbol de páginas, 3: fuente, luego (página, contenido) por cada página
+        int pageCount = pages.size();
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            kids.append(4 + i * 2).append(" 0 R ");
+        }
+
+        out.object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+        out.object(2, "<< /Type /Pages /Kids [ " + kids + "] /Count " + pageCount + " >>");
+        out.object(3, "<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>");
+
+        for (int i = 0; i < pageCount; i++) {
+            int pageId = 4 + i * 2;
+            int contentId = pageId + 1;
+            out.object(pageId, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+                    + " /Resources << /Font << /F1 3 0 R >> >> /Contents " + contentId + " 0 R >>");
+            out.stream(contentId, contentStream(pages.get(i)));
+        }
+
+        out.trailer(3 + pageCount * 2);
+        return out.toByteArray();
+    }
+
+    private static byte[] contentStream(List<String> lines) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        write(content, "BT\n/F1 " + FONT_SIZE + " Tf\n" + LEADING + " TL\n" + MARGIN + " " + (PAGE_HEIGHT - MARGIN) + " Td\n");
+        for (String line : lines) {
+            content.write('(');
+            byte[] encoded = line.getBytes(WIN_ANSI);
+            for (byte b : encoded) {
+                if (b == '(' || b == ')' || b == '\\') {
+                    content.write('\\');
+                }
+                content.write(b);
+            }
+            write(content, ") Tj T*\n");
+        }
+        write(content, "ET\n");
+        return content.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String ascii) {
+        out.writeBytes(ascii.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static final class PdfOutput {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        private final List<Integer> offsets = new ArrayList<>();
+
+        void raw(String text) {
+            buffer.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        void object(int id, String body) {
+            offsets.add(buffer.size());
+            raw(id + " 0 obj\n" + body + "\nendobj\n");
+        }
+
+        void stream(int id, byte[] data) {
+            offsets.add(buffer.size());
+            raw(id + " 0 obj\n<< /Length " + data.length + " >>\nstream\n");
+            buffer.writeBytes(data);
+            raw("\nendstream\nendobj\n");
+        }
+
+        void trailer(int objectCount) {
+            int xrefOffset = buffer.size();
+            StringBuilder xref = new StringBuilder("xref\n0 " + (objectCount + 1) + "\n0000000000 65535 f \n");
+            for (int offset : offsets) {
+                xref.append(String.format("%010d 00000 n \n", offset));
+            }
+            xref.append("trailer\n<< /Size ").append(objectCount + 1).append(" /Root 1 0 R >>\n")
+                    .append("startxref\n").append(xrefOffset).append("\n%%EOF\n");
+            raw(xref.toString());
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+}
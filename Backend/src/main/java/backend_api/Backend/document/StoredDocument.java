@@ -0,0 +1,9 @@
+package backend_api.Backend.document;
+
+import java.nio.file.Path;
+
+/**
+ * Documento ya renderizado. La clave es el hash de contenido y sirve también de ETag.
+ */
+public record StoredDocument(String key, Path path, long size) {
+}
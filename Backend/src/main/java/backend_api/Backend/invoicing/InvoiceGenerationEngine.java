@@ -0,0 +1,265 @@
+package backend_api.Backend.invoicing;
+
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceEvent;
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import backend_api.Backend.Entity.invoice.InvoiceType;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Service.Common.InvoiceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Genera las facturas de pagos aprobados por lotes, con el mismo contenido
+ * que POST /api/invoices/create-from-payment: una query IN para descartar los
+ * pagos que ya tienen factura, otra para cargar los pagos, números de un
+ * bloque reservado y los INSERT de facturas, líneas y eventos agrupados por
+ * tabla en batches JDBC. Cada lote es una transacción.
+ *
+ * El descarte previo no toma locks: si otro camino factura el mismo pago
+ * entre medio, el índice único de standard_payment_id hace fallar el lote y
+ * se repite una vez, ya con ese pago contado como facturado.
+ */
+@Service
+@Slf4j
+public class InvoiceGenerationEngine {
+
+    private static final String LINE_DESCRIPTION = "Pago por servicios";
+    private static final String CREATED_DESCRIPTION = "Factura creada automáticamente desde pago";
+
+    private final PaymentRepository paymentRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceNumberAllocator numberAllocator;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate batchTransaction;
+
+    private final Timer batchTimer;
+    private final Counter createdCounter;
+    private final Counter skippedCounter;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${invoice.generation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${invoice.generation.due-days:30}")
+    private int dueDays;
+
+    public InvoiceGenerationEngine(PaymentRepository paymentRepository,
+                                   InvoiceRepository invoiceRepository,
+                                   InvoiceNumberAllocator numberAllocator,
+                                   ApplicationEventPublisher applicationEventPublisher,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.numberAllocator = numberAllocator;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.batchTimer = Timer.builder("invoice.generation.batch")
+                .description("Duración de cada lote de generación de facturas")
+                .register(meterRegistry);
+        this.createdCounter = Counter.builder("invoice.generation.invoices")
+                .tag("result", "created")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("invoice.generation.invoices")
+                .description("Pagos sin factura nueva: ya facturados, no aprobados o sin monto/moneda")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+    }
+
+    public record GenerationResult(long created, long skipped, Duration elapsed) {
+    }
+
+    private record BatchOutcome(int created, int skipped) {
+    }
+
+    /**
+     * Factura los pagos indicados en lotes de batch-size.
+     */
+    public GenerationResult generate(Collection<Long> paymentIds) {
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(new HashSet<>(paymentIds));
+        long created = 0;
+        long skipped = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            BatchOutcome outcome = runBatch(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            created += outcome.created();
+            skipped += outcome.skipped();
+        }
+        return new GenerationResult(created, skipped, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Factura los pagos aprobados entre from y to (captured_at, o created_at
+     * si falta) que todavía no tienen factura. Recorre por id, así que se puede
+     * cortar y volver a lanzar sin duplicar.
+     */
+    public GenerationResult backfill(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        long afterId = 0;
+        long created = 0;
+        long skipped = 0;
+        int batches = 0;
+        while (true) {
+            List<Long> ids = paymentRepository.findIdsWithoutInvoice(
+                    PaymentStatus.APPROVED, from, to, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            long batchStart = System.nanoTime();
+            BatchOutcome outcome = runBatch(ids);
+            long batchNanos = System.nanoTime() - batchStart;
+            afterId = ids.get(ids.size() - 1);
+            created += outcome.created();
+            skipped += outcome.skipped();
+            batches++;
+            log.info("🧾 Backfill de facturas - lote {}: {} facturas en {} ms ({} facturas/s)",
+                    batches, outcome.created(), batchNanos / 1_000_000, throughput(outcome.created(), batchNanos));
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("✅ Backfill de facturas {} - {} completado: {} facturas, {} omitidos, {} ms ({} facturas/s)",
+                from, to, created, skipped, elapsed.toMillis(), throughput(created, elapsed.toNanos()));
+        return new GenerationResult(created, skipped, elapsed);
+    }
+
+    /**
+     * true si la excepción viene de insertar una segunda factura STANDARD para
+     * el mismo pago, o sea, el pago ya quedó facturado por otro camino.
+     */
+    public static boolean isDuplicateStandardInvoice(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(Invoice.UK_STANDARD_PAYMENT_ID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BatchOutcome runBatch(List<Long> paymentIds) {
+        long start = System.nanoTime();
+        BatchOutcome outcome;
+        try {
+            outcome = batchTransaction.execute(status -> generateBatch(paymentIds));
+        } catch (RuntimeException e) {
+            if (!isDuplicateStandardInvoice(e)) {
+                throw e;
+            }
+            log.info("🧾 Otro proceso facturó pagos de este lote en paralelo, se repite sin ellos");
+            outcome = batchTransaction.execute(status -> generateBatch(paymentIds));
+        }
+        batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        createdCounter.increment(outcome.created());
+        skippedCounter.increment(outcome.skipped());
+        return outcome;
+    }
+
+    private BatchOutcome generateBatch(List<Long> paymentIds) {
+        Set<Long> invoiced = new HashSet<>(invoiceRepository.findPaymentIdsWithInvoice(paymentIds));
+        List<Long> pending = paymentIds.stream().filter(id -> !invoiced.contains(id)).toList();
+        if (pending.isEmpty()) {
+            return new BatchOutcome(0, paymentIds.size());
+        }
+
+        List<Payment> payments = new ArrayList<>();
+        for (Payment payment : paymentRepository.findAllById(pending)) {
+            if (payment.getStatus() == PaymentStatus.APPROVED && payment.getAmount_total() != null
+                    && payment.getCurrency() != null) {
+                payments.add(payment);
+            }
+        }
+
+        // Los INSERT salen agrupados por tabla (todas las facturas, luego líneas, luego eventos)
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        LocalDateTime now = LocalDateTime.now();
+        List<Invoice> invoices = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            Invoice invoice = newInvoice(payment, now);
+            entityManager.persist(invoice);
+            invoices.add(invoice);
+        }
+        for (int i = 0; i < invoices.size(); i++) {
+            entityManager.persist(newLine(invoices.get(i).getId(), payments.get(i).getAmount_total()));
+        }
+        List<Long> invoiceIds = new ArrayList<>(invoices.size());
+        for (Invoice invoice : invoices) {
+            InvoiceEvent event = new InvoiceEvent();
+            event.setInvoiceId(invoice.getId());
+            event.setEventType(InvoiceEventType.INVOICE_CREATED);
+            event.setDescription(CREATED_DESCRIPTION);
+            event.setCreatedBy(invoice.getProviderId());
+            entityManager.persist(event);
+            invoiceIds.add(invoice.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        if (!invoiceIds.isEmpty()) {
+            applicationEventPublisher.publishEvent(new InvoiceChangedEvent(invoiceIds, InvoiceEventType.INVOICE_CREATED));
+        }
+        return new BatchOutcome(invoices.size(), paymentIds.size() - invoices.size());
+    }
+
+    private Invoice newInvoice(Payment payment, LocalDateTime now) {
+        Invoice invoice = new Invoice();
+        invoice.setPaymentId(payment.getId());
+        invoice.setUserId(payment.getUser_id());
+        invoice.setProviderId(payment.getProvider_id());
+        invoice.setType(InvoiceType.STANDARD);
+        invoice.setCurrency(payment.getCurrency());
+        invoice.setIssueDate(now);
+        invoice.setDueDate(now.plusDays(dueDays));
+        invoice.setInvoiceNumber(numberAllocator.next(payment.getProvider_id()));
+        // Una línea de cantidad 1 sin impuestos ni descuentos, como create-from-payment
+        invoice.setSubtotalAmount(payment.getAmount_total());
+        invoice.setTaxAmount(BigDecimal.ZERO);
+        invoice.setDiscountAmount(BigDecimal.ZERO);
+        invoice.setTotalAmount(payment.getAmount_total());
+        return invoice;
+    }
+
+    private static InvoiceLine newLine(Long invoiceId, BigDecimal amount) {
+        InvoiceLine line = new InvoiceLine();
+        line.setInvoiceId(invoiceId);
+        line.setDescription(LINE_DESCRIPTION);
+        line.setQuantity(1);
+        line.setUnitPrice(amount);
+        line.setLineNumber(1);
+        return line;
+    }
+
+    private static long throughput(long rows, long nanos) {
+        return nanos > 0 ? rows * 1_000_000_000L / nanos : rows;
+    }
+}
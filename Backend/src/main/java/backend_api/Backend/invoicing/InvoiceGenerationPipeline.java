@@ -0,0 +1,147 @@
+package backend_api.Backend.invoicing;
+
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.lifecycle.PendingWorkFlusher;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Factura los pagos que pasan a APPROVED sin esperar a que alguien llame a
+ * create-from-payment. Los ids se juntan durante una ventana corta (o hasta
+ * batch-size) y un único hilo los pasa a {@link InvoiceGenerationEngine}
+ * como un lote. Si el lote falla, se reintenta pago por pago para que un
+ * pago con datos inválidos no deje sin factura al resto.
+ *
+ * Escucha después del commit del cambio de estado: un pago cuya aprobación
+ * se revierte nunca llega acá.
+ */
+@Component
+@Slf4j
+public class InvoiceGenerationPipeline implements PendingWorkFlusher {
+
+    private final InvoiceGenerationEngine engine;
+    private final boolean enabled;
+    private final Duration window;
+    private final int batchSize;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final Counter accepted;
+    private final Counter failed;
+
+    public InvoiceGenerationPipeline(InvoiceGenerationEngine engine,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${invoice.generation.enabled:true}") boolean enabled,
+                                     @Value("${invoice.generation.window:200ms}") Duration window,
+                                     @Value("${invoice.generation.batch-size:500}") int batchSize) {
+        this.engine = engine;
+        this.enabled = enabled;
+        this.window = window;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invoice-generation-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.accepted = Counter.builder("invoice.generation.approvals")
+                .description("Pagos aprobados encolados para facturar")
+                .tag("result", "accepted")
+                .register(meterRegistry);
+        this.failed = Counter.builder("invoice.generation.approvals")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("invoice.generation.pending", List.of(), pending);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        if (!enabled || event.newStatus() != PaymentStatus.APPROVED) {
+            return;
+        }
+        if (pending.add(event.paymentId())) {
+            accepted.increment();
+        }
+        if (pending.size() >= batchSize) {
+            flusher.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void flushPending(Duration timeout) {
+        try {
+            flusher.submit(this::flush).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.warn("⚠️ No se pudieron facturar los pagos pendientes al apagar: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flushPending(Duration.ofSeconds(30));
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    // Corre siempre en el hilo flusher, así los lotes nunca se generan en paralelo
+    private void flush() {
+        flushScheduled.set(false);
+        while (!pending.isEmpty()) {
+            List<Long> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<Long> it = pending.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                Long paymentId = it.next();
+                if (pending.remove(paymentId)) {
+                    batch.add(paymentId);
+                }
+            }
+            generate(batch);
+        }
+    }
+
+    private void generate(List<Long> paymentIds) {
+        try {
+            InvoiceGenerationEngine.GenerationResult result = engine.generate(paymentIds);
+            log.debug("🧾 Lote de {} pagos aprobados: {} facturas en {} ms",
+                    paymentIds.size(), result.created(), result.elapsed().toMillis());
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Falló el lote de {} facturas, se reintenta pago por pago: {}", paymentIds.size(), e.getMessage());
+            for (Long paymentId : paymentIds) {
+                try {
+                    engine.generate(List.of(paymentId));
+                } catch (RuntimeException single) {
+                    failed.increment();
+                    log.error("❌ No se pudo facturar el pago {}: {}", paymentId, single.getMessage());
+                }
+            }
+        }
+    }
+}
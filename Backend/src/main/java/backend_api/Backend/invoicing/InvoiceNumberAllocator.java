@@ -0,0 +1,59 @@
+package backend_api.Backend.invoicing;
+
+import backend_api.Backend.Entity.invoice.InvoiceNumberCounter;
+import backend_api.Backend.Repository.InvoiceNumberCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Números de factura para la generación por lotes. Reserva bloques de
+ * invoice.generation.number-block-size en invoice_number_counters (una
+ * transacción corta por bloque) y los entrega desde memoria; el formato
+ * INV-P{prestador}-{10 dígitos} no choca con los números por timestamp de
+ * InvoiceServiceImpl.
+ */
+@Component
+@Slf4j
+public class InvoiceNumberAllocator {
+
+    static final String COUNTER = "invoice-number";
+
+    private final InvoiceNumberCounterRepository counterRepository;
+    private final TransactionTemplate blockTransaction;
+    private final int blockSize;
+
+    // Bloque reservado: [next, limit)
+    private long next;
+    private long limit;
+
+    public InvoiceNumberAllocator(InvoiceNumberCounterRepository counterRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${invoice.generation.number-block-size:1000}") int blockSize) {
+        this.counterRepository = counterRepository;
+        this.blockTransaction = new TransactionTemplate(transactionManager);
+        this.blockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    public synchronized String next(Long providerId) {
+        if (next == limit) {
+            next = blockTransaction.execute(status -> reserveBlock());
+            limit = next + blockSize;
+        }
+        return String.format("INV-P%04d-%010d", providerId, next++);
+    }
+
+    private long reserveBlock() {
+        InvoiceNumberCounter counter = counterRepository.findForUpdate(COUNTER)
+                .orElseGet(() -> new InvoiceNumberCounter(COUNTER));
+        long start = counter.getNextValue();
+        counter.setNextValue(start + blockSize);
+        counterRepository.save(counter);
+        log.debug("Bloque de números de factura reservado: {} - {}", start, start + blockSize - 1);
+        return start;
+    }
+}
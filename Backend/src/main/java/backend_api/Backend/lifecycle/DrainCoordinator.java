@@ -0,0 +1,249 @@
+package backend_api.Backend.lifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Apagado ordenado. Lleva la cuenta del trabajo en curso (requests,
+ * iteraciones de los schedulers y publicaciones al CORE) y, cuando el
+ * contexto se cierra (SIGTERM de docker stop / stop.sh):
+ *
+ * 1. pasa readiness a REFUSING_TRAFFIC (/actuator/health/readiness da
+ *    OUT_OF_SERVICE) y deja de aceptar iteraciones nuevas de los schedulers;
+ * 2. espera lifecycle.drain.readiness-delay para que quien balancea deje de
+ *    mandar tráfico; mientras tanto los requests se siguen atendiendo, pero
+ *    con Connection: close;
+ * 3. espera a que termine lo que está en curso, como mucho
+ *    lifecycle.drain.timeout;
+ * 4. vacía los buffers de los {@link PendingWorkFlusher}.
+ *
+ * Corre antes del apagado graceful del servidor web (fase DEFAULT_PHASE - 1024),
+ * así el pool de Hikari y los hilos de los pipelines siguen vivos hasta que
+ * termina.
+ */
+@Component
+@Slf4j
+public class DrainCoordinator implements SmartLifecycle {
+
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 512;
+
+    public enum WorkKind {
+        REQUEST, SCHEDULED, PUBLISH
+    }
+
+    /**
+     * Trabajo registrado; close() lo da por terminado (una sola vez).
+     */
+    public final class Work implements AutoCloseable {
+
+        private final WorkKind kind;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Work(WorkKind kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(kind);
+            }
+        }
+    }
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<PendingWorkFlusher> flushers;
+    private final MeterRegistry meterRegistry;
+    private final Duration readinessDelay;
+    private final Duration timeout;
+    private final Duration flushTimeout;
+
+    private final Map<WorkKind, AtomicInteger> inFlight = new EnumMap<>(WorkKind.class);
+    private final AtomicInteger total = new AtomicInteger();
+    private final Object idleMonitor = new Object();
+    private final Timer drainTimer;
+
+    private volatile boolean draining;
+    private volatile boolean running;
+
+    public DrainCoordinator(ApplicationEventPublisher eventPublisher,
+                            ObjectProvider<PendingWorkFlusher> flushers,
+                            MeterRegistry meterRegistry,
+                            @Value("${lifecycle.drain.readiness-delay:0s}") Duration readinessDelay,
+                            @Value("${lifecycle.drain.timeout:20s}") Duration timeout,
+                            @Value("${lifecycle.drain.flush-timeout:10s}") Duration flushTimeout) {
+        this.eventPublisher = eventPublisher;
+        this.flushers = flushers;
+        this.meterRegistry = meterRegistry;
+        this.readinessDelay = readinessDelay;
+        this.timeout = timeout;
+        this.flushTimeout = flushTimeout;
+
+        for (WorkKind kind : WorkKind.values()) {
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(kind, counter);
+            Gauge.builder("lifecycle.inflight", counter, AtomicInteger::get)
+                    .description("Trabajo en curso que el apagado espera")
+                    .tag("kind", kind.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("lifecycle.draining", this, coordinator -> coordinator.draining ? 1 : 0)
+                .description("1 mientras la aplicación se está apagando")
+                .register(meterRegistry);
+        this.drainTimer = Timer.builder("lifecycle.drain")
+                .description("Duración del drenado al apagar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra trabajo que el apagado tiene que esperar. Se acepta aun
+     * drenando: un request que ya llegó, o la publicación que hace, termina.
+     */
+    public Work track(WorkKind kind) {
+        inFlight.get(kind).incrementAndGet();
+        total.incrementAndGet();
+        return new Work(kind);
+    }
+
+    /**
+     * Reserva una iteración de un scheduler; vacío si la aplicación se está
+     * apagando y la iteración no debe empezar.
+     */
+    public Optional<Work> claimScheduled(String job) {
+        if (!draining) {
+            Work work = track(WorkKind.SCHEDULED);
+            // Segunda lectura: si el drenado empezó entre medio, puede que ya no esté esperando este trabajo
+            if (!draining) {
+                return Optional.of(work);
+            }
+            work.close();
+        }
+        Counter.builder("lifecycle.scheduled.skipped")
+                .description("Iteraciones de schedulers que no arrancaron por el apagado")
+                .tag("job", job)
+                .register(meterRegistry)
+                .increment();
+        log.info("⏭️ {} no arranca: la aplicación se está apagando", job);
+        return Optional.empty();
+    }
+
+    /**
+     * true desde que empezó el apagado; los batches por chunks lo consultan
+     * entre chunks para cortar y retomar en la próxima corrida.
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    public int getInFlight(WorkKind kind) {
+        return inFlight.get(kind).get();
+    }
+
+    /**
+     * Espera hasta que no quede trabajo en curso; false si venció timeout antes.
+     */
+    public boolean awaitIdle(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idleMonitor) {
+            while (total.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(idleMonitor, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Drena: readiness fuera, espera al trabajo en curso y vacía los buffers.
+     */
+    public void drain() {
+        long start = System.nanoTime();
+        draining = true;
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        log.info("🛑 Apagado: readiness en REFUSING_TRAFFIC, en curso {}", inFlight);
+
+        if (!readinessDelay.isZero() && !readinessDelay.isNegative()) {
+            try {
+                Thread.sleep(readinessDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (!awaitIdle(timeout)) {
+            log.warn("⚠️ Venció lifecycle.drain.timeout ({} s) con trabajo en curso: {}", timeout.toSeconds(), inFlight);
+        }
+
+        flushers.orderedStream().forEach(flusher -> {
+            try {
+                flusher.flushPending(flushTimeout);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ No se pudo vaciar {} al apagar: {}", flusher.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+
+        long elapsed = System.nanoTime() - start;
+        drainTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("✅ Drenado terminado en {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    @Override
+    public void start() {
+        draining = false;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            drain();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void release(WorkKind kind) {
+        inFlight.get(kind).decrementAndGet();
+        if (total.decrementAndGet() == 0) {
+            synchronized (idleMonitor) {
+                idleMonitor.notifyAll();
+            }
+        }
+    }
+}
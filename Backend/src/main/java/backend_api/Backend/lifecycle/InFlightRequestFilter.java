@@ -0,0 +1,49 @@
+package backend_api.Backend.lifecycle;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Registra cada request en {@link DrainCoordinator} para que el apagado lo
+ * espere. Va primero en la cadena, antes de seguridad y de los límites.
+ *
+ * Drenando no se rechaza nada (un 503 sólo provocaría reintentos contra la
+ * misma instancia): el request se atiende y sale con Connection: close, así
+ * el cliente abre la próxima conexión contra la instancia nueva.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private final DrainCoordinator drainCoordinator;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Los probes de health tienen que seguir respondiendo durante el drenado
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    @SuppressWarnings("try") // el handle de Work sólo existe para liberarse al cerrar el bloque
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (drainCoordinator.isDraining()) {
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+        }
+        // SSE / long-poll: se cuenta sólo el primer dispatch; la conexión abierta la cierra su propio @PreDestroy
+        try (DrainCoordinator.Work ignored = drainCoordinator.track(DrainCoordinator.WorkKind.REQUEST)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package backend_api.Backend.lifecycle;
+
+import java.time.Duration;
+
+/**
+ * Componente que junta trabajo en memoria (ventanas de lotes, colas de
+ * notificaciones) y tiene que vaciarlo antes de que se apague la aplicación.
+ * {@link DrainCoordinator} lo llama una vez, cuando ya no quedan requests,
+ * batches ni publicaciones en curso, mientras la base y el CORE siguen
+ * disponibles.
+ */
+public interface PendingWorkFlusher {
+
+    /**
+     * Aplica lo pendiente esperando como máximo timeout.
+     */
+    void flushPending(Duration timeout);
+}
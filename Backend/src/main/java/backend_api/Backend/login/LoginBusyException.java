@@ -0,0 +1,14 @@
+package backend_api.Backend.login;
+
+/**
+ * El pool de verificación de contraseñas está saturado o la verificación
+ * superó el tiempo máximo. El login responde 503 para que el cliente reintente.
+ */
+public class LoginBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LoginBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
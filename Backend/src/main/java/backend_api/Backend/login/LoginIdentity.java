@@ -0,0 +1,43 @@
+package backend_api.Backend.login;
+
+import backend_api.Backend.Entity.ProviderData;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.user.User;
+
+/**
+ * Lo que el login necesita de una cuenta, venga de user_data, provider_data o
+ * users. passwordHash sólo existe para usuarios locales; los sincronizados se
+ * validan contra el módulo de usuarios.
+ */
+public record LoginIdentity(Kind kind, Long id, String email, String name, String role,
+                            boolean active, String passwordHash) {
+
+    public enum Kind {
+        USER, PROVIDER, LOCAL
+    }
+
+    public static LoginIdentity of(UserData userData) {
+        return new LoginIdentity(Kind.USER, userData.getUserId(), userData.getEmail(), userData.getName(),
+                userData.getRole(), Boolean.TRUE.equals(userData.getActive()), null);
+    }
+
+    public static LoginIdentity of(ProviderData providerData) {
+        return new LoginIdentity(Kind.PROVIDER, providerData.getProviderId(), providerData.getEmail(),
+                providerData.getName(), "MERCHANT", Boolean.TRUE.equals(providerData.getActive()), null);
+    }
+
+    public static LoginIdentity of(User user) {
+        return new LoginIdentity(Kind.LOCAL, user.getId(), user.getEmail(), user.getName(),
+                user.getRole().toString(), true, user.getPassword());
+    }
+
+    public boolean matches(Kind kind, Long id) {
+        return this.kind == kind && this.id != null && this.id.equals(id);
+    }
+
+    @Override
+    public String toString() {
+        // Sin el hash: la identidad aparece en logs
+        return "LoginIdentity[kind=" + kind + ", id=" + id + ", email=" + email + ", active=" + active + "]";
+    }
+}
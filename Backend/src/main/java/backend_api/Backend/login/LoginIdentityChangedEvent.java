@@ -0,0 +1,10 @@
+package backend_api.Backend.login;
+
+/**
+ * Evento en proceso publicado por DataStorageServiceImpl y
+ * ProviderEventProcessorService cada vez que se guarda, desactiva o borra un
+ * usuario o prestador sincronizado. email puede ser null (baja por userId);
+ * los caches del login descartan también por id.
+ */
+public record LoginIdentityChangedEvent(LoginIdentity.Kind kind, Long id, String email) {
+}
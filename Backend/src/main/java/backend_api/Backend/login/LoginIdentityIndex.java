@@ -0,0 +1,152 @@
+package backend_api.Backend.login;
+
+import backend_api.Backend.Entity.ProviderData;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.Repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Índice email -> identidad para el login sobre user_data, provider_data y
+ * users, con la misma prioridad que tenía el login (sincronizados primero).
+ * Las identidades resueltas quedan en un LRU con TTL corto y se descartan
+ * con cada {@link LoginIdentityChangedEvent}; el TTL acota lo que puede
+ * quedar desactualizado en las réplicas que no recibieron el evento. Los
+ * emails inexistentes no se guardan.
+ */
+@Component
+@Slf4j
+public class LoginIdentityIndex {
+
+    private record Entry(LoginIdentity identity, long loadedAt) {
+    }
+
+    private final UserDataRepository userDataRepository;
+    private final ProviderDataRepository providerDataRepository;
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<String, Entry> entries;
+    // Cambia con cada invalidación: una carga que empezó antes no se guarda
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public LoginIdentityIndex(UserDataRepository userDataRepository,
+                              ProviderDataRepository providerDataRepository,
+                              UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${auth.login.identity-cache.ttl:30s}") Duration ttl,
+                              @Value("${auth.login.identity-cache.max-entries:10000}") int maxEntries) {
+        this(userDataRepository, providerDataRepository, userRepository, meterRegistry, ttl, maxEntries, System::nanoTime);
+    }
+
+    LoginIdentityIndex(UserDataRepository userDataRepository,
+                       ProviderDataRepository providerDataRepository,
+                       UserRepository userRepository,
+                       MeterRegistry meterRegistry,
+                       Duration ttl,
+                       int maxEntries,
+                       LongSupplier nanoClock) {
+        this.userDataRepository = userDataRepository;
+        this.providerDataRepository = providerDataRepository;
+        this.userRepository = userRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("auth.login.identity.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("auth.login.identity.cache").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("auth.login.identity.cache.size", this, LoginIdentityIndex::size);
+    }
+
+    public Optional<LoginIdentity> resolve(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        long now = nanoClock.getAsLong();
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && now - entry.loadedAt() < ttlNanos) {
+                hits.increment();
+                return Optional.of(entry.identity());
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+
+        Optional<LoginIdentity> loaded = load(email);
+        loaded.ifPresent(identity -> {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(email, new Entry(identity, now));
+                }
+            }
+        });
+        return loaded;
+    }
+
+    public void invalidate(LoginIdentity.Kind kind, Long id, String email) {
+        synchronized (entries) {
+            generation++;
+            if (email != null) {
+                entries.remove(email);
+            }
+            // El email pudo haber cambiado: también por id
+            entries.values().removeIf(entry -> entry.identity().matches(kind, id));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIdentityChanged(LoginIdentityChangedEvent event) {
+        invalidate(event.kind(), event.id(), event.email());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Optional<LoginIdentity> load(String email) {
+        // Un error en las tablas sincronizadas no corta el login: se sigue con la siguiente, como antes
+        try {
+            Optional<UserData> userData = userDataRepository.findFirstByEmail(email);
+            if (userData.isPresent()) {
+                return userData.map(LoginIdentity::of);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error buscando en user_data: {}", e.getMessage(), e);
+        }
+        try {
+            Optional<ProviderData> providerData = providerDataRepository.findByEmail(email);
+            if (providerData.isPresent()) {
+                return providerData.map(LoginIdentity::of);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error buscando prestador sincronizado: {}", e.getMessage(), e);
+        }
+        return userRepository.findByEmail(email).map(LoginIdentity::of);
+    }
+}
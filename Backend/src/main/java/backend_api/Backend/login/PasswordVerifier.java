@@ -0,0 +1,96 @@
+package backend_api.Backend.login;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Corre los passwordEncoder.matches (BCrypt) de usuarios locales en un pool
+ * acotado en lugar del hilo de Tomcat. Con la cola llena el login se rechaza
+ * con {@link LoginBusyException} en vez de encolar trabajo de CPU sin límite.
+ */
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final Duration timeout;
+
+    private final Counter rejected;
+    private final Timer verifyTimer;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.login.bcrypt.threads:0}") int threads,
+                            @Value("${auth.login.bcrypt.queue-capacity:64}") int queueCapacity,
+                            @Value("${auth.login.bcrypt.timeout:2s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+
+        // 0 = un hilo por núcleo: BCrypt es CPU pura
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+
+        this.rejected = Counter.builder("auth.login.bcrypt.rejected")
+                .description("Verificaciones rechazadas por pool saturado o timeout")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.login.bcrypt")
+                .description("Tiempo de BCrypt por verificación")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.login.bcrypt.queue", pool, executor -> executor.getQueue().size());
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        Future<Boolean> verification;
+        try {
+            verification = pool.submit(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new LoginBusyException("Pool de verificación de contraseñas saturado", e);
+        }
+
+        try {
+            return verification.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            verification.cancel(true);
+            rejected.increment();
+            throw new LoginBusyException("La verificación de contraseña superó " + timeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoginBusyException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error verificando la contraseña", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
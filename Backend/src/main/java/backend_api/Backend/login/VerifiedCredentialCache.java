@@ -0,0 +1,137 @@
+package backend_api.Backend.login;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Credenciales que el módulo de usuarios validó hace poco, para no llamarlo
+ * en cada login de un usuario o prestador sincronizado.
+ *
+ * No se guarda la contraseña: cada entrada tiene un HMAC-SHA256 de
+ * (tipo, id, email, contraseña) con una clave formada por el pepper
+ * configurado y una sal aleatoria de la instancia, que no sale de memoria.
+ * Sólo se guardan validaciones exitosas, vencen con un TTL corto y se
+ * descartan con cada {@link LoginIdentityChangedEvent} (baja o actualización).
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private record Entry(LoginIdentity.Kind kind, Long id, byte[] digest, long verifiedAt) {
+    }
+
+    private final SecretKeySpec key;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public VerifiedCredentialCache(MeterRegistry meterRegistry,
+                                   @Value("${auth.login.credential-cache.ttl:2m}") Duration ttl,
+                                   @Value("${auth.login.credential-cache.max-entries:10000}") int maxEntries,
+                                   @Value("${auth.login.credential-cache.pepper:}") String pepper) {
+        this(meterRegistry, ttl, maxEntries, pepper, System::nanoTime);
+    }
+
+    VerifiedCredentialCache(MeterRegistry meterRegistry, Duration ttl, int maxEntries, String pepper,
+                            LongSupplier nanoClock) {
+        byte[] salt = new byte[32];
+        new SecureRandom().nextBytes(salt);
+        byte[] pepperBytes = pepper.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = new byte[pepperBytes.length + salt.length];
+        System.arraycopy(pepperBytes, 0, keyBytes, 0, pepperBytes.length);
+        System.arraycopy(salt, 0, keyBytes, pepperBytes.length, salt.length);
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("auth.login.credential.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("auth.login.credential.cache").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("auth.login.credential.cache.size", this, VerifiedCredentialCache::size);
+    }
+
+    /**
+     * true si la misma cuenta validó esta contraseña dentro del TTL.
+     */
+    public boolean matches(LoginIdentity identity, String password) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(identity.email());
+        }
+        if (entry != null
+                && identity.matches(entry.kind(), entry.id())
+                && nanoClock.getAsLong() - entry.verifiedAt() < ttlNanos
+                && MessageDigest.isEqual(entry.digest(), digest(identity, password))) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    public void put(LoginIdentity identity, String password) {
+        Entry entry = new Entry(identity.kind(), identity.id(), digest(identity, password), nanoClock.getAsLong());
+        synchronized (entries) {
+            entries.put(identity.email(), entry);
+        }
+    }
+
+    public void invalidate(LoginIdentity.Kind kind, Long id, String email) {
+        synchronized (entries) {
+            if (email != null) {
+                entries.remove(email);
+            }
+            entries.values().removeIf(entry -> entry.kind() == kind && id != null && id.equals(entry.id()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIdentityChanged(LoginIdentityChangedEvent event) {
+        invalidate(event.kind(), event.id(), event.email());
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private byte[] digest(LoginIdentity identity, String password) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            // Separador 0: "ab"+"c" y "a"+"bc" no dan el mismo digest
+            for (String part : new String[]{identity.kind().name(), String.valueOf(identity.id()), identity.email(), password}) {
+                mac.update(part.getBytes(StandardCharsets.UTF_8));
+                mac.update((byte) 0);
+            }
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+}
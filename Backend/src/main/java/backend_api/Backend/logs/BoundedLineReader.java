@@ -0,0 +1,90 @@
+package backend_api.Backend.logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lectura de líneas hacia adelante sobre un InputStream, con un buffer fijo
+ * y líneas de hasta maxLineBytes (de las más largas se conserva el
+ * principio). A diferencia de BufferedReader.readLine, una línea enorme no
+ * hace crecer la memoria.
+ */
+public final class BoundedLineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] line;
+
+    private int bufferPosition;
+    private int bufferLimit;
+    private long bytesRead;
+    private boolean terminated;
+
+    public BoundedLineReader(InputStream in, int maxLineBytes) {
+        this.in = in;
+        this.line = new byte[maxLineBytes];
+    }
+
+    /**
+     * La próxima línea, o null al final del stream. La última línea puede no
+     * terminar en salto de línea: ver {@link #lastLineTerminated()}.
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        boolean truncated = false;
+        boolean any = false;
+        while (true) {
+            if (bufferPosition == bufferLimit) {
+                int n = in.read(buffer);
+                if (n <= 0) {
+                    terminated = false;
+                    return any ? decode(length, truncated) : null;
+                }
+                bufferPosition = 0;
+                bufferLimit = n;
+            }
+            byte b = buffer[bufferPosition++];
+            bytesRead++;
+            any = true;
+            if (b == '\n') {
+                terminated = true;
+                return decode(length, truncated);
+            }
+            if (length < line.length) {
+                line[length++] = b;
+            } else {
+                truncated = true;
+            }
+        }
+    }
+
+    /**
+     * false si la última línea devuelta llegó al final del stream sin salto
+     * de línea (en un archivo que se sigue escribiendo, puede estar a medias).
+     */
+    public boolean lastLineTerminated() {
+        return terminated;
+    }
+
+    /**
+     * Bytes consumidos, incluidos los saltos de línea.
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String decode(int length, boolean truncated) {
+        int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        String text = new String(line, 0, end, StandardCharsets.UTF_8);
+        return truncated ? text + "…" : text;
+    }
+}
@@ -0,0 +1,452 @@
+package backend_api.Backend.logs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Acceso al log de la aplicación (logging.file.name) sin cargarlo en memoria:
+ * las últimas líneas se leen de atrás hacia adelante, la búsqueda recorre el
+ * archivo actual y los rotados (.gz incluidos) línea por línea escribiendo
+ * cada coincidencia en la respuesta, y el seguimiento en vivo lee por SSE
+ * sólo lo agregado desde la última lectura.
+ *
+ * Toda lectura usa buffers de tamaño fijo y líneas de hasta
+ * logs.max-line-length bytes; la búsqueda se corta al llegar a max-matches o
+ * al timeout, también dentro de una regex que tarde demasiado en una línea.
+ */
+@Service
+@Slf4j
+public class LogAccessService {
+
+    private static final String EVENT_NAME = "log";
+
+    private final Path logFile;
+    private final int maxLineBytes;
+    private final int maxTailLines;
+    private final long maxTailScanBytes;
+    private final int maxSearchMatches;
+    private final Duration searchTimeout;
+    private final int maxPatternLength;
+    private final int maxFollowers;
+    private final Duration pollInterval;
+    private final int maxLinesPerPoll;
+    private final Duration heartbeatInterval;
+    private final Duration followTimeout;
+
+    private final Set<Follower> followers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService poller;
+
+    public record SearchSummary(long matches, int files, long scannedBytes, boolean truncated) {
+    }
+
+    public LogAccessService(MeterRegistry meterRegistry,
+                            @Value("${logs.file:${logging.file.name:/app/logs/application.log}}") String logFile,
+                            @Value("${logs.max-line-length:8192}") int maxLineBytes,
+                            @Value("${logs.tail.max-lines:1000}") int maxTailLines,
+                            @Value("${logs.tail.max-scan:16MB}") DataSize maxTailScan,
+                            @Value("${logs.search.max-matches:500}") int maxSearchMatches,
+                            @Value("${logs.search.timeout:10s}") Duration searchTimeout,
+                            @Value("${logs.search.max-pattern-length:200}") int maxPatternLength,
+                            @Value("${logs.follow.max-followers:4}") int maxFollowers,
+                            @Value("${logs.follow.poll-interval:500ms}") Duration pollInterval,
+                            @Value("${logs.follow.max-lines-per-poll:500}") int maxLinesPerPoll,
+                            @Value("${logs.follow.heartbeat-interval:15s}") Duration heartbeatInterval,
+                            @Value("${logs.follow.timeout:10m}") Duration followTimeout) {
+        this.logFile = Paths.get(logFile);
+        this.maxLineBytes = maxLineBytes;
+        this.maxTailLines = maxTailLines;
+        this.maxTailScanBytes = maxTailScan.toBytes();
+        this.maxSearchMatches = maxSearchMatches;
+        this.searchTimeout = searchTimeout;
+        this.maxPatternLength = maxPatternLength;
+        this.maxFollowers = maxFollowers;
+        this.pollInterval = pollInterval;
+        this.maxLinesPerPoll = maxLinesPerPoll;
+        this.heartbeatInterval = heartbeatInterval;
+        this.followTimeout = followTimeout;
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-follow");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gaugeCollectionSize("logs.follow.subscriptions", List.of(), followers);
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Regex (regex = true) o palabra clave sin distinguir mayúsculas.
+     */
+    public Pattern compile(String query, boolean regex) {
+        if (!StringUtils.hasText(query)) {
+            throw new IllegalArgumentException("La búsqueda no puede estar vacía");
+        }
+        if (query.length() > maxPatternLength) {
+            throw new IllegalArgumentException("La búsqueda supera los " + maxPatternLength + " caracteres");
+        }
+        return regex
+                ? Pattern.compile(query)
+                : Pattern.compile(Pattern.quote(query), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    /**
+     * Las últimas lines líneas del archivo actual (las que coinciden con filter,
+     * si no es null), en orden cronológico. Con filtro se recorren a lo sumo
+     * logs.tail.max-scan bytes desde el final y, como en search, se corta al
+     * llegar a logs.search.timeout con lo encontrado hasta ahí.
+     */
+    public List<String> tail(int lines, Pattern filter) throws IOException {
+        int limit = Math.max(0, Math.min(lines, maxTailLines));
+        long deadline = System.nanoTime() + searchTimeout.toNanos();
+        ArrayDeque<String> result = new ArrayDeque<>(limit);
+        try (ReverseLineReader reader = new ReverseLineReader(logFile, maxLineBytes)) {
+            String line;
+            while (result.size() < limit && reader.bytesRead() < maxTailScanBytes
+                    && (line = reader.readLine()) != null) {
+                if (matches(filter, line, deadline)) {
+                    result.addFirst(line);
+                }
+            }
+        } catch (SearchTimeoutException e) {
+            log.debug("Tail del log cortado por logs.search.timeout con {} líneas", result.size());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Escribe en out cada línea que coincide como "archivo:línea: texto". Recorre
+     * primero el archivo actual y después los rotados del más nuevo al más
+     * viejo. Se corta en maxMatches (acotado por logs.search.max-matches) o al
+     * llegar a logs.search.timeout.
+     */
+    public SearchSummary search(Pattern pattern, int maxMatches, boolean includeRotated, Writer out) throws IOException {
+        int limit = Math.max(1, Math.min(maxMatches, maxSearchMatches));
+        long deadline = System.nanoTime() + searchTimeout.toNanos();
+        List<Path> files = new ArrayList<>();
+        if (Files.exists(logFile)) {
+            files.add(logFile);
+        }
+        if (includeRotated) {
+            files.addAll(rotatedFiles());
+        }
+
+        long matches = 0;
+        long scanned = 0;
+        int searched = 0;
+        boolean truncated = false;
+        for (Path file : files) {
+            if (matches >= limit || System.nanoTime() > deadline) {
+                truncated = true;
+                break;
+            }
+            searched++;
+            try (BoundedLineReader reader = new BoundedLineReader(open(file), maxLineBytes)) {
+                String name = file.getFileName().toString();
+                long lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (System.nanoTime() > deadline) {
+                        truncated = true;
+                        break;
+                    }
+                    if (matches(pattern, line, deadline)) {
+                        out.write(name + ":" + lineNumber + ": " + line + "\n");
+                        if (++matches % 64 == 0) {
+                            out.flush();
+                        }
+                        if (matches >= limit) {
+                            truncated = true;
+                            break;
+                        }
+                    }
+                }
+                scanned += reader.bytesRead();
+            } catch (SearchTimeoutException e) {
+                truncated = true;
+                break;
+            } catch (NoSuchFileException e) {
+                // Rotado o borrado entre el listado y la lectura
+                log.debug("Archivo de log desaparecido durante la búsqueda: {}", file);
+            } catch (ZipException e) {
+                log.warn("⚠️ Log rotado ilegible, se omite en la búsqueda: {} ({})", file, e.getMessage());
+            }
+        }
+        out.flush();
+        return new SearchSummary(matches, searched, scanned, truncated);
+    }
+
+    /**
+     * Stream SSE con las líneas nuevas del log (que coinciden con filter, si no
+     * es null), precedido por las últimas initialLines. Vacío si ya hay
+     * logs.follow.max-followers conexiones abiertas. Si el filtro no termina
+     * una lectura dentro de logs.search.timeout se cierra la conexión.
+     */
+    public Optional<SseEmitter> follow(Pattern filter, int initialLines) throws IOException {
+        if (followers.size() >= maxFollowers) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(followTimeout.toMillis());
+        // La posición se toma antes del tail inicial: una línea escrita en el medio puede repetirse, no perderse
+        Follower follower = new Follower(emitter, filter);
+        List<String> initial = List.of();
+        if (initialLines > 0 && Files.exists(logFile)) {
+            initial = tail(initialLines, filter);
+        }
+        synchronized (followers) {
+            if (followers.size() >= maxFollowers) {
+                return Optional.empty();
+            }
+            followers.add(follower);
+        }
+        emitter.onCompletion(follower::close);
+        emitter.onTimeout(() -> {
+            follower.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> follower.close());
+
+        follower.start(initial);
+        return Optional.of(emitter);
+    }
+
+    private static boolean matches(Pattern filter, String line, long deadline) {
+        return filter == null || filter.matcher(new DeadlineCharSequence(line, deadline)).find();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        for (Follower follower : followers) {
+            follower.close();
+            follower.emitter.complete();
+        }
+    }
+
+    private List<Path> rotatedFiles() throws IOException {
+        Path dir = logFile.toAbsolutePath().getParent();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Path> rotated = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, logFile.getFileName() + ".*")) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    rotated.add(path);
+                }
+            }
+        }
+        rotated.sort(Comparator.comparing(LogAccessService::lastModified).reversed());
+        return rotated;
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 8192) : in;
+    }
+
+    /**
+     * Un cliente siguiendo el log. Guarda la posición hasta la última línea
+     * completa enviada; si el archivo se achica o cambia (rotación) vuelve
+     * al inicio del archivo nuevo.
+     */
+    private final class Follower {
+
+        private final SseEmitter emitter;
+        private final Pattern filter;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private ScheduledFuture<?> task;
+        private List<String> initial;
+        private long position;
+        private Object fileKey;
+        private long lastSendNanos = System.nanoTime();
+
+        private Follower(SseEmitter emitter, Pattern filter) throws IOException {
+            this.emitter = emitter;
+            this.filter = filter;
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+                position = attributes.size();
+                fileKey = attributes.fileKey();
+            } catch (NoSuchFileException e) {
+                position = 0;
+            }
+        }
+
+        private void start(List<String> initialLines) {
+            this.initial = initialLines;
+            task = poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private void poll() {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                if (initial != null) {
+                    for (String line : initial) {
+                        send(line);
+                    }
+                    initial = null;
+                }
+                readNewLines();
+                if (System.nanoTime() - lastSendNanos > heartbeatInterval.toNanos()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSendNanos = System.nanoTime();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente cerró la conexión
+                log.debug("Seguimiento del log cerrado: {}", e.getMessage());
+                close();
+            } catch (SearchTimeoutException e) {
+                // El poller es uno solo: un filtro que no termina frenaría a todos los seguidores
+                log.warn("⚠️ Filtro del seguimiento del log excedió logs.search.timeout, se cierra la conexión: {}", filter);
+                close();
+                emitter.complete();
+            }
+        }
+
+        private void readNewLines() throws IOException {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(logFile, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            if (attributes.size() < position || !Objects.equals(attributes.fileKey(), fileKey)) {
+                position = 0;
+                fileKey = attributes.fileKey();
+            }
+            if (attributes.size() == position) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ);
+                 BoundedLineReader reader = new BoundedLineReader(
+                         Channels.newInputStream(channel.position(position)), maxLineBytes)) {
+                long start = position;
+                long deadline = System.nanoTime() + searchTimeout.toNanos();
+                int sent = 0;
+                String line;
+                while (sent < maxLinesPerPoll && (line = reader.readLine()) != null) {
+                    if (!reader.lastLineTerminated()) {
+                        // Línea todavía a medio escribir: se envía en la próxima lectura
+                        break;
+                    }
+                    position = start + reader.bytesRead();
+                    if (matches(filter, line, deadline)) {
+                        send(line);
+                        sent++;
+                    }
+                }
+            }
+        }
+
+        private void send(String line) throws IOException {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(line));
+            lastSendNanos = System.nanoTime();
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                followers.remove(this);
+                if (task != null) {
+                    task.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static final class SearchTimeoutException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private SearchTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Corta una regex con backtracking excesivo: el matcher lee la línea
+     * carácter por carácter, así que el chequeo del deadline lo interrumpe.
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+
+        private final CharSequence text;
+        private final long deadline;
+        private int reads;
+
+        private DeadlineCharSequence(CharSequence text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & 0xFFF) == 0 && System.nanoTime() > deadline) {
+                throw new SearchTimeoutException();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package backend_api.Backend.logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee un archivo de texto de atrás hacia adelante, una línea por llamada
+ * (la última primero), con lecturas posicionales de FileChannel de a
+ * bloques fijos. La memoria no depende del tamaño del archivo: un bloque y
+ * una línea de hasta maxLineBytes; de las líneas más largas se conserva el
+ * final.
+ */
+public final class ReverseLineReader implements Closeable {
+
+    private static final int BLOCK_SIZE = 8192;
+
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+    // Bytes de la línea en curso, en orden inverso
+    private final byte[] line;
+
+    private long filePosition;
+    private int blockPosition;
+    private long bytesRead;
+    private boolean hasMore;
+
+    public ReverseLineReader(Path file, int maxLineBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.line = new byte[maxLineBytes];
+        this.filePosition = channel.size();
+        this.hasMore = filePosition > 0;
+        // El salto de línea final no abre una línea vacía
+        if (hasMore && nextByte() != '\n') {
+            blockPosition++;
+            bytesRead--;
+        }
+        hasMore = filePosition > 0 || blockPosition > 0;
+    }
+
+    /**
+     * La línea anterior a la última devuelta, o null al llegar al inicio.
+     */
+    public String readLine() throws IOException {
+        if (!hasMore) {
+            return null;
+        }
+        int length = 0;
+        boolean truncated = false;
+        while (true) {
+            if (blockPosition == 0 && filePosition == 0) {
+                hasMore = false;
+                break;
+            }
+            byte b = nextByte();
+            if (b == '\n') {
+                break;
+            }
+            if (length < line.length) {
+                line[length++] = b;
+            } else {
+                truncated = true;
+            }
+        }
+        return decode(length, truncated);
+    }
+
+    /**
+     * Bytes leídos desde el final del archivo.
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte nextByte() throws IOException {
+        if (blockPosition == 0) {
+            int size = (int) Math.min(BLOCK_SIZE, filePosition);
+            filePosition -= size;
+            block.clear().limit(size);
+            while (block.hasRemaining()) {
+                if (channel.read(block, filePosition + block.position()) < 0) {
+                    throw new IOException("El archivo se truncó durante la lectura");
+                }
+            }
+            blockPosition = size;
+        }
+        bytesRead++;
+        return block.get(--blockPosition);
+    }
+
+    private String decode(int length, boolean truncated) {
+        int end = length;
+        // CRLF: el \r queda primero en el orden inverso
+        int start = length > 0 && line[0] == '\r' ? 1 : 0;
+        byte[] ordered = new byte[end - start];
+        for (int i = 0; i < ordered.length; i++) {
+            ordered[i] = line[end - 1 - i];
+        }
+        String text = new String(ordered, StandardCharsets.UTF_8);
+        return truncated ? "…" + text : text;
+    }
+}
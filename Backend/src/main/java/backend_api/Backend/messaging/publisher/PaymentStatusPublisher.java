@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -42,6 +43,15 @@ public class PaymentStatusPublisher {
     }
 
 
+    /**
+     * Publica en orden las actualizaciones de un lote (vencimientos del barrido).
+     */
+    public void publishPaymentStatusUpdates(List<PaymentStatusUpdateMessage> messages) {
+        for (PaymentStatusUpdateMessage message : messages) {
+            publishPaymentStatusUpdate(message);
+        }
+    }
+
     private CoreResponseMessage.Destination createDestination(String domain, String action){
         CoreResponseMessage.Destination dest = new CoreResponseMessage.Destination();
         dest.setTopic(domain); 
@@ -2,6 +2,7 @@
 package backend_api.Backend.messaging.publisher;
 
 import backend_api.Backend.Entity.payment.PaymentEvent;
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
 import backend_api.Backend.messaging.service.CoreHubService;
 import backend_api.Backend.messaging.dto.CoreResponseMessage;
 import java.time.Instant;
@@ -9,6 +10,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.HashMap;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -19,6 +21,8 @@ import org.springframework.stereotype.Component;
 public class PaymentTimelineEventPublisher {
 
     private final CoreHubService coreHubService;
+    private final ObjectMapper objectMapper;
+    private final PaymentEventPayloadCodec paymentEventPayloadCodec;
 
     public void publish(PaymentEvent event) {
         try {
@@ -51,12 +55,10 @@ public class PaymentTimelineEventPublisher {
         payload.put("createdAt", event.getCreatedAt());
         
         // Incluir el payload del evento si existe
-        if (event.getPayload() != null && !event.getPayload().isEmpty()) {
+        if (event.getPayloadBinary() != null || (event.getPayload() != null && !event.getPayload().isEmpty())) {
             try {
-                // Intentar parsear como JSON si es válido
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                Object parsedPayload = mapper.readValue(event.getPayload(), Object.class);
-                payload.put("payload", parsedPayload);
+                // Árbol leído directo del formato guardado (Smile o JSON), sin pasar por Map
+                payload.put("payload", paymentEventPayloadCodec.readTree(event));
             } catch (Exception e) {
                 // Si no es JSON válido, enviarlo como string
                 payload.put("payload", event.getPayload());
@@ -66,8 +68,7 @@ public class PaymentTimelineEventPublisher {
         // Incluir metadata si existe
         if (event.getMetadata() != null && !event.getMetadata().isEmpty()) {
             try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                Object parsedMetadata = mapper.readValue(event.getMetadata(), Object.class);
+                Object parsedMetadata = objectMapper.readValue(event.getMetadata(), Object.class);
                 payload.put("metadata", parsedMetadata);
             } catch (Exception e) {
                 payload.put("metadata", event.getMetadata());
@@ -3,11 +3,15 @@ package backend_api.Backend.messaging.service;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentStatus;
 import backend_api.Backend.Entity.payment.PaymentEventType;
+import backend_api.Backend.DTO.payment.PaymentMetadata;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
+import backend_api.Backend.Service.Common.PaymentMetadataCodec;
 import backend_api.Backend.Service.Interface.PaymentService;
 import backend_api.Backend.Service.Interface.PaymentEventService;
 import backend_api.Backend.Service.Implementation.DataStorageServiceImpl;
 import backend_api.Backend.messaging.dto.*;
 import backend_api.Backend.messaging.publisher.CoreEventPublisher;
+import backend_api.Backend.sync.UserSyncPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +34,8 @@ public class CoreEventProcessorService {
     private final PaymentEventService paymentEventService;
     private final DataStorageServiceImpl dataStorageService;
     private final ObjectMapper objectMapper;
+    private final UserSyncPipeline userSyncPipeline;
+    private final PaymentMetadataCodec paymentMetadataCodec;
 
     public void processPaymentRequestFromCore(CoreEventMessage coreMessage) {
         log.info("Procesando solicitud de pago del CORE - MessageId: {}", coreMessage.getMessageId());
@@ -59,12 +65,13 @@ public class CoreEventProcessorService {
             
             // Guardar evento en payment_events indicando que fue recibido del CORE
             try {
-                String eventPayload = String.format("{\"paymentId\": %d, \"solicitudId\": %s, \"status\": \"%s\", \"amount\": %s, \"currency\": \"%s\", \"source\": \"core_webhook\", \"messageId\": \"%s\"}",
-                    paymentId, 
-                    solicitudId != null ? solicitudId : "null",
-                    payload.get("status") != null ? payload.get("status") : "UNKNOWN",
-                    amount != null ? amount : "null",
-                    currency != null ? currency : "null",
+                PaymentEventPayload eventPayload = new PaymentEventPayload.CoreEventReceived(
+                    paymentId,
+                    solicitudId,
+                    payload.get("status") != null ? String.valueOf(payload.get("status")) : "UNKNOWN",
+                    amount,
+                    currency,
+                    "core_webhook",
                     coreMessage.getMessageId());
                 
                 paymentEventService.createEvent(
@@ -133,28 +140,17 @@ public class CoreEventProcessorService {
         payment.setDescripcion(description); // Agregar descripcion si está disponible
 
         // Construir metadata con el mismo formato que PaymentRequestProcessorService
-        Map<String, Object> metadata = new HashMap<>();
         // Generar idCorrelacion a partir de solicitudId si no está disponible
-        String idCorrelacion = "PED-" + (solicitudId != null ? solicitudId : "UNKNOWN");
-        metadata.put("idCorrelacion", idCorrelacion);
-        // MetodoPreferido no está disponible en este flujo, usar null o un valor por defecto
-        metadata.put("metodoPreferido", null);
-
+        // MetodoPreferido no está disponible en este flujo, queda null
+        PaymentMetadata.PaymentMetadataBuilder metadata = PaymentMetadata.builder()
+                .idCorrelacion("PED-" + (solicitudId != null ? solicitudId : "UNKNOWN"));
         if (userData.isPresent()) {
-            metadata.put("userName", userData.get().getName());
-            metadata.put("userEmail", userData.get().getEmail());
+            metadata.userName(userData.get().getName()).userEmail(userData.get().getEmail());
         }
         if (providerData.isPresent()) {
-            metadata.put("providerName", providerData.get().getName());
-            metadata.put("providerEmail", providerData.get().getEmail());
-        }
-
-        try {
-            payment.setMetadata(objectMapper.writeValueAsString(metadata));
-        } catch (Exception e) {
-            log.error("Error serializando metadata: {}", e.getMessage());
-            payment.setMetadata("{}");
+            metadata.providerName(providerData.get().getName()).providerEmail(providerData.get().getEmail());
         }
+        paymentMetadataCodec.apply(payment, metadata.build());
 
         Payment savedPayment = paymentService.createPayment(payment);
         log.info("Pago creado exitosamente desde datos almacenados - PaymentId: {}, SolicitudId: {}",
@@ -217,7 +213,7 @@ public class CoreEventProcessorService {
         Long userId = extractLong(payload, "userId");
         
         if (userId != null) {
-            dataStorageService.saveUserData(userId, payload, coreMessage.getMessageId());
+            userSyncPipeline.submitUser(userId, payload, coreMessage.getMessageId());
             log.info("Datos de usuario guardados - UserId: {}", userId);
         }
     }
@@ -229,7 +225,7 @@ public class CoreEventProcessorService {
         Long providerId = extractLong(payload, "providerId");
         
         if (providerId != null) {
-            dataStorageService.saveProviderData(providerId, payload, coreMessage.getMessageId());
+            userSyncPipeline.submitProvider(providerId, payload, coreMessage.getMessageId());
             log.info("Datos de prestador guardados - ProviderId: {}", providerId);
         }
     }
@@ -272,37 +268,17 @@ public class CoreEventProcessorService {
         payment.setUpdated_at(LocalDateTime.now());
 
         // Construir metadata con el mismo formato que PaymentRequestProcessorService
-        Map<String, Object> metadata = new HashMap<>();
-        // Generar idCorrelacion a partir de solicitudId si no está disponible
-        String idCorrelacion = "PED-" + (solicitudId != null ? solicitudId : "UNKNOWN");
-        metadata.put("idCorrelacion", idCorrelacion);
-        // MetodoPreferido no está disponible en este flujo, usar null o un valor por defecto
-        metadata.put("metodoPreferido", null);
+        PaymentMetadata.PaymentMetadataBuilder metadata = PaymentMetadata.builder()
+                .idCorrelacion("PED-" + (solicitudId != null ? solicitudId : "UNKNOWN"));
 
         // Solo guardar nombres y emails de usuario y prestador
         if (userData != null) {
-            if (userData.containsKey("name")) {
-                metadata.put("userName", userData.get("name"));
-            }
-            if (userData.containsKey("email")) {
-                metadata.put("userEmail", userData.get("email"));
-            }
+            metadata.userName(extractString(userData, "name")).userEmail(extractString(userData, "email"));
         }
         if (providerData != null) {
-            if (providerData.containsKey("name")) {
-                metadata.put("providerName", providerData.get("name"));
-            }
-            if (providerData.containsKey("email")) {
-                metadata.put("providerEmail", providerData.get("email"));
-            }
-        }
-
-        try {
-            payment.setMetadata(objectMapper.writeValueAsString(metadata));
-        } catch (Exception e) {
-            log.error("Error serializando metadata: {}", e.getMessage());
-            payment.setMetadata("{}");
+            metadata.providerName(extractString(providerData, "name")).providerEmail(extractString(providerData, "email"));
         }
+        paymentMetadataCodec.apply(payment, metadata.build());
 
         return payment;
     }
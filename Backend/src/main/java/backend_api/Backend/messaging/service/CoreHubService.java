@@ -1,8 +1,13 @@
 package backend_api.Backend.messaging.service;
 
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
+import backend_api.Backend.lifecycle.DrainCoordinator;
 import backend_api.Backend.messaging.dto.CoreResponseMessage;
-import lombok.RequiredArgsConstructor;
+import backend_api.Backend.resilience.DependencyGuard;
+import backend_api.Backend.resilience.DependencyUnavailableException;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -10,13 +15,34 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class CoreHubService {
 
     private final RestTemplate restTemplate;
+    private final DependencyGuard coreHubGuard;
+    private final PaymentEventPayloadCodec payloadCodec;
+    private final DrainCoordinator drainCoordinator;
+
+    public CoreHubService(@Qualifier("coreHubRestTemplate") RestTemplate restTemplate,
+                          @Qualifier("coreHubGuard") DependencyGuard coreHubGuard,
+                          PaymentEventPayloadCodec payloadCodec,
+                          DrainCoordinator drainCoordinator) {
+        this.restTemplate = restTemplate;
+        this.coreHubGuard = coreHubGuard;
+        this.payloadCodec = payloadCodec;
+        this.drainCoordinator = drainCoordinator;
+    }
+
+    // Cuerpo de /publish: se serializa con el writer precompilado del codec en lugar de armar un HashMap por mensaje
+    record PublishBody(String messageId, String timestamp, PublishDestination destination, Map<String, Object> payload) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record PublishDestination(String topic, String eventName) {
+    }
 
     @Value("${core.hub.api.url:https://api.arreglacore.click}")
     private String coreHubUrl;
@@ -44,32 +70,26 @@ public class CoreHubService {
         headers.set("X-API-KEY", apiKey);
         headers.setContentType(MediaType.APPLICATION_JSON);
 
-        Map<String, Object> newFormatMessage = new HashMap<>();
-        newFormatMessage.put("messageId", message.getMessageId());
-        newFormatMessage.put("timestamp", message.getTimestamp());
-        
-        Map<String, Object> destination = new HashMap<>();
+        PublishDestination destination = new PublishDestination(null, null);
         if (message.getDestination() != null) {
             String topic = message.getDestination().getTopic();
-            destination.put("topic", topic != null ? topic : "");
-            destination.put("eventName", message.getDestination().getEventName());
+            destination = new PublishDestination(topic != null ? topic : "", message.getDestination().getEventName());
         }
-        newFormatMessage.put("destination", destination);
-        newFormatMessage.put("payload", message.getPayload());
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(newFormatMessage, headers);
+        PublishBody body = new PublishBody(message.getMessageId(), message.getTimestamp(), destination, message.getPayload());
 
         Map<String, Object> result = new HashMap<>();
 
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+            HttpEntity<byte[]> request = new HttpEntity<>(payloadCodec.writeJson(body), headers);
+            ResponseEntity<String> response = callCore(
+                    () -> restTemplate.postForEntity(url, request, String.class));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("✅ Mensaje publicado exitosamente al CORE - MessageId: {}", message.getMessageId());
                 log.info("📋 Respuesta del CORE Hub: {}", response.getBody());
                 log.info("🔗 URL del CORE Hub: {}", url);
                 log.info("📊 Formato nuevo usado: topic={}, eventName={}", 
-                    destination.get("topic"), destination.get("eventName"));
+                    destination.topic(), destination.eventName());
                 
                 result.put("success", true);
                 result.put("statusCode", response.getStatusCode().value());
@@ -85,6 +105,9 @@ public class CoreHubService {
                 result.put("error", "Error publicando al CORE");
             }
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("⚡ Publicación al CORE rechazada sin llamar - MessageId: {}: {}", message.getMessageId(), e.getMessage());
+            throw new RuntimeException("Error publicando al CORE", e);
         } catch (Exception e) {
             log.error("❌ Error al publicar mensaje al CORE: {}", e.getMessage(), e);
             result.put("success", false);
@@ -131,7 +154,8 @@ public class CoreHubService {
             log.info("Webhook URL: {}", webhookUrlToUse);
             log.info("Payload: {}", subscriptionData);
             
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+            ResponseEntity<String> response = callCore(
+                    () -> restTemplate.postForEntity(url, request, String.class));
     
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("✅ Suscripción exitosa al tópico: {} con eventName: {}", domain, action);
@@ -143,6 +167,9 @@ public class CoreHubService {
                     response.getStatusCode() + ", Response: " + response.getBody());
             }
     
+        } catch (DependencyUnavailableException e) {
+            log.warn("⚡ Suscripción al tópico {} rechazada sin llamar: {}", domain, e.getMessage());
+            throw new RuntimeException("Error en suscripción al CORE: " + e.getMessage(), e);
         } catch (Exception e) {
             log.error("❌ Error suscribiéndose al tópico: {}", e.getMessage(), e);
             throw new RuntimeException("Error en suscripción al CORE: " + e.getMessage(), e);
@@ -167,7 +194,8 @@ public class CoreHubService {
             log.info("URL: {}", url);
             log.info("Payload: {}", ackData);
             
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+            ResponseEntity<String> response = callCore(
+                    () -> restTemplate.postForEntity(url, request, String.class));
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 log.info("✅ ACK enviado exitosamente - MessageId: {}, SubscriptionId: {}", messageId, subscriptionId);
@@ -177,6 +205,8 @@ public class CoreHubService {
                     response.getStatusCode(), response.getBody());
             }
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("⚡ ACK no enviado - MessageId: {}: {}", messageId, e.getMessage());
         } catch (Exception e) {
             log.error("❌ Error enviando ACK: {}", e.getMessage(), e);
         }
@@ -195,6 +225,8 @@ public class CoreHubService {
             result.put("teamName", teamName);
             result.put("apiKeyConfigured", apiKey != null && !apiKey.isEmpty());
             result.put("webhookUrl", webhookUrl);
+            result.put("circuitState", coreHubGuard.getState().name());
+            result.put("readTimeoutMs", coreHubGuard.getReadTimeoutMillis());
             result.put("status", "CONFIGURED");
 
         } catch (Exception e) {
@@ -204,4 +236,12 @@ public class CoreHubService {
 
         return result;
     }
+
+    // Las llamadas al CORE cuentan como trabajo en curso: el apagado espera a que terminen
+    @SuppressWarnings("try") // el handle sólo existe para liberarse al cerrar el bloque
+    private <T> T callCore(Supplier<T> call) {
+        try (DrainCoordinator.Work ignored = drainCoordinator.track(DrainCoordinator.WorkKind.PUBLISH)) {
+            return coreHubGuard.execute(call);
+        }
+    }
 }
@@ -1,17 +1,19 @@
 package backend_api.Backend.messaging.service;
 
+import backend_api.Backend.DTO.payment.PaymentMetadata;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.UserData;
 import backend_api.Backend.Entity.ProviderData;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentStatus;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.Service.Common.PaymentMetadataCodec;
 import backend_api.Backend.Service.Interface.PaymentService;
 import backend_api.Backend.Service.Interface.PaymentEventService;
 import backend_api.Backend.Entity.payment.PaymentEventType;
 import backend_api.Backend.messaging.dto.PaymentRequestMessage;
 import backend_api.Backend.messaging.dto.CoreResponseMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,7 +33,7 @@ public class PaymentRequestProcessorService {
     private final ProviderDataRepository providerDataRepository;
     private final PaymentService paymentService;
     private final PaymentEventService paymentEventService;
-    private final ObjectMapper objectMapper;
+    private final PaymentMetadataCodec paymentMetadataCodec;
     private final CoreHubService coreHubService;
 
     public Map<String, Object> processPaymentRequest(PaymentRequestMessage message) {
@@ -151,22 +153,9 @@ public class PaymentRequestProcessorService {
                     existingPayment.setCreated_at(createdAt);
                     needsUpdate = true;
                 }
-                // Actualizar metadata si metodoPreferido está null
-                if (metodoPreferido != null) {
-                    try {
-                        String metadataStr = existingPayment.getMetadata();
-                        if (metadataStr != null && !metadataStr.isEmpty()) {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> metadata = objectMapper.readValue(metadataStr, Map.class);
-                            if (metadata.get("metodoPreferido") == null) {
-                                metadata.put("metodoPreferido", metodoPreferido);
-                                existingPayment.setMetadata(objectMapper.writeValueAsString(metadata));
-                                needsUpdate = true;
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.warn("⚠️ Error actualizando metadata del pago duplicado: {}", e.getMessage());
-                    }
+                // Completar metodoPreferido si el pago todavía no tiene uno
+                if (paymentMetadataCodec.fillMetodoPreferido(existingPayment, metodoPreferido)) {
+                    needsUpdate = true;
                 }
                 if (needsUpdate) {
                     existingPayment.setUpdated_at(java.time.LocalDateTime.now());
@@ -323,24 +312,16 @@ public class PaymentRequestProcessorService {
 
         // Crear metadata (sin descripcion y descripcionSolicitud, ahora tienen columnas
         // propias)
-        Map<String, Object> metadata = new java.util.HashMap<>();
-        metadata.put("idCorrelacion", idCorrelacion);
-        metadata.put("metodoPreferido", metodoPreferido);
+        PaymentMetadata.PaymentMetadataBuilder metadata = PaymentMetadata.builder()
+                .idCorrelacion(idCorrelacion)
+                .metodoPreferido(metodoPreferido);
         if (userData != null) {
-            metadata.put("userName", userData.getName());
-            metadata.put("userEmail", userData.getEmail());
+            metadata.userName(userData.getName()).userEmail(userData.getEmail());
         }
         if (providerData != null) {
-            metadata.put("providerName", providerData.getName());
-            metadata.put("providerEmail", providerData.getEmail());
-        }
-
-        try {
-            payment.setMetadata(objectMapper.writeValueAsString(metadata));
-        } catch (Exception e) {
-            log.error("Error serializando metadata: {}", e.getMessage());
-            payment.setMetadata("{}");
+            metadata.providerName(providerData.getName()).providerEmail(providerData.getEmail());
         }
+        paymentMetadataCodec.apply(payment, metadata.build());
 
         // Guardar en base de datos
         Payment savedPayment = paymentService.createPayment(payment);
@@ -357,9 +338,8 @@ public class PaymentRequestProcessorService {
             paymentEventService.createEvent(
                     savedPayment.getId(),
                     PaymentEventType.PAYMENT_PENDING,
-                    String.format(
-                            "{\"amount_total\": %s, \"currency\": \"%s\", \"solicitud_id\": %s, \"source\": \"matching\", \"idCorrelacion\": \"%s\"}",
-                            savedPayment.getAmount_total(), savedPayment.getCurrency(), idSolicitud, idCorrelacion),
+                    new PaymentEventPayload.MatchingRequestReceived(savedPayment.getAmount_total(), savedPayment.getCurrency(),
+                            idSolicitud, "matching", idCorrelacion),
                     "system");
             log.info("📝 Evento PAYMENT_PENDING registrado en timeline - PaymentId: {}, IdCorrelacion: {}",
                     savedPayment.getId(), idCorrelacion);
@@ -2,10 +2,14 @@ package backend_api.Backend.messaging.service;
 
 import backend_api.Backend.Entity.ProviderData;
 import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.login.LoginIdentity;
+import backend_api.Backend.login.LoginIdentityChangedEvent;
 import backend_api.Backend.messaging.dto.CoreEventMessage;
+import backend_api.Backend.persistence.ElementCollections;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -17,6 +21,7 @@ import java.util.*;
 public class ProviderEventProcessorService {
 
     private final ProviderDataRepository providerDataRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional
     public void processProviderFromCore(CoreEventMessage message) {
@@ -56,6 +61,7 @@ public class ProviderEventProcessorService {
             entity = new ProviderData();
             entity.setCreatedAt(LocalDateTime.now());
         }
+        String previousEmail = entity.getEmail();
 
         // 4. Campos básicos
         String firstName = asString(firstNonNull(p, "firstName", "nombre"));
@@ -116,17 +122,32 @@ public class ProviderEventProcessorService {
         }
 
         // 6. Skills / zones
-        entity.setSkills(asStringList(firstNonNull(p, "skills", "habilidades")));
-        entity.setZones(asStringList(firstNonNull(p, "zones", "zonas")));
+        ElementCollections.replaceIfChanged(entity.getSkills(), asStringList(firstNonNull(p, "skills", "habilidades")));
+        ElementCollections.replaceIfChanged(entity.getZones(), asStringList(firstNonNull(p, "zones", "zonas")));
 
         entity.setUpdatedAt(LocalDateTime.now());
 
         providerDataRepository.save(entity);
+        publishIdentityChanged(entity.getProviderId(), previousEmail, entity.getEmail());
 
         log.info("✅ Provider upserted: id={}, email={}, name='{}', active={}, messageId={}",
                 entity.getProviderId(), entity.getEmail(), entity.getName(), entity.getActive(), message.getMessageId());
     }
 
+    /**
+     * Avisa a los caches del login (identidad y credenciales validadas), igual
+     * que DataStorageServiceImpl: un prestador dado de baja o modificado no
+     * sigue entrando con lo cacheado hasta que venza el TTL.
+     */
+    private void publishIdentityChanged(Long providerId, String previousEmail, String currentEmail) {
+        applicationEventPublisher.publishEvent(
+                new LoginIdentityChangedEvent(LoginIdentity.Kind.PROVIDER, providerId, previousEmail));
+        if (currentEmail != null && !currentEmail.equals(previousEmail)) {
+            applicationEventPublisher.publishEvent(
+                    new LoginIdentityChangedEvent(LoginIdentity.Kind.PROVIDER, providerId, currentEmail));
+        }
+    }
+
     /**
      * Devuelve "alta" | "modificacion" | "baja" | null
      * mirando primero destination.channel y después destination.eventName.
@@ -5,6 +5,7 @@ import backend_api.Backend.Service.Implementation.DataStorageServiceImpl;
 import backend_api.Backend.Repository.ProviderDataRepository;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Entity.ProviderData;
+import backend_api.Backend.sync.UserSyncPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,7 @@ public class UserEventProcessorService {
     private final DataStorageServiceImpl dataStorageService;
     private final ProviderDataRepository providerDataRepository;
     private final UserDataRepository userDataRepository;
+    private final UserSyncPipeline userSyncPipeline;
 
     // En UserEventProcessorService
 
@@ -90,7 +92,7 @@ public class UserEventProcessorService {
                 }
 
                 // secondaryId para provider: uso el DNI
-                dataStorageService.saveProviderData(userId, pd, dni);
+                userSyncPipeline.submitProvider(userId, pd, dni);
                 log.info("Prestador guardado en provider_data - ProviderId: {}, Email: {}", userId, email);
                 return; // IMPORTANTE: no continuar por la rama de usuarios
             }
@@ -136,7 +138,7 @@ public class UserEventProcessorService {
                         .setScale(2, java.math.RoundingMode.HALF_UP));
             }
 
-            dataStorageService.saveUserData(userId, userData, coreMessage.getMessageId());
+            userSyncPipeline.submitUser(userId, userData, coreMessage.getMessageId());
             log.info("Usuario guardado en user_data - UserId: {}, Role: {}", userId, role);
 
         } catch (Exception e) {
@@ -212,7 +214,7 @@ public class UserEventProcessorService {
                 if (userUpdated.getZones()  != null) pd.put("zones",  userUpdated.getZones());
                 if (userUpdated.getSkills() != null) pd.put("skills", userUpdated.getSkills());
 
-                dataStorageService.saveProviderData(userUpdated.getUserId(), pd, userUpdated.getDni());
+                userSyncPipeline.submitProvider(userUpdated.getUserId(), pd, userUpdated.getDni());
                 log.info("Prestador actualizado en provider_data - ProviderId: {}", userUpdated.getUserId());
                 return; // IMPORTANTE: no seguir por la rama de user_data
             }
@@ -249,7 +251,7 @@ public class UserEventProcessorService {
             if (userUpdated.getZones()  != null) userData.put("zones",  userUpdated.getZones());
             if (userUpdated.getSkills() != null) userData.put("skills", userUpdated.getSkills());
 
-            dataStorageService.saveUserData(userUpdated.getUserId(), userData, coreMessage.getMessageId());
+            userSyncPipeline.submitUser(userUpdated.getUserId(), userData, coreMessage.getMessageId());
             log.info("Usuario actualizado exitosamente en BD - UserId: {}", userUpdated.getUserId());
 
         } catch (Exception e) {
@@ -279,6 +281,9 @@ public class UserEventProcessorService {
             log.info("Usuario desactivado - UserId: {}, Email: {}, Reason: {}",
                 userId, email, deactivationReason);
 
+            // La baja es un UPDATE directo: primero se aplican los upserts pendientes para que no la pisen
+            userSyncPipeline.flushNow();
+
             // Si tenemos userId, usar ese método directamente (sin saveUserData para evitar conflictos)
             if (userId != null) {
                 dataStorageService.deactivateUser(userId, deactivationReason);
@@ -372,8 +377,8 @@ public class UserEventProcessorService {
                 if (skills != null) m.put("skills", skills);
             }
 
-            // delega en el service central (upsert + merge de colecciones)
-            dataStorageService.saveProviderData(providerId, m, dni);
+            // delega en el pipeline de sincronización (upsert + merge de colecciones)
+            userSyncPipeline.submitProvider(providerId, m, dni);
 
             log.info("ProviderData upsert delegado al service - ProviderId: {}, Email: {}", providerId, email);
 
@@ -404,6 +409,7 @@ public class UserEventProcessorService {
             // Si no hay userId pero hay email, buscar por email
             if (userId == null && email != null) {
                 log.info("No se encontró userId, buscando usuario por email: {}", email);
+                userSyncPipeline.flushNow();
                 List<backend_api.Backend.Entity.UserData> users = userDataRepository.findAllByEmail(email);
                 if (!users.isEmpty()) {
                     backend_api.Backend.Entity.UserData userData = users.get(0);
@@ -427,7 +433,7 @@ public class UserEventProcessorService {
             userData.put("rejectionReason", message);
             userData.put("active", false);
 
-            dataStorageService.saveUserData(userId, userData, coreMessage.getMessageId());
+            userSyncPipeline.submitUser(userId, userData, coreMessage.getMessageId());
             
             log.info("Usuario rechazado procesado exitosamente en BD - UserId: {}", userId);
 
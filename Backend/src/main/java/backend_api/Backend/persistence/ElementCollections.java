@@ -0,0 +1,35 @@
+package backend_api.Backend.persistence;
+
+import java.util.List;
+
+/**
+ * Actualización de @ElementCollection sin reemplazar la instancia de la lista.
+ *
+ * Con setZones(nueva) Hibernate no puede comparar contra el snapshot y borra
+ * y reinserta todas las filas de la colección en cada evento de sincronización,
+ * aunque el contenido no haya cambiado. Mutando la lista gestionada:
+ * sin cambios no hay SQL, y si sólo se agregan elementos al final se emiten
+ * únicamente los INSERT. Una baja o reordenamiento sigue recreando la
+ * colección porque las tablas no tienen columna de orden.
+ */
+public final class ElementCollections {
+
+    private ElementCollections() {
+    }
+
+    /**
+     * Deja en current el contenido de incoming. Devuelve true si la lista cambió.
+     */
+    public static boolean replaceIfChanged(List<String> current, List<String> incoming) {
+        if (current.equals(incoming)) {
+            return false;
+        }
+        if (incoming.size() > current.size() && incoming.subList(0, current.size()).equals(current)) {
+            current.addAll(incoming.subList(current.size(), incoming.size()));
+            return true;
+        }
+        current.clear();
+        current.addAll(incoming);
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package backend_api.Backend.persistence;
+
+import java.time.Duration;
+
+/**
+ * Contadores de una ventana de medición (un request HTTP, un test, un batch):
+ * cantidad de statements ejecutados, filas leídas y tiempo total en el driver.
+ * Cada instancia pertenece a un único hilo, ver {@link QueryStatsContext}.
+ */
+public class QueryStats {
+
+    private long queries;
+    private long rows;
+    private long elapsedNanos;
+
+    void recordQuery(long nanos) {
+        queries++;
+        elapsedNanos += nanos;
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("queries=%d, rows=%d, time=%dms", queries, rows, getElapsed().toMillis());
+    }
+}
@@ -0,0 +1,51 @@
+package backend_api.Backend.persistence;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Ventanas de medición activas del hilo actual. Las ventanas se anidan
+ * (p. ej. un test que envuelve un request MockMvc): cada statement se suma
+ * a todas las ventanas abiertas.
+ */
+public final class QueryStatsContext {
+
+    private static final ThreadLocal<Deque<QueryStats>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryStatsContext() {
+    }
+
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        SCOPES.get().push(stats);
+        return stats;
+    }
+
+    public static void end(QueryStats stats) {
+        Deque<QueryStats> scopes = SCOPES.get();
+        scopes.remove(stats);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    static void recordQuery(long nanos) {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        for (QueryStats stats : scopes) {
+            stats.recordQuery(nanos);
+        }
+    }
+
+    static void recordRow() {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        for (QueryStats stats : scopes) {
+            stats.recordRow();
+        }
+    }
+}
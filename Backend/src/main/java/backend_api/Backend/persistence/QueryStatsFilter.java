@@ -0,0 +1,83 @@
+package backend_api.Backend.persistence;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mide statements, filas y tiempo de base de datos de cada request /api/**
+ * y los publica como db.request.queries, db.request.rows y db.request.time
+ * etiquetados por patrón de URI y método. Avisa en el log cuando un request
+ * supera persistence.query-stats.warn-threshold statements (posible N+1).
+ */
+@Component
+@ConditionalOnProperty(name = "persistence.query-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStatsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${persistence.query-stats.warn-threshold:25}")
+    private int warnThreshold;
+
+    public QueryStatsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStatsContext.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStatsContext.end(stats);
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("db.request.queries")
+                .description("Statements JDBC ejecutados por request")
+                .tags("uri", uri, "method", method)
+                .register(meterRegistry)
+                .record(stats.getQueries());
+        DistributionSummary.builder("db.request.rows")
+                .description("Filas leídas por request")
+                .tags("uri", uri, "method", method)
+                .register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("db.request.time")
+                .description("Tiempo en el driver JDBC por request")
+                .tags("uri", uri, "method", method)
+                .register(meterRegistry)
+                .record(stats.getElapsed());
+
+        if (stats.getQueries() > warnThreshold) {
+            logger.warn("⚠️ Posible N+1 en {} {}: {}", method, uri, stats);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package backend_api.Backend.persistence;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Transacción de sólo lectura de Spring. Con la réplica habilitada estas
+ * transacciones se leen de ella (ver {@link ReadReplicaRouter}).
+ *
+ * Existe porque los services anotados con jakarta.transaction.Transactional
+ * no tienen forma de marcar un método como readOnly; a nivel de método esta
+ * anotación tiene prioridad sobre la de la clase.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
@@ -0,0 +1,95 @@
+package backend_api.Backend.persistence;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Separa lecturas y escrituras en pools distintos cuando hay una réplica
+ * configurada (persistence.read-replica.enabled=true). Sin réplica se usa el
+ * DataSource autoconfigurado de siempre.
+ *
+ * Pools:
+ * - primary: escrituras y todo lo que no sea una transacción readOnly (spring.datasource.hikari.*)
+ * - primary-read: lecturas que no pueden ir a la réplica; chico, para no quitarle conexiones a las escrituras
+ * - replica: transacciones readOnly (persistence.read-replica.hikari.*)
+ */
+@Configuration
+@ConditionalOnProperty(name = "persistence.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final String PREFIX = "persistence.read-replica";
+
+    @Bean
+    public ReadReplicaRouter readReplicaRouter(DataSourceProperties properties, Environment environment,
+                                               MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource primary = pool("primary", properties, binder, "spring.datasource.hikari", metrics);
+
+        HikariDataSource primaryReads = pool("primary-read", properties, binder, "spring.datasource.hikari", metrics);
+        int fallbackPoolSize = binder.bind(PREFIX + ".fallback-pool-size", Integer.class).orElse(4);
+        primaryReads.setMaximumPoolSize(fallbackPoolSize);
+        primaryReads.setMinimumIdle(Math.min(1, fallbackPoolSize));
+
+        HikariDataSource replica = pool("replica", properties, binder, PREFIX + ".hikari", metrics);
+        replica.setJdbcUrl(binder.bind(PREFIX + ".url", String.class)
+                .orElseThrow(() -> new IllegalStateException(PREFIX + ".url es obligatorio con la réplica habilitada")));
+        binder.bind(PREFIX + ".username", String.class).ifBound(replica::setUsername);
+        binder.bind(PREFIX + ".password", String.class).ifBound(replica::setPassword);
+        // Una réplica caída al arrancar no debe impedir el inicio: el router lee del primario hasta que responda
+        replica.setInitializationFailTimeout(-1);
+        replica.setReadOnly(true);
+
+        return new ReadReplicaRouter(primary, primaryReads, replica,
+                ReadReplicaRouter.Settings.from(environment, PREFIX), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRouter readReplicaRouter) {
+        // El pool se elige en el primer statement, cuando ya se sabe si la transacción es readOnly
+        return new LazyConnectionDataSourceProxy(readReplicaRouter.getRoutingDataSource());
+    }
+
+    /**
+     * Con el modo por defecto (hold) y open-in-view, Hibernate retiene la
+     * conexión de la primera transacción del request y una escritura posterior
+     * podría ejecutarse sobre la réplica. Liberarla al terminar cada
+     * transacción fuerza una nueva decisión de ruteo por transacción.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource pool(String name, DataSourceProperties properties, Binder binder,
+                                         String hikariPrefix, MicrometerMetricsTrackerFactory metrics) {
+        // HikariDataSource sin argumentos arranca el pool en la primera conexión
+        HikariDataSource pool = new HikariDataSource();
+        binder.bind(hikariPrefix, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setJdbcUrl(properties.determineUrl());
+        pool.setUsername(properties.determineUsername());
+        pool.setPassword(properties.determinePassword());
+        pool.setDriverClassName(properties.determineDriverClassName());
+        pool.setMetricsTrackerFactory(metrics);
+        return pool;
+    }
+}
@@ -0,0 +1,267 @@
+package backend_api.Backend.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Decide a qué pool va cada conexión: las transacciones readOnly leen de la
+ * réplica y todo lo demás usa el pool del primario, que queda reservado para
+ * escrituras.
+ *
+ * Las lecturas vuelven al primario (por un pool chico propio, para no
+ * competir con las escrituras) cuando la réplica no responde, cuando su lag
+ * supera el umbral, o durante una ventana corta después de que el mismo
+ * usuario escribió, para que vea sus propios cambios.
+ *
+ * La decisión se toma al ejecutar el primer statement, por eso el DataSource
+ * expuesto debe envolverse en un LazyConnectionDataSourceProxy (ver
+ * {@link ReadReplicaConfig}).
+ */
+@Slf4j
+public class ReadReplicaRouter implements AutoCloseable {
+
+    static final String REASON_WRITE = "write";
+    static final String REASON_REPLICA = "replica";
+    static final String REASON_STICKY = "sticky";
+    static final String REASON_LAG = "lag";
+    static final String REASON_UNAVAILABLE = "unavailable";
+
+    private final DataSource primary;
+    private final DataSource primaryReads;
+    private final DataSource replica;
+    private final Settings settings;
+    private final Supplier<String> currentPrincipal;
+    private final LongSupplier clock;
+
+    private final DataSource routingDataSource = new RoutingDataSource();
+    // principal -> instante (nanoTime) hasta el que sus lecturas van al primario
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final Map<String, Counter> routedConnections = new HashMap<>();
+    private final ScheduledExecutorService probeScheduler;
+
+    // Hasta el primer chequeo las lecturas van al primario
+    private volatile String replicaState = REASON_UNAVAILABLE;
+    private volatile long replicaLagMillis = -1;
+
+    public ReadReplicaRouter(DataSource primary, DataSource primaryReads, DataSource replica,
+                             Settings settings, MeterRegistry meterRegistry) {
+        this(primary, primaryReads, replica, settings, meterRegistry, ReadReplicaRouter::authenticatedPrincipal, System::nanoTime);
+        probeScheduler.scheduleWithFixedDelay(this::refreshReplicaState,
+                0, settings.probeInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    ReadReplicaRouter(DataSource primary, DataSource primaryReads, DataSource replica, Settings settings,
+                      MeterRegistry meterRegistry, Supplier<String> currentPrincipal, LongSupplier clock) {
+        this.primary = primary;
+        this.primaryReads = primaryReads;
+        this.replica = replica;
+        this.settings = settings;
+        this.currentPrincipal = currentPrincipal;
+        this.clock = clock;
+        this.probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "read-replica-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        routedConnections.put(REASON_WRITE, routingCounter(meterRegistry, "primary", REASON_WRITE));
+        routedConnections.put(REASON_REPLICA, routingCounter(meterRegistry, "replica", REASON_REPLICA));
+        for (String fallback : new String[]{REASON_STICKY, REASON_LAG, REASON_UNAVAILABLE}) {
+            routedConnections.put(fallback, routingCounter(meterRegistry, "primary-read", fallback));
+        }
+        Gauge.builder("datasource.replica.lag", this, router -> router.replicaLagMillis / 1000.0)
+                .description("Lag de la réplica medido en el último chequeo (-1 si no se pudo medir)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", this, router -> router.isReplicaAvailable() ? 1 : 0)
+                .description("1 si las lecturas readOnly se están enviando a la réplica")
+                .register(meterRegistry);
+        Gauge.builder("datasource.routing.sticky.principals", stickyUntil, Map::size)
+                .description("Usuarios con lecturas fijadas al primario después de escribir")
+                .register(meterRegistry);
+    }
+
+    public DataSource getRoutingDataSource() {
+        return routingDataSource;
+    }
+
+    /**
+     * Los pools detrás del ruteo: primario, lecturas del primario y réplica.
+     */
+    public List<DataSource> getTargetDataSources() {
+        return List.of(primary, primaryReads, replica);
+    }
+
+    public boolean isReplicaAvailable() {
+        return REASON_REPLICA.equals(replicaState);
+    }
+
+    public long getReplicaLagMillis() {
+        return replicaLagMillis;
+    }
+
+    /**
+     * Chequeo periódico de la réplica: conectividad y, si hay lag-query
+     * configurada, lag en segundos (primera columna de la primera fila).
+     */
+    void refreshReplicaState() {
+        String previous = replicaState;
+        try (Connection connection = replica.getConnection()) {
+            if (settings.lagQuery() == null || settings.lagQuery().isBlank()) {
+                replicaLagMillis = 0;
+                replicaState = connection.isValid(2) ? REASON_REPLICA : REASON_UNAVAILABLE;
+            } else {
+                replicaLagMillis = measureLag(connection);
+                replicaState = replicaLagMillis >= 0 && replicaLagMillis <= settings.maxLag().toMillis()
+                        ? REASON_REPLICA : REASON_LAG;
+            }
+        } catch (SQLException | RuntimeException e) {
+            replicaLagMillis = -1;
+            replicaState = REASON_UNAVAILABLE;
+            if (!REASON_UNAVAILABLE.equals(previous)) {
+                log.warn("⚠️ Réplica de lectura no disponible, las lecturas vuelven al primario: {}", e.getMessage());
+            }
+        }
+        if (!replicaState.equals(previous)) {
+            log.info("🔀 Réplica de lectura: {} -> {} (lag {} ms)", previous, replicaState, replicaLagMillis);
+        }
+
+        long now = clock.getAsLong();
+        stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    @Override
+    public void close() {
+        probeScheduler.shutdownNow();
+        for (DataSource pool : new DataSource[]{replica, primaryReads, primary}) {
+            if (pool instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("⚠️ Error cerrando pool de conexiones: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource target) throws SQLException;
+    }
+
+    private Connection routeConnection(Connector connector) throws SQLException {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        String principal = currentPrincipal.get();
+
+        if (!inTransaction || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (inTransaction && principal != null) {
+                stickyUntil.put(principal, clock.getAsLong() + settings.stickyWindow().toNanos());
+            }
+            return connect(connector, primary, REASON_WRITE);
+        }
+
+        if (principal != null && isSticky(principal)) {
+            return connect(connector, primaryReads, REASON_STICKY);
+        }
+        String state = replicaState;
+        if (!REASON_REPLICA.equals(state)) {
+            return connect(connector, primaryReads, state);
+        }
+        try {
+            return connect(connector, replica, REASON_REPLICA);
+        } catch (SQLException | RuntimeException e) {
+            // El próximo chequeo decide cuándo volver a la réplica
+            replicaState = REASON_UNAVAILABLE;
+            log.warn("⚠️ Falló la conexión a la réplica, se lee del primario: {}", e.getMessage());
+            return connect(connector, primaryReads, REASON_UNAVAILABLE);
+        }
+    }
+
+    private Connection connect(Connector connector, DataSource target, String reason) throws SQLException {
+        Connection connection = connector.connect(target);
+        routedConnections.get(reason).increment();
+        return connection;
+    }
+
+    private boolean isSticky(String principal) {
+        Long until = stickyUntil.get(principal);
+        return until != null && until - clock.getAsLong() > 0;
+    }
+
+    private long measureLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(settings.lagQuery())) {
+            if (!resultSet.next()) {
+                return -1;
+            }
+            Object lag = resultSet.getObject(1);
+            return lag instanceof Number seconds ? Math.round(seconds.doubleValue() * 1000) : -1;
+        }
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Conexiones entregadas por el router de réplica")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static String authenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return routeConnection(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return routeConnection(target -> target.getConnection(username, password));
+        }
+    }
+
+    public record Settings(Duration maxLag, Duration stickyWindow, Duration probeInterval, String lagQuery) {
+
+        public static Settings from(Environment environment, String prefix) {
+            Binder binder = Binder.get(environment);
+            return new Settings(
+                    binder.bind(prefix + ".max-lag", Duration.class).orElse(Duration.ofSeconds(5)),
+                    binder.bind(prefix + ".sticky-window", Duration.class).orElse(Duration.ofSeconds(5)),
+                    binder.bind(prefix + ".probe-interval", Duration.class).orElse(Duration.ofSeconds(5)),
+                    binder.bind(prefix + ".lag-query", String.class).orElse(null));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package backend_api.Backend.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Control de admisión de /api/**: cada request toma un token del bucket de su
+ * ruta (ratelimit.routes.*) y del bucket general del llamador
+ * (ratelimit.caller.*). El llamador es el usuario autenticado, el X-API-KEY o
+ * la IP, en ese orden. Sin tokens se responde 429 con Retry-After antes de
+ * llegar al controller, sin ocupar conexiones de la base.
+ *
+ * Sólo cuentan como llamador las API keys de ratelimit.api-keys: cualquier
+ * otro valor del header se ignora y el request va por IP, si no alcanzaría
+ * con mandar una key inventada en cada request para estrenar bucket.
+ *
+ * Corre como filtro de servlet después de la cadena de seguridad, así que el
+ * usuario del JWT ya está en el SecurityContext.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@ConditionalOnProperty(name = "ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String API_KEY_HEADER = "X-API-KEY";
+
+    private record Route(PathPattern pattern, String method, RateLimiter limiter) {
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+    }
+
+    /**
+     * Límite de una ruta, leído de ratelimit.routes.&lt;nombre&gt;.*; method vacío aplica a todos.
+     */
+    public record RouteSettings(String pattern, String method, int capacity, double refillPerSecond) {
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    private final RateLimiter callerLimiter;
+    private final Set<String> apiKeys;
+
+    public RateLimitFilter(Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        int shards = binder.bind("ratelimit.shards", Integer.class).orElse(16);
+        int maxBucketsPerShard = binder.bind("ratelimit.max-buckets-per-shard", Integer.class).orElse(4096);
+
+        this.callerLimiter = new RateLimiter("caller",
+                binder.bind("ratelimit.caller.capacity", Integer.class).orElse(120),
+                binder.bind("ratelimit.caller.refill-per-second", Double.class).orElse(60.0),
+                shards, maxBucketsPerShard, meterRegistry);
+        this.apiKeys = binder.bind("ratelimit.api-keys", Bindable.listOf(String.class))
+                .orElse(List.of())
+                .stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .collect(Collectors.toUnmodifiableSet());
+
+        Map<String, RouteSettings> configured = binder
+                .bind("ratelimit.routes", Bindable.mapOf(String.class, RouteSettings.class))
+                .orElse(Map.of());
+        PathPatternParser parser = new PathPatternParser();
+        configured.forEach((name, settings) -> routes.add(new Route(
+                parser.parse(settings.pattern()),
+                StringUtils.hasText(settings.method()) ? settings.method() : null,
+                new RateLimiter(name, settings.capacity(), settings.refillPerSecond(), shards, maxBucketsPerShard,
+                        meterRegistry))));
+        // El patrón más específico gana cuando varios coinciden
+        routes.sort(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+        logger.info("🚦 Rate limiting activo: {} rutas con límite propio", routes.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimiter.CallerType type;
+        String key;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            type = RateLimiter.CallerType.USER;
+            key = authentication.getName();
+        } else if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            type = RateLimiter.CallerType.API_KEY;
+            key = apiKey.trim();
+        } else {
+            // Detrás del proxy la IP real la resuelve server.forward-headers-strategy
+            type = RateLimiter.CallerType.IP;
+            key = request.getRemoteAddr();
+        }
+
+        if (!routes.isEmpty()) {
+            PathContainer path = PathContainer.parsePath(request.getRequestURI());
+            for (Route route : routes) {
+                if (route.matches(request.getMethod(), path)) {
+                    long wait = route.limiter().tryAcquire(type, key);
+                    if (wait > 0) {
+                        reject(request, response, route.limiter(), wait);
+                        return;
+                    }
+                    break;
+                }
+            }
+        }
+
+        long wait = callerLimiter.tryAcquire(type, key);
+        if (wait > 0) {
+            reject(request, response, callerLimiter, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RateLimiter limiter, long waitNanos)
+            throws IOException {
+        long retryAfter = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+        logger.debug("🚦 429 en {} {} (política {}, reintentar en {}s)",
+                request.getMethod(), request.getRequestURI(), limiter.getName(), retryAfter);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\"Límite de requests superado ("
+                + limiter.getName() + ")\",\"path\":\"" + request.getRequestURI() + "\"}");
+    }
+}
@@ -0,0 +1,113 @@
+package backend_api.Backend.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets de una política (por ruta o por llamador), uno por clave de
+ * llamador, en shards de ConcurrentHashMap. Un bucket lleno equivale a uno
+ * nuevo, así que cuando un shard llega al máximo se descartan los llenos; si
+ * sigue lleno (muchas claves distintas a la vez) las claves nuevas comparten
+ * un bucket de desborde en lugar de crecer sin límite.
+ */
+public class RateLimiter {
+
+    public enum CallerType {
+        USER, API_KEY, IP
+    }
+
+    private final String name;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final int maxBucketsPerShard;
+    private final LongSupplier nanoClock;
+    private final List<ConcurrentHashMap<String, TokenBucket>> shards;
+    private final TokenBucket overflow;
+
+    private final Map<CallerType, Counter> allowed = new EnumMap<>(CallerType.class);
+    private final Map<CallerType, Counter> rejected = new EnumMap<>(CallerType.class);
+    private final Counter overflowed;
+
+    public RateLimiter(String name, int capacity, double refillPerSecond, int shardCount, int maxBucketsPerShard,
+                       MeterRegistry meterRegistry) {
+        this(name, capacity, refillPerSecond, shardCount, maxBucketsPerShard, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(String name, int capacity, double refillPerSecond, int shardCount, int maxBucketsPerShard,
+                MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.name = name;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.capacityNanos = intervalNanos * Math.max(1, capacity);
+        this.maxBucketsPerShard = maxBucketsPerShard;
+        this.nanoClock = nanoClock;
+        // Potencia de 2 para elegir el shard con una máscara
+        int size = shardCount <= 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            shards.add(new ConcurrentHashMap<>());
+        }
+        this.overflow = new TokenBucket(intervalNanos, capacityNanos);
+
+        for (CallerType type : CallerType.values()) {
+            String caller = type.name().toLowerCase();
+            allowed.put(type, Counter.builder("ratelimit.requests")
+                    .tags("policy", name, "caller", caller, "outcome", "allowed")
+                    .register(meterRegistry));
+            rejected.put(type, Counter.builder("ratelimit.requests")
+                    .tags("policy", name, "caller", caller, "outcome", "rejected")
+                    .register(meterRegistry));
+        }
+        this.overflowed = Counter.builder("ratelimit.overflow")
+                .description("Claves nuevas que usaron el bucket compartido por shard lleno")
+                .tag("policy", name)
+                .register(meterRegistry);
+        meterRegistry.gauge("ratelimit.buckets", Tags.of("policy", name), this, RateLimiter::size);
+    }
+
+    /**
+     * 0 si el request entra; si no, los nanos hasta que haya un token.
+     */
+    public long tryAcquire(CallerType type, String key) {
+        long now = nanoClock.getAsLong();
+        int hash = key.hashCode();
+        ConcurrentHashMap<String, TokenBucket> shard = shards.get((hash ^ (hash >>> 16)) & (shards.size() - 1));
+        TokenBucket bucket = shard.get(key);
+        if (bucket == null) {
+            bucket = newBucket(shard, key, now);
+        }
+        long wait = bucket.tryAcquire(now);
+        (wait == 0 ? allowed : rejected).get(type).increment();
+        return wait;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, TokenBucket> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private TokenBucket newBucket(ConcurrentHashMap<String, TokenBucket> shard, String key, long now) {
+        if (shard.size() >= maxBucketsPerShard) {
+            shard.values().removeIf(bucket -> bucket.isFull(now));
+            if (shard.size() >= maxBucketsPerShard) {
+                overflowed.increment();
+                return overflow;
+            }
+        }
+        return shard.computeIfAbsent(key, k -> new TokenBucket(intervalNanos, capacityNanos));
+    }
+}
@@ -0,0 +1,46 @@
+package backend_api.Backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks y con recarga perezosa. En lugar de guardar tokens y
+ * la hora de la última recarga, guarda un único long: el instante (nanos) en
+ * que el bucket vuelve a estar lleno. Tomar un token corre ese instante un
+ * intervalo (1 / tasa) hacia adelante con un CAS; si queda más lejos que la
+ * capacidad completa, no hay tokens y la diferencia es la espera.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(long intervalNanos, long capacityNanos) {
+        this.intervalNanos = intervalNanos;
+        this.capacityNanos = capacityNanos;
+    }
+
+    /**
+     * 0 si tomó un token; si no, los nanos hasta que haya uno.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Lleno: equivale a un bucket nuevo y se puede descartar.
+     */
+    boolean isFull(long now) {
+        return fullAt.get() <= now;
+    }
+}
@@ -0,0 +1,14 @@
+package backend_api.Backend.realtime;
+
+import backend_api.Backend.Entity.payment.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento en proceso publicado por PaymentServiceImpl.updatePaymentStatus.
+ */
+public record PaymentStatusChangedEvent(Long paymentId,
+                                        PaymentStatus oldStatus,
+                                        PaymentStatus newStatus,
+                                        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,353 @@
+package backend_api.Backend.realtime;
+
+import backend_api.Backend.DTO.payment.PaymentStatusEventResponse;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bus en proceso que reparte los cambios de estado de pagos a los clientes
+ * suscriptos por SSE o long-poll, en lugar de que el frontend consulte el pago
+ * en loop mientras espera la aprobación.
+ *
+ * Los eventos se reciben después del commit de updatePaymentStatus. Cada
+ * conexión SSE tiene un buffer acotado (se descartan los eventos más viejos) y
+ * se vacía en un pool propio, así el hilo que confirma el pago nunca escribe
+ * en un socket.
+ */
+@Component
+@Slf4j
+public class PaymentStatusEventBus {
+
+    private static final String EVENT_NAME = "payment-status";
+
+    private final ConcurrentHashMap<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger activeSubscriptions = new AtomicInteger();
+    private final ScheduledExecutorService heartbeatScheduler;
+    // Cada suscripción tiene a lo sumo un drain encolado, la cola queda acotada por la cantidad de conexiones
+    private final ExecutorService dispatcher;
+
+    private final int bufferSize;
+    private final Duration sseTimeout;
+    private final Duration longPollTimeout;
+
+    private final Counter delivered;
+    private final Counter dropped;
+
+    public PaymentStatusEventBus(MeterRegistry meterRegistry,
+                                 @Value("${realtime.payments.buffer-size:16}") int bufferSize,
+                                 @Value("${realtime.payments.dispatch-threads:2}") int dispatchThreads,
+                                 @Value("${realtime.payments.heartbeat-interval:15s}") Duration heartbeatInterval,
+                                 @Value("${realtime.payments.sse-timeout:5m}") Duration sseTimeout,
+                                 @Value("${realtime.payments.long-poll-timeout:25s}") Duration longPollTimeout) {
+        this.bufferSize = bufferSize;
+        this.sseTimeout = sseTimeout;
+        this.longPollTimeout = longPollTimeout;
+
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, daemonThreads("payment-status-dispatch-"));
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("payment-status-heartbeat-"));
+        this.heartbeatScheduler.scheduleAtFixedRate(this::sendHeartbeats,
+                heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        this.delivered = Counter.builder("realtime.payments.events").tag("result", "delivered").register(meterRegistry);
+        this.dropped = Counter.builder("realtime.payments.events").tag("result", "dropped").register(meterRegistry);
+        meterRegistry.gauge("realtime.payments.subscriptions", activeSubscriptions);
+    }
+
+    /**
+     * Abre un stream SSE para el pago. El primer evento es el estado actual,
+     * leído después de registrar la suscripción para no perder un cambio
+     * concurrente. El stream se cierra solo cuando el pago llega a un estado final.
+     */
+    public SseEmitter openStream(Long paymentId, Supplier<PaymentStatusEventResponse> snapshot) {
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        SseSubscription subscription = new SseSubscription(paymentId, emitter);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(() -> {
+            subscription.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscription.close());
+
+        register(subscription);
+        try {
+            subscription.offer(snapshot.get());
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * Long-poll: responde en cuanto el estado difiere de knownStatus (o ya es final);
+     * si no hay cambios antes del timeout responde 204 y el cliente vuelve a preguntar.
+     */
+    public DeferredResult<ResponseEntity<PaymentStatusEventResponse>> awaitChange(
+            Long paymentId, PaymentStatus knownStatus, Supplier<PaymentStatusEventResponse> snapshot) {
+        DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result =
+                new DeferredResult<>(longPollTimeout.toMillis(), ResponseEntity.noContent().build());
+        LongPollSubscription subscription = new LongPollSubscription(paymentId, result);
+        result.onCompletion(subscription::close);
+
+        register(subscription);
+        try {
+            PaymentStatusEventResponse current = snapshot.get();
+            if (knownStatus == null || current.getStatus() != knownStatus || current.isTerminal()) {
+                subscription.offer(current);
+            }
+        } catch (RuntimeException e) {
+            subscription.close();
+            throw e;
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentStatusChanged(PaymentStatusChangedEvent event) {
+        Set<Subscription> listeners = subscriptions.get(event.paymentId());
+        if (listeners == null) {
+            return;
+        }
+        PaymentStatusEventResponse payload = PaymentStatusEventResponse.of(
+                event.paymentId(), event.oldStatus(), event.newStatus(), event.updatedAt());
+        for (Subscription subscription : listeners) {
+            subscription.offer(payload);
+        }
+    }
+
+    public int getActiveSubscriptions() {
+        return activeSubscriptions.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        subscriptions.values().forEach(set -> set.forEach(Subscription::shutdown));
+        dispatcher.shutdown();
+    }
+
+    private void register(Subscription subscription) {
+        subscriptions.compute(subscription.paymentId(), (id, set) -> {
+            Set<Subscription> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            if (target.add(subscription)) {
+                activeSubscriptions.incrementAndGet();
+            }
+            return target;
+        });
+    }
+
+    private void unregister(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.paymentId(), (id, set) -> {
+            if (set.remove(subscription)) {
+                activeSubscriptions.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void sendHeartbeats() {
+        try {
+            subscriptions.values().forEach(set -> set.forEach(Subscription::heartbeat));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Error enviando heartbeats de estado de pagos: {}", e.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private interface Subscription {
+        Long paymentId();
+
+        void offer(PaymentStatusEventResponse event);
+
+        void heartbeat();
+
+        void close();
+
+        void shutdown();
+    }
+
+    private record PendingEvent(SseEmitter.SseEventBuilder event, boolean last) {
+    }
+
+    private final class SseSubscription implements Subscription {
+
+        private final Long paymentId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<PendingEvent> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private SseSubscription(Long paymentId, SseEmitter emitter) {
+            this.paymentId = paymentId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public Long paymentId() {
+            return paymentId;
+        }
+
+        @Override
+        public void offer(PaymentStatusEventResponse event) {
+            enqueue(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .id(String.valueOf(event.getStatus()))
+                    .data(event, MediaType.APPLICATION_JSON), event.isTerminal());
+        }
+
+        @Override
+        public void heartbeat() {
+            enqueue(SseEmitter.event().comment("heartbeat"), false);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            unregister(this);
+            synchronized (buffer) {
+                buffer.clear();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            close();
+            emitter.complete();
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event, boolean last) {
+            if (closed) {
+                return;
+            }
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(new PendingEvent(event, last));
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                PendingEvent next;
+                while (!closed && (next = poll()) != null) {
+                    emitter.send(next.event());
+                    delivered.increment();
+                    if (next.last()) {
+                        close();
+                        emitter.complete();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente cerró la conexión: Spring completa el emitter, sólo se libera la suscripción
+                log.debug("Stream de estado del pago {} cerrado: {}", paymentId, e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Un evento pudo llegar entre el último poll y la liberación del flag
+            if (!closed && hasPending()) {
+                scheduleDrain();
+            }
+        }
+
+        private PendingEvent poll() {
+            synchronized (buffer) {
+                return buffer.pollFirst();
+            }
+        }
+
+        private boolean hasPending() {
+            synchronized (buffer) {
+                return !buffer.isEmpty();
+            }
+        }
+    }
+
+    private final class LongPollSubscription implements Subscription {
+
+        private final Long paymentId;
+        private final DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result;
+
+        private LongPollSubscription(Long paymentId, DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result) {
+            this.paymentId = paymentId;
+            this.result = result;
+        }
+
+        @Override
+        public Long paymentId() {
+            return paymentId;
+        }
+
+        @Override
+        public void offer(PaymentStatusEventResponse event) {
+            if (result.setResult(ResponseEntity.ok(event))) {
+                delivered.increment();
+            }
+            close();
+        }
+
+        @Override
+        public void heartbeat() {
+            // El long-poll responde al primer cambio o al timeout, no necesita keep-alive
+        }
+
+        @Override
+        public void close() {
+            unregister(this);
+        }
+
+        @Override
+        public void shutdown() {
+            result.setResult(ResponseEntity.noContent().build());
+            close();
+        }
+    }
+}
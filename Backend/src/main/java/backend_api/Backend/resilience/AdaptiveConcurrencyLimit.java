@@ -0,0 +1,104 @@
+package backend_api.Backend.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de requests en curso que se ajusta con la latencia observada
+ * (algoritmo de gradiente): compara una media móvil rápida de la latencia
+ * con una lenta que hace de referencia sin carga. Si la rápida sube, hay
+ * cola (pool de conexiones, locks) y el límite baja en proporción; si no,
+ * crece de a sqrt(límite). Sólo crece cuando el tráfico llega a usarlo.
+ *
+ * Las lecturas pueden ocupar hasta readShare del límite; el resto queda
+ * para las escrituras de estado de pago, que no se rechazan mientras haya
+ * lugar en el límite completo.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public enum Priority {
+        WRITE, READ
+    }
+
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double readShare;
+    private final double smoothing;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double readShare,
+                                    double smoothing, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.readShare = readShare;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Reserva un lugar; false si el request debe rechazarse.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int cap = priority == Priority.WRITE ? (int) limit : Math.max(1, (int) (limit * readShare));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= cap) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar. sample = false para requests cuya duración no
+     * representa trabajo en el servidor (respuestas asíncronas).
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean sample) {
+        inFlight.decrementAndGet();
+        if (sample) {
+            onSample(rttNanos, inFlightAtStart);
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_ALPHA;
+        longRtt += (rttNanos - longRtt) * LONG_ALPHA;
+        // Carga sostenida: la referencia se acerca de a poco para no quedar fija en un valor viejo
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        if (inFlightAtStart < current / 2) {
+            // El tráfico no llega al límite: no hay evidencia para subirlo
+            target = Math.min(target, current);
+        }
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,88 @@
+package backend_api.Backend.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Timeout de lectura derivado de la latencia observada: percentil de las
+ * últimas llamadas multiplicado por un margen, acotado entre min y max. Hasta
+ * juntar suficientes muestras usa max.
+ *
+ * Las llamadas que fallan (timeouts incluidos) cuentan con al menos el timeout
+ * vigente: si sólo aprendiera de las que terminan a tiempo, el timeout podría
+ * bajar pero nunca volver a subir cuando la dependencia se pone más lenta.
+ */
+public class AdaptiveTimeout {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long minMillis;
+    private final long maxMillis;
+    private final double multiplier;
+    private final double percentile;
+    private final int minimumSamples;
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private int sinceRecompute;
+    private volatile long currentMillis;
+
+    public AdaptiveTimeout(Duration min, Duration max, double multiplier, double percentile,
+                           int windowSize, int minimumSamples) {
+        this.minMillis = min.toMillis();
+        this.maxMillis = max.toMillis();
+        this.multiplier = multiplier;
+        this.percentile = percentile;
+        this.minimumSamples = Math.min(minimumSamples, windowSize);
+        this.samples = new long[windowSize];
+        this.currentMillis = maxMillis;
+    }
+
+    public synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        if (size >= minimumSamples && (++sinceRecompute >= RECOMPUTE_EVERY || size == minimumSamples)) {
+            sinceRecompute = 0;
+            currentMillis = compute();
+        }
+    }
+
+    /**
+     * Llamada fallida: cuenta como si hubiera tardado al menos el timeout
+     * vigente y recalcula enseguida, así el timeout crece mientras fallen.
+     */
+    public synchronized void recordFailure(long latencyMillis) {
+        record(Math.max(latencyMillis, currentMillis));
+        if (size >= minimumSamples) {
+            sinceRecompute = 0;
+            currentMillis = compute();
+        }
+    }
+
+    /**
+     * Descarta las muestras y vuelve a max (por ejemplo, al abrir el circuito).
+     */
+    public synchronized void reset() {
+        next = 0;
+        size = 0;
+        sinceRecompute = 0;
+        currentMillis = maxMillis;
+    }
+
+    public long currentMillis() {
+        return currentMillis;
+    }
+
+    private long compute() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        long observed = sorted[Math.max(0, Math.min(index, size - 1))];
+        long timeout = (long) Math.ceil(observed * multiplier);
+        return Math.max(minMillis, Math.min(maxMillis, timeout));
+    }
+}
@@ -0,0 +1,26 @@
+package backend_api.Backend.resilience;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Aplica a cada conexión el timeout de lectura vigente del {@link DependencyGuard},
+ * que se ajusta según la latencia observada de la dependencia.
+ */
+public class AdaptiveTimeoutRequestFactory extends SimpleClientHttpRequestFactory {
+
+    private final DependencyGuard guard;
+
+    public AdaptiveTimeoutRequestFactory(DependencyGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+        super.prepareConnection(connection, httpMethod);
+        connection.setConnectTimeout(guard.getConnectTimeoutMillis());
+        connection.setReadTimeout(guard.getReadTimeoutMillis());
+    }
+}
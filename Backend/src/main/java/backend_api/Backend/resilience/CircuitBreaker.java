@@ -0,0 +1,181 @@
+package backend_api.Backend.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker por cantidad de llamadas: mira las últimas windowSize
+ * llamadas y abre el circuito cuando la tasa de fallas o de llamadas lentas
+ * supera su umbral. Abierto, rechaza sin llamar durante openDuration; después
+ * deja pasar halfOpenCalls llamadas de prueba antes de volver a cerrarse.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Ventana circular de resultados
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    private volatile Consumer<State> transitionListener = newState -> { };
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          int slowCallRateThreshold, Duration slowCallDuration, Duration openDuration,
+                          int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                slowCallDuration, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                   int slowCallRateThreshold, Duration slowCallDuration, Duration openDuration,
+                   int halfOpenCalls, LongSupplier nanoClock) {
+        this.name = name;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+    }
+
+    /**
+     * Se invoca en cada cambio de estado, con el lock del circuito tomado.
+     */
+    public void onTransition(Consumer<State> listener) {
+        this.transitionListener = listener;
+    }
+
+    /**
+     * true si la llamada puede salir; en HALF_OPEN reserva uno de los lugares de prueba.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve un permiso que no llegó a usarse (por ejemplo, el bulkhead rechazó la llamada).
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    public synchronized void onResult(boolean failure, long durationNanos) {
+        boolean slowCall = durationNanos >= slowCallNanos;
+        switch (state) {
+            case OPEN -> {
+                // Llamada que salió antes de abrir el circuito: no cambia nada
+            }
+            case HALF_OPEN -> {
+                halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+                if (failure || slowCall) {
+                    open();
+                } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                record(failure, slowCall);
+                if (recorded >= minimumCalls
+                        && (failedCount * 100 >= failureRateThreshold * recorded
+                            || slowCount * 100 >= slowCallRateThreshold * recorded)) {
+                    open();
+                }
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        // Refleja el paso a HALF_OPEN aunque todavía no haya llegado una llamada
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (recorded == failed.length) {
+            if (failed[next]) {
+                failedCount--;
+            }
+            if (slow[next]) {
+                slowCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        if (failure) {
+            failedCount++;
+        }
+        if (slowCall) {
+            slowCount++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        log.warn("🔴 Circuito {} abierto: {}/{} fallas, {}/{} lentas", name, failedCount, recorded, slowCount, recorded);
+        openedAt = nanoClock.getAsLong();
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State newState) {
+        if (newState != State.OPEN) {
+            log.info("🟢 Circuito {}: {} -> {}", name, state, newState);
+        }
+        state = newState;
+        halfOpenInFlight = 0;
+        halfOpenSucceeded = 0;
+        if (newState == State.CLOSED) {
+            Arrays.fill(failed, false);
+            Arrays.fill(slow, false);
+            next = 0;
+            recorded = 0;
+            failedCount = 0;
+            slowCount = 0;
+        }
+        transitionListener.accept(newState);
+    }
+}
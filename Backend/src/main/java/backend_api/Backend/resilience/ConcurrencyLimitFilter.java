@@ -0,0 +1,146 @@
+package backend_api.Backend.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pone un {@link AdaptiveConcurrencyLimit} delante de los controllers de
+ * /api/**. Lo que supera el límite recibe 503 al instante en lugar de
+ * esperar una conexión de Hikari hasta connection-timeout. Las rutas de
+ * resilience.concurrency.priority-routes ("MÉTODO patrón") son escrituras de
+ * estado de pago y usan el límite completo; el resto son lecturas.
+ *
+ * Va después del rate limiting: un llamador que ya superó su cuota no
+ * consume lugar en el límite.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "resilience.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final List<String> DEFAULT_PRIORITY_ROUTES = List.of(
+            "POST /api/payments",
+            "PUT /api/payments/*/confirm",
+            "PUT /api/payments/*/payment-method",
+            "POST /api/payments/*/cancel",
+            "POST /api/payments/*/retry-balance",
+            "POST /api/core/webhook/payment-events",
+            "POST /api/core/webhook/matching-payment-requests");
+
+    private record PriorityRoute(String method, PathPattern pattern) {
+    }
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final List<PriorityRoute> priorityRoutes = new ArrayList<>();
+
+    private final Counter rejectedWrites;
+    private final Counter rejectedReads;
+
+    public ConcurrencyLimitFilter(Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        this.limit = new AdaptiveConcurrencyLimit(
+                binder.bind("resilience.concurrency.initial-limit", Integer.class).orElse(20),
+                binder.bind("resilience.concurrency.min-limit", Integer.class).orElse(4),
+                binder.bind("resilience.concurrency.max-limit", Integer.class).orElse(200),
+                binder.bind("resilience.concurrency.read-share", Double.class).orElse(0.8),
+                binder.bind("resilience.concurrency.smoothing", Double.class).orElse(0.2),
+                binder.bind("resilience.concurrency.tolerance", Double.class).orElse(1.5));
+
+        PathPatternParser parser = new PathPatternParser();
+        for (String route : binder.bind("resilience.concurrency.priority-routes", Bindable.listOf(String.class))
+                .orElse(DEFAULT_PRIORITY_ROUTES)) {
+            String[] parts = route.trim().split("\\s+", 2);
+            priorityRoutes.add(new PriorityRoute(parts[0].toUpperCase(), parser.parse(parts[1])));
+        }
+
+        this.rejectedWrites = rejectedCounter(meterRegistry, "write");
+        this.rejectedReads = rejectedCounter(meterRegistry, "read");
+        Gauge.builder("resilience.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Límite adaptativo de requests en curso")
+                .register(meterRegistry);
+        Gauge.builder("resilience.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimit.Priority priority = priorityOf(request);
+        if (!limit.tryAcquire(priority)) {
+            (priority == AdaptiveConcurrencyLimit.Priority.WRITE ? rejectedWrites : rejectedReads).increment();
+            logger.debug("⛔ 503 por límite de concurrencia ({}) en {} {}", limit.getLimit(),
+                    request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":503,\"error\":\"Service Unavailable\","
+                    + "\"message\":\"Servidor saturado, reintente en unos segundos\"}");
+            return;
+        }
+
+        int inFlightAtStart = limit.getInFlight();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // SSE / long-poll: la duración hasta acá no dice nada de la carga
+            limit.release(System.nanoTime() - start, inFlightAtStart, !request.isAsyncStarted());
+        }
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    private AdaptiveConcurrencyLimit.Priority priorityOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            PathContainer path = PathContainer.parsePath(request.getRequestURI());
+            for (PriorityRoute route : priorityRoutes) {
+                if (route.method().equals(method) && route.pattern().matches(path)) {
+                    return AdaptiveConcurrencyLimit.Priority.WRITE;
+                }
+            }
+        }
+        return AdaptiveConcurrencyLimit.Priority.READ;
+    }
+
+    private Counter rejectedCounter(MeterRegistry meterRegistry, String priority) {
+        return Counter.builder("resilience.concurrency.rejected")
+                .description("Requests rechazados con 503 por el límite de concurrencia")
+                .tag("priority", priority)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,197 @@
+package backend_api.Backend.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Protección de una dependencia remota: circuit breaker, bulkhead por semáforo
+ * que limita las llamadas concurrentes y timeout de lectura adaptativo. Si la
+ * dependencia está degradada las llamadas fallan rápido con
+ * {@link DependencyUnavailableException} en lugar de esperar el timeout
+ * completo ocupando hilos de Tomcat y conexiones.
+ */
+public class DependencyGuard {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveTimeout readTimeout;
+    private final Semaphore bulkhead;
+    private final long maxWaitNanos;
+    private final Duration connectTimeout;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejectedByCircuit;
+    private final Counter rejectedByBulkhead;
+    private final Timer callTimer;
+
+    public DependencyGuard(String name, Settings settings, MeterRegistry meterRegistry) {
+        this(name, settings, new CircuitBreaker(name, settings.windowSize(), settings.minimumCalls(),
+                settings.failureRateThreshold(), settings.slowCallRateThreshold(), settings.slowCallDuration(),
+                settings.openDuration(), settings.halfOpenCalls()), meterRegistry);
+    }
+
+    DependencyGuard(String name, Settings settings, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.readTimeout = new AdaptiveTimeout(settings.minTimeout(), settings.maxTimeout(),
+                settings.timeoutMultiplier(), settings.timeoutPercentile(), 200, 20);
+        // Abierto o probando, el timeout vuelve a max: las llamadas de prueba no pueden
+        // fallar contra el mismo timeout corto que abrió el circuito
+        circuitBreaker.onTransition(state -> {
+            if (state != CircuitBreaker.State.CLOSED) {
+                readTimeout.reset();
+            }
+        });
+        this.bulkhead = new Semaphore(settings.maxConcurrentCalls(), true);
+        this.maxWaitNanos = settings.maxWait().toNanos();
+        this.connectTimeout = settings.connectTimeout();
+
+        this.successes = callCounter(meterRegistry, "success");
+        this.failures = callCounter(meterRegistry, "failure");
+        this.rejectedByCircuit = callCounter(meterRegistry, "rejected_circuit");
+        this.rejectedByBulkhead = callCounter(meterRegistry, "rejected_bulkhead");
+        this.callTimer = Timer.builder("resilience.call.duration")
+                .description("Duración de las llamadas a dependencias externas")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("resilience.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Estado del circuito: 0=CLOSED, 1=OPEN, 2=HALF_OPEN")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("resilience.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("resilience.timeout.read", readTimeout, AdaptiveTimeout::currentMillis)
+                .description("Timeout de lectura adaptativo en milisegundos")
+                .tag("dependency", name)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedByCircuit.increment();
+            throw new DependencyUnavailableException(name, "circuito abierto");
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.releasePermission();
+            rejectedByBulkhead.increment();
+            throw new DependencyUnavailableException(name, "demasiadas llamadas concurrentes");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onResult(false, elapsed);
+            readTimeout.record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            successes.increment();
+            return result;
+        } catch (RuntimeException e) {
+            // Un 4xx es una respuesta válida de la dependencia (ej. contraseña incorrecta), no una falla
+            boolean failure = !(e instanceof HttpClientErrorException);
+            long elapsed = System.nanoTime() - start;
+            if (failure) {
+                readTimeout.recordFailure(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            } else {
+                readTimeout.record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            circuitBreaker.onResult(failure, elapsed);
+            (failure ? failures : successes).increment();
+            throw e;
+        } finally {
+            callTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            bulkhead.release();
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    public int getReadTimeoutMillis() {
+        return (int) readTimeout.currentMillis();
+    }
+
+    public int getConnectTimeoutMillis() {
+        return (int) connectTimeout.toMillis();
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return maxWaitNanos <= 0
+                    ? bulkhead.tryAcquire()
+                    : bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter callCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("resilience.calls")
+                .tag("dependency", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Configuración de una dependencia, leída de resilience.&lt;dependencia&gt;.*
+     */
+    public record Settings(int maxConcurrentCalls,
+                           Duration maxWait,
+                           int windowSize,
+                           int minimumCalls,
+                           int failureRateThreshold,
+                           int slowCallRateThreshold,
+                           Duration slowCallDuration,
+                           Duration openDuration,
+                           int halfOpenCalls,
+                           Duration connectTimeout,
+                           Duration minTimeout,
+                           Duration maxTimeout,
+                           double timeoutMultiplier,
+                           double timeoutPercentile) {
+
+        public static Settings from(Environment environment, String prefix, Duration defaultMaxTimeout) {
+            // Binder acepta el formato de duraciones de Spring Boot (100ms, 30s)
+            Binder binder = Binder.get(environment);
+            return new Settings(
+                    binder.bind(prefix + ".max-concurrent-calls", Integer.class).orElse(10),
+                    binder.bind(prefix + ".max-wait", Duration.class).orElse(Duration.ofMillis(100)),
+                    binder.bind(prefix + ".window-size", Integer.class).orElse(20),
+                    binder.bind(prefix + ".minimum-calls", Integer.class).orElse(10),
+                    binder.bind(prefix + ".failure-rate-threshold", Integer.class).orElse(50),
+                    binder.bind(prefix + ".slow-call-rate-threshold", Integer.class).orElse(80),
+                    binder.bind(prefix + ".slow-call-duration", Duration.class).orElse(Duration.ofSeconds(3)),
+                    binder.bind(prefix + ".open-duration", Duration.class).orElse(Duration.ofSeconds(30)),
+                    binder.bind(prefix + ".half-open-calls", Integer.class).orElse(3),
+                    binder.bind(prefix + ".connect-timeout", Duration.class).orElse(Duration.ofSeconds(2)),
+                    binder.bind(prefix + ".timeout.min", Duration.class).orElse(Duration.ofMillis(500)),
+                    binder.bind(prefix + ".timeout.max", Duration.class).orElse(defaultMaxTimeout),
+                    binder.bind(prefix + ".timeout.multiplier", Double.class).orElse(2.0),
+                    binder.bind(prefix + ".timeout.percentile", Double.class).orElse(0.99));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package backend_api.Backend.resilience;
+
+/**
+ * La llamada a una dependencia externa se rechazó sin salir de la aplicación:
+ * circuito abierto o bulkhead sin lugar.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String dependency;
+
+    public DependencyUnavailableException(String dependency, String reason) {
+        super("Dependencia " + dependency + " no disponible: " + reason);
+        this.dependency = dependency;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
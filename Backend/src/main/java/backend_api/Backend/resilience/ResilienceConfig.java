@@ -0,0 +1,45 @@
+package backend_api.Backend.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Un {@link DependencyGuard} y un RestTemplate propio por dependencia remota,
+ * así una dependencia lenta no consume los permisos ni el timeout de la otra.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    public static final String CORE_HUB = "core-hub";
+    public static final String USER_MODULE = "user-module";
+
+    @Bean
+    public DependencyGuard coreHubGuard(Environment environment, MeterRegistry meterRegistry) {
+        return new DependencyGuard(CORE_HUB,
+                DependencyGuard.Settings.from(environment, "resilience." + CORE_HUB, Duration.ofSeconds(10)),
+                meterRegistry);
+    }
+
+    @Bean
+    public DependencyGuard userModuleGuard(Environment environment, MeterRegistry meterRegistry) {
+        return new DependencyGuard(USER_MODULE,
+                DependencyGuard.Settings.from(environment, "resilience." + USER_MODULE, Duration.ofSeconds(5)),
+                meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate coreHubRestTemplate(@Qualifier("coreHubGuard") DependencyGuard coreHubGuard) {
+        return new RestTemplate(new AdaptiveTimeoutRequestFactory(coreHubGuard));
+    }
+
+    @Bean
+    public RestTemplate userModuleRestTemplate(@Qualifier("userModuleGuard") DependencyGuard userModuleGuard) {
+        return new RestTemplate(new AdaptiveTimeoutRequestFactory(userModuleGuard));
+    }
+}
@@ -0,0 +1,116 @@
+package backend_api.Backend.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Marca como lazy los beans que no hacen falta para atender tráfico
+ * (startup.lazy-init.*): se crean en el primer uso en lugar de en el arranque.
+ *
+ * Se aplica a los beans listados por nombre y a los declarados en los paquetes
+ * listados (por clase o por la configuración que define el @Bean, p. ej.
+ * org.springdoc). Los post-processors y los beans de infraestructura nunca se
+ * tocan. Con el procesamiento AOT el flag queda grabado en las definiciones
+ * generadas.
+ *
+ * Los controllers lazy siguen mapeados: el handler mapping sólo necesita el
+ * tipo y resuelve la instancia en el primer request.
+ */
+@Component
+@Slf4j
+public class LazyInitializationPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware, Ordered {
+
+    private static final String PREFIX = "startup.lazy-init";
+
+    private Settings settings = new Settings(false, List.of(), Set.of());
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.settings = Settings.from(environment, PREFIX);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        if (!settings.enabled()) {
+            return;
+        }
+        int marked = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.isLazyInit() || !definition.isSingleton() || !shouldDefer(name, definition)) {
+                continue;
+            }
+            if (isPostProcessor(beanFactory, name)) {
+                continue;
+            }
+            definition.setLazyInit(true);
+            marked++;
+        }
+        log.info("⏳ {} beans con inicialización diferida ({})", marked, PREFIX);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private boolean shouldDefer(String name, BeanDefinition definition) {
+        if (definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+            return false;
+        }
+        if (settings.beans().contains(name)) {
+            return true;
+        }
+        return inPackages(definition.getBeanClassName())
+                || inPackages(factoryMethodDeclaringClass(definition));
+    }
+
+    private boolean inPackages(String className) {
+        if (className == null) {
+            return false;
+        }
+        return settings.packages().stream().anyMatch(pkg -> className.startsWith(pkg + "."));
+    }
+
+    private static String factoryMethodDeclaringClass(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPostProcessor(BeanFactory beanFactory, String name) {
+        Class<?> type = beanFactory.getType(name, false);
+        return type != null && (BeanPostProcessor.class.isAssignableFrom(type)
+                || BeanFactoryPostProcessor.class.isAssignableFrom(type));
+    }
+
+    record Settings(boolean enabled, List<String> packages, Set<String> beans) {
+
+        static Settings from(Environment environment, String prefix) {
+            Binder binder = Binder.get(environment);
+            return new Settings(
+                    binder.bind(prefix + ".enabled", Boolean.class).orElse(false),
+                    binder.bind(prefix + ".packages", Bindable.listOf(String.class)).orElse(List.of()),
+                    binder.bind(prefix + ".beans", Bindable.setOf(String.class)).orElse(Set.of()));
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package backend_api.Backend.startup;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.BackendApplication;
+import backend_api.Backend.DTO.payment.PaymentField;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Service.Interface.InvoiceService;
+import backend_api.Backend.Service.Interface.PaymentService;
+import backend_api.Backend.persistence.ReadReplicaRouter;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calienta la instancia antes de que reciba tráfico. Corre como
+ * ApplicationRunner, así que termina antes del ApplicationReadyEvent: hasta
+ * entonces /actuator/health/readiness responde OUT_OF_SERVICE y el primer
+ * request real ya encuentra pools abiertos, serializers armados y código
+ * compilado por el JIT.
+ *
+ * Pasos, cada uno con su tiempo en startup.warm-up{step}:
+ * - pools: abre las conexiones mínimas (minimum-idle) de cada pool de Hikari;
+ * - jwt: genera y valida tokens sintéticos (startup.warm-up.iterations veces);
+ * - json: arma los serializers/deserializers de Jackson de los tipos que
+ *   devuelven o reciben los controllers y serializa instancias vacías;
+ * - reads: las lecturas más usadas (mis pagos, totales, facturas) para un
+ *   usuario que no existe (startup.warm-up.query-iterations veces), lo que
+ *   compila las variantes paginadas/ordenadas y los count de las queries;
+ *   no toca filas reales;
+ * - outbound: resuelve DNS y hace el handshake TLS contra el CORE y el
+ *   módulo de usuarios (startup.warm-up.outbound-urls).
+ *
+ * Un paso que falla se registra y se sigue con el próximo; cuando se
+ * consume startup.warm-up.timeout los pasos que faltan se saltean. El
+ * arranque nunca falla por el warm-up.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "startup.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmUp implements ApplicationRunner {
+
+    // Ningún usuario ni prestador tiene este id: las lecturas recorren todo el camino y devuelven vacío
+    static final long SYNTHETIC_ID = -1L;
+
+    private record Step(String name, Runnable action) {
+    }
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ReadReplicaRouter> readReplicaRouter;
+    private final ObjectMapper objectMapper;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final JwtUtil jwtUtil;
+    private final PaymentService paymentService;
+    private final InvoiceService invoiceService;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int iterations;
+    private final int queryIterations;
+    private final List<String> outboundUrls;
+    private final Duration outboundTimeout;
+
+    private volatile long deadline = Long.MAX_VALUE;
+
+    public StartupWarmUp(DataSource dataSource,
+                         ObjectProvider<ReadReplicaRouter> readReplicaRouter,
+                         ObjectMapper objectMapper,
+                         @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                         JwtUtil jwtUtil,
+                         PaymentService paymentService,
+                         InvoiceService invoiceService,
+                         MeterRegistry meterRegistry,
+                         @Value("${startup.warm-up.timeout:60s}") Duration timeout,
+                         @Value("${startup.warm-up.iterations:200}") int iterations,
+                         @Value("${startup.warm-up.query-iterations:20}") int queryIterations,
+                         @Value("${startup.warm-up.outbound-urls:}") List<String> outboundUrls,
+                         @Value("${startup.warm-up.outbound-timeout:2s}") Duration outboundTimeout) {
+        this.dataSource = dataSource;
+        this.readReplicaRouter = readReplicaRouter;
+        this.objectMapper = objectMapper;
+        this.handlerMapping = handlerMapping;
+        this.jwtUtil = jwtUtil;
+        this.paymentService = paymentService;
+        this.invoiceService = invoiceService;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.iterations = iterations;
+        this.queryIterations = queryIterations;
+        this.outboundUrls = outboundUrls;
+        this.outboundTimeout = outboundTimeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Step> steps = List.of(
+                new Step("pools", this::warmConnectionPools),
+                new Step("jwt", this::warmJwt),
+                new Step("json", this::warmJson),
+                new Step("reads", this::warmReads),
+                new Step("outbound", this::warmOutbound));
+
+        log.info("🔥 Warm-up antes de aceptar tráfico ({} pasos, máximo {} s)", steps.size(), timeout.toSeconds());
+        long start = System.nanoTime();
+        deadline = start + timeout.toNanos();
+        for (Step step : steps) {
+            if (expired()) {
+                log.warn("⚠️ Warm-up: se consumió startup.warm-up.timeout, se saltea {}", step.name());
+                record(step.name(), "skipped", 0);
+                continue;
+            }
+            long stepStart = System.nanoTime();
+            try {
+                step.action().run();
+                record(step.name(), "completed", System.nanoTime() - stepStart);
+                log.info("🔥 Warm-up {}: {} ms", step.name(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stepStart));
+            } catch (RuntimeException e) {
+                record(step.name(), "failed", System.nanoTime() - stepStart);
+                log.warn("⚠️ Warm-up {} falló: {}", step.name(), e.getMessage());
+            }
+        }
+        log.info("✅ Warm-up terminado en {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    void warmConnectionPools() {
+        List<DataSource> targets = readReplicaRouter.stream()
+                .flatMap(router -> router.getTargetDataSources().stream())
+                .toList();
+        for (DataSource target : targets.isEmpty() ? List.of(dataSource) : targets) {
+            openMinimumIdle(target);
+        }
+    }
+
+    void warmJwt() {
+        List<String> roles = List.of("USER");
+        for (int i = 0; i < iterations && !expired(); i++) {
+            String token = jwtUtil.generateToken("warm-up", TimeUnit.MINUTES.toMillis(1), roles);
+            if (jwtUtil.isTokenValid(token)) {
+                jwtUtil.getSubject(token);
+                jwtUtil.getRoles(token);
+            }
+        }
+    }
+
+    void warmJson() {
+        Set<Class<?>> types = handlerTypes();
+        for (Class<?> type : types) {
+            if (expired()) {
+                return;
+            }
+            JavaType javaType = objectMapper.constructType(type);
+            // writerFor/readerFor dejan el serializer y el deserializer en la cache compartida del ObjectMapper
+            ObjectWriter writer = objectMapper.writerFor(javaType);
+            ObjectReader reader = objectMapper.readerFor(javaType);
+            Optional<Object> sample = sampleOf(type);
+            if (sample.isEmpty()) {
+                continue;
+            }
+            try {
+                for (int i = 0; i < iterations; i++) {
+                    reader.readValue(writer.writeValueAsBytes(sample.get()));
+                }
+            } catch (IOException e) {
+                log.debug("Warm-up json: {} no se pudo serializar vacío: {}", type.getSimpleName(), e.getMessage());
+            }
+        }
+        log.debug("Warm-up json: {} tipos", types.size());
+    }
+
+    void warmReads() {
+        List<Runnable> reads = List.of(
+                () -> paymentService.getPaymentsByUserId(SYNTHETIC_ID, 0, 50),
+                () -> paymentService.getPaymentsByProviderId(SYNTHETIC_ID, 0, 50),
+                () -> paymentService.getPaymentsByUserAndStatus(SYNTHETIC_ID, PaymentStatus.PENDING_PAYMENT),
+                () -> paymentService.getPaymentFields(PaymentField.select(null, "list"), SYNTHETIC_ID, null, 0, 50),
+                () -> paymentService.getTotalAmountByUserId(SYNTHETIC_ID),
+                () -> invoiceService.getInvoicesByUserId(SYNTHETIC_ID, 0, 20));
+        for (int i = 0; i < queryIterations && !expired(); i++) {
+            for (Runnable read : reads) {
+                read.run();
+            }
+        }
+    }
+
+    void warmOutbound() {
+        for (String outboundUrl : outboundUrls) {
+            if (!StringUtils.hasText(outboundUrl)) {
+                continue;
+            }
+            try {
+                URL url = URI.create(outboundUrl.trim()).toURL();
+                InetAddress.getAllByName(url.getHost());
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                connection.setRequestMethod("HEAD");
+                connection.setConnectTimeout((int) outboundTimeout.toMillis());
+                connection.setReadTimeout((int) outboundTimeout.toMillis());
+                int status = connection.getResponseCode();
+                // Cerrar el stream (sin disconnect) deja la conexión en el keep-alive de HttpURLConnection
+                InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+                if (body != null) {
+                    body.close();
+                }
+                log.debug("Warm-up outbound: {} respondió {}", url.getHost(), status);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("⚠️ Warm-up outbound: {} no responde: {}", outboundUrl, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tipos de la aplicación que devuelven o reciben (@RequestBody) los
+     * controllers, sin los envoltorios (ResponseEntity, List, Page, Optional).
+     */
+    Set<Class<?>> handlerTypes() {
+        String applicationPackage = BackendApplication.class.getPackageName();
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods().values()) {
+            List<ResolvableType> candidates = new ArrayList<>();
+            candidates.add(ResolvableType.forMethodReturnType(handlerMethod.getMethod()));
+            for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+                if (parameter.hasParameterAnnotation(RequestBody.class)) {
+                    candidates.add(ResolvableType.forMethodParameter(parameter));
+                }
+            }
+            for (ResolvableType candidate : candidates) {
+                Class<?> type = unwrap(candidate).resolve();
+                if (type != null && !type.isInterface() && type.getName().startsWith(applicationPackage)) {
+                    types.add(type);
+                }
+            }
+        }
+        return types;
+    }
+
+    private static ResolvableType unwrap(ResolvableType type) {
+        ResolvableType current = type;
+        while (true) {
+            Class<?> raw = current.resolve();
+            if (raw == null) {
+                return current;
+            }
+            if (raw.isArray()) {
+                current = current.getComponentType();
+            } else if (HttpEntity.class.isAssignableFrom(raw) || Optional.class == raw
+                    || Collection.class.isAssignableFrom(raw) || Page.class.isAssignableFrom(raw)) {
+                current = current.as(raw).getGeneric(0);
+            } else {
+                return current;
+            }
+        }
+    }
+
+    private static Optional<Object> sampleOf(Class<?> type) {
+        if (type.isEnum() || type.isRecord() || ClassUtils.getConstructorIfAvailable(type) == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(BeanUtils.instantiateClass(type));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private void openMinimumIdle(DataSource target) {
+        int connections = 1;
+        try {
+            if (target.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource pool = target.unwrap(HikariDataSource.class);
+                connections = Math.max(1, Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+            }
+        } catch (SQLException e) {
+            // Sin acceso al pool se abre una sola conexión
+        }
+
+        // Se piden todas a la vez para que el pool tenga que abrirlas; al cerrarlas quedan ociosas en el pool
+        List<Connection> opened = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                opened.add(target.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo abrir la conexión " + (opened.size() + 1) + " del pool: "
+                    + e.getMessage(), e);
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Warm-up pools: error cerrando conexión: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean expired() {
+        return System.nanoTime() >= deadline;
+    }
+
+    private void record(String step, String outcome, long nanos) {
+        Timer.builder("startup.warm-up")
+                .description("Duración de cada paso del warm-up de arranque")
+                .tags("step", step, "outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
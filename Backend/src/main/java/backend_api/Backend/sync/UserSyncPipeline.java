@@ -0,0 +1,349 @@
+package backend_api.Backend.sync;
+
+import backend_api.Backend.Service.Implementation.DataStorageServiceImpl;
+import backend_api.Backend.Service.Implementation.DataStorageServiceImpl.SyncUpdate;
+import backend_api.Backend.lifecycle.PendingWorkFlusher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Agrupa los upserts de user_data / provider_data que llegan por los eventos
+ * de usuarios del CORE.
+ *
+ * Cada evento queda pendiente por (tipo, id); si llega otro evento del mismo
+ * usuario antes de que se aplique se combinan y sólo se aplica la versión
+ * resultante. Un único hilo aplica los lotes en una transacción con
+ * saveUserDataBatch / saveProviderDataBatch.
+ *
+ * Un evento que encuentra la cola vacía se aplica enseguida: el CORE manda
+ * los webhooks de a uno y esperar la ventana sólo le sumaría latencia a cada
+ * uno. Los que llegan mientras hay otros pendientes (ráfagas concurrentes, o
+ * mientras el hilo está aplicando un lote) se juntan y salen en el lote
+ * siguiente, cuando cierra la ventana o al juntar batch-size usuarios.
+ *
+ * Quien envía el evento espera a que su lote se confirme, así el webhook sólo
+ * responde OK con los datos ya guardados y un error sigue llegando al CORE
+ * para que reintente. Si el lote falla, se reintenta registro por registro y
+ * sólo fallan los eventos con error.
+ */
+@Component
+@Slf4j
+public class UserSyncPipeline implements PendingWorkFlusher {
+
+    enum Kind {
+        USER, PROVIDER
+    }
+
+    private record Key(Kind kind, Long id) {
+    }
+
+    private final DataStorageServiceImpl dataStorageService;
+    private final boolean enabled;
+    private final Duration window;
+    private final int batchSize;
+    private final Duration awaitTimeout;
+
+    private final ConcurrentHashMap<Key, PendingSync> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private final Map<Kind, Counter> accepted = new HashMap<>();
+    private final Map<Kind, Counter> coalesced = new HashMap<>();
+    private final Map<Kind, Counter> batched = new HashMap<>();
+    private final Map<Kind, Counter> retried = new HashMap<>();
+    private final Map<Kind, Counter> failed = new HashMap<>();
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+    private final DistributionSummary batchRows;
+
+    public UserSyncPipeline(DataStorageServiceImpl dataStorageService,
+                            MeterRegistry meterRegistry,
+                            @Value("${sync.pipeline.enabled:true}") boolean enabled,
+                            @Value("${sync.pipeline.window:50ms}") Duration window,
+                            @Value("${sync.pipeline.batch-size:200}") int batchSize,
+                            @Value("${sync.pipeline.await-timeout:30s}") Duration awaitTimeout) {
+        this.dataStorageService = dataStorageService;
+        this.enabled = enabled;
+        this.window = window;
+        this.batchSize = batchSize;
+        this.awaitTimeout = awaitTimeout;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-sync-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase();
+            accepted.put(kind, counter(meterRegistry, "sync.pipeline.events", tag, "accepted"));
+            coalesced.put(kind, counter(meterRegistry, "sync.pipeline.events", tag, "coalesced"));
+            batched.put(kind, counter(meterRegistry, "sync.pipeline.applied", tag, "batched"));
+            retried.put(kind, counter(meterRegistry, "sync.pipeline.applied", tag, "retried"));
+            failed.put(kind, counter(meterRegistry, "sync.pipeline.applied", tag, "failed"));
+        }
+        this.batchTimer = Timer.builder("sync.pipeline.batch")
+                .description("Duración de cada lote de upserts de usuarios/prestadores")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("sync.pipeline.lag")
+                .description("Tiempo entre la llegada del evento y el commit de su lote")
+                .register(meterRegistry);
+        this.batchRows = DistributionSummary.builder("sync.pipeline.batch.rows")
+                .description("Registros por lote")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("sync.pipeline.pending", List.of(), pending);
+    }
+
+    public void submitUser(Long userId, Map<String, Object> data, String secondaryId) {
+        submit(Kind.USER, userId, data, secondaryId);
+    }
+
+    public void submitProvider(Long providerId, Map<String, Object> data, String secondaryId) {
+        submit(Kind.PROVIDER, providerId, data, secondaryId);
+    }
+
+    /**
+     * Aplica ya lo pendiente y espera el commit. Lo usan las operaciones que
+     * escriben por fuera del pipeline (bajas) para no quedar pisadas por un
+     * upsert anterior que todavía no se aplicó.
+     */
+    public void flushNow() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+        await(CompletableFuture.runAsync(this::flush, flusher));
+    }
+
+    @Override
+    public void flushPending(Duration timeout) {
+        try {
+            flusher.submit(this::flush).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+            log.warn("⚠️ No se pudieron aplicar los upserts pendientes al apagar: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flushPending(awaitTimeout);
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    private void submit(Kind kind, Long id, Map<String, Object> data, String secondaryId) {
+        if (!enabled) {
+            applyOne(kind, new SyncUpdate(id, data, secondaryId));
+            return;
+        }
+
+        AtomicBoolean merged = new AtomicBoolean();
+        PendingSync entry = pending.compute(new Key(kind, id), (key, current) -> {
+            if (current == null) {
+                return new PendingSync(kind, id, data, secondaryId);
+            }
+            current.merge(data, secondaryId);
+            merged.set(true);
+            return current;
+        });
+        (merged.get() ? coalesced : accepted).get(kind).increment();
+
+        int queued = pending.size();
+        if (queued >= batchSize || (queued == 1 && !merged.get())) {
+            flusher.execute(this::flush);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            flusher.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        await(entry.done);
+    }
+
+    private void await(CompletableFuture<Void> done) {
+        try {
+            done.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el upsert", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timeout esperando el upsert de usuarios (" + awaitTimeout + ")", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Corre siempre en el hilo flusher, así los lotes nunca se aplican en paralelo
+    private void flush() {
+        flushScheduled.set(false);
+        while (!pending.isEmpty()) {
+            Map<Kind, List<PendingSync>> batch = new HashMap<>();
+            int taken = 0;
+            Set<Key> keys = pending.keySet();
+            for (Key key : keys) {
+                if (taken == batchSize) {
+                    break;
+                }
+                PendingSync entry = pending.remove(key);
+                if (entry != null) {
+                    batch.computeIfAbsent(key.kind(), kind -> new ArrayList<>()).add(entry);
+                    taken++;
+                }
+            }
+            batch.forEach(this::apply);
+        }
+    }
+
+    private void apply(Kind kind, List<PendingSync> entries) {
+        List<SyncUpdate> updates = entries.stream().map(PendingSync::toUpdate).toList();
+        long start = System.nanoTime();
+        try {
+            if (kind == Kind.USER) {
+                dataStorageService.saveUserDataBatch(updates);
+            } else {
+                dataStorageService.saveProviderDataBatch(updates);
+            }
+            long nanos = System.nanoTime() - start;
+            batchTimer.record(nanos, TimeUnit.NANOSECONDS);
+            batchRows.record(entries.size());
+            batched.get(kind).increment(entries.size());
+            log.debug("Lote de {} {} aplicado en {} ms", entries.size(), kind, nanos / 1_000_000);
+            entries.forEach(this::complete);
+        } catch (RuntimeException e) {
+            // Un registro inválido no debe hacer fallar al resto del lote
+            log.warn("⚠️ Falló el lote de {} {}, se reintenta uno por uno: {}", entries.size(), kind, e.getMessage());
+            for (PendingSync entry : entries) {
+                try {
+                    applyOne(kind, entry.toUpdate());
+                    retried.get(kind).increment();
+                    complete(entry);
+                } catch (RuntimeException single) {
+                    failed.get(kind).increment();
+                    entry.done.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void applyOne(Kind kind, SyncUpdate update) {
+        if (kind == Kind.USER) {
+            dataStorageService.saveUserData(update.id(), update.data(), update.secondaryId());
+        } else {
+            dataStorageService.saveProviderData(update.id(), update.data(), update.secondaryId());
+        }
+    }
+
+    private void complete(PendingSync entry) {
+        lagTimer.record(System.nanoTime() - entry.enqueuedAt, TimeUnit.NANOSECONDS);
+        entry.done.complete(null);
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String kind, String result) {
+        return Counter.builder(name)
+                .tag("kind", kind)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Eventos pendientes de un mismo usuario. merge deja en data lo mismo que
+     * quedaría en la entidad aplicando los eventos en orden con
+     * DataStorageServiceImpl, que ignora algunos valores null.
+     */
+    static final class PendingSync {
+
+        private final Kind kind;
+        private final Long id;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final Map<String, Object> data;
+        private String secondaryId;
+
+        PendingSync(Kind kind, Long id, Map<String, Object> data, String secondaryId) {
+            this.kind = kind;
+            this.id = id;
+            this.data = new HashMap<>(data);
+            this.secondaryId = secondaryId;
+        }
+
+        void merge(Map<String, Object> newer, String newerSecondaryId) {
+            // Un evento sin status que trae active deshace una baja o rechazo anterior
+            if (newer.containsKey("active") && !newer.containsKey("status")) {
+                data.remove("status");
+            }
+            for (Map.Entry<String, Object> field : newer.entrySet()) {
+                String name = field.getKey();
+                Object value = field.getValue();
+                if ("address".equals(name)) {
+                    mergeAddress(value);
+                } else if (value != null || !ignoresNull(name)) {
+                    data.put(name, value);
+                }
+            }
+            if (newerSecondaryId != null) {
+                secondaryId = newerSecondaryId;
+            }
+        }
+
+        SyncUpdate toUpdate() {
+            return new SyncUpdate(id, data, secondaryId);
+        }
+
+        Map<String, Object> data() {
+            return data;
+        }
+
+        String secondaryId() {
+            return secondaryId;
+        }
+
+        private boolean ignoresNull(String field) {
+            return switch (field) {
+                case "active", "saldoDisponible" -> true;
+                case "zones", "skills" -> kind == Kind.USER;
+                default -> false;
+            };
+        }
+
+        // Sólo se usa la primera dirección; los campos se combinan como al aplicarlas en orden
+        @SuppressWarnings("unchecked")
+        private void mergeAddress(Object newer) {
+            if (!(newer instanceof List<?> list) || list.isEmpty() || !(list.get(0) instanceof Map)) {
+                return;
+            }
+            Map<String, Object> incoming = (Map<String, Object>) list.get(0);
+            Map<String, Object> address = new HashMap<>();
+            if (data.get("address") instanceof List<?> current && !current.isEmpty() && current.get(0) instanceof Map) {
+                address.putAll((Map<String, Object>) current.get(0));
+            }
+            for (Map.Entry<String, Object> field : incoming.entrySet()) {
+                // saveProviderData no pisa campos de dirección con null
+                if (field.getValue() != null || kind == Kind.USER) {
+                    address.put(field.getKey(), field.getValue());
+                }
+            }
+            data.put("address", List.of(address));
+        }
+    }
+}
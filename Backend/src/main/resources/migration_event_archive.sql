@@ -0,0 +1,112 @@
+-- Migration: Archive tier for payment and invoice events
+-- Date: 2026-10-19
+-- Description: Tablas *_archive particionadas por mes (archive_month = yyyymm de created_at)
+-- para los eventos e intentos que superan archive.horizon, e índices de las tablas calientes.
+-- CORRER ANTES DE DESPLEGAR esta versión: con ddl-auto=update el primer arranque crea las
+-- tablas *_archive desde las entidades, sin particiones y con PK (id). Los CREATE TABLE no
+-- llevan IF NOT EXISTS a propósito: si las tablas ya existen el script falla en vez de
+-- saltearlas en silencio, y hay que convertirlas con el bloque comentado del final.
+-- MySQL exige que la clave de partición forme parte de la PK, por eso es (id, archive_month).
+-- Retención del archivo: ALTER TABLE ... DROP PARTITION pYYYYMM descarta un mes completo sin
+-- DELETE fila por fila. Agregar las particiones de los meses nuevos con REORGANIZE PARTITION p_future.
+
+CREATE INDEX idx_payment_events_payment ON payment_events (payment_id, created_at);
+CREATE INDEX idx_payment_events_created_at ON payment_events (created_at);
+CREATE INDEX idx_payment_events_type ON payment_events (type, created_at);
+CREATE INDEX idx_payment_events_correlation ON payment_events (correlation_id);
+CREATE INDEX idx_payment_attempts_payment ON payment_attempts (payment_id, attempt_number);
+CREATE INDEX idx_payment_attempts_created_at ON payment_attempts (created_at);
+CREATE INDEX idx_invoice_events_invoice ON invoice_events (invoice_id, created_at);
+CREATE INDEX idx_invoice_events_created_at ON invoice_events (created_at);
+
+CREATE TABLE payment_events_archive (
+    id BIGINT NOT NULL,
+    payment_id BIGINT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    payload TEXT,
+    created_at DATETIME(6) NOT NULL,
+    actor VARCHAR(255) NOT NULL,
+    event_source VARCHAR(255),
+    description VARCHAR(255),
+    correlation_id VARCHAR(255),
+    metadata VARCHAR(255),
+    archive_month INT NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id, archive_month),
+    KEY idx_payment_events_archive_payment (payment_id, created_at),
+    KEY idx_payment_events_archive_month (archive_month)
+)
+PARTITION BY RANGE (archive_month) (
+    PARTITION p202601 VALUES LESS THAN (202602),
+    PARTITION p202602 VALUES LESS THAN (202603),
+    PARTITION p202603 VALUES LESS THAN (202604),
+    PARTITION p202604 VALUES LESS THAN (202605),
+    PARTITION p202605 VALUES LESS THAN (202606),
+    PARTITION p202606 VALUES LESS THAN (202607),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+CREATE TABLE payment_attempts_archive (
+    id BIGINT NOT NULL,
+    payment_id BIGINT NOT NULL,
+    attempt_number INT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    response_code VARCHAR(255),
+    gateway_response_code VARCHAR(255),
+    gateway_message VARCHAR(255),
+    failure_reason VARCHAR(255),
+    created_at DATETIME(6) NOT NULL,
+    completed_at DATETIME(6),
+    gateway_txn_id VARCHAR(255),
+    metadata VARCHAR(255),
+    archive_month INT NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id, archive_month),
+    KEY idx_payment_attempts_archive_payment (payment_id, attempt_number),
+    KEY idx_payment_attempts_archive_month (archive_month)
+)
+PARTITION BY RANGE (archive_month) (
+    PARTITION p202601 VALUES LESS THAN (202602),
+    PARTITION p202602 VALUES LESS THAN (202603),
+    PARTITION p202603 VALUES LESS THAN (202604),
+    PARTITION p202604 VALUES LESS THAN (202605),
+    PARTITION p202605 VALUES LESS THAN (202606),
+    PARTITION p202606 VALUES LESS THAN (202607),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+CREATE TABLE invoice_events_archive (
+    id BIGINT NOT NULL,
+    invoice_id BIGINT NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    created_by BIGINT,
+    created_at DATETIME(6) NOT NULL,
+    event_data JSON,
+    ip_address VARCHAR(255),
+    user_agent VARCHAR(255),
+    archive_month INT NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id, archive_month),
+    KEY idx_invoice_events_archive_invoice (invoice_id, created_at),
+    KEY idx_invoice_events_archive_month (archive_month)
+)
+PARTITION BY RANGE (archive_month) (
+    PARTITION p202601 VALUES LESS THAN (202602),
+    PARTITION p202602 VALUES LESS THAN (202603),
+    PARTITION p202603 VALUES LESS THAN (202604),
+    PARTITION p202604 VALUES LESS THAN (202605),
+    PARTITION p202605 VALUES LESS THAN (202606),
+    PARTITION p202606 VALUES LESS THAN (202607),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- Si Hibernate ya creó las tablas (el script falla con "Table ... already exists"), convertir
+-- cada una en lugar de crearla, con las mismas particiones de arriba:
+-- ALTER TABLE payment_events_archive DROP PRIMARY KEY, ADD PRIMARY KEY (id, archive_month);
+-- ALTER TABLE payment_events_archive PARTITION BY RANGE (archive_month) (
+--     PARTITION p202601 VALUES LESS THAN (202602),
+--     ...
+--     PARTITION p_future VALUES LESS THAN MAXVALUE
+-- );
+-- (ídem payment_attempts_archive e invoice_events_archive)
@@ -0,0 +1,8 @@
+-- Migration: Binary payloads for payment events
+-- Date: 2026-10-19
+-- Description: Columna payload_binary para los eventos guardados en Smile
+-- (payments.events.payload-storage=smile). Los eventos existentes conservan su payload
+-- de texto; cada fila usa una sola de las dos columnas.
+
+ALTER TABLE payment_events ADD COLUMN payload_binary BLOB;
+ALTER TABLE payment_events_archive ADD COLUMN payload_binary BLOB;
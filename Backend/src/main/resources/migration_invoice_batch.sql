@@ -0,0 +1,18 @@
+-- Migration: Set-based invoice batch processing
+-- Date: 2026-10-19
+-- Description: Índice (status, due_date) para que el batch de vencimientos recorra sólo las
+-- facturas PENDING por rango de vencimiento, y tabla de checkpoints para retomar una corrida
+-- interrumpida desde el último chunk confirmado. Con ddl-auto=update Hibernate crea ambos;
+-- el script queda para entornos donde el esquema se administra a mano.
+
+CREATE INDEX idx_invoices_status_due_date ON invoices (status, due_date);
+
+CREATE TABLE IF NOT EXISTS batch_job_checkpoints (
+    job_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    last_processed_id BIGINT NOT NULL,
+    cutoff DATETIME(6) NOT NULL,
+    processed_count BIGINT NOT NULL,
+    completed BIT NOT NULL,
+    started_at DATETIME(6),
+    updated_at DATETIME(6)
+);
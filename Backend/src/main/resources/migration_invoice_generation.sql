@@ -0,0 +1,15 @@
+-- Migration: Facturación por lotes de pagos aprobados
+-- Date: 2026-10-19
+-- Description: Índice por payment_id para descartar en una query los pagos ya facturados
+--              y contador de números de factura que se reserva por bloques
+
+CREATE INDEX idx_invoices_payment_id ON invoices (payment_id);
+
+CREATE TABLE IF NOT EXISTS invoice_number_counters (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+INSERT INTO invoice_number_counters (name, next_value)
+SELECT 'invoice-number', 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM invoice_number_counters WHERE name = 'invoice-number');
@@ -0,0 +1,17 @@
+-- Migration: Una sola factura STANDARD por pago
+-- Date: 2026-10-19
+-- Description: Columna generada standard_payment_id (payment_id de las facturas STANDARD, NULL en
+--              las demás) con índice único. El pipeline de facturación, el backfill y
+--              create-from-payment pueden facturar el mismo pago a la vez; el índice deja pasar
+--              sólo una y los demás lo toman como "ya facturado". Las notas de crédito/débito
+--              siguen pudiendo referenciar el mismo pago.
+--              Si ya hay pagos con más de una factura STANDARD el índice no se puede crear:
+--              revisarlos con la consulta de abajo y anular los duplicados antes de correrla.
+
+-- SELECT payment_id, COUNT(*) AS facturas, GROUP_CONCAT(id ORDER BY id) AS ids
+-- FROM invoices WHERE type = 'STANDARD' GROUP BY payment_id HAVING COUNT(*) > 1;
+
+ALTER TABLE invoices
+    ADD COLUMN standard_payment_id BIGINT GENERATED ALWAYS AS (CASE WHEN type = 'STANDARD' THEN payment_id END);
+
+CREATE UNIQUE INDEX uk_invoices_standard_payment_id ON invoices (standard_payment_id);
@@ -0,0 +1,7 @@
+-- Migration: Email indexes for login lookups
+-- Date: 2026-10-19
+-- Description: El login resuelve la identidad por email en user_data, provider_data y users
+-- (LoginIdentityIndex). users.email ya tiene índice por la restricción UNIQUE.
+
+CREATE INDEX idx_user_data_email ON user_data (email);
+CREATE INDEX idx_provider_data_email ON provider_data (email);
@@ -0,0 +1,12 @@
+-- Migration: Payment expiry sweep
+-- Date: 2026-10-19
+-- Description: Índice (status, expired_at) para que el barrido de vencimientos recorra sólo los
+-- pagos PENDING_PAYMENT ya vencidos. Los pagos pendientes sin expired_at (anteriores a
+-- payments.expiry.pending-ttl) reciben el vencimiento que tendrían desde su creación.
+-- Con ddl-auto=update Hibernate crea el índice; el script queda para entornos donde el
+-- esquema se administra a mano.
+
+CREATE INDEX idx_payments_status_expired_at ON payments (status, expired_at);
+
+UPDATE payments SET expired_at = DATE_ADD(created_at, INTERVAL 24 HOUR)
+WHERE status = 'PENDING_PAYMENT' AND expired_at IS NULL AND created_at IS NOT NULL;
@@ -0,0 +1,36 @@
+-- Migration: Claves de metadata promovidas a columnas
+-- Date: 2026-10-19
+-- Description: Columnas matching_id, id_correlacion y metodo_preferido en payments (las mantiene
+--              PaymentMetadataCodec) con índices para findByMatchingId / findByIdCorrelacion.
+--              Los pagos anteriores a las columnas se completan desde el JSON de metadata; sin
+--              el backfill esas búsquedas no los encuentran. metadata puede ser texto libre
+--              (POST /api/payments), por eso sólo se leen las filas con JSON válido.
+--              Correr antes de desplegar las versiones que leen las columnas.
+
+ALTER TABLE payments
+    ADD COLUMN matching_id BIGINT NULL,
+    ADD COLUMN id_correlacion VARCHAR(100) NULL,
+    ADD COLUMN metodo_preferido VARCHAR(50) NULL;
+
+CREATE INDEX idx_payments_matching_id ON payments (matching_id);
+CREATE INDEX idx_payments_id_correlacion ON payments (id_correlacion);
+
+-- JSON null se descarta con JSON_TYPE: JSON_UNQUOTE lo devolvería como el texto 'null'
+UPDATE payments
+SET matching_id = CAST(JSON_UNQUOTE(JSON_EXTRACT(metadata, '$.matchingId')) AS UNSIGNED)
+WHERE matching_id IS NULL
+  AND JSON_VALID(metadata)
+  AND JSON_TYPE(JSON_EXTRACT(metadata, '$.matchingId')) IN ('INTEGER', 'UNSIGNED INTEGER', 'STRING')
+  AND JSON_UNQUOTE(JSON_EXTRACT(metadata, '$.matchingId')) REGEXP '^[0-9]+$';
+
+UPDATE payments
+SET id_correlacion = LEFT(JSON_UNQUOTE(JSON_EXTRACT(metadata, '$.idCorrelacion')), 100)
+WHERE id_correlacion IS NULL
+  AND JSON_VALID(metadata)
+  AND JSON_TYPE(JSON_EXTRACT(metadata, '$.idCorrelacion')) = 'STRING';
+
+UPDATE payments
+SET metodo_preferido = LEFT(JSON_UNQUOTE(JSON_EXTRACT(metadata, '$.metodoPreferido')), 50)
+WHERE metodo_preferido IS NULL
+  AND JSON_VALID(metadata)
+  AND JSON_TYPE(JSON_EXTRACT(metadata, '$.metodoPreferido')) = 'STRING';
@@ -0,0 +1,36 @@
+-- Migration: Pooled sequence-based IDs for write-heavy tables
+-- Date: 2026-10-19
+-- Description: Las entidades Payment, PaymentEvent, PaymentAttempt, Invoice, InvoiceLine,
+-- InvoiceEvent, UserData y ProviderData pasan de GenerationType.IDENTITY a secuencias con
+-- optimizador pooled (allocationSize = 50). MySQL no tiene secuencias, por lo que Hibernate
+-- las emula con una tabla <tabla>_seq (columna next_val). Este script crea esas tablas y las
+-- inicializa por encima del MAX(id) actual para que los nuevos IDs no colisionen con filas
+-- existentes. Ejecutar antes de desplegar la versión con secuencias.
+
+CREATE TABLE IF NOT EXISTS payments_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS payment_events_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS payment_attempts_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS invoices_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS invoice_lines_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS invoice_events_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS user_data_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS provider_data_seq (next_val BIGINT);
+
+DELETE FROM payments_seq;
+DELETE FROM payment_events_seq;
+DELETE FROM payment_attempts_seq;
+DELETE FROM invoices_seq;
+DELETE FROM invoice_lines_seq;
+DELETE FROM invoice_events_seq;
+DELETE FROM user_data_seq;
+DELETE FROM provider_data_seq;
+
+-- +51: con pooled el primer bloque asignado es (next_val - 49 .. next_val)
+INSERT INTO payments_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM payments;
+INSERT INTO payment_events_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM payment_events;
+INSERT INTO payment_attempts_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM payment_attempts;
+INSERT INTO invoices_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM invoices;
+INSERT INTO invoice_lines_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM invoice_lines;
+INSERT INTO invoice_events_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM invoice_events;
+INSERT INTO user_data_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM user_data;
+INSERT INTO provider_data_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM provider_data;
@@ -4,24 +4,38 @@ import backend_api.Backend.Auth.JwtUtil;
 import backend_api.Backend.DTO.auth.AuthResponse;
 import backend_api.Backend.DTO.auth.LoginRequest;
 import backend_api.Backend.DTO.auth.RegisterRequest;
+import backend_api.Backend.Entity.UserData;
 import backend_api.Backend.Entity.user.User;
 import backend_api.Backend.Entity.user.UserRole;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.login.LoginBusyException;
+import backend_api.Backend.login.LoginIdentity;
+import backend_api.Backend.login.LoginIdentityChangedEvent;
+import backend_api.Backend.login.LoginIdentityIndex;
+import backend_api.Backend.login.PasswordVerifier;
+import backend_api.Backend.login.VerifiedCredentialCache;
+import backend_api.Backend.resilience.DependencyGuard;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 import java.util.List;
 
@@ -47,14 +61,30 @@ class AuthControllerTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private DependencyGuard userModuleGuard;
+
     @InjectMocks
     private AuthController authController;
 
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
+    private LoginIdentityIndex loginIdentityIndex;
+    private VerifiedCredentialCache verifiedCredentialCache;
 
     @BeforeEach
     void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        loginIdentityIndex = new LoginIdentityIndex(userDataRepository, providerDataRepository, userRepository,
+                meterRegistry, Duration.ofSeconds(30), 100);
+        verifiedCredentialCache = new VerifiedCredentialCache(meterRegistry, Duration.ofMinutes(2), 100, "pepper");
+        ReflectionTestUtils.setField(authController, "loginIdentityIndex", loginIdentityIndex);
+        ReflectionTestUtils.setField(authController, "verifiedCredentialCache", verifiedCredentialCache);
+        ReflectionTestUtils.setField(authController, "passwordVerifier",
+                new PasswordVerifier(passwordEncoder, meterRegistry, 1, 4, Duration.ofSeconds(5)));
         mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
         objectMapper = new ObjectMapper();
     }
@@ -633,4 +663,105 @@ class AuthControllerTest {
         verify(jwtUtil).getSubject(token);
         verify(userRepository, never()).findByEmail(anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLogin_SyncedUserReusesVerifiedCredentialUntilDeactivated() {
+        // Given
+        LoginRequest request = new LoginRequest();
+        request.setEmail("sync@example.com");
+        request.setPassword("password123");
+
+        UserData userData = new UserData();
+        userData.setUserId(77L);
+        userData.setEmail("sync@example.com");
+        userData.setName("Sync User");
+        userData.setRole("CLIENTE");
+        userData.setActive(true);
+
+        when(userDataRepository.findFirstByEmail("sync@example.com")).thenReturn(Optional.of(userData));
+        when(userModuleGuard.execute(any())).thenReturn(ResponseEntity.ok(Map.of()));
+        when(jwtUtil.generateToken("sync@example.com", 86400000L, List.of("USER"))).thenReturn("jwt-token");
+
+        // When
+        ResponseEntity<?> first = authController.login(request);
+        ResponseEntity<?> second = authController.login(request);
+
+        // Then
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(200, second.getStatusCode().value());
+        verify(userDataRepository, times(1)).findFirstByEmail("sync@example.com");
+        verify(userModuleGuard, times(1)).execute(any());
+
+        // When
+        userData.setActive(false);
+        loginIdentityIndex.onIdentityChanged(new LoginIdentityChangedEvent(LoginIdentity.Kind.USER, 77L, null));
+        verifiedCredentialCache.onIdentityChanged(new LoginIdentityChangedEvent(LoginIdentity.Kind.USER, 77L, null));
+        ResponseEntity<?> afterDeactivation = authController.login(request);
+
+        // Then
+        assertEquals(403, afterDeactivation.getStatusCode().value());
+        assertEquals(0, verifiedCredentialCache.size());
+        verify(userModuleGuard, times(1)).execute(any());
+    }
+
+    @Test
+    void testLogin_SyncedUserWrongPasswordIsNotServedFromCache() {
+        // Given
+        UserData userData = new UserData();
+        userData.setUserId(78L);
+        userData.setEmail("sync@example.com");
+        userData.setRole("CLIENTE");
+        userData.setActive(true);
+
+        LoginRequest valid = new LoginRequest();
+        valid.setEmail("sync@example.com");
+        valid.setPassword("password123");
+        LoginRequest wrong = new LoginRequest();
+        wrong.setEmail("sync@example.com");
+        wrong.setPassword("wrongpassword");
+
+        when(userDataRepository.findFirstByEmail("sync@example.com")).thenReturn(Optional.of(userData));
+        when(userModuleGuard.execute(any()))
+                .thenReturn(ResponseEntity.ok(Map.of()))
+                .thenThrow(new RuntimeException("401 Unauthorized"));
+        when(jwtUtil.generateToken("sync@example.com", 86400000L, List.of("USER"))).thenReturn("jwt-token");
+
+        // When
+        ResponseEntity<?> first = authController.login(valid);
+        ResponseEntity<?> second = authController.login(wrong);
+
+        // Then
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(401, second.getStatusCode().value());
+        verify(userModuleGuard, times(2)).execute(any());
+    }
+
+    @Test
+    void testLogin_LocalUserRejectedWhenPasswordVerifierIsSaturated() {
+        // Given
+        LoginRequest request = new LoginRequest();
+        request.setEmail("test@example.com");
+        request.setPassword("password123");
+
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        user.setPassword("encodedPassword");
+        user.setName("Test User");
+        user.setRole(UserRole.USER);
+
+        PasswordVerifier saturated = mock(PasswordVerifier.class);
+        ReflectionTestUtils.setField(authController, "passwordVerifier", saturated);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(saturated.matches("password123", "encodedPassword"))
+                .thenThrow(new LoginBusyException("Pool de verificación de contraseñas saturado", null));
+
+        // When
+        ResponseEntity<?> response = authController.login(request);
+
+        // Then
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(jwtUtil, never()).generateToken(anyString(), anyLong(), anyList());
+    }
+}
@@ -0,0 +1,93 @@
+package backend_api.Backend.Controller;
+
+import backend_api.Backend.logs.LogAccessService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class HealthControllerTest {
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private LogAccessService logAccessService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        logFile = dir.resolve("application.log");
+        Files.writeString(logFile, "INFO arranque\n🚀 Enviando evento de pago al CORE Hub\nDEBUG detalle\n");
+        logAccessService = new LogAccessService(new SimpleMeterRegistry(), logFile.toString(), 8192,
+                1000, DataSize.ofMegabytes(16), 500, Duration.ofSeconds(5), 200,
+                4, Duration.ofMillis(20), 500, Duration.ofSeconds(15), Duration.ofSeconds(30));
+        mockMvc = MockMvcBuilders.standaloneSetup(new HealthController(logAccessService)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        logAccessService.shutdown();
+    }
+
+    @Test
+    void testLogs_ReturnsLastLines() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/logs").param("lines", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("=== ÚLTIMOS LOGS ===\n🚀 Enviando evento de pago al CORE Hub\nDEBUG detalle"));
+    }
+
+    @Test
+    void testSearchLogs_StreamsMatches() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/logs/search").param("q", "core"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("application.log:2: 🚀 Enviando evento de pago al CORE Hub\n")))
+                .andExpect(content().string(containsString("=== 1 coincidencias en 1 archivos ===")));
+    }
+
+    @Test
+    void testFollowLogs_SendsAppendedLines() throws Exception {
+        // Given
+        MvcResult result = mockMvc.perform(get("/logs/follow").param("q", "pago").param("lines", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        Files.writeString(logFile, "INFO sin relación\n✅ Evento de pago enviado\n", StandardOpenOption.APPEND);
+
+        // Then
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!body.contains("✅ Evento de pago enviado") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        assertTrue(body.contains("event:log\ndata:🚀 Enviando evento de pago al CORE Hub"));
+        assertTrue(body.contains("event:log\ndata:✅ Evento de pago enviado"));
+        assertFalse(body.contains("sin relación"));
+    }
+}
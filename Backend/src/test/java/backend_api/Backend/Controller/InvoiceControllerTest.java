@@ -10,23 +10,34 @@ import backend_api.Backend.Entity.user.UserRole;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Service.Interface.InvoiceService;
 import backend_api.Backend.Service.Common.AuthenticationService;
+import backend_api.Backend.Service.Common.ResourceETagService;
+import backend_api.Backend.Service.Common.AggregateReadCoalescer;
 import backend_api.Backend.Service.Common.ResponseMapperService;
+import backend_api.Backend.document.StoredDocument;
+import backend_api.Backend.invoicing.InvoiceGenerationEngine;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -57,6 +68,17 @@ class InvoiceControllerTest {
     @Mock
     private ResponseMapperService responseMapperService;
 
+    @Mock
+    private ResourceETagService resourceETagService;
+
+    @Mock
+    private InvoiceGenerationEngine invoiceGenerationEngine;
+
+    // Sin ventana de resultados: cada llamada sigue llegando al service
+    @Spy
+    private AggregateReadCoalescer aggregateReadCoalescer =
+            new AggregateReadCoalescer(new SimpleMeterRegistry(), Duration.ZERO, 100);
+
     @InjectMocks
     private InvoiceController invoiceController;
 
@@ -136,7 +158,7 @@ class InvoiceControllerTest {
         when(invoiceService.getInvoiceById(invoiceId)).thenReturn(expectedResponse);
 
         // When
-        ResponseEntity<InvoiceResponse> response = invoiceController.getInvoiceById(invoiceId);
+        ResponseEntity<InvoiceResponse> response = invoiceController.getInvoiceById(invoiceId, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -161,7 +183,7 @@ class InvoiceControllerTest {
         when(invoiceService.getInvoiceByNumber(invoiceNumber)).thenReturn(expectedResponse);
 
         // When
-        ResponseEntity<InvoiceResponse> response = invoiceController.getInvoiceByNumber(invoiceNumber);
+        ResponseEntity<InvoiceResponse> response = invoiceController.getInvoiceByNumber(invoiceNumber, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -208,10 +230,10 @@ class InvoiceControllerTest {
             1L
         );
 
-        when(invoiceService.getInvoicesByUserId(userId, page, size)).thenReturn(expectedPage);
+        when(invoiceService.getInvoicesByUserId(userId, page, size, true)).thenReturn(expectedPage);
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getInvoicesByUserId(userId, page, size);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getInvoicesByUserId(userId, page, size, true);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -219,7 +241,7 @@ class InvoiceControllerTest {
         assertEquals(1, response.getBody().getContent().size());
         assertEquals(userId, response.getBody().getContent().get(0).getUserId());
 
-        verify(invoiceService).getInvoicesByUserId(userId, page, size);
+        verify(invoiceService).getInvoicesByUserId(userId, page, size, true);
     }
 
     @Test
@@ -241,10 +263,10 @@ class InvoiceControllerTest {
             1L
         );
 
-        when(invoiceService.getInvoicesByStatus(InvoiceStatus.PENDING, page, size)).thenReturn(expectedPage);
+        when(invoiceService.getInvoicesByStatus(InvoiceStatus.PENDING, page, size, true)).thenReturn(expectedPage);
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getInvoicesByStatus(status, page, size);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getInvoicesByStatus(status, page, size, true);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -252,7 +274,7 @@ class InvoiceControllerTest {
         assertEquals(1, response.getBody().getContent().size());
         assertEquals(InvoiceStatus.PENDING, response.getBody().getContent().get(0).getStatus());
 
-        verify(invoiceService).getInvoicesByStatus(InvoiceStatus.PENDING, page, size);
+        verify(invoiceService).getInvoicesByStatus(InvoiceStatus.PENDING, page, size, true);
     }
 
     @Test
@@ -335,10 +357,10 @@ class InvoiceControllerTest {
         );
 
         when(authenticationService.getUserFromToken(authHeader)).thenReturn(user);
-        when(invoiceService.getInvoicesByUserId(1L, page, size)).thenReturn(expectedPage);
+        when(invoiceService.getInvoicesByUserId(1L, page, size, true)).thenReturn(expectedPage);
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, authHeader);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, true, authHeader);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -347,7 +369,7 @@ class InvoiceControllerTest {
         assertEquals(1L, response.getBody().getContent().get(0).getUserId());
 
         verify(authenticationService).getUserFromToken(authHeader);
-        verify(invoiceService).getInvoicesByUserId(1L, page, size);
+        verify(invoiceService).getInvoicesByUserId(1L, page, size, true);
     }
 
     @Test
@@ -361,7 +383,7 @@ class InvoiceControllerTest {
         when(authenticationService.getUserFromToken(authHeader)).thenReturn(null);
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, authHeader);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, true, authHeader);
 
         // Then
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
@@ -381,7 +403,7 @@ class InvoiceControllerTest {
         when(authenticationService.getUserFromToken(authHeader)).thenThrow(new SecurityException("User not found"));
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, authHeader);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, true, authHeader);
 
         // Then
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
@@ -401,7 +423,7 @@ class InvoiceControllerTest {
         when(authenticationService.getUserFromToken(authHeader)).thenThrow(new RuntimeException("Authentication error"));
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, authHeader);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getMyInvoices(page, size, true, authHeader);
 
         // Then
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -681,10 +703,10 @@ class InvoiceControllerTest {
             1L
         );
 
-        when(invoiceService.getInvoicesByProviderId(providerId, page, size)).thenReturn(expectedPage);
+        when(invoiceService.getInvoicesByProviderId(providerId, page, size, true)).thenReturn(expectedPage);
 
         // When
-        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getInvoicesByProviderId(providerId, page, size);
+        ResponseEntity<Page<InvoiceResponse>> response = invoiceController.getInvoicesByProviderId(providerId, page, size, true);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -692,7 +714,7 @@ class InvoiceControllerTest {
         assertEquals(1, response.getBody().getContent().size());
         assertEquals(providerId, response.getBody().getContent().get(0).getProviderId());
 
-        verify(invoiceService).getInvoicesByProviderId(providerId, page, size);
+        verify(invoiceService).getInvoicesByProviderId(providerId, page, size, true);
     }
 
     @Test
@@ -716,23 +738,65 @@ class InvoiceControllerTest {
     }
 
     @Test
-    void testDownloadPdf_Success() {
+    void testDownloadPdf_Success() throws Exception {
         // Given
         Long invoiceId = 1L;
-        byte[] pdfContent = "PDF content".getBytes();
-
-        when(invoiceService.downloadPdf(invoiceId)).thenReturn(pdfContent);
-
-        // When
-        ResponseEntity<byte[]> response = invoiceController.downloadPdf(invoiceId);
-
-        // Then
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals(pdfContent, response.getBody());
-        assertEquals("application/pdf", response.getHeaders().getContentType().toString());
+        byte[] pdfContent = "%PDF-1.4 content".getBytes();
+        Path file = Files.createTempFile("invoice", ".pdf");
+        Files.write(file, pdfContent);
+        StoredDocument document = new StoredDocument("0123456789abcdef", file, pdfContent.length);
+
+        when(invoiceService.getPdfDocument(invoiceId)).thenReturn(document);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try {
+            // When
+            invoiceController.downloadPdf(invoiceId, request, response);
+
+            // Then
+            assertEquals(200, response.getStatus());
+            assertArrayEquals(pdfContent, response.getContentAsByteArray());
+            assertEquals("application/pdf", response.getContentType());
+            assertEquals("\"0123456789abcdef\"", response.getHeader("ETag"));
+            verify(invoiceService).getPdfDocument(invoiceId);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 
-        verify(invoiceService).downloadPdf(invoiceId);
+    @Test
+    void testDownloadPdf_ConditionalAndRangeRequests() throws Exception {
+        // Given
+        Long invoiceId = 1L;
+        byte[] pdfContent = "%PDF-1.4 content".getBytes();
+        Path file = Files.createTempFile("invoice", ".pdf");
+        Files.write(file, pdfContent);
+        StoredDocument document = new StoredDocument("0123456789abcdef", file, pdfContent.length);
+        when(invoiceService.getPdfDocument(invoiceId)).thenReturn(document);
+
+        try {
+            // When: el cliente ya tiene la versión actual
+            MockHttpServletRequest conditional = new MockHttpServletRequest();
+            conditional.addHeader("If-None-Match", "\"0123456789abcdef\"");
+            MockHttpServletResponse notModified = new MockHttpServletResponse();
+            invoiceController.downloadPdf(invoiceId, conditional, notModified);
+
+            // When: el cliente reanuda la descarga
+            MockHttpServletRequest ranged = new MockHttpServletRequest();
+            ranged.addHeader("Range", "bytes=0-7");
+            MockHttpServletResponse partial = new MockHttpServletResponse();
+            invoiceController.downloadPdf(invoiceId, ranged, partial);
+
+            // Then
+            assertEquals(304, notModified.getStatus());
+            assertEquals(0, notModified.getContentAsByteArray().length);
+            assertEquals(206, partial.getStatus());
+            assertEquals("bytes 0-7/" + pdfContent.length, partial.getHeader("Content-Range"));
+            assertEquals("%PDF-1.4", partial.getContentAsString());
+        } finally {
+            Files.deleteIfExists(file);
+        }
     }
 
     @Test
@@ -757,7 +821,7 @@ class InvoiceControllerTest {
         when(invoiceService.getInvoiceTimeline(invoiceId)).thenReturn(expectedEvents);
 
         // When
-        ResponseEntity<List<InvoiceEventResponse>> response = invoiceController.getInvoiceTimeline(invoiceId);
+        ResponseEntity<List<InvoiceEventResponse>> response = invoiceController.getInvoiceTimeline(invoiceId, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -840,10 +904,10 @@ class InvoiceControllerTest {
 
         List<InvoiceResponse> expectedInvoices = Arrays.asList(invoice1, invoice2);
 
-        when(invoiceService.getInvoicesDueSoon(days)).thenReturn(expectedInvoices);
+        when(invoiceService.getInvoicesDueSoon(days, true)).thenReturn(expectedInvoices);
 
         // When
-        ResponseEntity<List<InvoiceResponse>> response = invoiceController.getInvoicesDueSoon(days);
+        ResponseEntity<List<InvoiceResponse>> response = invoiceController.getInvoicesDueSoon(days, true);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -852,7 +916,7 @@ class InvoiceControllerTest {
         assertEquals("INV-001", response.getBody().get(0).getInvoiceNumber());
         assertEquals("INV-002", response.getBody().get(1).getInvoiceNumber());
 
-        verify(invoiceService).getInvoicesDueSoon(days);
+        verify(invoiceService).getInvoicesDueSoon(days, true);
     }
 
     @Test
@@ -881,4 +945,35 @@ class InvoiceControllerTest {
 
         verify(invoiceService).createInvoiceFromPayment(paymentId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGenerateInvoicesFromPayments_Success() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 10, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 10, 2, 0, 0);
+        InvoiceGenerationEngine.GenerationResult result =
+                new InvoiceGenerationEngine.GenerationResult(1200, 3, Duration.ofMillis(450));
+        when(invoiceGenerationEngine.backfill(from, to)).thenReturn(result);
+
+        // When
+        ResponseEntity<InvoiceGenerationEngine.GenerationResult> response =
+                invoiceController.generateInvoicesFromPayments(from, to);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1200, response.getBody().created());
+        assertEquals(3, response.getBody().skipped());
+        verify(invoiceGenerationEngine).backfill(from, to);
+    }
+
+    @Test
+    void testGenerateInvoicesFromPayments_InvalidRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 10, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> invoiceController.generateInvoicesFromPayments(from, to));
+        verifyNoInteractions(invoiceGenerationEngine);
+    }
+}
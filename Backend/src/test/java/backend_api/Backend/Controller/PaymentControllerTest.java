@@ -8,29 +8,37 @@ import backend_api.Backend.Entity.payment.types.CreditCardPayment;
 import backend_api.Backend.Entity.payment.types.CashPayment;
 import backend_api.Backend.Entity.user.User;
 import backend_api.Backend.Entity.user.UserRole;
+import backend_api.Backend.Repository.PaymentRepository;
 import backend_api.Backend.Repository.UserRepository;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Service.Interface.*;
 import backend_api.Backend.Service.Common.AuthenticationService;
 import backend_api.Backend.Service.Common.ResponseMapperService;
 import backend_api.Backend.Service.Common.EntityValidationService;
+import backend_api.Backend.Service.Common.ResourceETagService;
+import backend_api.Backend.Service.Common.AggregateReadCoalescer;
+import backend_api.Backend.Service.Common.TerminalPaymentResponseCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -85,6 +93,17 @@ class PaymentControllerTest {
     @Mock
     private CardValidationService cardValidationService;
 
+    @Mock
+    private ResourceETagService resourceETagService;
+
+    @Mock
+    private TerminalPaymentResponseCache terminalPaymentResponseCache;
+
+    // Sin ventana de resultados: cada llamada sigue llegando al service
+    @Spy
+    private AggregateReadCoalescer aggregateReadCoalescer =
+            new AggregateReadCoalescer(new SimpleMeterRegistry(), Duration.ZERO, 100);
+
     @InjectMocks
     private PaymentController paymentController;
 
@@ -176,7 +195,7 @@ class PaymentControllerTest {
 
         verify(authenticationService).getUserFromToken(authHeader);
         verify(paymentService).createPayment(any(Payment.class));
-        verify(paymentEventService).createEvent(eq(testPayment.getId()), eq(PaymentEventType.PAYMENT_PENDING), anyString(), anyString());
+        verify(paymentEventService).createEvent(eq(testPayment.getId()), eq(PaymentEventType.PAYMENT_PENDING), any(PaymentEventPayload.class), anyString());
     }
 
     @Test
@@ -450,7 +469,7 @@ class PaymentControllerTest {
         verify(paymentService).updatePaymentStatus(paymentId, PaymentStatus.PENDING_APPROVAL);
         verify(paymentService).getPaymentById(paymentId);
         verify(responseMapperService).mapPaymentToResponse(any(Payment.class), eq("ADMIN"));
-        verify(paymentEventService).createEvent(eq(paymentId), eq(PaymentEventType.PAYMENT_PENDING), anyString(), eq("system"));
+        verify(paymentEventService).createEvent(eq(paymentId), eq(PaymentEventType.PAYMENT_PENDING), eq(new PaymentEventPayload.StatusChange("pending_bank_approval", PaymentMethodType.CREDIT_CARD)), eq("system"));
     }
 
     @Test
@@ -489,7 +508,7 @@ class PaymentControllerTest {
         verify(paymentService).updatePaymentStatus(paymentId, PaymentStatus.APPROVED);
         verify(paymentService).getPaymentById(paymentId);
         verify(responseMapperService).mapPaymentToResponse(any(Payment.class), eq("ADMIN"));
-        verify(paymentEventService).createEvent(eq(paymentId), eq(PaymentEventType.PAYMENT_APPROVED), anyString(), eq("system"));
+        verify(paymentEventService).createEvent(eq(paymentId), eq(PaymentEventType.PAYMENT_APPROVED), eq(new PaymentEventPayload.StatusChange("approved_directly", PaymentMethodType.CASH)), eq("system"));
     }
 
     @Test
@@ -517,7 +536,7 @@ class PaymentControllerTest {
         verify(userRepository).findById(1L);
         verify(balanceService).deductBalance(1L, BigDecimal.valueOf(115.00));
         verify(paymentService).createPayment(any(Payment.class)); // Should update payment status to rejected
-        verify(paymentEventService).createEvent(eq(paymentId), eq(PaymentEventType.PAYMENT_REJECTED), anyString(), eq("system"));
+        verify(paymentEventService).createEvent(eq(paymentId), eq(PaymentEventType.PAYMENT_REJECTED), eq(new PaymentEventPayload.StatusChange("rejected_insufficient_balance", PaymentMethodType.CASH)), eq("system"));
     }
 
     @Test
@@ -894,7 +913,11 @@ class PaymentControllerTest {
         // Given
         Long paymentId = 1L;
         String authHeader = "Bearer valid-token";
+        PaymentRepository.PaymentVersion version = versionOf(testPayment);
         when(authenticationService.getUserFromToken(authHeader)).thenReturn(testUser);
+        when(entityValidationService.getPaymentVersionOrThrow(paymentId)).thenReturn(version);
+        when(resourceETagService.paymentETag(version, "USER")).thenReturn("\"v1\"");
+        when(terminalPaymentResponseCache.get(paymentId, "USER", "\"v1\"")).thenReturn(Optional.empty());
         when(entityValidationService.getPaymentOrThrow(paymentId)).thenReturn(testPayment);
         
         PaymentResponse expectedResponse = new PaymentResponse();
@@ -902,12 +925,58 @@ class PaymentControllerTest {
         when(responseMapperService.mapPaymentToResponse(testPayment, "USER")).thenReturn(expectedResponse);
 
         // When
-        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader);
+        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(testPayment.getId(), response.getBody().getId());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        verify(entityValidationService).validatePaymentOwnership(version, testUser.getId(), "USER");
+        verify(terminalPaymentResponseCache).put(paymentId, "USER", testPayment.getStatus(), "\"v1\"", expectedResponse);
+    }
+
+    @Test
+    void testGetPaymentById_NotModified_SkipsLoadingPayment() {
+        // Given
+        Long paymentId = 1L;
+        String authHeader = "Bearer valid-token";
+        PaymentRepository.PaymentVersion version = versionOf(testPayment);
+        when(authenticationService.getUserFromToken(authHeader)).thenReturn(testUser);
+        when(entityValidationService.getPaymentVersionOrThrow(paymentId)).thenReturn(version);
+        when(resourceETagService.paymentETag(version, "USER")).thenReturn("\"v1\"");
+
+        // When
+        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader, "W/\"v1\"");
+
+        // Then
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        verify(entityValidationService, never()).getPaymentOrThrow(anyLong());
+        verify(responseMapperService, never()).mapPaymentToResponse(any(Payment.class), anyString());
+    }
+
+    @Test
+    void testGetPaymentById_TerminalPaymentServedFromCache() {
+        // Given
+        Long paymentId = 1L;
+        String authHeader = "Bearer valid-token";
+        PaymentRepository.PaymentVersion version = versionOf(testPayment);
+        PaymentResponse cached = new PaymentResponse();
+        cached.setId(paymentId);
+        when(authenticationService.getUserFromToken(authHeader)).thenReturn(testUser);
+        when(entityValidationService.getPaymentVersionOrThrow(paymentId)).thenReturn(version);
+        when(resourceETagService.paymentETag(version, "USER")).thenReturn("\"v2\"");
+        when(terminalPaymentResponseCache.get(paymentId, "USER", "\"v2\"")).thenReturn(Optional.of(cached));
+
+        // When
+        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader, "\"v1\"");
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(cached, response.getBody());
+        verify(entityValidationService, never()).getPaymentOrThrow(anyLong());
     }
 
     @Test
@@ -916,7 +985,9 @@ class PaymentControllerTest {
         Long paymentId = 1L;
         String authHeader = "Bearer valid-token";
         testPayment.setProvider_id(2L); // Merchant's ID
+        PaymentRepository.PaymentVersion version = versionOf(testPayment);
         when(authenticationService.getUserFromToken(authHeader)).thenReturn(merchantUser);
+        when(entityValidationService.getPaymentVersionOrThrow(paymentId)).thenReturn(version);
         when(entityValidationService.getPaymentOrThrow(paymentId)).thenReturn(testPayment);
         
         PaymentResponse expectedResponse = new PaymentResponse();
@@ -924,7 +995,7 @@ class PaymentControllerTest {
         when(responseMapperService.mapPaymentToResponse(testPayment, "MERCHANT")).thenReturn(expectedResponse);
 
         // When
-        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader);
+        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -939,12 +1010,13 @@ class PaymentControllerTest {
         String authHeader = "Bearer valid-token";
         testPayment.setUser_id(999L); // Different user
         testPayment.setProvider_id(999L); // Different provider
+        PaymentRepository.PaymentVersion version = versionOf(testPayment);
         when(authenticationService.getUserFromToken(authHeader)).thenReturn(testUser);
-        when(entityValidationService.getPaymentOrThrow(paymentId)).thenReturn(testPayment);
-        doThrow(new SecurityException("Access denied")).when(entityValidationService).validatePaymentOwnership(paymentId, testUser.getId(), "USER");
+        when(entityValidationService.getPaymentVersionOrThrow(paymentId)).thenReturn(version);
+        doThrow(new SecurityException("Access denied")).when(entityValidationService).validatePaymentOwnership(version, testUser.getId(), "USER");
 
         // When
-        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader);
+        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader, null);
 
         // Then
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
@@ -959,13 +1031,42 @@ class PaymentControllerTest {
         when(authenticationService.getUserFromToken(authHeader)).thenReturn(null);
 
         // When
-        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader);
+        ResponseEntity<PaymentResponse> response = paymentController.getPaymentById(paymentId, authHeader, null);
 
         // Then
         assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
         assertNull(response.getBody());
     }
 
+    private static PaymentRepository.PaymentVersion versionOf(Payment payment) {
+        return new PaymentRepository.PaymentVersion() {
+            @Override
+            public Long getId() {
+                return payment.getId();
+            }
+
+            @Override
+            public Long getUserId() {
+                return payment.getUser_id();
+            }
+
+            @Override
+            public Long getProviderId() {
+                return payment.getProvider_id();
+            }
+
+            @Override
+            public PaymentStatus getStatus() {
+                return payment.getStatus();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return payment.getUpdated_at();
+            }
+        };
+    }
+
     // ========== GET MY PAYMENTS TESTS ==========
 
     @Test
@@ -1030,6 +1131,35 @@ class PaymentControllerTest {
 
     // ========== GET MY PAYMENTS BY STATUS TESTS ==========
 
+    @Test
+    void testGetMyPaymentFields_Merchant_FiltersByProvider() {
+        // Given
+        String authHeader = "Bearer valid-token";
+        Set<PaymentField> fields = EnumSet.of(PaymentField.ID, PaymentField.STATUS, PaymentField.AMOUNT_TOTAL);
+        List<Tuple> rows = List.of(mock(Tuple.class));
+        Map<String, Object> row = Map.of("id", 1L, "status", "APPROVED", "amount_total", BigDecimal.TEN);
+        when(authenticationService.getUserFromToken(authHeader)).thenReturn(merchantUser);
+        when(paymentService.getPaymentFields(fields, null, 2L, 0, 50)).thenReturn(rows);
+        when(responseMapperService.mapPaymentFields(rows, fields, "MERCHANT")).thenReturn(List.of(row));
+
+        // When
+        ResponseEntity<List<Map<String, Object>>> response =
+                paymentController.getMyPaymentFields(authHeader, 0, 50, "status,amount_total", null);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(row), response.getBody());
+        verify(paymentService, never()).getPaymentsByProviderId(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetMyPaymentFields_UnknownField() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> paymentController.getMyPaymentFields("Bearer valid-token", 0, 50, "id,password", null));
+        verifyNoInteractions(paymentService);
+    }
+
     @Test
     void testGetMyPaymentsByStatus_Success_User() {
         // Given
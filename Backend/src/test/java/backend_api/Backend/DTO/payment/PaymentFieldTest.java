@@ -0,0 +1,49 @@
+package backend_api.Backend.DTO.payment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentFieldTest {
+
+    @Test
+    void testSelect_UnionOfViewAndFieldsAlwaysWithId() {
+        // When
+        EnumSet<PaymentField> selected = PaymentField.select("amount_total, metadata", "list");
+
+        // Then
+        assertTrue(selected.containsAll(PaymentField.View.LIST.fields()));
+        assertTrue(selected.contains(PaymentField.METADATA));
+        assertFalse(selected.contains(PaymentField.METHOD));
+        assertEquals(EnumSet.of(PaymentField.ID, PaymentField.STATUS), PaymentField.select("status", null));
+    }
+
+    @Test
+    void testSelect_ViewNamesAreCaseInsensitive() {
+        // When & Then
+        assertEquals(EnumSet.allOf(PaymentField.class), PaymentField.select(null, "ADMIN"));
+        assertFalse(PaymentField.select(null, "Detail").contains(PaymentField.GATEWAY_TXN_ID));
+    }
+
+    @Test
+    void testSelect_RejectsUnknownNames() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> PaymentField.select("id,password", null));
+        assertThrows(IllegalArgumentException.class, () -> PaymentField.select(null, "mobile"));
+    }
+
+    @Test
+    void testProperties_MatchPaymentResponseJsonNames() throws Exception {
+        // Given
+        String json = new com.fasterxml.jackson.databind.ObjectMapper()
+                .findAndRegisterModules()
+                .writeValueAsString(new PaymentResponse());
+
+        // When & Then
+        for (PaymentField field : PaymentField.values()) {
+            assertTrue(json.contains("\"" + field.property() + "\""), field.property());
+        }
+    }
+}
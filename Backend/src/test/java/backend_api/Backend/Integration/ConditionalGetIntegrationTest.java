@@ -0,0 +1,165 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.InvoiceLineRepository;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.messaging.service.CoreHubService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ConditionalGetIntegrationTest {
+
+    private static final long USER_ID = 6161L;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDataRepository userDataRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceLineRepository invoiceLineRepository;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+
+        UserData user = new UserData();
+        user.setUserId(USER_ID);
+        user.setName("Usuario ETag");
+        user.setEmail("etag@test.com");
+        user.setRole("CLIENTE");
+        userDataRepository.save(user);
+
+        userToken = "Bearer " + jwtUtil.generateToken("etag@test.com", 86400000L, List.of("USER"));
+    }
+
+    @Test
+    void testGetPayment_RevalidatesWithETag() throws Exception {
+        // Given
+        Payment payment = new Payment();
+        payment.setUser_id(USER_ID);
+        payment.setProvider_id(7L);
+        payment.setAmount_total(BigDecimal.valueOf(300));
+        payment.setCurrency("ARS");
+        payment.setStatus(PaymentStatus.PENDING_APPROVAL);
+        payment.setUpdated_at(LocalDateTime.now());
+        payment = paymentRepository.saveAndFlush(payment);
+
+        String etag = mockMvc.perform(get("/api/payments/{id}", payment.getId()).header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // When / Then: sin cambios responde 304 sin cuerpo
+        mockMvc.perform(get("/api/payments/{id}", payment.getId())
+                        .header("Authorization", userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Un cambio de estado invalida el ETag anterior
+        payment.setStatus(PaymentStatus.APPROVED);
+        paymentRepository.saveAndFlush(payment);
+
+        String newEtag = mockMvc.perform(get("/api/payments/{id}", payment.getId())
+                        .header("Authorization", userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("APPROVED"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void testGetInvoice_NewLineChangesETag() throws Exception {
+        // Given
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber("INV-ETAG-1");
+        invoice.setPaymentId(1L);
+        invoice.setUserId(USER_ID);
+        invoice.setProviderId(7L);
+        invoice.setTotalAmount(BigDecimal.TEN);
+        invoice.setSubtotalAmount(BigDecimal.TEN);
+        invoice.setStatus(InvoiceStatus.PENDING);
+        invoice.setCurrency("ARS");
+        invoice.setIssueDate(LocalDateTime.now());
+        invoice = invoiceRepository.saveAndFlush(invoice);
+
+        String etag = mockMvc.perform(get("/api/invoices/{id}", invoice.getId()).header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/invoices/number/{number}", "INV-ETAG-1")
+                        .header("Authorization", userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // When
+        InvoiceLine line = new InvoiceLine();
+        line.setInvoiceId(invoice.getId());
+        line.setDescription("Línea nueva");
+        line.setQuantity(1);
+        line.setUnitPrice(BigDecimal.TEN);
+        line.setLineNumber(1);
+        invoiceLineRepository.saveAndFlush(line);
+
+        // Then
+        mockMvc.perform(get("/api/invoices/{id}", invoice.getId())
+                        .header("Authorization", userToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+}
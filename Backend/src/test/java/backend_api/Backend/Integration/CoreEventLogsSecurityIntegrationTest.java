@@ -0,0 +1,92 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.messaging.service.CoreHubService;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * /api/data/** es público, pero /api/data/subscriptions/logs devuelve líneas
+ * del log con ids, montos y emails de pagos: sólo para ADMIN.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CoreEventLogsSecurityIntegrationTest {
+
+    private static final String LOGS = "/api/data/subscriptions/logs";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter springSecurityFilterChain;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(springSecurityFilterChain)
+                .build();
+    }
+
+    @Test
+    void testLogsRequireAdmin() throws Exception {
+        // When
+        int anonymous = status(null);
+        int user = status(token("USER"));
+        int merchant = status(token("MERCHANT"));
+        int admin = status(token("ADMIN"));
+
+        // Then
+        assertEquals(401, anonymous);
+        assertEquals(403, user);
+        assertEquals(403, merchant);
+        assertNotEquals(401, admin);
+        assertNotEquals(403, admin);
+    }
+
+    @Test
+    void testOtherDataEndpointsStayPublic() throws Exception {
+        // When
+        int status = mockMvc.perform(get("/api/data/subscriptions/payment-events-status"))
+                .andReturn().getResponse().getStatus();
+
+        // Then
+        assertEquals(200, status);
+    }
+
+    private int status(String token) throws Exception {
+        MockHttpServletRequestBuilder request = get(LOGS).param("lines", "5");
+        if (token != null) {
+            request.header("Authorization", token);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private String token(String role) {
+        return "Bearer " + jwtUtil.generateToken(role.toLowerCase() + "-logs@test.com", 86400000L, List.of(role));
+    }
+}
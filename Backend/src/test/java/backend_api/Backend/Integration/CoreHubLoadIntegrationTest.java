@@ -0,0 +1,143 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Entity.ProviderData;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.simulation.CoreHubSimulator;
+import backend_api.Backend.simulation.CoreHubSimulator.ResponseProfile;
+import backend_api.Backend.simulation.CoreHubSimulator.Route;
+import backend_api.Backend.simulation.LoadDriver;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Flujo de matching de punta a punta contra el CORE hub y el módulo de
+ * usuarios simulados: webhook -> selección de método -> confirmación, con el
+ * CoreHubService real publicando y enviando ACKs por HTTP.
+ *
+ * Por defecto es una corrida corta para el build. Para medir capacidad:
+ * -Dload.rate=200 -Dload.seconds=60 -Dload.hub-latency-ms=30
+ *
+ * open-in-view queda como en producción (default de Spring): los controllers
+ * del flujo leen el método de pago fuera de la transacción del servicio.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.open-in-view=true")
+@ActiveProfiles("test")
+class CoreHubLoadIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CoreHubLoadIntegrationTest.class);
+
+    private static final long USER_ID = 7373L;
+    private static final long PROVIDER_ID = 7374L;
+    private static final String USER_EMAIL = "carga@test.com";
+
+    private static CoreHubSimulator simulator;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserDataRepository userDataRepository;
+
+    @Autowired
+    private ProviderDataRepository providerDataRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @DynamicPropertySource
+    static void simulatedDependencies(DynamicPropertyRegistry registry) {
+        long latencyMs = Long.getLong("load.hub-latency-ms", 2);
+        try {
+            simulator = new CoreHubSimulator()
+                    .profileAll(ResponseProfile.latency(Duration.ofMillis(latencyMs), Duration.ofMillis(latencyMs)))
+                    .start(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("core.hub.api.url", simulator::baseUrl);
+        registry.add("users.module.login-url", simulator::usersLoginUrl);
+    }
+
+    @AfterAll
+    static void stopSimulator() {
+        simulator.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        UserData user = new UserData();
+        user.setUserId(USER_ID);
+        user.setName("Usuario Carga");
+        user.setEmail(USER_EMAIL);
+        user.setRole("CLIENTE");
+        user.setActive(true);
+        userDataRepository.save(user);
+
+        ProviderData provider = new ProviderData();
+        provider.setProviderId(PROVIDER_ID);
+        provider.setName("Prestador Carga");
+        provider.setEmail("prestador.carga@test.com");
+        provider.setActive(true);
+        providerDataRepository.save(provider);
+
+        simulator.resetCounters();
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteAll(paymentRepository.findByUserId(USER_ID));
+        userDataRepository.findByUserId(USER_ID).ifPresent(userDataRepository::delete);
+        providerDataRepository.findByProviderId(PROVIDER_ID).ifPresent(providerDataRepository::delete);
+    }
+
+    @Test
+    void testMatchingFlowUnderLoadAgainstSimulatedCore() throws Exception {
+        // Given
+        URI baseUrl = URI.create("http://127.0.0.1:" + port);
+        String token = LoadDriver.login(baseUrl, USER_EMAIL, "secreto");
+        LoadDriver.Settings settings = LoadDriver.Settings.of(baseUrl,
+                Double.parseDouble(System.getProperty("load.rate", "20")),
+                Duration.ofSeconds(Long.getLong("load.seconds", 2)));
+
+        // When
+        LoadDriver.Report report = new LoadDriver(settings,
+                List.of(new LoadDriver.FlowTarget(token, USER_ID, PROVIDER_ID))).run();
+        log.info("📊 Corrida de carga contra el CORE simulado:\n{}", report);
+
+        // Then
+        assertEquals(1, simulator.calls(Route.USERS_LOGIN));
+        assertEquals(0, report.failed(), report.toString());
+        assertEquals(report.scheduled(), report.completed());
+        assertEquals(report.completed(), simulator.calls(Route.ACK));
+        assertTrue(simulator.calls(Route.PUBLISH) >= report.completed());
+        assertTrue(report.step(LoadDriver.STEP_FLOW).p999Millis() >= report.step(LoadDriver.STEP_FLOW).p50Millis());
+
+        List<Payment> payments = paymentRepository.findByUserId(USER_ID);
+        assertEquals(report.completed(), payments.size());
+        assertTrue(payments.stream().allMatch(p -> p.getStatus() == PaymentStatus.PENDING_APPROVAL));
+    }
+}
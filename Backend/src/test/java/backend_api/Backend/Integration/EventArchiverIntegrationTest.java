@@ -0,0 +1,184 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.DTO.invoice.InvoiceEventResponse;
+import backend_api.Backend.Entity.invoice.InvoiceEvent;
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Entity.payment.PaymentAttempt;
+import backend_api.Backend.Entity.payment.PaymentEvent;
+import backend_api.Backend.Entity.payment.PaymentEventType;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.BatchJobCheckpointRepository;
+import backend_api.Backend.Repository.InvoiceEventArchiveRepository;
+import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Repository.PaymentAttemptArchiveRepository;
+import backend_api.Backend.Repository.PaymentAttemptRepository;
+import backend_api.Backend.Repository.PaymentEventArchiveRepository;
+import backend_api.Backend.Repository.PaymentEventRepository;
+import backend_api.Backend.Service.Interface.InvoiceEventService;
+import backend_api.Backend.Service.Interface.PaymentAttemptService;
+import backend_api.Backend.Service.Interface.PaymentEventService;
+import backend_api.Backend.archive.EventArchiver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * El archivador confirma cada chunk en su propia transacción, así que este test
+ * no es @Transactional y limpia las tablas al terminar.
+ */
+@SpringBootTest(properties = {
+        "archive.horizon=30d",
+        "archive.chunk-size=2",
+        "archive.throttle=0ms",
+        "archive.max-chunks-per-run=2"
+})
+@ActiveProfiles("test")
+class EventArchiverIntegrationTest {
+
+    private static final Long PAYMENT_ID = 4242L;
+    private static final Long INVOICE_ID = 5151L;
+
+    @Autowired
+    private EventArchiver eventArchiver;
+
+    @Autowired
+    private PaymentEventService paymentEventService;
+
+    @Autowired
+    private PaymentAttemptService paymentAttemptService;
+
+    @Autowired
+    private InvoiceEventService invoiceEventService;
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+
+    @Autowired
+    private PaymentEventArchiveRepository paymentEventArchiveRepository;
+
+    @Autowired
+    private PaymentAttemptRepository paymentAttemptRepository;
+
+    @Autowired
+    private PaymentAttemptArchiveRepository paymentAttemptArchiveRepository;
+
+    @Autowired
+    private InvoiceEventRepository invoiceEventRepository;
+
+    @Autowired
+    private InvoiceEventArchiveRepository invoiceEventArchiveRepository;
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        paymentEventRepository.deleteAll();
+        paymentEventArchiveRepository.deleteAll();
+        paymentAttemptRepository.deleteAll();
+        paymentAttemptArchiveRepository.deleteAll();
+        invoiceEventRepository.deleteAll();
+        invoiceEventArchiveRepository.deleteAll();
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void testArchiveAll_MovesOldRowsAndTimelinesStillSeeThem() {
+        // Given
+        createPaymentEvent(PaymentEventType.PAYMENT_PENDING, LocalDateTime.now().minusDays(90));
+        createPaymentEvent(PaymentEventType.PAYMENT_APPROVED, LocalDateTime.now().minusDays(60));
+        createPaymentEvent(PaymentEventType.INVOICE_GENERATED, LocalDateTime.now().minusDays(1));
+        createAttempt(1, PaymentStatus.REJECTED, LocalDateTime.now().minusDays(90));
+        createAttempt(2, PaymentStatus.APPROVED, LocalDateTime.now().minusDays(89));
+        createInvoiceEvent(InvoiceEventType.INVOICE_CREATED, LocalDateTime.now().minusDays(90));
+        createInvoiceEvent(InvoiceEventType.PAYMENT_COMPLETED, LocalDateTime.now().minusDays(2));
+
+        // When
+        List<EventArchiver.ArchiveRunResult> results = eventArchiver.archiveAll();
+
+        // Then: la tabla caliente conserva sólo la ventana reciente
+        assertEquals(3, results.size());
+        assertEquals(List.of(2L, 2L, 1L), results.stream().map(EventArchiver.ArchiveRunResult::archived).toList());
+        assertEquals(1, paymentEventRepository.count());
+        assertEquals(2, paymentEventArchiveRepository.count());
+        assertEquals(0, paymentAttemptRepository.count());
+        assertEquals(1, invoiceEventRepository.count());
+
+        // Then: las lecturas unen ambos niveles
+        List<PaymentEvent> timeline = paymentEventService.getPaymentTimeline(PAYMENT_ID);
+        assertEquals(List.of(PaymentEventType.PAYMENT_PENDING, PaymentEventType.PAYMENT_APPROVED, PaymentEventType.INVOICE_GENERATED),
+                timeline.stream().map(PaymentEvent::getType).toList());
+        assertEquals(2, paymentAttemptService.getAttemptCount(PAYMENT_ID));
+        assertEquals(2, paymentAttemptService.getSuccessfulAttempt(PAYMENT_ID).orElseThrow().getAttemptNumber());
+        assertEquals(3, paymentAttemptService.createAttempt(PAYMENT_ID, PaymentStatus.PENDING_PAYMENT, "200", "OK").getAttemptNumber());
+
+        List<InvoiceEventResponse> invoiceTimeline = invoiceEventService.getEventsByInvoiceId(INVOICE_ID);
+        assertEquals(List.of(InvoiceEventType.PAYMENT_COMPLETED, InvoiceEventType.INVOICE_CREATED),
+                invoiceTimeline.stream().map(InvoiceEventResponse::getEventType).toList());
+        assertEquals(2L, invoiceEventService.countEventsByInvoiceId(INVOICE_ID));
+
+        int archiveMonth = paymentEventArchiveRepository.findByPaymentIdOrderByCreatedAt(PAYMENT_ID).get(0).getArchiveMonth();
+        LocalDateTime oldest = timeline.get(0).getCreatedAt();
+        assertEquals(oldest.getYear() * 100 + oldest.getMonthValue(), archiveMonth);
+    }
+
+    @Test
+    void testArchiveAll_StopsAtMaxChunksAndResumesNextRun() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            createPaymentEvent(PaymentEventType.PAYMENT_PENDING, LocalDateTime.now().minusDays(100 + i));
+        }
+
+        // When
+        EventArchiver.ArchiveRunResult first = eventArchiver.archiveAll().get(0);
+        EventArchiver.ArchiveRunResult second = eventArchiver.archiveAll().get(0);
+
+        // Then
+        assertEquals(EventArchiver.PAYMENT_EVENTS_JOB, first.job());
+        assertEquals(4, first.archived());
+        assertFalse(first.completed());
+        assertEquals(1, second.archived());
+        assertTrue(second.completed());
+        assertEquals(0, paymentEventRepository.count());
+        assertEquals(5, paymentEventArchiveRepository.count());
+        assertEquals(5L, checkpointRepository.findById(EventArchiver.PAYMENT_EVENTS_JOB).orElseThrow().getProcessedCount());
+    }
+
+    private void createPaymentEvent(PaymentEventType type, LocalDateTime createdAt) {
+        PaymentEvent event = new PaymentEvent();
+        event.setPaymentId(PAYMENT_ID);
+        event.setType(type);
+        event.setActor("system");
+        event.setCreatedAt(createdAt);
+        paymentEventRepository.save(event);
+    }
+
+    private void createAttempt(int attemptNumber, PaymentStatus status, LocalDateTime createdAt) {
+        PaymentAttempt attempt = new PaymentAttempt();
+        attempt.setPaymentId(PAYMENT_ID);
+        attempt.setAttemptNumber(attemptNumber);
+        attempt.setStatus(status);
+        attempt.setCreatedAt(createdAt);
+        paymentAttemptRepository.save(attempt);
+    }
+
+    private void createInvoiceEvent(InvoiceEventType type, LocalDateTime createdAt) {
+        InvoiceEvent event = new InvoiceEvent();
+        event.setInvoiceId(INVOICE_ID);
+        event.setEventType(type);
+        InvoiceEvent saved = invoiceEventRepository.save(event);
+        // @PrePersist pisa createdAt con la hora actual
+        jdbcTemplate.update("UPDATE invoice_events SET created_at = ? WHERE id = ?", createdAt, saved.getId());
+    }
+}
@@ -0,0 +1,69 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Controller.EventTestController;
+import backend_api.Backend.Controller.UserSubscriptionController;
+import backend_api.Backend.messaging.service.CoreHubService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perfil fast-startup sobre la configuración de tests: los beans no críticos
+ * quedan diferidos y se crean recién cuando se piden.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "fast-startup"})
+class FastStartupProfileIntegrationTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    @Test
+    void testNonCriticalControllersAreCreatedOnFirstUse() {
+        // Given
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+        // Then
+        assertTrue(beanFactory.getBeanDefinition("eventTestController").isLazyInit());
+        assertFalse(beanFactory.containsSingleton("eventTestController"));
+        assertFalse(beanFactory.containsSingleton("userSubscriptionController"));
+        assertFalse(beanFactory.getBeanDefinition("paymentController").isLazyInit());
+
+        // When
+        assertNotNull(context.getBean(EventTestController.class));
+        assertNotNull(context.getBean(UserSubscriptionController.class));
+
+        // Then
+        assertTrue(beanFactory.containsSingleton("eventTestController"));
+    }
+
+    @Test
+    void testSpringdocBeansAreDeferred() {
+        // Given
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+        // When
+        List<String> springdoc = Arrays.stream(beanFactory.getBeanDefinitionNames())
+                .filter(name -> {
+                    String className = beanFactory.getBeanDefinition(name).getBeanClassName();
+                    return className != null && className.startsWith("org.springdoc.");
+                })
+                .toList();
+
+        // Then
+        assertFalse(springdoc.isEmpty());
+        assertTrue(springdoc.stream().allMatch(name -> beanFactory.getBeanDefinition(name).isLazyInit()));
+    }
+}
@@ -0,0 +1,165 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Entity.BatchJobCheckpoint;
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.Repository.BatchJobCheckpointRepository;
+import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Service.Implementation.InvoiceBatchEngine;
+import backend_api.Backend.Service.Implementation.InvoiceBatchScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * El engine confirma cada chunk en su propia transacción, así que este test
+ * no es @Transactional y limpia las tablas al terminar.
+ */
+@SpringBootTest(properties = "invoice.batch.chunk-size=2")
+@ActiveProfiles("test")
+class InvoiceBatchEngineIntegrationTest {
+
+    @Autowired
+    private InvoiceBatchEngine invoiceBatchEngine;
+
+    @Autowired
+    private InvoiceBatchScheduler invoiceBatchScheduler;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceEventRepository invoiceEventRepository;
+
+    @Autowired
+    private BatchJobCheckpointRepository checkpointRepository;
+
+    private int invoiceSeq;
+
+    @AfterEach
+    void tearDown() {
+        invoiceEventRepository.deleteAll();
+        invoiceRepository.deleteAll();
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void testMarkOverdueInvoices_FlipsOnlyPendingPastDueInChunks() {
+        // Given
+        List<Invoice> pastDue = createInvoices(5, InvoiceStatus.PENDING, LocalDateTime.now().minusDays(2));
+        createInvoices(2, InvoiceStatus.PENDING, LocalDateTime.now().plusDays(10));
+        createInvoices(1, InvoiceStatus.PAID, LocalDateTime.now().minusDays(2));
+
+        // When
+        InvoiceBatchEngine.BatchRunResult result = invoiceBatchEngine.markOverdueInvoices();
+
+        // Then
+        assertEquals(5, result.processed());
+        assertEquals(3, result.chunks());
+        for (Invoice invoice : pastDue) {
+            assertEquals(InvoiceStatus.OVERDUE, invoiceRepository.findById(invoice.getId()).orElseThrow().getStatus());
+            assertEquals(1L, invoiceEventRepository.countByInvoiceIdAndEventType(invoice.getId(), InvoiceEventType.INVOICE_OVERDUE));
+        }
+        assertEquals(5, invoiceEventRepository.findByEventType(InvoiceEventType.INVOICE_OVERDUE).size());
+
+        BatchJobCheckpoint checkpoint = checkpointRepository.findById(InvoiceBatchEngine.OVERDUE_JOB).orElseThrow();
+        assertTrue(checkpoint.getCompleted());
+        assertEquals(5L, checkpoint.getProcessedCount());
+    }
+
+    @Test
+    void testMarkOverdueInvoices_ResumesFromCheckpoint() {
+        // Given: una corrida previa se cortó después de procesar las tres primeras facturas
+        List<Invoice> pastDue = createInvoices(5, InvoiceStatus.PENDING, LocalDateTime.now().minusDays(2));
+
+        BatchJobCheckpoint checkpoint = new BatchJobCheckpoint(InvoiceBatchEngine.OVERDUE_JOB);
+        checkpoint.setLastProcessedId(pastDue.get(2).getId());
+        checkpoint.setProcessedCount(3L);
+        checkpoint.setCutoff(LocalDateTime.now());
+        checkpoint.setStartedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+
+        // When
+        InvoiceBatchEngine.BatchRunResult result = invoiceBatchEngine.markOverdueInvoices();
+
+        // Then
+        assertEquals(2, result.processed());
+        assertEquals(InvoiceStatus.PENDING, invoiceRepository.findById(pastDue.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(InvoiceStatus.OVERDUE, invoiceRepository.findById(pastDue.get(4).getId()).orElseThrow().getStatus());
+        assertEquals(5L, checkpointRepository.findById(InvoiceBatchEngine.OVERDUE_JOB).orElseThrow().getProcessedCount());
+    }
+
+    @Test
+    void testResumeInterruptedRuns_FinishesIncompleteRunAtStartup() throws Exception {
+        // Given: el apagado cortó la corrida después de las dos primeras facturas
+        List<Invoice> pastDue = createInvoices(4, InvoiceStatus.PENDING, LocalDateTime.now().minusDays(2));
+
+        BatchJobCheckpoint checkpoint = new BatchJobCheckpoint(InvoiceBatchEngine.OVERDUE_JOB);
+        checkpoint.setLastProcessedId(pastDue.get(1).getId());
+        checkpoint.setProcessedCount(2L);
+        checkpoint.setCutoff(LocalDateTime.now());
+        checkpoint.setStartedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+
+        // When
+        invoiceBatchScheduler.resumeInterruptedRuns();
+
+        // Then: corre en el hilo de los schedulers, sin esperar al cron
+        BatchJobCheckpoint resumed = checkpoint;
+        for (int i = 0; i < 100 && !Boolean.TRUE.equals(resumed.getCompleted()); i++) {
+            Thread.sleep(50);
+            resumed = checkpointRepository.findById(InvoiceBatchEngine.OVERDUE_JOB).orElseThrow();
+        }
+        assertTrue(resumed.getCompleted());
+        assertEquals(4L, resumed.getProcessedCount());
+        assertEquals(InvoiceStatus.OVERDUE, invoiceRepository.findById(pastDue.get(3).getId()).orElseThrow().getStatus());
+        assertFalse(checkpointRepository.findById(InvoiceBatchEngine.REMINDER_JOB).isPresent());
+    }
+
+    @Test
+    void testSendDueReminders_OneReminderPerInvoicePerDay() {
+        // Given
+        createInvoices(3, InvoiceStatus.PENDING, LocalDateTime.now().plusDays(1));
+        createInvoices(1, InvoiceStatus.PENDING, LocalDateTime.now().plusDays(20));
+
+        // When
+        InvoiceBatchEngine.BatchRunResult first = invoiceBatchEngine.sendDueReminders();
+        InvoiceBatchEngine.BatchRunResult second = invoiceBatchEngine.sendDueReminders();
+
+        // Then
+        assertEquals(3, first.processed());
+        assertEquals(0, second.processed());
+        assertEquals(3, invoiceEventRepository.findByEventType(InvoiceEventType.REMINDER_SENT).size());
+    }
+
+    private List<Invoice> createInvoices(int count, InvoiceStatus status, LocalDateTime dueDate) {
+        List<Invoice> invoices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceNumber("INV-BATCH-" + (++invoiceSeq));
+            // Un pago por factura: sólo puede haber una STANDARD por pago
+            invoice.setPaymentId((long) invoiceSeq);
+            invoice.setUserId(1L);
+            invoice.setProviderId(1L);
+            invoice.setTotalAmount(BigDecimal.TEN);
+            invoice.setSubtotalAmount(BigDecimal.TEN);
+            invoice.setStatus(status);
+            invoice.setCurrency("ARS");
+            invoice.setIssueDate(LocalDateTime.now().minusDays(30));
+            invoice.setDueDate(dueDate);
+            invoices.add(invoice);
+        }
+        return invoiceRepository.saveAll(invoices);
+    }
+}
@@ -0,0 +1,290 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.DTO.invoice.CreateInvoiceRequest;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceEvent;
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import backend_api.Backend.Entity.invoice.InvoiceType;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Entity.payment.types.MercadoPagoPayment;
+import backend_api.Backend.Repository.InvoiceEventRepository;
+import backend_api.Backend.Repository.InvoiceLineRepository;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Repository.PaymentMethodRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.Service.Interface.InvoiceService;
+import backend_api.Backend.Service.Interface.PaymentService;
+import backend_api.Backend.invoicing.InvoiceGenerationEngine;
+import backend_api.Backend.messaging.publisher.PaymentStatusPublisher;
+import backend_api.Backend.messaging.service.CoreHubService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cada lote confirma su propia transacción (y el pipeline corre en otro
+ * hilo), así que este test no es @Transactional y limpia las tablas al
+ * terminar.
+ */
+@SpringBootTest(properties = {
+        "invoice.generation.enabled=true",
+        "invoice.generation.window=20ms",
+        "invoice.generation.batch-size=2",
+        "invoice.generation.number-block-size=3"
+})
+@ActiveProfiles("test")
+class InvoiceGenerationEngineIntegrationTest {
+
+    @Autowired
+    private InvoiceGenerationEngine invoiceGenerationEngine;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceLineRepository invoiceLineRepository;
+
+    @Autowired
+    private InvoiceEventRepository invoiceEventRepository;
+
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Autowired
+    private UserDataRepository userDataRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private PaymentStatusPublisher paymentStatusPublisher;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    @AfterEach
+    void tearDown() {
+        invoiceEventRepository.deleteAll();
+        invoiceLineRepository.deleteAll();
+        invoiceRepository.deleteAll();
+        paymentRepository.deleteAll();
+        paymentMethodRepository.deleteAll();
+        userDataRepository.findByUserId(1L).ifPresent(userDataRepository::delete);
+    }
+
+    @Test
+    void testGenerate_CreatesOneInvoicePerApprovedPaymentAndSkipsTheRest() {
+        // Given
+        List<Payment> approved = createPayments(5, PaymentStatus.APPROVED, LocalDateTime.now().minusHours(1));
+        List<Payment> pending = createPayments(1, PaymentStatus.PENDING_PAYMENT, LocalDateTime.now().minusHours(1));
+        invoiceGenerationEngine.generate(List.of(approved.get(0).getId()));
+
+        List<Long> ids = new ArrayList<>();
+        approved.forEach(payment -> ids.add(payment.getId()));
+        ids.add(pending.get(0).getId());
+
+        // When
+        InvoiceGenerationEngine.GenerationResult result = invoiceGenerationEngine.generate(ids);
+
+        // Then
+        assertEquals(4, result.created());
+        assertEquals(2, result.skipped());
+        assertTrue(invoiceRepository.findByPaymentId(pending.get(0).getId()).isEmpty());
+
+        // Con bloques de 3 números, los 5 números salen de dos bloques sin repetirse
+        Set<String> numbers = new HashSet<>();
+        for (Payment payment : approved) {
+            List<Invoice> invoices = invoiceRepository.findByPaymentId(payment.getId());
+            assertEquals(1, invoices.size());
+            Invoice invoice = invoices.get(0);
+            assertTrue(numbers.add(invoice.getInvoiceNumber()));
+            assertTrue(invoice.getInvoiceNumber().startsWith("INV-P0002-"));
+            assertEquals(0, payment.getAmount_total().compareTo(invoice.getTotalAmount()));
+
+            List<InvoiceLine> lines = invoiceLineRepository.findByInvoiceId(invoice.getId());
+            assertEquals(1, lines.size());
+            assertEquals(0, payment.getAmount_total().compareTo(lines.get(0).getTotalAmount()));
+
+            List<InvoiceEvent> events = invoiceEventRepository.findByInvoiceIdAndEventType(
+                    invoice.getId(), InvoiceEventType.INVOICE_CREATED);
+            assertEquals(1, events.size());
+        }
+    }
+
+    @Test
+    void testBackfill_InvoicesApprovedPaymentsInRangeOnlyOnce() {
+        // Given
+        LocalDateTime from = LocalDateTime.now().minusDays(2);
+        LocalDateTime to = LocalDateTime.now();
+        List<Payment> inRange = createPayments(3, PaymentStatus.APPROVED, LocalDateTime.now().minusDays(1));
+        List<Payment> outOfRange = createPayments(1, PaymentStatus.APPROVED, LocalDateTime.now().minusDays(5));
+
+        // When
+        InvoiceGenerationEngine.GenerationResult first = invoiceGenerationEngine.backfill(from, to);
+        InvoiceGenerationEngine.GenerationResult second = invoiceGenerationEngine.backfill(from, to);
+
+        // Then
+        assertEquals(3, first.created());
+        assertEquals(0, second.created());
+        for (Payment payment : inRange) {
+            assertEquals(1, invoiceRepository.findByPaymentId(payment.getId()).size());
+        }
+        assertTrue(invoiceRepository.findByPaymentId(outOfRange.get(0).getId()).isEmpty());
+    }
+
+    @Test
+    void testApprovedStatusChange_IsInvoicedByPipeline() throws InterruptedException {
+        // Given
+        Payment payment = createPayments(1, PaymentStatus.PENDING_PAYMENT, null).get(0);
+
+        // When
+        paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.APPROVED);
+
+        // Then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (invoiceRepository.findByPaymentId(payment.getId()).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, invoiceRepository.findByPaymentId(payment.getId()).size());
+    }
+
+    @Test
+    void testApprovedBySelectingBalanceMethod_IsInvoicedByPipeline() throws InterruptedException {
+        // Given: cliente con saldo suficiente; MercadoPago descuenta el saldo y aprueba en el acto
+        UserData client = new UserData();
+        client.setUserId(1L);
+        client.setRole("USER");
+        client.setSaldoDisponible(BigDecimal.valueOf(1000));
+        userDataRepository.save(client);
+        Payment payment = createPayments(1, PaymentStatus.PENDING_PAYMENT, null).get(0);
+        MercadoPagoPayment method = paymentMethodRepository.save(new MercadoPagoPayment());
+
+        // When: en una transacción, como el request con open-in-view; la factura sale después del commit
+        Payment result = new TransactionTemplate(transactionManager)
+                .execute(status -> paymentService.updatePaymentMethod(payment.getId(), method));
+
+        // Then
+        assertEquals(PaymentStatus.APPROVED, result.getStatus());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (invoiceRepository.findByPaymentId(payment.getId()).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, invoiceRepository.findByPaymentId(payment.getId()).size());
+    }
+
+    @Test
+    void testConcurrentInvoicingOfSamePayment_CreatesOneStandardInvoice() {
+        // Given: pipeline, backfill y create-from-payment sobre el mismo pago a la vez
+        Long paymentId = createPayments(1, PaymentStatus.APPROVED, LocalDateTime.now().minusHours(1)).get(0).getId();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            callers.add(CompletableFuture.runAsync(() -> {
+                awaitQuietly(start);
+                invoiceGenerationEngine.generate(List.of(paymentId));
+            }));
+        }
+        callers.add(CompletableFuture.runAsync(() -> {
+            awaitQuietly(start);
+            try {
+                invoiceService.createInvoiceFromPayment(paymentId);
+            } catch (IllegalStateException alreadyInvoiced) {
+                // otro camino llegó primero
+            }
+        }));
+
+        // When
+        start.countDown();
+        CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).join();
+
+        // Then
+        assertEquals(1, invoiceRepository.findByPaymentId(paymentId).size());
+    }
+
+    @Test
+    void testSecondStandardInvoiceForPayment_IsRejectedButCreditNoteIsNot() {
+        // Given
+        Payment payment = createPayments(1, PaymentStatus.APPROVED, LocalDateTime.now().minusHours(1)).get(0);
+        invoiceGenerationEngine.generate(List.of(payment.getId()));
+
+        // When: prestadores distintos, porque createInvoice numera por prestador y segundo
+        invoiceService.createInvoice(invoiceRequest(payment, InvoiceType.CREDIT, 3L));
+        IllegalStateException duplicate = assertThrows(IllegalStateException.class,
+                () -> invoiceService.createInvoice(invoiceRequest(payment, InvoiceType.STANDARD, 4L)));
+
+        // Then
+        assertEquals("Ya existe una factura para este pago", duplicate.getMessage());
+        assertEquals(2, invoiceRepository.findByPaymentId(payment.getId()).size());
+    }
+
+    private static CreateInvoiceRequest invoiceRequest(Payment payment, InvoiceType type, Long providerId) {
+        CreateInvoiceRequest.CreateInvoiceLineRequest line = new CreateInvoiceRequest.CreateInvoiceLineRequest();
+        line.setDescription("Pago por servicios");
+        line.setQuantity(1);
+        line.setUnitPrice(payment.getAmount_total());
+        line.setLineNumber(1);
+        CreateInvoiceRequest request = new CreateInvoiceRequest();
+        request.setPaymentId(payment.getId());
+        request.setUserId(payment.getUser_id());
+        request.setProviderId(providerId);
+        request.setType(type);
+        request.setCurrency(payment.getCurrency());
+        request.setDueDate(LocalDateTime.now().plusDays(30));
+        request.setLines(List.of(line));
+        return request;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Payment> createPayments(int count, PaymentStatus status, LocalDateTime capturedAt) {
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Payment payment = new Payment();
+            payment.setUser_id(1L);
+            payment.setProvider_id(2L);
+            payment.setAmount_total(BigDecimal.valueOf(100 + i));
+            payment.setCurrency("ARS");
+            payment.setStatus(status);
+            payment.setCreated_at(LocalDateTime.now().minusDays(10));
+            payment.setUpdated_at(LocalDateTime.now().minusDays(1));
+            payment.setCaptured_at(capturedAt);
+            payments.add(payment);
+        }
+        return paymentRepository.saveAll(payments);
+    }
+}
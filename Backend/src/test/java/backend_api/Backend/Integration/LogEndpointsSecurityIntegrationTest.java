@@ -0,0 +1,90 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.messaging.service.CoreHubService;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * /logs, /logs/search y /logs/follow leen el log de la aplicación (actual y
+ * rotados) con emails, ids y montos de pagos: sólo para ADMIN.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LogEndpointsSecurityIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter springSecurityFilterChain;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(springSecurityFilterChain)
+                .build();
+    }
+
+    @Test
+    void testLogEndpointsRejectNonAdmins() throws Exception {
+        for (String path : List.of("/logs", "/logs/search", "/logs/follow")) {
+            // When
+            int anonymous = status(path, null);
+            int user = status(path, token("USER"));
+            int merchant = status(path, token("MERCHANT"));
+
+            // Then
+            assertEquals(401, anonymous, path);
+            assertEquals(403, user, path);
+            assertEquals(403, merchant, path);
+        }
+    }
+
+    @Test
+    void testLogEndpointsAllowAdmin() throws Exception {
+        // When
+        int tail = status("/logs", token("ADMIN"));
+        int search = status("/logs/search", token("ADMIN"));
+
+        // Then
+        assertEquals(200, tail);
+        assertEquals(200, search);
+    }
+
+    private int status(String path, String token) throws Exception {
+        MockHttpServletRequestBuilder request = get(path).param("q", "pago").param("lines", "5");
+        if (token != null) {
+            request.header("Authorization", token);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private String token(String role) {
+        return "Bearer " + jwtUtil.generateToken(role.toLowerCase() + "-app-logs@test.com", 86400000L, List.of(role));
+    }
+}
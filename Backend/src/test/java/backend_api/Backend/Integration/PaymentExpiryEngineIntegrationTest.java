@@ -0,0 +1,148 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentEventType;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.PaymentEventRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Service.Implementation.PaymentExpiryEngine;
+import backend_api.Backend.Service.Interface.PaymentService;
+import backend_api.Backend.messaging.dto.PaymentStatusUpdateMessage;
+import backend_api.Backend.messaging.publisher.PaymentStatusPublisher;
+import backend_api.Backend.messaging.service.CoreHubService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cada chunk del barrido confirma su propia transacción, así que este test
+ * no es @Transactional y limpia las tablas al terminar.
+ */
+@SpringBootTest(properties = "payments.expiry.chunk-size=2")
+@ActiveProfiles("test")
+class PaymentExpiryEngineIntegrationTest {
+
+    @Autowired
+    private PaymentExpiryEngine paymentExpiryEngine;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+
+    @MockitoBean
+    private PaymentStatusPublisher paymentStatusPublisher;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    @AfterEach
+    void tearDown() {
+        paymentEventRepository.deleteAll();
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExpireDuePayments_ExpiresOnlyPendingPastExpiryInChunks() {
+        // Given
+        List<Payment> due = createPayments(3, PaymentStatus.PENDING_PAYMENT, LocalDateTime.now().minusMinutes(5));
+        List<Payment> notDue = createPayments(1, PaymentStatus.PENDING_PAYMENT, LocalDateTime.now().plusHours(1));
+        List<Payment> approved = createPayments(1, PaymentStatus.APPROVED, LocalDateTime.now().minusMinutes(5));
+
+        // When
+        PaymentExpiryEngine.SweepResult result = paymentExpiryEngine.expireDuePayments();
+
+        // Then
+        assertEquals(3, result.expired());
+        assertEquals(2, result.chunks());
+        for (Payment payment : due) {
+            assertEquals(PaymentStatus.EXPIRED, paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+            assertEquals(1, paymentEventRepository.findByPaymentIdAndType(payment.getId(), PaymentEventType.PAYMENT_EXPIRED).size());
+        }
+        assertEquals(PaymentStatus.PENDING_PAYMENT, paymentRepository.findById(notDue.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.APPROVED, paymentRepository.findById(approved.get(0).getId()).orElseThrow().getStatus());
+
+        // Un lote de notificaciones por chunk
+        ArgumentCaptor<List<PaymentStatusUpdateMessage>> batches = ArgumentCaptor.forClass(List.class);
+        verify(paymentStatusPublisher, timeout(5000).times(2)).publishPaymentStatusUpdates(batches.capture());
+        Set<Long> notified = batches.getAllValues().stream()
+                .flatMap(List::stream)
+                .peek(message -> assertEquals(PaymentStatus.EXPIRED, message.getNewStatus()))
+                .map(PaymentStatusUpdateMessage::getPaymentId)
+                .collect(Collectors.toSet());
+        assertEquals(due.stream().map(Payment::getId).collect(Collectors.toSet()), notified);
+
+        assertEquals(0, paymentExpiryEngine.expireDuePayments().expired());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExpireDuePayments_TakesMatchingIdFromMetadataForLegacyPayments() {
+        // Given: pago anterior a la columna matching_id, que sólo lo tiene en el JSON
+        Payment legacy = createPayments(1, PaymentStatus.PENDING_PAYMENT, LocalDateTime.now().minusMinutes(5)).get(0);
+        legacy.setMetadata("{\"matchingId\":4242,\"idCorrelacion\":\"corr-1\"}");
+        paymentRepository.save(legacy);
+
+        // When
+        paymentExpiryEngine.expireDuePayments();
+
+        // Then
+        ArgumentCaptor<List<PaymentStatusUpdateMessage>> batch = ArgumentCaptor.forClass(List.class);
+        verify(paymentStatusPublisher, timeout(5000)).publishPaymentStatusUpdates(batch.capture());
+        assertEquals(4242L, batch.getValue().get(0).getMatchingId());
+    }
+
+    @Test
+    void testCreatePayment_SetsExpiryForPendingPayments() {
+        // Given
+        Payment payment = new Payment();
+        payment.setUser_id(1L);
+        payment.setProvider_id(2L);
+        payment.setAmount_total(BigDecimal.TEN);
+        payment.setCurrency("ARS");
+        payment.setStatus(PaymentStatus.PENDING_PAYMENT);
+
+        // When
+        Payment saved = paymentService.createPayment(payment);
+
+        // Then
+        assertNotNull(saved.getExpired_at());
+        assertEquals(saved.getCreated_at().plusHours(24), saved.getExpired_at());
+    }
+
+    private List<Payment> createPayments(int count, PaymentStatus status, LocalDateTime expiredAt) {
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Payment payment = new Payment();
+            payment.setUser_id(1L);
+            payment.setProvider_id(2L);
+            payment.setAmount_total(BigDecimal.TEN);
+            payment.setCurrency("ARS");
+            payment.setStatus(status);
+            payment.setCreated_at(LocalDateTime.now().minusDays(1));
+            payment.setUpdated_at(LocalDateTime.now().minusDays(1));
+            payment.setExpired_at(expiredAt);
+            payments.add(payment);
+        }
+        return paymentRepository.saveAll(payments);
+    }
+}
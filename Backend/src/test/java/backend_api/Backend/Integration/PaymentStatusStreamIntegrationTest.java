@@ -0,0 +1,168 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.Service.Interface.PaymentService;
+import backend_api.Backend.messaging.service.CoreHubService;
+import backend_api.Backend.realtime.PaymentStatusEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los eventos se entregan después del commit de updatePaymentStatus, así que
+ * este test no es @Transactional y limpia los datos al terminar.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentStatusStreamIntegrationTest {
+
+    private static final long USER_ID = 5252L;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDataRepository userDataRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentStatusEventBus paymentStatusEventBus;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+    private String userToken;
+    private Long paymentId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+
+        UserData user = new UserData();
+        user.setUserId(USER_ID);
+        user.setName("Usuario Stream");
+        user.setEmail("stream@test.com");
+        user.setRole("CLIENTE");
+        userDataRepository.save(user);
+
+        Payment payment = new Payment();
+        payment.setUser_id(USER_ID);
+        payment.setProvider_id(7L);
+        payment.setAmount_total(BigDecimal.valueOf(250));
+        payment.setCurrency("ARS");
+        payment.setStatus(PaymentStatus.PENDING_APPROVAL);
+        paymentId = paymentRepository.save(payment).getId();
+
+        userToken = "Bearer " + jwtUtil.generateToken("stream@test.com", 86400000L, List.of("USER"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentRepository.deleteById(paymentId);
+        userDataRepository.findByUserId(USER_ID).ifPresent(userDataRepository::delete);
+    }
+
+    @Test
+    void testStatusStream_PushesCurrentStateAndApproval() throws Exception {
+        // Given
+        MvcResult stream = mockMvc.perform(get("/api/payments/{id}/status/stream", paymentId)
+                        .header("Authorization", userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream, "PENDING_APPROVAL");
+
+        // When
+        paymentService.updatePaymentStatus(paymentId, PaymentStatus.APPROVED);
+
+        // Then
+        String content = awaitContent(stream, "\"status\":\"APPROVED\"");
+        assertTrue(content.contains("event:payment-status"));
+        assertTrue(content.contains("\"terminal\":true"));
+        mockMvc.perform(asyncDispatch(stream)).andExpect(status().isOk());
+        assertEquals(0, paymentStatusEventBus.getActiveSubscriptions());
+    }
+
+    @Test
+    void testStatusPoll_RespondsWhenStatusChanges() throws Exception {
+        // Given
+        MvcResult poll = mockMvc.perform(get("/api/payments/{id}/status/poll", paymentId)
+                        .param("since", "PENDING_APPROVAL")
+                        .header("Authorization", userToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        paymentService.updatePaymentStatus(paymentId, PaymentStatus.REJECTED);
+
+        // Then
+        mockMvc.perform(asyncDispatch(poll))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("REJECTED"))
+                .andExpect(jsonPath("$.previousStatus").value("PENDING_APPROVAL"));
+    }
+
+    @Test
+    void testStatusStream_OtherUsersPaymentForbidden() throws Exception {
+        String otherToken = "Bearer " + jwtUtil.generateToken("otro@test.com", 86400000L, List.of("USER"));
+        UserData other = new UserData();
+        other.setUserId(USER_ID + 1);
+        other.setName("Otro");
+        other.setEmail("otro@test.com");
+        other.setRole("CLIENTE");
+        userDataRepository.save(other);
+
+        try {
+            mockMvc.perform(get("/api/payments/{id}/status/stream", paymentId)
+                            .header("Authorization", otherToken))
+                    .andExpect(status().isForbidden());
+        } finally {
+            userDataRepository.delete(other);
+        }
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "Contenido del stream: " + content);
+        return content;
+    }
+}
@@ -0,0 +1,106 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.DTO.auth.LoginRequest;
+import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.login.LoginIdentity;
+import backend_api.Backend.login.LoginIdentityIndex;
+import backend_api.Backend.messaging.dto.CoreEventMessage;
+import backend_api.Backend.messaging.service.CoreHubService;
+import backend_api.Backend.messaging.service.ProviderEventProcessorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los eventos de prestadores del CORE (webhook provider-events) guardan
+ * provider_data sin pasar por DataStorageServiceImpl: también tienen que
+ * descartar la identidad cacheada del login. El procesador confirma su
+ * propia transacción, así que este test no es @Transactional.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProviderDeactivationLoginIntegrationTest {
+
+    private static final String EMAIL = "prestador-baja@test.com";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter springSecurityFilterChain;
+
+    @Autowired
+    private ProviderEventProcessorService providerEventProcessorService;
+
+    @Autowired
+    private ProviderDataRepository providerDataRepository;
+
+    @Autowired
+    private LoginIdentityIndex loginIdentityIndex;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(springSecurityFilterChain)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        providerDataRepository.findByEmail(EMAIL).ifPresent(providerDataRepository::delete);
+    }
+
+    @Test
+    void testDeactivatedProviderCanNoLongerLogIn() throws Exception {
+        // Given: prestador activo, ya resuelto (y cacheado) por un login anterior
+        providerEventProcessorService.processProviderFromCore(event("catalogue.prestador.alta"));
+        LoginIdentity cached = loginIdentityIndex.resolve(EMAIL).orElseThrow();
+        assertTrue(cached.active());
+
+        // When
+        providerEventProcessorService.processProviderFromCore(event("catalogue.prestador.baja"));
+
+        // Then
+        LoginRequest request = new LoginRequest();
+        request.setEmail(EMAIL);
+        request.setPassword("password123");
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(request)))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value("PROVIDER_DEACTIVATED"));
+    }
+
+    private static CoreEventMessage event(String channel) {
+        CoreEventMessage message = new CoreEventMessage();
+        CoreEventMessage.Destination destination = new CoreEventMessage.Destination();
+        destination.setChannel(channel);
+        message.setDestination(destination);
+        message.setPayload(Map.of("id", 7701, "nombre", "Prestador", "email", EMAIL));
+        return message;
+    }
+}
@@ -0,0 +1,248 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Entity.payment.types.CreditCardPayment;
+import backend_api.Backend.Entity.payment.types.PaymentMethodType;
+import backend_api.Backend.Repository.InvoiceLineRepository;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Repository.PaymentMethodRepository;
+import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.messaging.service.CoreHubService;
+import backend_api.Backend.persistence.MaxQueries;
+import backend_api.Backend.persistence.QueryStatsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Presupuestos de queries de los flujos principales. Si un cambio introduce
+ * un N+1, el test correspondiente falla mostrando queries/filas/tiempo.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class QueryBudgetIntegrationTest {
+
+    private static final long USER_ID = 4242L;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private QueryStatsFilter queryStatsFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserDataRepository userDataRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentMethodRepository paymentMethodRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceLineRepository invoiceLineRepository;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+    private String userToken;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(queryStatsFilter)
+                .apply(springSecurity())
+                .build();
+
+        UserData user = new UserData();
+        user.setUserId(USER_ID);
+        user.setName("Usuario Budget");
+        user.setEmail("budget@test.com");
+        user.setRole("CLIENTE");
+        userDataRepository.save(user);
+
+        for (int i = 0; i < 10; i++) {
+            CreditCardPayment method = new CreditCardPayment();
+            method.setType(PaymentMethodType.CREDIT_CARD);
+            method = paymentMethodRepository.save(method);
+
+            Payment payment = new Payment();
+            payment.setUser_id(USER_ID);
+            payment.setProvider_id(7L);
+            payment.setAmount_total(BigDecimal.valueOf(100 + i));
+            payment.setCurrency("ARS");
+            payment.setStatus(PaymentStatus.APPROVED);
+            payment.setMethod(method);
+            payment = paymentRepository.save(payment);
+
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceNumber("INV-BUDGET-" + i);
+            invoice.setPaymentId(payment.getId());
+            invoice.setUserId(USER_ID);
+            invoice.setProviderId(7L);
+            invoice.setTotalAmount(BigDecimal.valueOf(100 + i));
+            invoice.setSubtotalAmount(BigDecimal.valueOf(100 + i));
+            invoice.setStatus(InvoiceStatus.PENDING);
+            invoice.setCurrency("ARS");
+            invoice.setIssueDate(LocalDateTime.now());
+            invoice = invoiceRepository.save(invoice);
+
+            List<InvoiceLine> lines = new ArrayList<>();
+            for (int n = 1; n <= 3; n++) {
+                InvoiceLine line = new InvoiceLine();
+                line.setInvoiceId(invoice.getId());
+                line.setDescription("Línea " + n);
+                line.setQuantity(1);
+                line.setUnitPrice(BigDecimal.TEN);
+                line.setLineNumber(n);
+                lines.add(line);
+            }
+            invoiceLineRepository.saveAll(lines);
+        }
+        invoiceLineRepository.flush();
+
+        userToken = "Bearer " + jwtUtil.generateToken("budget@test.com", 86400000L, List.of("USER"));
+    }
+
+    @Test
+    @MaxQueries(5)
+    void testMyPayments_MethodsAndUserDataFetchedInBatch() throws Exception {
+        mockMvc.perform(get("/api/payments/my-payments").header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].method.type").value("CREDIT_CARD"));
+    }
+
+    @Test
+    @MaxQueries(5)
+    void testMyPayments_ListViewReturnsOnlyItsFields() throws Exception {
+        mockMvc.perform(get("/api/payments/my-payments")
+                        .param("view", "list")
+                        .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].amount_total").value(109))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[0].method").doesNotExist())
+                .andExpect(jsonPath("$[0].metadata").doesNotExist())
+                .andExpect(jsonPath("$[0].user_name").isEmpty());
+    }
+
+    @Test
+    @MaxQueries(2)
+    void testMyPayments_FieldsWithMethodUseSingleJoin() throws Exception {
+        mockMvc.perform(get("/api/payments/my-payments")
+                        .param("fields", "amount_total,method")
+                        .param("size", "5")
+                        .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].method.type").value("CREDIT_CARD"))
+                .andExpect(jsonPath("$[0].status").doesNotExist());
+    }
+
+    @Test
+    void testMyPayments_UnknownFieldIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/payments/my-payments")
+                        .param("fields", "id,password")
+                        .header("Authorization", userToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @MaxQueries(4)
+    void testMyInvoices_LinesLoadedInSingleQuery() throws Exception {
+        mockMvc.perform(get("/api/invoices/my-invoices").header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(10))
+                .andExpect(jsonPath("$.content[0].lines.length()").value(3))
+                .andExpect(jsonPath("$.content[0].lines[0].lineNumber").value(1));
+    }
+
+    @Test
+    @MaxQueries(3)
+    void testMyInvoices_SummaryOnlySkipsLines() throws Exception {
+        mockMvc.perform(get("/api/invoices/my-invoices")
+                        .param("includeLines", "false")
+                        .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(10))
+                .andExpect(jsonPath("$.content[0].lines").doesNotExist());
+    }
+
+    @Test
+    @MaxQueries(5)
+    void testCoreUserCreatedWebhook_WithinBudget() throws Exception {
+        String body = """
+                {
+                  "messageId": "budget-user-1",
+                  "timestamp": "2025-01-01T10:00:00",
+                  "destination": {"channel": "user", "eventName": "user_created"},
+                  "payload": {"userId": 5151, "email": "nuevo@test.com", "firstName": "Ada",
+                              "lastName": "Lovelace", "role": "CLIENTE"}
+                }
+                """;
+
+        mockMvc.perform(post("/api/core/webhook/user-events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        userDataRepository.flush();
+
+        assertTrue(userDataRepository.findByUserId(5151L).isPresent());
+    }
+
+    @Test
+    void testQueryStatsFilter_RecordsMetricsPerRoute() throws Exception {
+        mockMvc.perform(get("/api/payments/my-payments").header("Authorization", userToken))
+                .andExpect(status().isOk());
+
+        var queries = meterRegistry.find("db.request.queries")
+                .tags("uri", "/api/payments/my-payments", "method", "GET")
+                .summary();
+        assertNotNull(queries);
+        assertTrue(queries.totalAmount() >= 1);
+        assertNotNull(meterRegistry.find("db.request.rows").tags("uri", "/api/payments/my-payments").summary());
+        assertNotNull(meterRegistry.find("db.request.time").tags("uri", "/api/payments/my-payments").timer());
+    }
+}
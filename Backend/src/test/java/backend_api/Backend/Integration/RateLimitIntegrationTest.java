@@ -0,0 +1,155 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.messaging.service.CoreHubService;
+import backend_api.Backend.ratelimit.RateLimitFilter;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Filtro de rate limiting con la cadena de seguridad delante, como en el
+ * contenedor: los buckets de my-search son por usuario del JWT y los del
+ * webhook por X-API-KEY (sólo las configuradas) o IP.
+ */
+@SpringBootTest(properties = {
+        "ratelimit.enabled=true",
+        "ratelimit.api-keys=core-key",
+        "ratelimit.routes.my-search.capacity=2",
+        "ratelimit.routes.my-search.refill-per-second=0.001",
+        "ratelimit.routes.core-webhook.capacity=3",
+        "ratelimit.routes.core-webhook.refill-per-second=0.001"
+})
+@ActiveProfiles("test")
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter springSecurityFilterChain;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilters(springSecurityFilterChain, rateLimitFilter)
+                .build();
+    }
+
+    @Test
+    void testRouteLimitIsPerAuthenticatedUser() throws Exception {
+        // Given
+        String ana = token("ana-rl@test.com");
+        String beto = token("beto-rl@test.com");
+
+        // When
+        int first = status(mySearch(ana));
+        int second = status(mySearch(ana));
+        MvcResult third = mockMvc.perform(mySearch(ana)).andReturn();
+
+        // Then
+        assertNotEquals(429, first);
+        assertNotEquals(429, second);
+        assertEquals(429, third.getResponse().getStatus());
+        assertNotNull(third.getResponse().getHeader("Retry-After"));
+        assertTrue(Long.parseLong(third.getResponse().getHeader("Retry-After")) >= 1);
+        assertNotEquals(429, status(mySearch(beto)));
+    }
+
+    @Test
+    void testWebhookLimitIsPerApiKeyOrIp() throws Exception {
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(429, status(webhook().with(request -> {
+                request.setRemoteAddr("10.0.0.7");
+                return request;
+            })));
+        }
+        int blocked = status(webhook().with(request -> {
+            request.setRemoteAddr("10.0.0.7");
+            return request;
+        }));
+        int otherCaller = status(webhook().header("X-API-KEY", "core-key").with(request -> {
+            request.setRemoteAddr("10.0.0.7");
+            return request;
+        }));
+
+        // Then
+        assertEquals(429, blocked);
+        assertNotEquals(429, otherCaller);
+    }
+
+    @Test
+    void testUnknownApiKeyFallsBackToIpBucket() throws Exception {
+        // Given: la IP agota su bucket
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(429, status(webhook().with(request -> {
+                request.setRemoteAddr("10.0.0.8");
+                return request;
+            })));
+        }
+
+        // When: una key inventada distinta en cada request no estrena bucket
+        int firstKey = status(webhook().header("X-API-KEY", "random-1").with(request -> {
+            request.setRemoteAddr("10.0.0.8");
+            return request;
+        }));
+        int secondKey = status(webhook().header("X-API-KEY", "random-2").with(request -> {
+            request.setRemoteAddr("10.0.0.8");
+            return request;
+        }));
+
+        // Then
+        assertEquals(429, firstKey);
+        assertEquals(429, secondKey);
+    }
+
+    private MockHttpServletRequestBuilder mySearch(String token) {
+        return post("/api/payments/my-search")
+                .header("Authorization", token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}");
+    }
+
+    private MockHttpServletRequestBuilder webhook() {
+        return post("/api/core/webhook/payment-events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}");
+    }
+
+    private int status(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    private String token(String email) {
+        return "Bearer " + jwtUtil.generateToken(email, 86400000L, List.of("USER"));
+    }
+}
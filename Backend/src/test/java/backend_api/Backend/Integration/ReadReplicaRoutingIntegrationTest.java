@@ -0,0 +1,94 @@
+package backend_api.Backend.Integration;
+
+import backend_api.Backend.DTO.invoice.InvoiceSummaryResponse;
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.Repository.InvoiceRepository;
+import backend_api.Backend.Service.Interface.InvoiceService;
+import backend_api.Backend.messaging.service.CoreHubService;
+import backend_api.Backend.persistence.ReadReplicaRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica el cableado del router con JPA. La "réplica" apunta a la misma
+ * base H2 que el primario para que el esquema exista en ambos; el test
+ * unitario del router usa dos bases distintas.
+ */
+@SpringBootTest(properties = {
+        "persistence.read-replica.enabled=true",
+        "persistence.read-replica.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "persistence.read-replica.probe-interval=50ms"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    private static final long PROVIDER_ID = 8383L;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private CoreHubService coreHubService;
+
+    @AfterEach
+    void tearDown() {
+        invoiceRepository.deleteAll(invoiceRepository.findByProviderId(PROVIDER_ID, Pageable.unpaged()).getContent());
+    }
+
+    @Test
+    void testSummaryReadsFromReplicaAndWritesGoToPrimary() throws Exception {
+        // Given
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!readReplicaRouter.isReplicaAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(readReplicaRouter.isReplicaAvailable());
+
+        double writesBefore = routed("primary", "write");
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber("INV-REPLICA-1");
+        invoice.setPaymentId(1L);
+        invoice.setUserId(1L);
+        invoice.setProviderId(PROVIDER_ID);
+        invoice.setTotalAmount(BigDecimal.TEN);
+        invoice.setSubtotalAmount(BigDecimal.TEN);
+        invoice.setStatus(InvoiceStatus.PAID);
+        invoice.setCurrency("ARS");
+        invoice.setIssueDate(LocalDateTime.now());
+        invoiceRepository.save(invoice);
+        assertTrue(routed("primary", "write") > writesBefore);
+
+        // When
+        double replicaBefore = routed("replica", "replica");
+        InvoiceSummaryResponse summary = invoiceService.getInvoiceSummary(PROVIDER_ID);
+
+        // Then
+        assertEquals(1L, summary.getPaidInvoices());
+        assertEquals(replicaBefore + 1, routed("replica", "replica"));
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("datasource.routing.connections").tags("target", target, "reason", reason).counter().count();
+    }
+}
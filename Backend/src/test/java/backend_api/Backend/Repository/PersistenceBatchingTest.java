@@ -0,0 +1,118 @@
+package backend_api.Backend.Repository;
+
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import backend_api.Backend.Entity.payment.Payment;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Entity.payment.types.CreditCardPayment;
+import backend_api.Backend.Entity.payment.types.PaymentMethodType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles({"test", "persistence-perf"})
+class PersistenceBatchingTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private InvoiceLineRepository invoiceLineRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testSaveAllInvoiceLines_BatchesInserts() {
+        // Given
+        List<InvoiceLine> lines = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            InvoiceLine line = new InvoiceLine();
+            line.setInvoiceId(1L);
+            line.setDescription("Línea " + i);
+            line.setQuantity(1);
+            line.setUnitPrice(BigDecimal.TEN);
+            line.setLineNumber(i);
+            lines.add(line);
+        }
+
+        // When
+        invoiceLineRepository.saveAll(lines);
+        entityManager.flush();
+
+        // Then: 20 filas insertadas con un único INSERT en batch más las lecturas de la secuencia pooled
+        assertEquals(20, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Statements preparados: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindById_DoesNotJoinPaymentMethod() {
+        // Given
+        Long paymentId = persistPaymentWithMethod();
+        statistics.clear();
+
+        // When
+        Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+
+        // Then
+        assertFalse(Hibernate.isInitialized(payment.getMethod()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindByStatus_FetchesPaymentMethodInSameQuery() {
+        // Given
+        persistPaymentWithMethod();
+        persistPaymentWithMethod();
+        statistics.clear();
+
+        // When
+        List<Payment> payments = paymentRepository.findByStatus(PaymentStatus.PENDING_APPROVAL);
+        payments.forEach(p -> assertEquals(PaymentMethodType.CREDIT_CARD, p.getMethod().getType()));
+
+        // Then
+        assertEquals(2, payments.size());
+        assertTrue(payments.stream().allMatch(p -> Hibernate.isInitialized(p.getMethod())));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Long persistPaymentWithMethod() {
+        CreditCardPayment method = new CreditCardPayment();
+        method.setType(PaymentMethodType.CREDIT_CARD);
+        method = entityManager.persist(method);
+
+        Payment payment = new Payment();
+        payment.setStatus(PaymentStatus.PENDING_APPROVAL);
+        payment.setMethod(method);
+        payment = entityManager.persist(payment);
+
+        entityManager.flush();
+        entityManager.clear();
+        return payment.getId();
+    }
+}
@@ -0,0 +1,137 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateReadCoalescerTest {
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private SimpleMeterRegistry meterRegistry;
+    private AggregateReadCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new AggregateReadCoalescer(meterRegistry, Duration.ofMillis(500), 100, clock::get);
+    }
+
+    @Test
+    void testConcurrentIdenticalReadsShareOneExecution() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<BigDecimal> leader = executor.submit(() -> coalescer.load(AggregateReadCoalescer.Query.PAYMENT_TOTAL,
+                    "ADMIN", null, () -> {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return BigDecimal.TEN;
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            List<Future<BigDecimal>> followers = List.of(
+                    executor.submit(() -> coalescer.load(AggregateReadCoalescer.Query.PAYMENT_TOTAL, "ADMIN", null,
+                            () -> BigDecimal.valueOf(executions.incrementAndGet()))),
+                    executor.submit(() -> coalescer.load(AggregateReadCoalescer.Query.PAYMENT_TOTAL, "ADMIN", null,
+                            () -> BigDecimal.valueOf(executions.incrementAndGet()))));
+            while (meterRegistry.get("aggregates.reads").tags("query", "payment_total", "result", "coalesced")
+                    .counter().count() < 2) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // Then
+            assertEquals(BigDecimal.TEN, leader.get(5, TimeUnit.SECONDS));
+            for (Future<BigDecimal> follower : followers) {
+                assertEquals(BigDecimal.TEN, follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testResultIsReusedWithinTtlAndKeyedByRoleAndSubject() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        coalescer.load(AggregateReadCoalescer.Query.BALANCE, "USER", 1L, executions::incrementAndGet);
+
+        // When
+        Integer cached = coalescer.load(AggregateReadCoalescer.Query.BALANCE, "USER", 1L, executions::incrementAndGet);
+        coalescer.load(AggregateReadCoalescer.Query.BALANCE, "USER", 2L, executions::incrementAndGet);
+        clock.addAndGet(Duration.ofMillis(600).toNanos());
+        Integer expired = coalescer.load(AggregateReadCoalescer.Query.BALANCE, "USER", 1L, executions::incrementAndGet);
+
+        // Then
+        assertEquals(1, cached);
+        assertEquals(3, expired);
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void testStateChangesInvalidateAffectedQueries() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        coalescer.load(AggregateReadCoalescer.Query.PAYMENT_TOTAL, "USER", 1L, executions::incrementAndGet);
+        coalescer.load(AggregateReadCoalescer.Query.INVOICE_SUMMARY, null, 2L, executions::incrementAndGet);
+
+        // When
+        coalescer.onPaymentStatusChanged(new PaymentStatusChangedEvent(5L, PaymentStatus.PENDING_PAYMENT,
+                PaymentStatus.APPROVED, LocalDateTime.now()));
+
+        // Then
+        assertEquals(3, coalescer.load(AggregateReadCoalescer.Query.PAYMENT_TOTAL, "USER", 1L, executions::incrementAndGet));
+        assertEquals(2, coalescer.load(AggregateReadCoalescer.Query.INVOICE_SUMMARY, null, 2L, executions::incrementAndGet));
+
+        coalescer.onInvoiceChanged(new InvoiceChangedEvent(List.of(9L), InvoiceEventType.INVOICE_OVERDUE));
+        assertEquals(4, coalescer.load(AggregateReadCoalescer.Query.INVOICE_SUMMARY, null, 2L, executions::incrementAndGet));
+    }
+
+    @Test
+    void testFailuresAreNotCached() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> coalescer.load(AggregateReadCoalescer.Query.BALANCE, "USER", 1L,
+                () -> {
+                    executions.incrementAndGet();
+                    throw new IllegalStateException("db down");
+                }));
+
+        // Then
+        assertEquals(2, coalescer.load(AggregateReadCoalescer.Query.BALANCE, "USER", 1L, executions::incrementAndGet));
+        assertEquals(1, coalescer.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
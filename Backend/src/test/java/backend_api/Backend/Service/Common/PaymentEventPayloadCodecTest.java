@@ -0,0 +1,84 @@
+package backend_api.Backend.Service.Common;
+
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
+import backend_api.Backend.Entity.payment.PaymentEvent;
+import backend_api.Backend.Entity.payment.types.PaymentMethodType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentEventPayloadCodecTest {
+
+    private final PaymentEventPayloadCodec jsonCodec =
+            new PaymentEventPayloadCodec(new ObjectMapper(), PaymentEventPayloadCodec.Storage.JSON);
+    private final PaymentEventPayloadCodec smileCodec =
+            new PaymentEventPayloadCodec(new ObjectMapper(), PaymentEventPayloadCodec.Storage.SMILE);
+
+    @Test
+    void testJsonStorageWritesVersionedTextWithIsoDates() {
+        // Given
+        PaymentEvent event = new PaymentEvent();
+        LocalDateTime capturedAt = LocalDateTime.of(2026, 10, 19, 10, 15, 30);
+
+        // When
+        jsonCodec.write(event, new PaymentEventPayload.Captured("txn_1", capturedAt));
+
+        // Then
+        assertEquals("{\"v\":1,\"gateway_txn_id\":\"txn_1\",\"captured_at\":\"2026-10-19T10:15:30\"}", event.getPayload());
+        assertNull(event.getPayloadBinary());
+    }
+
+    @Test
+    void testSmileStorageIsSmallerAndDecodesLazilyToSameJson() {
+        // Given
+        PaymentEventPayload payload = new PaymentEventPayload.MatchingRequestReceived(
+                new BigDecimal("1500.50"), "ARS", 42L, "matching", "corr-123");
+        PaymentEvent jsonEvent = new PaymentEvent();
+        PaymentEvent smileEvent = new PaymentEvent();
+
+        // When
+        jsonCodec.write(jsonEvent, payload);
+        smileCodec.write(smileEvent, payload);
+
+        // Then
+        assertNotNull(smileEvent.getPayloadBinary());
+        assertTrue(smileEvent.getPayloadBinary().length < jsonEvent.getPayload().length());
+        assertEquals(jsonEvent.getPayload(), smileEvent.getPayload());
+    }
+
+    @Test
+    void testReadTreeFromEitherStorage() throws Exception {
+        // Given
+        PaymentEventPayload payload = new PaymentEventPayload.StatusChange("approved_automatically", PaymentMethodType.CASH);
+        PaymentEvent jsonEvent = new PaymentEvent();
+        PaymentEvent smileEvent = new PaymentEvent();
+        jsonCodec.write(jsonEvent, payload);
+        smileCodec.write(smileEvent, payload);
+
+        // When
+        JsonNode fromJson = jsonCodec.readTree(jsonEvent);
+        JsonNode fromSmile = jsonCodec.readTree(smileEvent);
+
+        // Then
+        assertEquals(fromJson, fromSmile);
+        assertEquals("CASH", fromSmile.get("method").asText());
+        assertNull(jsonCodec.readTree(new PaymentEvent()));
+    }
+
+    @Test
+    void testWriteJsonUsesCachedWriterForMaps() throws Exception {
+        // When
+        byte[] first = jsonCodec.writeJson(Map.of("paymentId", 1));
+        byte[] second = jsonCodec.writeJson(Map.of("paymentId", 2));
+
+        // Then
+        assertEquals("{\"paymentId\":1}", new String(first));
+        assertEquals("{\"paymentId\":2}", new String(second));
+    }
+}
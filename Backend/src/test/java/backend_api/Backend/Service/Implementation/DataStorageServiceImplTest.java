@@ -4,12 +4,15 @@ import backend_api.Backend.Entity.UserData;
 import backend_api.Backend.Repository.ProviderDataRepository;
 import backend_api.Backend.Repository.SolicitudDataRepository;
 import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.login.LoginIdentity;
+import backend_api.Backend.login.LoginIdentityChangedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -35,6 +38,9 @@ class DataStorageServiceImplTest {
     @Mock
     private SolicitudDataRepository solicitudDataRepository;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private DataStorageServiceImpl dataStorageService;
 
@@ -81,6 +87,7 @@ class DataStorageServiceImplTest {
         // Then
         verify(userDataRepository, times(1)).existsByUserId(userId);
         verify(userDataRepository, times(1)).deactivateByUserId(userId);
+        verify(applicationEventPublisher).publishEvent(new LoginIdentityChangedEvent(LoginIdentity.Kind.USER, userId, null));
     }
 
     @Test
@@ -243,6 +250,8 @@ class DataStorageServiceImplTest {
         verify(userDataRepository, times(1)).findByUserId(userId);
         verify(userDataRepository, times(1)).save(any(UserData.class));
         assertFalse(testUserData.getActive());
+        verify(applicationEventPublisher).publishEvent(
+                new LoginIdentityChangedEvent(LoginIdentity.Kind.USER, userId, "juan@example.com"));
     }
 }
 
@@ -3,6 +3,7 @@ package backend_api.Backend.Service.Implementation;
 import backend_api.Backend.DTO.invoice.InvoiceEventResponse;
 import backend_api.Backend.Entity.invoice.InvoiceEvent;
 import backend_api.Backend.Entity.invoice.InvoiceEventType;
+import backend_api.Backend.Repository.InvoiceEventArchiveRepository;
 import backend_api.Backend.Repository.InvoiceEventRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -29,6 +31,12 @@ class InvoiceEventServiceImplTest {
     @Mock
     private InvoiceEventRepository invoiceEventRepository;
 
+    @Mock
+    private InvoiceEventArchiveRepository invoiceEventArchiveRepository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private InvoiceEventServiceImpl invoiceEventService;
 
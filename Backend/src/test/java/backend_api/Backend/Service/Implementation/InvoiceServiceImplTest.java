@@ -10,17 +10,24 @@ import backend_api.Backend.Repository.PaymentRepository;
 import backend_api.Backend.Service.Interface.InvoiceEventService;
 import backend_api.Backend.Service.Common.EntityValidationService;
 import backend_api.Backend.Service.Common.InvoiceCalculationService;
+import backend_api.Backend.Service.Common.InvoiceResponseAssembler;
+import backend_api.Backend.document.InvoiceDocumentService;
+import backend_api.Backend.document.StoredDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -51,6 +58,15 @@ class InvoiceServiceImplTest {
     @Mock
     private InvoiceCalculationService invoiceCalculationService;
 
+    @Mock
+    private InvoiceDocumentService invoiceDocumentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private InvoiceResponseAssembler invoiceResponseAssembler;
+
     @InjectMocks
     private InvoiceServiceImpl invoiceService;
 
@@ -101,7 +117,7 @@ class InvoiceServiceImplTest {
     @Test
     void testCreateInvoice_Success() {
         // Given
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(testInvoice);
+        when(invoiceRepository.saveAndFlush(any(Invoice.class))).thenReturn(testInvoice);
 
         // When
         InvoiceResponse response = invoiceService.createInvoice(createRequest);
@@ -114,7 +130,7 @@ class InvoiceServiceImplTest {
         assertEquals(InvoiceStatus.PENDING, response.getStatus());
 
         verify(entityValidationService).getPaymentOrThrow(1L);
-        verify(invoiceRepository).save(any(Invoice.class));
+        verify(invoiceRepository).saveAndFlush(any(Invoice.class));
     }
 
     @Test
@@ -128,7 +144,7 @@ class InvoiceServiceImplTest {
         });
 
         verify(entityValidationService).getPaymentOrThrow(1L);
-        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(invoiceRepository, never()).saveAndFlush(any(Invoice.class));
     }
 
     @Test
@@ -244,6 +260,52 @@ class InvoiceServiceImplTest {
         verify(invoiceRepository).findByUserId(eq(userId), any(PageRequest.class));
     }
 
+    @Test
+    void testGetInvoicesByUserId_LoadsLinesForWholePageInOneQuery() {
+        // Given
+        Invoice secondInvoice = new Invoice();
+        secondInvoice.setId(2L);
+        secondInvoice.setUserId(1L);
+        Page<Invoice> invoicePage = new PageImpl<>(Arrays.asList(testInvoice, secondInvoice), PageRequest.of(0, 10), 2L);
+
+        InvoiceLine lineA = new InvoiceLine();
+        lineA.setInvoiceId(1L);
+        lineA.setLineNumber(1);
+        InvoiceLine lineB = new InvoiceLine();
+        lineB.setInvoiceId(2L);
+        lineB.setLineNumber(1);
+        InvoiceLine lineC = new InvoiceLine();
+        lineC.setInvoiceId(2L);
+        lineC.setLineNumber(2);
+
+        when(invoiceRepository.findByUserId(eq(1L), any(PageRequest.class))).thenReturn(invoicePage);
+        when(invoiceLineRepository.findByInvoiceIdInOrderByInvoiceIdAscLineNumberAsc(List.of(1L, 2L)))
+                .thenReturn(Arrays.asList(lineA, lineB, lineC));
+
+        // When
+        Page<InvoiceResponse> response = invoiceService.getInvoicesByUserId(1L, 0, 10);
+
+        // Then
+        assertEquals(1, response.getContent().get(0).getLines().size());
+        assertEquals(2, response.getContent().get(1).getLines().size());
+        assertEquals(2, response.getContent().get(1).getLines().get(1).getLineNumber());
+        verify(invoiceLineRepository, never()).findByInvoiceIdOrderByLineNumber(anyLong());
+    }
+
+    @Test
+    void testGetInvoicesByUserId_SummaryOnlySkipsLineQuery() {
+        // Given
+        Page<Invoice> invoicePage = new PageImpl<>(Arrays.asList(testInvoice), PageRequest.of(0, 10), 1L);
+        when(invoiceRepository.findByUserId(eq(1L), any(PageRequest.class))).thenReturn(invoicePage);
+
+        // When
+        Page<InvoiceResponse> response = invoiceService.getInvoicesByUserId(1L, 0, 10, false);
+
+        // Then
+        assertNull(response.getContent().get(0).getLines());
+        verifyNoInteractions(invoiceLineRepository);
+    }
+
     @Test
     void testGetInvoicesByStatus_Success() {
         // Given
@@ -293,6 +355,8 @@ class InvoiceServiceImplTest {
     void testGeneratePdf_Success() {
         // Given
         when(invoiceRepository.save(any(Invoice.class))).thenReturn(testInvoice);
+        when(invoiceDocumentService.getOrRender(eq(testInvoice), anyList()))
+                .thenReturn(new StoredDocument("a1b2c3d4e5f60718293a4b5c", Path.of("a1b2.pdf"), 1024L));
 
         // When
         String pdfUrl = invoiceService.generatePdf(1L);
@@ -302,8 +366,43 @@ class InvoiceServiceImplTest {
         assertTrue(pdfUrl.contains("invoice"));
         assertTrue(pdfUrl.contains("1"));
 
-        verify(entityValidationService).getInvoiceOrThrow(1L);
+        // Una lectura antes del render y otra en la transacción que guarda la URL
+        verify(entityValidationService, times(2)).getInvoiceOrThrow(1L);
         verify(invoiceRepository).save(any(Invoice.class));
+        verify(invoiceEventService).createEvent(eq(1L), eq(InvoiceEventType.PDF_GENERATED), anyString(), isNull());
+    }
+
+    @Test
+    void testGetPdfDocument_RendersAfterTheReadTransactionCommits() {
+        // Given
+        StoredDocument stored = new StoredDocument("a1b2c3d4e5f60718293a4b5c", Path.of("a1b2.pdf"), 1024L);
+        when(invoiceDocumentService.getOrRender(eq(testInvoice), anyList())).thenReturn(stored);
+
+        // When
+        StoredDocument document = invoiceService.getPdfDocument(1L);
+
+        // Then: la conexión se libera antes de esperar un lugar en el pool de render
+        assertSame(stored, document);
+        InOrder order = inOrder(entityValidationService, transactionManager, invoiceDocumentService);
+        order.verify(entityValidationService).getInvoiceOrThrow(1L);
+        order.verify(transactionManager).commit(any());
+        order.verify(invoiceDocumentService).getOrRender(eq(testInvoice), anyList());
+    }
+
+    @Test
+    void testRegeneratePdf_UnchangedContentKeepsUrl() {
+        // Given
+        testInvoice.setPdfUrl("/api/invoices/1/pdf/download?v=a1b2c3d4e5f6");
+        when(invoiceDocumentService.getOrRender(eq(testInvoice), anyList()))
+                .thenReturn(new StoredDocument("a1b2c3d4e5f60718293a4b5c", Path.of("a1b2.pdf"), 1024L));
+
+        // When
+        String pdfUrl = invoiceService.regeneratePdf(1L);
+
+        // Then
+        assertEquals("/api/invoices/1/pdf/download?v=a1b2c3d4e5f6", pdfUrl);
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(invoiceEventService, never()).createEvent(anyLong(), any(), anyString(), any());
     }
 
     @Test
@@ -317,7 +416,7 @@ class InvoiceServiceImplTest {
         testPayment.setCurrency("USD");
         testPayment.setAmount_total(BigDecimal.valueOf(100.00));
 
-        when(invoiceRepository.save(any(Invoice.class))).thenReturn(testInvoice);
+        when(invoiceRepository.saveAndFlush(any(Invoice.class))).thenReturn(testInvoice);
 
         // When
         InvoiceResponse response = invoiceService.createInvoiceFromPayment(paymentId);
@@ -328,7 +427,7 @@ class InvoiceServiceImplTest {
         assertEquals("INV-001", response.getInvoiceNumber());
 
         verify(entityValidationService, atLeastOnce()).getPaymentOrThrow(paymentId);
-        verify(invoiceRepository).save(any(Invoice.class));
+        verify(invoiceRepository).saveAndFlush(any(Invoice.class));
     }
 
     @Test
@@ -344,6 +443,6 @@ class InvoiceServiceImplTest {
         });
 
         verify(entityValidationService).getPaymentOrThrow(paymentId);
-        verify(invoiceRepository, never()).save(any(Invoice.class));
+        verify(invoiceRepository, never()).saveAndFlush(any(Invoice.class));
     }
 }
\ No newline at end of file
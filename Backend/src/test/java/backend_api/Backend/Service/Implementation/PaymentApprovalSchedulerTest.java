@@ -1,5 +1,6 @@
 package backend_api.Backend.Service.Implementation;
 
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentMethod;
 import backend_api.Backend.Entity.payment.PaymentStatus;
@@ -99,7 +100,7 @@ class PaymentApprovalSchedulerTest {
         // Then
         verify(paymentService).getPaymentsByStatus(PaymentStatus.PENDING_APPROVAL);
         verify(paymentService, never()).updatePaymentStatus(anyLong(), any(PaymentStatus.class));
-        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), anyString(), anyString());
+        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), any(PaymentEventPayload.class), anyString());
     }
 
     @Test
@@ -122,7 +123,7 @@ class PaymentApprovalSchedulerTest {
             verify(paymentEventService).createEvent(
                     eq(1L),
                     eq(PaymentEventType.PAYMENT_APPROVED),
-                    contains("auto_approved_by_bank"),
+                    argThat((PaymentEventPayload p) -> p instanceof PaymentEventPayload.BankApproval a && a.status().equals("auto_approved_by_bank")),
                     eq("bank_simulator")
             );
         }
@@ -148,7 +149,7 @@ class PaymentApprovalSchedulerTest {
             verify(paymentEventService).createEvent(
                     eq(1L),
                     eq(PaymentEventType.PAYMENT_REJECTED),
-                    contains("rejected_by_bank"),
+                    argThat((PaymentEventPayload p) -> p instanceof PaymentEventPayload.BankRejection r && r.status().equals("rejected_by_bank")),
                     eq("bank_simulator")
             );
         }
@@ -167,7 +168,7 @@ class PaymentApprovalSchedulerTest {
         // Then
         verify(paymentService).getPaymentsByStatus(PaymentStatus.PENDING_APPROVAL);
         verify(paymentService, never()).updatePaymentStatus(anyLong(), any(PaymentStatus.class));
-        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), anyString(), anyString());
+        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), any(PaymentEventPayload.class), anyString());
     }
 
     @Test
@@ -184,7 +185,7 @@ class PaymentApprovalSchedulerTest {
         // Then
         verify(paymentService).getPaymentsByStatus(PaymentStatus.PENDING_APPROVAL);
         verify(paymentService, never()).updatePaymentStatus(anyLong(), any(PaymentStatus.class));
-        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), anyString(), anyString());
+        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), any(PaymentEventPayload.class), anyString());
     }
 
     @Test
@@ -201,7 +202,7 @@ class PaymentApprovalSchedulerTest {
         // Then
         verify(paymentService).getPaymentsByStatus(PaymentStatus.PENDING_APPROVAL);
         verify(paymentService, never()).updatePaymentStatus(anyLong(), any(PaymentStatus.class));
-        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), anyString(), anyString());
+        verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), any(PaymentEventPayload.class), anyString());
     }
 
     @Test
@@ -223,7 +224,7 @@ class PaymentApprovalSchedulerTest {
             verify(paymentService).getPaymentsByStatus(PaymentStatus.PENDING_APPROVAL);
             verify(paymentService).updatePaymentStatus(1L, PaymentStatus.APPROVED);
             // Event service should not be called due to exception in payment update
-            verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), anyString(), anyString());
+            verify(paymentEventService, never()).createEvent(anyLong(), any(PaymentEventType.class), any(PaymentEventPayload.class), anyString());
         }
     }
 
@@ -254,7 +255,7 @@ class PaymentApprovalSchedulerTest {
             verify(paymentService).updatePaymentStatus(1L, PaymentStatus.APPROVED);
             verify(paymentService).updatePaymentStatus(3L, PaymentStatus.APPROVED);
             verify(paymentService, never()).updatePaymentStatus(2L, any(PaymentStatus.class));
-            verify(paymentEventService, times(2)).createEvent(anyLong(), any(PaymentEventType.class), anyString(), anyString());
+            verify(paymentEventService, times(2)).createEvent(anyLong(), any(PaymentEventType.class), any(PaymentEventPayload.class), anyString());
         }
     }
 
@@ -285,7 +286,7 @@ class PaymentApprovalSchedulerTest {
             verify(paymentEventService).createEvent(
                     eq(4L),
                     eq(PaymentEventType.PAYMENT_APPROVED),
-                    contains("auto_approved_by_bank"),
+                    argThat((PaymentEventPayload p) -> p instanceof PaymentEventPayload.BankApproval a && a.status().equals("auto_approved_by_bank")),
                     eq("bank_simulator")
             );
         }
@@ -1,7 +1,9 @@
 package backend_api.Backend.Service.Implementation;
 
 import backend_api.Backend.Entity.payment.PaymentAttempt;
+import backend_api.Backend.Entity.payment.PaymentAttemptArchive;
 import backend_api.Backend.Entity.payment.PaymentStatus;
+import backend_api.Backend.Repository.PaymentAttemptArchiveRepository;
 import backend_api.Backend.Repository.PaymentAttemptRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,6 +32,9 @@ class PaymentAttemptServiceImplTest {
     @Mock
     private PaymentAttemptRepository paymentAttemptRepository;
 
+    @Mock
+    private PaymentAttemptArchiveRepository paymentAttemptArchiveRepository;
+
     @InjectMocks
     private PaymentAttemptServiceImpl paymentAttemptService;
 
@@ -242,6 +247,41 @@ class PaymentAttemptServiceImplTest {
         verify(paymentAttemptRepository).countByPaymentId(paymentId);
     }
 
+    @Test
+    void testGetAttemptCount_IncludesArchivedAttempts() {
+        // Given
+        when(paymentAttemptRepository.countByPaymentId(paymentId)).thenReturn(1);
+        when(paymentAttemptArchiveRepository.countByPaymentId(paymentId)).thenReturn(2);
+
+        // When
+        Integer result = paymentAttemptService.getAttemptCount(paymentId);
+
+        // Then
+        assertEquals(3, result);
+    }
+
+    @Test
+    void testGetAttemptsByPaymentId_MergesArchivedAttempts() {
+        // Given
+        testAttempt.setAttemptNumber(3);
+        PaymentAttemptArchive archived = new PaymentAttemptArchive();
+        archived.setId(7L);
+        archived.setPaymentId(paymentId);
+        archived.setAttemptNumber(2);
+        archived.setStatus(PaymentStatus.REJECTED);
+        when(paymentAttemptRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId)).thenReturn(List.of(testAttempt));
+        when(paymentAttemptArchiveRepository.findByPaymentIdOrderByAttemptNumberDesc(paymentId)).thenReturn(List.of(archived));
+
+        // When
+        List<PaymentAttempt> result = paymentAttemptService.getAttemptsByPaymentId(paymentId);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(3, result.get(0).getAttemptNumber());
+        assertEquals(7L, result.get(1).getId());
+        assertEquals(PaymentStatus.REJECTED, result.get(1).getStatus());
+    }
+
     @Test
     void testGetSuccessfulAttempt_Found() {
         // Given
@@ -1,13 +1,20 @@
 package backend_api.Backend.Service.Implementation;
 
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
 import backend_api.Backend.Entity.payment.PaymentEvent;
+import backend_api.Backend.Entity.payment.PaymentEventArchive;
 import backend_api.Backend.Entity.payment.PaymentEventType;
+import backend_api.Backend.Repository.PaymentEventArchiveRepository;
 import backend_api.Backend.Repository.PaymentEventRepository;
+import backend_api.Backend.Service.Common.PaymentEventPayloadCodec;
+import backend_api.Backend.Entity.payment.types.PaymentMethodType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -30,6 +37,13 @@ class PaymentEventServiceImplTest {
     @Mock
     private PaymentEventRepository paymentEventRepository;
 
+    @Mock
+    private PaymentEventArchiveRepository paymentEventArchiveRepository;
+
+    @Spy
+    private PaymentEventPayloadCodec paymentEventPayloadCodec =
+            new PaymentEventPayloadCodec(new ObjectMapper(), PaymentEventPayloadCodec.Storage.JSON);
+
     @InjectMocks
     private PaymentEventServiceImpl paymentEventService;
 
@@ -74,6 +88,21 @@ class PaymentEventServiceImplTest {
         ));
     }
 
+    @Test
+    void testCreateEvent_TypedPayloadKeepsJsonKeys() {
+        // Given
+        when(paymentEventRepository.save(any(PaymentEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        PaymentEvent result = paymentEventService.createEvent(paymentId, PaymentEventType.PAYMENT_METHOD_UPDATED,
+                new PaymentEventPayload.MethodUpdated(PaymentMethodType.CREDIT_CARD, 7L), "user");
+
+        // Then
+        assertEquals("{\"v\":1,\"payment_method_type\":\"CREDIT_CARD\",\"payment_method_id\":7}", result.getPayload());
+        assertNull(result.getPayloadBinary());
+        assertEquals("SYSTEM", result.getEventSource());
+    }
+
     @Test
     void testCreateEvent_FullOverload() {
         // Given
@@ -116,6 +145,27 @@ class PaymentEventServiceImplTest {
         verify(paymentEventRepository).findByPaymentIdOrderByCreatedAt(paymentId);
     }
 
+    @Test
+    void testGetPaymentTimeline_MergesArchivedEvents() {
+        // Given
+        PaymentEventArchive archived = new PaymentEventArchive();
+        archived.setId(9L);
+        archived.setPaymentId(paymentId);
+        archived.setType(PaymentEventType.PAYMENT_PENDING);
+        archived.setActor(actor);
+        archived.setCreatedAt(testEvent.getCreatedAt().minusDays(200));
+        when(paymentEventRepository.findByPaymentIdOrderByCreatedAt(paymentId)).thenReturn(List.of(testEvent));
+        when(paymentEventArchiveRepository.findByPaymentIdOrderByCreatedAt(paymentId)).thenReturn(List.of(archived));
+
+        // When
+        List<PaymentEvent> result = paymentEventService.getPaymentTimeline(paymentId);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(9L, result.get(0).getId());
+        assertEquals(testEvent, result.get(1));
+    }
+
     @Test
     void testGetPaymentTimeline_EmptyResult() {
         // Given
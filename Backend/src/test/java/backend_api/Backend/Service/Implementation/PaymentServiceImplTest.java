@@ -4,17 +4,23 @@ import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Entity.payment.PaymentStatus;
 import backend_api.Backend.Entity.payment.types.CreditCardPayment;
 import backend_api.Backend.Repository.PaymentRepository;
+import backend_api.Backend.DTO.payment.PaymentEventPayload;
+import backend_api.Backend.Service.Common.PaymentMetadataCodec;
 import backend_api.Backend.Service.Interface.PaymentAttemptService;
 import backend_api.Backend.Service.Interface.PaymentEventService;
 import backend_api.Backend.messaging.publisher.PaymentStatusPublisher;
 import backend_api.Backend.messaging.publisher.PaymentMethodSelectedPublisher;
 import backend_api.Backend.messaging.publisher.PaymentTimelineEventPublisher;
+import backend_api.Backend.realtime.PaymentStatusChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -59,6 +65,12 @@ class PaymentServiceImplTest {
     @Mock
     private backend_api.Backend.Repository.UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private PaymentMetadataCodec paymentMetadataCodec = new PaymentMetadataCodec(new ObjectMapper());
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -370,6 +382,52 @@ class PaymentServiceImplTest {
         verify(paymentRepository).save(any(Payment.class));
     }
 
+    @Test
+    void testUpdatePaymentStatus_PublishesStatusChangedEvent() {
+        // Given
+        Long paymentId = 1L;
+        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
+
+        // When
+        paymentService.updatePaymentStatus(paymentId, PaymentStatus.PENDING_APPROVAL);
+
+        // Then
+        verify(applicationEventPublisher).publishEvent(new PaymentStatusChangedEvent(
+                paymentId, PaymentStatus.PENDING_PAYMENT, PaymentStatus.PENDING_APPROVAL, testPayment.getUpdated_at()));
+    }
+
+    @Test
+    void testUpdatePaymentStatus_PublishesMatchingIdFromColumn() {
+        // Given
+        testPayment.setMatchingId(77L);
+        testPayment.setMetadata("{\"matchingId\":77}");
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
+
+        // When
+        paymentService.updatePaymentStatus(1L, PaymentStatus.APPROVED);
+
+        // Then: la columna alcanza, no se vuelve a leer el JSON
+        verify(paymentStatusPublisher).publishPaymentStatusUpdate(argThat(message -> message.getMatchingId() == 77L));
+        verify(paymentMetadataCodec, never()).promote(any());
+    }
+
+    @Test
+    void testUpdatePaymentStatus_PromotesMatchingIdOfLegacyMetadata() {
+        // Given: pago anterior a la columna matching_id
+        testPayment.setMetadata("{\"matchingId\":88,\"origen\":\"matching\"}");
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
+
+        // When
+        paymentService.updatePaymentStatus(1L, PaymentStatus.APPROVED);
+
+        // Then
+        verify(paymentStatusPublisher).publishPaymentStatusUpdate(argThat(message -> message.getMatchingId() == 88L));
+        assertEquals(88L, testPayment.getMatchingId());
+    }
+
     @Test
     void testUpdatePaymentStatus_Approved_SetsCapturedAt() {
         // Given
@@ -501,7 +559,7 @@ class PaymentServiceImplTest {
         // Then
         assertNotNull(result);
         verify(paymentRepository, atLeastOnce()).findById(paymentId);
-        verify(paymentEventService, atLeastOnce()).createEvent(anyLong(), any(), anyString(), anyString());
+        verify(paymentEventService, atLeastOnce()).createEvent(anyLong(), any(), any(PaymentEventPayload.class), anyString());
         verify(paymentRepository).save(any(Payment.class));
     }
 
@@ -570,7 +628,7 @@ class PaymentServiceImplTest {
         assertNotNull(result);
         assertEquals(PaymentStatus.CANCELLED, result.getStatus());
         verify(paymentRepository, atLeastOnce()).findById(paymentId);
-        verify(paymentEventService).createEvent(anyLong(), any(), anyString(), anyString());
+        verify(paymentEventService).createEvent(anyLong(), any(), any(PaymentEventPayload.class), anyString());
         verify(paymentRepository).save(any(Payment.class));
     }
 
@@ -602,7 +660,7 @@ class PaymentServiceImplTest {
         assertNotNull(result);
         assertEquals(PaymentStatus.EXPIRED, result.getStatus());
         verify(paymentRepository, atLeastOnce()).findById(paymentId);
-        verify(paymentEventService).createEvent(anyLong(), any(), anyString(), anyString());
+        verify(paymentEventService).createEvent(anyLong(), any(), any(PaymentEventPayload.class), anyString());
         verify(paymentRepository).save(any(Payment.class));
     }
 
@@ -672,7 +730,7 @@ class PaymentServiceImplTest {
         // Then
         assertNotNull(result);
         verify(paymentAttemptService).hasExceededMaxAttempts(paymentId, maxAttempts);
-        verify(paymentEventService, times(3)).createEvent(anyLong(), any(), anyString(), anyString());
+        verify(paymentEventService, times(3)).createEvent(anyLong(), any(), any(PaymentEventPayload.class), anyString());
     }
 
     @Test
@@ -696,7 +754,7 @@ class PaymentServiceImplTest {
         when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(testPayment));
         when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
         // Mock createEvent to return a PaymentEvent (needed for the new logic)
-        when(paymentEventService.createEvent(anyLong(), any(), anyString(), anyString()))
+        when(paymentEventService.createEvent(anyLong(), any(), any(PaymentEventPayload.class), anyString()))
             .thenReturn(null);
 
         // When
@@ -706,7 +764,7 @@ class PaymentServiceImplTest {
         assertNotNull(result);
         verify(paymentRepository).findById(paymentId);
         // Now createEvent is called 2 times: once for PAYMENT_METHOD_UPDATED and once for PAYMENT_PENDING (for credit cards)
-        verify(paymentEventService, times(2)).createEvent(anyLong(), any(), anyString(), anyString());
+        verify(paymentEventService, times(2)).createEvent(anyLong(), any(), any(PaymentEventPayload.class), anyString());
         verify(paymentRepository, atLeastOnce()).save(any(Payment.class));
     }
 
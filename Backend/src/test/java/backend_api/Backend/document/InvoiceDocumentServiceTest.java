@@ -0,0 +1,110 @@
+package backend_api.Backend.document;
+
+import backend_api.Backend.Entity.invoice.Invoice;
+import backend_api.Backend.Entity.invoice.InvoiceLine;
+import backend_api.Backend.Entity.invoice.InvoiceStatus;
+import backend_api.Backend.Entity.invoice.InvoiceType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceDocumentServiceTest {
+
+    @TempDir
+    Path storeDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InvoiceDocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        documentService = new InvoiceDocumentService(new InvoicePdfRenderer(),
+                new LocalFileDocumentStore(storeDir.toString()), meterRegistry, 1, 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        documentService.shutdown();
+    }
+
+    @Test
+    void testGetOrRender_WritesValidPdfOnce() throws Exception {
+        // Given
+        Invoice invoice = createInvoice();
+        List<InvoiceLine> lines = List.of(createLine(1, "Consulta técnica"), createLine(2, "Repuestos"));
+
+        // When
+        StoredDocument first = documentService.getOrRender(invoice, lines);
+        StoredDocument second = documentService.getOrRender(invoice, lines);
+
+        // Then
+        byte[] content = Files.readAllBytes(first.path());
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        assertTrue(text.startsWith("%PDF-1.4"));
+        assertTrue(text.contains("INV-DOC-1"));
+        assertTrue(text.trim().endsWith("%%EOF"));
+        assertEquals(content.length, first.size());
+        assertEquals(first, second);
+        assertEquals(1.0, meterRegistry.get("invoice.documents.requests").tag("result", "miss").counter().count());
+        assertEquals(1.0, meterRegistry.get("invoice.documents.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testGetOrRender_ContentChangeProducesNewKey() {
+        // Given
+        Invoice invoice = createInvoice();
+        List<InvoiceLine> lines = List.of(createLine(1, "Consulta técnica"));
+        StoredDocument original = documentService.getOrRender(invoice, lines);
+
+        // When
+        invoice.setStatus(InvoiceStatus.PAID);
+        StoredDocument updated = documentService.getOrRender(invoice, lines);
+
+        // Then
+        assertNotEquals(original.key(), updated.key());
+        assertTrue(Files.exists(original.path()));
+        assertTrue(Files.exists(updated.path()));
+    }
+
+    private Invoice createInvoice() {
+        Invoice invoice = new Invoice();
+        invoice.setId(1L);
+        invoice.setInvoiceNumber("INV-DOC-1");
+        invoice.setPaymentId(10L);
+        invoice.setUserId(20L);
+        invoice.setProviderId(30L);
+        invoice.setType(InvoiceType.PROFORMA);
+        invoice.setStatus(InvoiceStatus.PENDING);
+        invoice.setCurrency("ARS");
+        invoice.setSubtotalAmount(new BigDecimal("150.00"));
+        invoice.setTaxAmount(new BigDecimal("31.50"));
+        invoice.setTotalAmount(new BigDecimal("181.50"));
+        invoice.setIssueDate(LocalDateTime.of(2025, 1, 10, 12, 0));
+        invoice.setDueDate(LocalDateTime.of(2025, 2, 10, 12, 0));
+        return invoice;
+    }
+
+    private InvoiceLine createLine(int number, String description) {
+        InvoiceLine line = new InvoiceLine();
+        line.setInvoiceId(1L);
+        line.setLineNumber(number);
+        line.setDescription(description);
+        line.setQuantity(1);
+        line.setUnitPrice(new BigDecimal("75.00"));
+        line.setTotalAmount(new BigDecimal("75.00"));
+        return line;
+    }
+}
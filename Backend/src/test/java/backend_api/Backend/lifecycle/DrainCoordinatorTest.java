@@ -0,0 +1,156 @@
+package backend_api.Backend.lifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DrainCoordinatorTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<PendingWorkFlusher> flushers;
+
+    @Mock
+    private PendingWorkFlusher flusher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DrainCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coordinator = new DrainCoordinator(eventPublisher, flushers, meterRegistry,
+                Duration.ZERO, Duration.ofSeconds(2), Duration.ofSeconds(1));
+        coordinator.start();
+    }
+
+    @Test
+    void testDrainRefusesTrafficAndFlushesPendingWork() {
+        // Given
+        when(flushers.orderedStream()).thenReturn(Stream.of(flusher));
+
+        // When
+        coordinator.stop();
+
+        // Then
+        ArgumentCaptor<AvailabilityChangeEvent<?>> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, event.getValue().getState());
+        verify(flusher).flushPending(Duration.ofSeconds(1));
+        assertTrue(coordinator.isDraining());
+        assertFalse(coordinator.isRunning());
+    }
+
+    @Test
+    void testScheduledWorkIsNotClaimedWhileDraining() {
+        // Given
+        when(flushers.orderedStream()).thenReturn(Stream.empty());
+        coordinator.stop();
+
+        // When
+        Optional<DrainCoordinator.Work> claim = coordinator.claimScheduled("payment-approval");
+
+        // Then
+        assertTrue(claim.isEmpty());
+        assertEquals(0, coordinator.getInFlight(DrainCoordinator.WorkKind.SCHEDULED));
+        assertEquals(1.0, meterRegistry.get("lifecycle.scheduled.skipped").tag("job", "payment-approval")
+                .counter().count());
+    }
+
+    @Test
+    void testDrainWaitsForWorkInFlight() throws Exception {
+        // Given: una iteración de scheduler y una publicación al CORE en curso
+        when(flushers.orderedStream()).thenReturn(Stream.of(flusher));
+        DrainCoordinator.Work batch = coordinator.claimScheduled("payment-expiry").orElseThrow();
+        DrainCoordinator.Work publish = coordinator.track(DrainCoordinator.WorkKind.PUBLISH);
+        CountDownLatch drained = new CountDownLatch(1);
+        Thread stopper = new Thread(() -> {
+            coordinator.stop();
+            drained.countDown();
+        });
+
+        // When
+        stopper.start();
+        Thread.sleep(100);
+        boolean drainedBeforeRelease = drained.getCount() == 0;
+        batch.close();
+        publish.close();
+        publish.close();
+
+        // Then: termina recién cuando se libera todo, y el flush viene después
+        assertFalse(drainedBeforeRelease);
+        assertTrue(drained.await(2, TimeUnit.SECONDS));
+        verify(flusher).flushPending(any());
+        assertEquals(0, coordinator.getInFlight(DrainCoordinator.WorkKind.PUBLISH));
+    }
+
+    @Test
+    void testDrainGivesUpAfterTimeout() {
+        // Given
+        coordinator = new DrainCoordinator(eventPublisher, flushers, meterRegistry,
+                Duration.ZERO, Duration.ofMillis(100), Duration.ofSeconds(1));
+        when(flushers.orderedStream()).thenReturn(Stream.of(flusher));
+        coordinator.track(DrainCoordinator.WorkKind.REQUEST);
+
+        // When
+        long start = System.nanoTime();
+        coordinator.drain();
+
+        // Then: no se cuelga y los buffers se vacían igual
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        verify(flusher).flushPending(any());
+        assertEquals(1, coordinator.getInFlight(DrainCoordinator.WorkKind.REQUEST));
+    }
+
+    @Test
+    void testRequestFilterTracksRequestAndClosesConnectionWhileDraining() throws Exception {
+        // Given
+        InFlightRequestFilter filter = new InFlightRequestFilter(coordinator);
+        int[] inFlightDuringChain = new int[1];
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                inFlightDuringChain[0] = coordinator.getInFlight(DrainCoordinator.WorkKind.REQUEST);
+            }
+        });
+        when(flushers.orderedStream()).thenReturn(Stream.empty());
+        coordinator.stop();
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/payments/my-payments"), response, chain);
+
+        // Then: se atiende igual, pero el cliente no reusa la conexión
+        assertEquals(200, response.getStatus());
+        assertEquals("close", response.getHeader("Connection"));
+        assertEquals(1, inFlightDuringChain[0]);
+        assertEquals(0, coordinator.getInFlight(DrainCoordinator.WorkKind.REQUEST));
+    }
+}
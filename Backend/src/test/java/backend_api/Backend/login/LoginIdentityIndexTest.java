@@ -0,0 +1,127 @@
+package backend_api.Backend.login;
+
+import backend_api.Backend.Entity.ProviderData;
+import backend_api.Backend.Entity.UserData;
+import backend_api.Backend.Entity.user.User;
+import backend_api.Backend.Entity.user.UserRole;
+import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.Repository.UserDataRepository;
+import backend_api.Backend.Repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginIdentityIndexTest {
+
+    @Mock
+    private UserDataRepository userDataRepository;
+
+    @Mock
+    private ProviderDataRepository providerDataRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AtomicLong clock = new AtomicLong();
+    private LoginIdentityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LoginIdentityIndex(userDataRepository, providerDataRepository, userRepository,
+                new SimpleMeterRegistry(), Duration.ofSeconds(30), 2, clock::get);
+    }
+
+    @Test
+    void testSyncedUserHasPriorityAndIsServedFromCache() {
+        // Given
+        when(userDataRepository.findFirstByEmail("ana@test.com")).thenReturn(Optional.of(userData(10L, "ana@test.com")));
+
+        // When
+        LoginIdentity first = index.resolve("ana@test.com").orElseThrow();
+        LoginIdentity second = index.resolve("ana@test.com").orElseThrow();
+
+        // Then
+        assertEquals(LoginIdentity.Kind.USER, first.kind());
+        assertEquals(10L, first.id());
+        assertSame(first, second);
+        verify(userDataRepository, times(1)).findFirstByEmail("ana@test.com");
+        verifyNoInteractions(providerDataRepository, userRepository);
+    }
+
+    @Test
+    void testFallsBackToProvidersThenLocalUsers() {
+        // Given
+        ProviderData provider = new ProviderData();
+        provider.setProviderId(20L);
+        provider.setEmail("prov@test.com");
+        provider.setActive(true);
+        User local = new User();
+        local.setId(30L);
+        local.setEmail("local@test.com");
+        local.setPassword("hash");
+        local.setRole(UserRole.ADMIN);
+        when(userDataRepository.findFirstByEmail(anyString())).thenReturn(Optional.empty());
+        when(providerDataRepository.findByEmail("prov@test.com")).thenReturn(Optional.of(provider));
+        when(providerDataRepository.findByEmail("local@test.com")).thenThrow(new IllegalStateException("query did not return a unique result"));
+        when(userRepository.findByEmail("local@test.com")).thenReturn(Optional.of(local));
+
+        // When
+        LoginIdentity providerIdentity = index.resolve("prov@test.com").orElseThrow();
+        LoginIdentity localIdentity = index.resolve("local@test.com").orElseThrow();
+
+        // Then
+        assertEquals(LoginIdentity.Kind.PROVIDER, providerIdentity.kind());
+        assertEquals("MERCHANT", providerIdentity.role());
+        assertEquals(LoginIdentity.Kind.LOCAL, localIdentity.kind());
+        assertEquals("ADMIN", localIdentity.role());
+        assertEquals("hash", localIdentity.passwordHash());
+        assertFalse(localIdentity.toString().contains("hash"));
+    }
+
+    @Test
+    void testUnknownEmailsAreNotCached() {
+        // When
+        assertTrue(index.resolve("nadie@test.com").isEmpty());
+        assertTrue(index.resolve("nadie@test.com").isEmpty());
+
+        // Then
+        verify(userRepository, times(2)).findByEmail("nadie@test.com");
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testEntriesExpireAndAreInvalidatedById() {
+        // Given
+        when(userDataRepository.findFirstByEmail("ana@test.com")).thenReturn(Optional.of(userData(10L, "ana@test.com")));
+        index.resolve("ana@test.com");
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        index.resolve("ana@test.com");
+        index.onIdentityChanged(new LoginIdentityChangedEvent(LoginIdentity.Kind.USER, 10L, null));
+
+        // Then
+        assertEquals(0, index.size());
+        verify(userDataRepository, times(2)).findFirstByEmail("ana@test.com");
+    }
+
+    private UserData userData(Long userId, String email) {
+        UserData userData = new UserData();
+        userData.setUserId(userId);
+        userData.setEmail(email);
+        userData.setRole("CLIENTE");
+        userData.setActive(true);
+        return userData;
+    }
+}
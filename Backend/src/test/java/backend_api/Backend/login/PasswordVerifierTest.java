@@ -0,0 +1,82 @@
+package backend_api.Backend.login;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PasswordVerifierTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordVerifier verifier;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        verifier.shutdown();
+    }
+
+    @Test
+    void testMatchesRunsOnThePool() {
+        // Given
+        verifier = new PasswordVerifier(passwordEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+        when(passwordEncoder.matches("secreto", "hash")).thenAnswer(invocation ->
+                Thread.currentThread().getName().startsWith("login-bcrypt-"));
+
+        // Then
+        assertTrue(verifier.matches("secreto", "hash"));
+        assertEquals(1, meterRegistry.get("auth.login.bcrypt").timer().count());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        // Given: un hilo ocupado y la cola (1) llena
+        verifier = new PasswordVerifier(passwordEncoder, meterRegistry, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.matches(anyString(), eq("hash"))).thenAnswer(invocation -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> verifier.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> verifier.matches("b", "hash"));
+        waitForQueue(1);
+
+        // When / Then
+        assertThrows(LoginBusyException.class, () -> verifier.matches("c", "hash"));
+        assertEquals(1.0, meterRegistry.get("auth.login.bcrypt.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectsWhenVerificationTimesOut() {
+        // Given
+        verifier = new PasswordVerifier(passwordEncoder, meterRegistry, 1, 1, Duration.ofMillis(50));
+        when(passwordEncoder.matches("secreto", "hash")).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+
+        // Then
+        assertThrows(LoginBusyException.class, () -> verifier.matches("secreto", "hash"));
+    }
+
+    private void waitForQueue(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.login.bcrypt.queue").gauge().value() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package backend_api.Backend.login;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedCredentialCacheTest {
+
+    private static final LoginIdentity ANA =
+            new LoginIdentity(LoginIdentity.Kind.USER, 10L, "ana@test.com", "Ana", "CLIENTE", true, null);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final VerifiedCredentialCache cache =
+            new VerifiedCredentialCache(new SimpleMeterRegistry(), Duration.ofMinutes(2), 100, "pepper", clock::get);
+
+    @Test
+    void testMatchesOnlyTheVerifiedPasswordOfTheSameAccount() {
+        // Given
+        cache.put(ANA, "secreto1");
+
+        // Then
+        assertTrue(cache.matches(ANA, "secreto1"));
+        assertFalse(cache.matches(ANA, "secreto2"));
+        // El email pasó a otra cuenta
+        assertFalse(cache.matches(new LoginIdentity(LoginIdentity.Kind.PROVIDER, 10L, "ana@test.com",
+                "Ana", "MERCHANT", true, null), "secreto1"));
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        // Given
+        cache.put(ANA, "secreto1");
+
+        // When
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        // Then
+        assertFalse(cache.matches(ANA, "secreto1"));
+    }
+
+    @Test
+    void testIdentityChangeDropsEntriesByEmailOrId() {
+        // Given
+        cache.put(ANA, "secreto1");
+        cache.put(new LoginIdentity(LoginIdentity.Kind.PROVIDER, 20L, "prov@test.com", "Prov", "MERCHANT", true, null), "x");
+
+        // When
+        cache.onIdentityChanged(new LoginIdentityChangedEvent(LoginIdentity.Kind.USER, 10L, null));
+        cache.onIdentityChanged(new LoginIdentityChangedEvent(LoginIdentity.Kind.PROVIDER, null, "prov@test.com"));
+
+        // Then
+        assertEquals(0, cache.size());
+        assertFalse(cache.matches(ANA, "secreto1"));
+    }
+}
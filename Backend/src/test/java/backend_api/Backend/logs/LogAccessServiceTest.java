@@ -0,0 +1,203 @@
+package backend_api.Backend.logs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogAccessServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    private LogAccessService logAccessService;
+
+    @BeforeEach
+    void setUp() {
+        logFile = dir.resolve("application.log");
+        logAccessService = new LogAccessService(new SimpleMeterRegistry(), logFile.toString(), 1024,
+                100, DataSize.ofMegabytes(1), 50, Duration.ofSeconds(5), 200,
+                1, Duration.ofMillis(50), 100, Duration.ofSeconds(15), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        logAccessService.shutdown();
+    }
+
+    @Test
+    void testTail_ReturnsLastLinesInOrder() throws Exception {
+        // Given
+        writeLines(logFile, 500, "INFO evento");
+
+        // When
+        List<String> lines = logAccessService.tail(3, null);
+
+        // Then
+        assertEquals(List.of("INFO evento 497", "INFO evento 498", "INFO evento 499"), lines);
+    }
+
+    @Test
+    void testTail_CapsLinesAndAppliesFilter() throws Exception {
+        // Given
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            content.append(i % 3 == 0 ? "ERROR fallo " : "DEBUG ruido ").append(i).append('\n');
+        }
+        Files.writeString(logFile, content.toString());
+
+        // When
+        List<String> errors = logAccessService.tail(2, Pattern.compile("ERROR"));
+        List<String> capped = logAccessService.tail(10_000, null);
+
+        // Then
+        assertEquals(List.of("ERROR fallo 294", "ERROR fallo 297"), errors);
+        assertEquals(100, capped.size());
+    }
+
+    @Test
+    void testSearch_StreamsMatchesFromCurrentThenRotatedFiles() throws Exception {
+        // Given
+        Path older = dir.resolve("application.log.2026-10-17.0.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(older))) {
+            out.write("INFO viejo\nWARN Pago 1 rechazado\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.setLastModifiedTime(older, FileTime.fromMillis(System.currentTimeMillis() - 172_800_000L));
+        Path newer = dir.resolve("application.log.2026-10-18.0.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(newer))) {
+            out.write("WARN pago 2 rechazado\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.setLastModifiedTime(newer, FileTime.fromMillis(System.currentTimeMillis() - 86_400_000L));
+        Files.writeString(logFile, "INFO inicio\nWARN PAGO 3 rechazado\n");
+        StringWriter out = new StringWriter();
+
+        // When
+        LogAccessService.SearchSummary summary =
+                logAccessService.search(logAccessService.compile("pago", false), 10, true, out);
+
+        // Then
+        assertEquals(3, summary.matches());
+        assertEquals(3, summary.files());
+        assertFalse(summary.truncated());
+        assertEquals("application.log:2: WARN PAGO 3 rechazado\n"
+                + "application.log.2026-10-18.0.gz:1: WARN pago 2 rechazado\n"
+                + "application.log.2026-10-17.0.gz:2: WARN Pago 1 rechazado\n", out.toString());
+    }
+
+    @Test
+    void testSearch_StopsAtMaxMatches() throws Exception {
+        // Given
+        writeLines(logFile, 1000, "ERROR fallo");
+        StringWriter out = new StringWriter();
+
+        // When
+        LogAccessService.SearchSummary summary =
+                logAccessService.search(logAccessService.compile("fallo \\d+0$", true), 500, false, out);
+
+        // Then: max se acota a logs.search.max-matches
+        assertEquals(50, summary.matches());
+        assertTrue(summary.truncated());
+        assertEquals(50, out.toString().lines().count());
+        assertTrue(out.toString().startsWith("application.log:11: ERROR fallo 10\n"));
+    }
+
+    @Test
+    void testCompile_RejectsInvalidQueries() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> logAccessService.compile(" ", false));
+        assertThrows(IllegalArgumentException.class, () -> logAccessService.compile("x".repeat(201), false));
+        assertThrows(PatternSyntaxException.class, () -> logAccessService.compile("(sin cerrar", true));
+        assertTrue(logAccessService.compile("a.b", false).matcher("A.B").find());
+        assertFalse(logAccessService.compile("a.b", false).matcher("axb").find());
+    }
+
+    @Test
+    void testFollow_RejectsConnectionsOverTheLimit() throws Exception {
+        // Given
+        writeLines(logFile, 5, "INFO evento");
+
+        // When
+        boolean first = logAccessService.follow(null, 0).isPresent();
+        boolean second = logAccessService.follow(null, 0).isPresent();
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+    }
+
+    @Test
+    void testTail_StopsCatastrophicRegexAtTheSearchTimeout() throws Exception {
+        // Given
+        Files.writeString(logFile, "ERROR fallo\n" + "a".repeat(40) + "!\n");
+        LogAccessService service = withSearchTimeout(Duration.ofMillis(200));
+
+        try {
+            // When
+            long start = System.nanoTime();
+            List<String> lines = service.tail(10, service.compile("(.*a){25}$", true));
+
+            // Then
+            assertTrue(lines.isEmpty());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testFollow_ClosesFollowerWhoseFilterExceedsTheSearchTimeout() throws Exception {
+        // Given
+        writeLines(logFile, 5, "INFO evento");
+        LogAccessService service = withSearchTimeout(Duration.ofMillis(200));
+
+        try {
+            assertTrue(service.follow(service.compile("(.*a){25}$", true), 0).isPresent());
+            assertFalse(service.follow(null, 0).isPresent());
+
+            // When
+            Files.writeString(logFile, "a".repeat(40) + "!\n", StandardOpenOption.APPEND);
+
+            // Then: el seguidor se cierra y libera su lugar
+            boolean reopened = false;
+            for (int i = 0; i < 100 && !reopened; i++) {
+                Thread.sleep(50);
+                reopened = service.follow(null, 0).isPresent();
+            }
+            assertTrue(reopened);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private LogAccessService withSearchTimeout(Duration searchTimeout) {
+        return new LogAccessService(new SimpleMeterRegistry(), logFile.toString(), 1024,
+                100, DataSize.ofMegabytes(1), 50, searchTimeout, 200,
+                1, Duration.ofMillis(50), 100, Duration.ofSeconds(15), Duration.ofMinutes(1));
+    }
+
+    private static void writeLines(Path file, int count, String prefix) throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            content.append(prefix).append(' ').append(i).append('\n');
+        }
+        Files.writeString(file, content.toString());
+    }
+}
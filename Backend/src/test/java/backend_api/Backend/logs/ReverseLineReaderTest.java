@@ -0,0 +1,107 @@
+package backend_api.Backend.logs;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReverseLineReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadLine_ReturnsLinesFromLastToFirstAcrossBlocks() throws Exception {
+        // Given: más de un bloque de 8 KB, con salto de línea final y CRLF
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append("línea ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path file = write(content.toString());
+
+        // When
+        List<String> lines = readAll(file, 1024);
+
+        // Then
+        assertEquals(2000, lines.size());
+        assertEquals("línea 1999", lines.get(0));
+        assertEquals("línea 1000", lines.get(999));
+        assertEquals("línea 0", lines.get(1999));
+    }
+
+    @Test
+    void testReadLine_KeepsEmptyLinesAndLastLineWithoutNewline() throws Exception {
+        // Given
+        Path file = write("primera\n\ntercera");
+
+        // When
+        List<String> lines = readAll(file, 1024);
+
+        // Then
+        assertEquals(List.of("tercera", "", "primera"), lines);
+    }
+
+    @Test
+    void testReadLine_EmptyFile() throws Exception {
+        // Given
+        Path file = write("");
+
+        // When & Then
+        assertTrue(readAll(file, 1024).isEmpty());
+    }
+
+    @Test
+    void testReadLine_TruncatesLongLinesKeepingTheEnd() throws Exception {
+        // Given
+        Path file = write("corta\n" + "x".repeat(50_000) + "FIN\n");
+
+        // When
+        List<String> lines = readAll(file, 16);
+
+        // Then
+        assertEquals(2, lines.size());
+        assertEquals("…" + "x".repeat(13) + "FIN", lines.get(0));
+        assertEquals("corta", lines.get(1));
+    }
+
+    @Test
+    void testBoundedLineReader_ReadsForwardAndReportsUnterminatedLastLine() throws Exception {
+        // Given
+        byte[] content = ("uno\r\n" + "y".repeat(100) + "\nparcial").getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        try (BoundedLineReader reader = new BoundedLineReader(new ByteArrayInputStream(content), 10)) {
+            assertEquals("uno", reader.readLine());
+            assertTrue(reader.lastLineTerminated());
+            assertEquals("y".repeat(10) + "…", reader.readLine());
+            assertEquals(106, reader.bytesRead());
+            assertEquals("parcial", reader.readLine());
+            assertFalse(reader.lastLineTerminated());
+            assertNull(reader.readLine());
+        }
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = dir.resolve("application.log");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<String> readAll(Path file, int maxLineBytes) throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (ReverseLineReader reader = new ReverseLineReader(file, maxLineBytes)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -26,12 +27,13 @@ public class DataStorageServiceImplTest {
     @Mock private UserDataRepository userDataRepository;
     @Mock private ProviderDataRepository providerDataRepository;
     @Mock private SolicitudDataRepository solicitudDataRepository;
+    @Mock private ApplicationEventPublisher applicationEventPublisher;
 
     private DataStorageServiceImpl service;
 
     @BeforeEach
     void setUp() {
-        service = new DataStorageServiceImpl(userDataRepository, providerDataRepository, solicitudDataRepository);
+        service = new DataStorageServiceImpl(userDataRepository, providerDataRepository, solicitudDataRepository, applicationEventPublisher);
     }
 
     @Test
@@ -5,14 +5,17 @@ import backend_api.Backend.Entity.ProviderData;
 import backend_api.Backend.Entity.payment.Payment;
 import backend_api.Backend.Repository.UserDataRepository;
 import backend_api.Backend.Repository.ProviderDataRepository;
+import backend_api.Backend.Service.Common.PaymentMetadataCodec;
 import backend_api.Backend.Service.Interface.PaymentService;
 import backend_api.Backend.messaging.dto.PaymentRequestMessage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -35,8 +38,8 @@ class PaymentRequestProcessorServiceTest {
     @Mock
     private PaymentService paymentService;
 
-    @Mock
-    private ObjectMapper objectMapper;
+    @Spy
+    private PaymentMetadataCodec paymentMetadataCodec = new PaymentMetadataCodec(new ObjectMapper());
 
     @InjectMocks
     private PaymentRequestProcessorService paymentRequestProcessorService;
@@ -79,13 +82,6 @@ class PaymentRequestProcessorServiceTest {
         mockPayment.setCreated_at(java.time.LocalDateTime.now());
         when(paymentService.createPayment(any(Payment.class))).thenReturn(mockPayment);
         
-        // Mock ObjectMapper
-        try {
-            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        } catch (Exception e) {
-            // This won't happen in tests
-        }
-
         // When
         Map<String, Object> result = paymentRequestProcessorService.processPaymentRequest(message);
 
@@ -98,7 +94,13 @@ class PaymentRequestProcessorServiceTest {
         // Verificar que se buscó en los repositorios
         verify(userDataRepository).findByUserId(999L);
         verify(providerDataRepository).findByProviderId(1L);
-        verify(paymentService).createPayment(any(Payment.class));
+
+        // La metadata queda en JSON y las claves consultadas en sus columnas
+        ArgumentCaptor<Payment> saved = ArgumentCaptor.forClass(Payment.class);
+        verify(paymentService).createPayment(saved.capture());
+        assertEquals("PED-TEST-123", saved.getValue().getIdCorrelacion());
+        assertTrue(saved.getValue().getMetadata().contains("\"userEmail\":\"usuario@test.com\""));
+        assertTrue(saved.getValue().getMetadata().contains("\"metodoPreferido\""));
     }
 
     @Test
@@ -115,13 +117,6 @@ class PaymentRequestProcessorServiceTest {
         mockPayment.setCreated_at(java.time.LocalDateTime.now());
         when(paymentService.createPayment(any(Payment.class))).thenReturn(mockPayment);
         
-        // Mock ObjectMapper
-        try {
-            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        } catch (Exception e) {
-            // This won't happen in tests
-        }
-
         // When
         Map<String, Object> result = paymentRequestProcessorService.processPaymentRequest(message);
 
@@ -151,13 +146,6 @@ class PaymentRequestProcessorServiceTest {
         mockPayment.setCreated_at(java.time.LocalDateTime.now());
         when(paymentService.createPayment(any(Payment.class))).thenReturn(mockPayment);
         
-        // Mock ObjectMapper
-        try {
-            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        } catch (Exception e) {
-            // This won't happen in tests
-        }
-
         // When
         Map<String, Object> result = paymentRequestProcessorService.processPaymentRequest(message);
 
@@ -202,13 +190,6 @@ class PaymentRequestProcessorServiceTest {
         mockPayment.setCreated_at(java.time.LocalDateTime.now());
         when(paymentService.createPayment(any(Payment.class))).thenReturn(mockPayment);
         
-        // Mock ObjectMapper
-        try {
-            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
-        } catch (Exception e) {
-            // This won't happen in tests
-        }
-
         // When
         Map<String, Object> result = paymentRequestProcessorService.processPaymentRequest(message);
 
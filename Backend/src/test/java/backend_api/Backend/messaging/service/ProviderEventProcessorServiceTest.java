@@ -5,6 +5,7 @@ import backend_api.Backend.Repository.ProviderDataRepository;
 import backend_api.Backend.messaging.dto.CoreEventMessage;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Map;
@@ -22,7 +23,7 @@ class ProviderEventProcessorServiceTest {
         ProviderDataRepository repo = mock(ProviderDataRepository.class);
         when(repo.findByProviderId(1L)).thenReturn(Optional.empty());
 
-        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo);
+        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo, mock(ApplicationEventPublisher.class));
 
         CoreEventMessage m = new CoreEventMessage();
         CoreEventMessage.Destination d = new CoreEventMessage.Destination();
@@ -72,7 +73,7 @@ class ProviderEventProcessorServiceTest {
         ProviderDataRepository repo = mock(ProviderDataRepository.class);
         when(repo.findByProviderId(2L)).thenReturn(Optional.of(existente));
 
-        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo);
+        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo, mock(ApplicationEventPublisher.class));
 
         CoreEventMessage m = new CoreEventMessage();
         CoreEventMessage.Destination d = new CoreEventMessage.Destination();
@@ -92,7 +93,7 @@ class ProviderEventProcessorServiceTest {
         ProviderDataRepository repo = mock(ProviderDataRepository.class);
         when(repo.findByProviderId(3L)).thenReturn(Optional.empty());
 
-        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo);
+        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo, mock(ApplicationEventPublisher.class));
 
         CoreEventMessage m = new CoreEventMessage();
         CoreEventMessage.Destination d = new CoreEventMessage.Destination();
@@ -111,7 +112,7 @@ class ProviderEventProcessorServiceTest {
     @Test
     void ignora_evento_desconocido_y_no_guarda() {
         ProviderDataRepository repo = mock(ProviderDataRepository.class);
-        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo);
+        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo, mock(ApplicationEventPublisher.class));
 
         CoreEventMessage m = new CoreEventMessage();
         CoreEventMessage.Destination d = new CoreEventMessage.Destination();
@@ -127,7 +128,7 @@ class ProviderEventProcessorServiceTest {
     @Test
     void si_falta_id_no_hace_nada() {
         ProviderDataRepository repo = mock(ProviderDataRepository.class);
-        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo);
+        ProviderEventProcessorService svc = new ProviderEventProcessorService(repo, mock(ApplicationEventPublisher.class));
 
         CoreEventMessage m = new CoreEventMessage();
         CoreEventMessage.Destination d = new CoreEventMessage.Destination();
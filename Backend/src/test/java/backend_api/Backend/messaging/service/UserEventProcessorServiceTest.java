@@ -2,6 +2,7 @@ package backend_api.Backend.messaging.service;
 
 import backend_api.Backend.Service.Implementation.DataStorageServiceImpl;
 import backend_api.Backend.messaging.dto.CoreEventMessage;
+import backend_api.Backend.sync.UserSyncPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ class UserEventProcessorServiceTest {
     // Repos no se usan directamente en estos métodos, pero están en el constructor
     @Mock private backend_api.Backend.Repository.ProviderDataRepository providerDataRepository;
     @Mock private backend_api.Backend.Repository.UserDataRepository userDataRepository;
+    @Mock private UserSyncPipeline userSyncPipeline;
 
     private ObjectMapper objectMapper;
     private UserEventProcessorService service;
@@ -30,7 +32,7 @@ class UserEventProcessorServiceTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        service = new UserEventProcessorService(objectMapper, dataStorageService, providerDataRepository, userDataRepository);
+        service = new UserEventProcessorService(objectMapper, dataStorageService, providerDataRepository, userDataRepository, userSyncPipeline);
     }
 
     private CoreEventMessage mockCoreMessage(String messageId, Map<String,Object> payload) {
@@ -59,7 +61,7 @@ class UserEventProcessorServiceTest {
         service.processUserCreatedFromCore(cm);
 
         ArgumentCaptor<Map<String,Object>> mapCap = ArgumentCaptor.forClass(Map.class);
-        verify(dataStorageService).saveProviderData(eq(12345L), mapCap.capture(), eq("30111222"));
+        verify(userSyncPipeline).submitProvider(eq(12345L), mapCap.capture(), eq("30111222"));
         Map<String,Object> sent = mapCap.getValue();
 
         // Checks coherentes con tu implementación actual
@@ -86,7 +88,7 @@ class UserEventProcessorServiceTest {
         service.processUserCreatedFromCore(cm);
 
         ArgumentCaptor<Map<String,Object>> mapCap = ArgumentCaptor.forClass(Map.class);
-        verify(dataStorageService).saveUserData(eq(77L), mapCap.capture(), eq("evt-2"));
+        verify(userSyncPipeline).submitUser(eq(77L), mapCap.capture(), eq("evt-2"));
         Map<String,Object> sent = mapCap.getValue();
 
         assertEquals("CLIENTE", sent.get("role"));
@@ -108,7 +110,7 @@ class UserEventProcessorServiceTest {
 
         service.processUserUpdatedFromCore(cm);
 
-        verify(dataStorageService).saveProviderData(eq(123L), anyMap(), isNull());
+        verify(userSyncPipeline).submitProvider(eq(123L), anyMap(), isNull());
     }
 
     @Test
@@ -125,7 +127,7 @@ class UserEventProcessorServiceTest {
 
         service.processUserUpdatedFromCore(cm);
 
-        verify(dataStorageService).saveProviderData(eq(999L), anyMap(), isNull());
+        verify(userSyncPipeline).submitProvider(eq(999L), anyMap(), isNull());
     }
 
     @Test
@@ -143,7 +145,7 @@ class UserEventProcessorServiceTest {
 
         service.processUserUpdatedFromCore(cm);
 
-        verify(dataStorageService).saveUserData(eq(55L), anyMap(), eq("evt-5"));
+        verify(userSyncPipeline).submitUser(eq(55L), anyMap(), eq("evt-5"));
     }
 
     @Test
@@ -179,7 +181,7 @@ class UserEventProcessorServiceTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<Map<String,Object>> cap = ArgumentCaptor.forClass(Map.class);
-        verify(dataStorageService).saveProviderData(eq(555L), cap.capture(), eq("30111222"));
+        verify(userSyncPipeline).submitProvider(eq(555L), cap.capture(), eq("30111222"));
 
         Map<String,Object> sent = cap.getValue();
         assertEquals("p@demo.com", sent.get("email"));
@@ -208,7 +210,7 @@ class UserEventProcessorServiceTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<Map<String,Object>> cap = ArgumentCaptor.forClass(Map.class);
-        verify(dataStorageService).saveProviderData(eq(99001L), cap.capture(), eq("30111222"));
+        verify(userSyncPipeline).submitProvider(eq(99001L), cap.capture(), eq("30111222"));
         Map<String,Object> sent = cap.getValue();
 
         assertTrue(sent.containsKey("skills"));
@@ -232,7 +234,7 @@ class UserEventProcessorServiceTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<Map<String,Object>> cap = ArgumentCaptor.forClass(Map.class);
-        verify(dataStorageService).saveProviderData(eq(1234L), cap.capture(), eq("30"));
+        verify(userSyncPipeline).submitProvider(eq(1234L), cap.capture(), eq("30"));
         Map<String,Object> sent = cap.getValue();
 
         assertFalse(sent.containsKey("zones"));
@@ -252,7 +254,7 @@ class UserEventProcessorServiceTest {
 
         service.processUserCreatedFromCore(cm);
 
-        verify(dataStorageService).saveUserData(eq(77L), anyMap(), eq("evt-X4"));
+        verify(userSyncPipeline).submitUser(eq(77L), anyMap(), eq("evt-X4"));
     }
 
     @Test
@@ -269,7 +271,7 @@ class UserEventProcessorServiceTest {
 
         service.processUserUpdatedFromCore(cm);
 
-        verify(dataStorageService).saveProviderData(eq(4321L), argThat(m ->
+        verify(userSyncPipeline).submitProvider(eq(4321L), argThat(m ->
                 m.containsKey("zones") && ((List<?>) m.get("zones")).isEmpty() &&
                         m.containsKey("skills") && ((List<?>) m.get("skills")).isEmpty()
         ), isNull());
@@ -304,7 +306,7 @@ class UserEventProcessorServiceTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<Map<String,Object>> cap = ArgumentCaptor.forClass(Map.class);
-        verify(dataStorageService).saveUserData(eq(22L), cap.capture(), eq("evt-X8"));
+        verify(userSyncPipeline).submitUser(eq(22L), cap.capture(), eq("evt-X8"));
         Map<String,Object> sent = cap.getValue();
         assertEquals("REJECTED", sent.get("status"));
         assertEquals("rechazo KYC", sent.get("rejectionReason"));
@@ -334,7 +336,7 @@ class UserEventProcessorServiceTest {
 
         service.processUserRejectedFromCore(cm);
 
-        verify(dataStorageService).saveUserData(eq(909L), anyMap(), eq("evt-X10"));
+        verify(userSyncPipeline).submitUser(eq(909L), anyMap(), eq("evt-X10"));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package backend_api.Backend.persistence;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Presupuesto de statements JDBC para el cuerpo de un test (sin contar
+ * el @BeforeEach). Falla el test si se supera, así un N+1 nuevo no pasa
+ * desapercibido.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryCountExtension.class)
+public @interface MaxQueries {
+
+    int value();
+}
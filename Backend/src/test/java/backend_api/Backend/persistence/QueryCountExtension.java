@@ -0,0 +1,34 @@
+package backend_api.Backend.persistence;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Abre una ventana de {@link QueryStatsContext} alrededor del cuerpo del test,
+ * publica el resultado como report entry y valida el presupuesto de {@link MaxQueries}.
+ */
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), QueryStatsContext.begin());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        QueryStats stats = context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryStats.class);
+        QueryStatsContext.end(stats);
+        context.publishReportEntry("queryStats", stats.toString());
+
+        MaxQueries budget = context.getRequiredTestMethod().getAnnotation(MaxQueries.class);
+        if (budget != null && context.getExecutionException().isEmpty()) {
+            assertTrue(stats.getQueries() <= budget.value(),
+                    "Presupuesto de queries superado (" + budget.value() + "): " + stats);
+        }
+    }
+}
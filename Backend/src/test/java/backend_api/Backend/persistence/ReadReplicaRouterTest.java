@@ -0,0 +1,181 @@
+package backend_api.Backend.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Primario y réplica son dos bases H2 en memoria distintas; cada una tiene
+ * una tabla node con su nombre para saber a cuál fue cada consulta.
+ */
+class ReadReplicaRouterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicReference<String> principal = new AtomicReference<>("ana@test.com");
+    private final AtomicBoolean replicaDown = new AtomicBoolean();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate replicaAdmin;
+    private ReadReplicaRouter router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE replica_lag (seconds DOUBLE)");
+        replicaAdmin.update("INSERT INTO replica_lag VALUES (0.5)");
+
+        DataSource flakyReplica = new DelegatingDataSource(replica) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (replicaDown.get()) {
+                    throw new SQLException("Connection refused");
+                }
+                return super.getConnection();
+            }
+        };
+
+        ReadReplicaRouter.Settings settings = new ReadReplicaRouter.Settings(
+                Duration.ofSeconds(5), Duration.ofSeconds(3), Duration.ofSeconds(5), "SELECT seconds FROM replica_lag");
+        router = new ReadReplicaRouter(primary, primary, flakyReplica, settings, meterRegistry, principal::get, clock::get);
+        router.refreshReplicaState();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(router.getRoutingDataSource());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() {
+        assertTrue(router.isReplicaAvailable());
+        assertEquals(500, router.getReplicaLagMillis());
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+        // Fuera de una transacción también se usa el primario
+        assertEquals("primary", currentNode());
+
+        assertEquals(1.0, meterRegistry.get("datasource.routing.connections")
+                .tags("target", "replica", "reason", "replica").counter().count());
+    }
+
+    @Test
+    void testReadsStickToPrimaryAfterUserWrite() {
+        // Given
+        readWrite.executeWithoutResult(status -> currentNode());
+
+        // When / Then: el mismo usuario lee del primario durante la ventana
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        principal.set("otro@test.com");
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+
+        principal.set("ana@test.com");
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenLagExceedsThreshold() {
+        // Given
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 30");
+
+        // When
+        router.refreshReplicaState();
+
+        // Then
+        assertFalse(router.isReplicaAvailable());
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+        assertEquals(1.0, meterRegistry.get("datasource.routing.connections")
+                .tags("target", "primary-read", "reason", "lag").counter().count());
+
+        replicaAdmin.update("UPDATE replica_lag SET seconds = 1");
+        router.refreshReplicaState();
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicaFails() {
+        // Given
+        replicaDown.set(true);
+
+        // When / Then: la primera lectura detecta la falla y las siguientes no reintentan la réplica
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+        assertFalse(router.isReplicaAvailable());
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        replicaDown.set(false);
+        router.refreshReplicaState();
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void testExplicitCredentialsAreRoutedLikeThePoolConnection() throws Exception {
+        // When
+        String write = nodeWithCredentials();
+        String read = readOnly.execute(status -> {
+            try {
+                return nodeWithCredentials();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertEquals("primary", write);
+        assertEquals("replica", read);
+    }
+
+    private String nodeWithCredentials() throws SQLException {
+        try (Connection connection = router.getRoutingDataSource().getConnection("sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM node")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String node) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + node + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate admin = new JdbcTemplate(dataSource);
+        admin.execute("CREATE TABLE node (name VARCHAR(20))");
+        admin.update("INSERT INTO node VALUES (?)", node);
+        return dataSource;
+    }
+}
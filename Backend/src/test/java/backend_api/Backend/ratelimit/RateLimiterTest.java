@@ -0,0 +1,72 @@
+package backend_api.Backend.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testBurstUpToCapacityThenRefillsLazily() {
+        // Given: 3 de ráfaga, 1 token por segundo
+        RateLimiter limiter = limiter(3, 1.0, 64);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(RateLimiter.CallerType.USER, "ana"));
+        }
+        long wait = limiter.tryAcquire(RateLimiter.CallerType.USER, "ana");
+
+        // Then
+        assertEquals(Duration.ofSeconds(1).toNanos(), wait);
+        clock.addAndGet(Duration.ofMillis(999).toNanos());
+        assertTrue(limiter.tryAcquire(RateLimiter.CallerType.USER, "ana") > 0);
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        assertEquals(0, limiter.tryAcquire(RateLimiter.CallerType.USER, "ana"));
+        assertEquals(4.0, meterRegistry.get("ratelimit.requests")
+                .tags("policy", "test", "caller", "user", "outcome", "allowed").counter().count());
+        assertEquals(2.0, meterRegistry.get("ratelimit.requests")
+                .tags("policy", "test", "caller", "user", "outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void testCallersHaveIndependentBuckets() {
+        // Given
+        RateLimiter limiter = limiter(1, 1.0, 64);
+
+        // Then
+        assertEquals(0, limiter.tryAcquire(RateLimiter.CallerType.IP, "10.0.0.1"));
+        assertTrue(limiter.tryAcquire(RateLimiter.CallerType.IP, "10.0.0.1") > 0);
+        assertEquals(0, limiter.tryAcquire(RateLimiter.CallerType.IP, "10.0.0.2"));
+    }
+
+    @Test
+    void testFullShardDropsIdleBucketsAndThenSharesOverflow() {
+        // Given: un shard de 2 buckets
+        RateLimiter limiter = limiter(1, 1.0, 2);
+        limiter.tryAcquire(RateLimiter.CallerType.IP, "a");
+        limiter.tryAcquire(RateLimiter.CallerType.IP, "b");
+
+        // When: sin recarga todavía, las claves nuevas van al bucket compartido
+        assertEquals(0, limiter.tryAcquire(RateLimiter.CallerType.IP, "c"));
+        assertTrue(limiter.tryAcquire(RateLimiter.CallerType.IP, "d") > 0);
+
+        // Then: una vez llenos, los buckets inactivos se descartan
+        assertEquals(2, limiter.size());
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals(0, limiter.tryAcquire(RateLimiter.CallerType.IP, "e"));
+        assertEquals(1, limiter.size());
+        assertEquals(2.0, meterRegistry.get("ratelimit.overflow").counter().count());
+    }
+
+    private RateLimiter limiter(int capacity, double refillPerSecond, int maxBucketsPerShard) {
+        return new RateLimiter("test", capacity, refillPerSecond, 1, maxBucketsPerShard, meterRegistry, clock::get);
+    }
+}
@@ -0,0 +1,121 @@
+package backend_api.Backend.realtime;
+
+import backend_api.Backend.DTO.payment.PaymentStatusEventResponse;
+import backend_api.Backend.Entity.payment.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentStatusEventBusTest {
+
+    private static final Long PAYMENT_ID = 10L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStatusEventBus eventBus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        eventBus = new PaymentStatusEventBus(meterRegistry, 4, 1,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofSeconds(25));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventBus.shutdown();
+    }
+
+    @Test
+    void testAwaitChange_StatusAlreadyChanged_RespondsImmediately() {
+        // When
+        DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result = eventBus.awaitChange(
+                PAYMENT_ID, PaymentStatus.PENDING_PAYMENT, () -> snapshot(PaymentStatus.PENDING_APPROVAL));
+
+        // Then
+        assertTrue(result.hasResult());
+        assertEquals(PaymentStatus.PENDING_APPROVAL, body(result).getStatus());
+        assertEquals(0, eventBus.getActiveSubscriptions());
+    }
+
+    @Test
+    void testAwaitChange_WaitsForStatusChangedEvent() {
+        // Given
+        DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result = eventBus.awaitChange(
+                PAYMENT_ID, PaymentStatus.PENDING_APPROVAL, () -> snapshot(PaymentStatus.PENDING_APPROVAL));
+        assertFalse(result.hasResult());
+        assertEquals(1, eventBus.getActiveSubscriptions());
+
+        // When: un cambio de otro pago no afecta la espera
+        eventBus.onPaymentStatusChanged(new PaymentStatusChangedEvent(
+                99L, PaymentStatus.PENDING_APPROVAL, PaymentStatus.REJECTED, LocalDateTime.now()));
+        assertFalse(result.hasResult());
+
+        eventBus.onPaymentStatusChanged(new PaymentStatusChangedEvent(
+                PAYMENT_ID, PaymentStatus.PENDING_APPROVAL, PaymentStatus.APPROVED, LocalDateTime.now()));
+
+        // Then
+        assertTrue(result.hasResult());
+        PaymentStatusEventResponse event = body(result);
+        assertEquals(PaymentStatus.APPROVED, event.getStatus());
+        assertEquals(PaymentStatus.PENDING_APPROVAL, event.getPreviousStatus());
+        assertTrue(event.isTerminal());
+        assertEquals(0, eventBus.getActiveSubscriptions());
+    }
+
+    @Test
+    void testAwaitChange_TerminalStatusNeverWaits() {
+        // When
+        DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result = eventBus.awaitChange(
+                PAYMENT_ID, PaymentStatus.APPROVED, () -> snapshot(PaymentStatus.APPROVED));
+
+        // Then
+        assertTrue(result.hasResult());
+        assertEquals(HttpStatus.OK, ((ResponseEntity<?>) result.getResult()).getStatusCode());
+    }
+
+    @Test
+    void testOpenStream_ClosesSubscriptionOnTerminalStatus() throws Exception {
+        // Given
+        eventBus.openStream(PAYMENT_ID, () -> snapshot(PaymentStatus.PENDING_APPROVAL));
+        assertEquals(1, eventBus.getActiveSubscriptions());
+
+        // When
+        eventBus.onPaymentStatusChanged(new PaymentStatusChangedEvent(
+                PAYMENT_ID, PaymentStatus.PENDING_APPROVAL, PaymentStatus.REJECTED, LocalDateTime.now()));
+
+        // Then
+        long deadline = System.currentTimeMillis() + 2000;
+        while (eventBus.getActiveSubscriptions() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, eventBus.getActiveSubscriptions());
+        assertEquals(2.0, meterRegistry.get("realtime.payments.events").tag("result", "delivered").counter().count());
+    }
+
+    @Test
+    void testOpenStream_SnapshotFailureReleasesSubscription() {
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> eventBus.openStream(PAYMENT_ID, () -> {
+            throw new IllegalStateException("Pago no encontrado");
+        }));
+        assertEquals(0, eventBus.getActiveSubscriptions());
+    }
+
+    private PaymentStatusEventResponse snapshot(PaymentStatus status) {
+        return PaymentStatusEventResponse.of(PAYMENT_ID, null, status, LocalDateTime.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private PaymentStatusEventResponse body(DeferredResult<ResponseEntity<PaymentStatusEventResponse>> result) {
+        return ((ResponseEntity<PaymentStatusEventResponse>) result.getResult()).getBody();
+    }
+}
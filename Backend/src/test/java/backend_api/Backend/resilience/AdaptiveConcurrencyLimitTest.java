@@ -0,0 +1,79 @@
+package backend_api.Backend.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = Duration.ofMillis(20).toNanos();
+    private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+    private AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        limit = new AdaptiveConcurrencyLimit(20, 4, 100, 0.5, 0.5, 1.5);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        // Given
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 20);
+        }
+        int before = limit.getLimit();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(SLOW, 20);
+        }
+
+        // Then
+        assertTrue(limit.getLimit() < before, "el límite debe bajar con latencia creciente");
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    void testLimitGrowsOnlyWhenTrafficUsesIt() {
+        // When: latencia estable pero sólo 2 requests en curso
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 2);
+        }
+
+        // Then
+        assertEquals(20, limit.getLimit());
+
+        // When: latencia estable con el límite en uso
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+
+        // Then
+        assertTrue(limit.getLimit() > 20);
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    void testReadsAreShedBeforeWrites() {
+        // Given: lecturas hasta readShare (10 de 20)
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.READ));
+        }
+
+        // When / Then
+        assertFalse(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.READ));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.WRITE));
+        }
+        assertFalse(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.WRITE));
+        assertEquals(20, limit.getInFlight());
+
+        limit.release(FAST, 20, false);
+        assertEquals(19, limit.getInFlight());
+        assertTrue(limit.tryAcquire(AdaptiveConcurrencyLimit.Priority.WRITE));
+    }
+}
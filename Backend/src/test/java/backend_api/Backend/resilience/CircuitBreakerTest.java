@@ -0,0 +1,96 @@
+package backend_api.Backend.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(5).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 10, 4, 50, 80, Duration.ofSeconds(1),
+                Duration.ofSeconds(30), 2, clock::get);
+    }
+
+    @Test
+    void testOpensWhenFailureRateExceedsThreshold() {
+        // Given
+        record(false, FAST);
+        record(false, FAST);
+        record(true, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // When
+        record(true, FAST);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testOpensWhenMostCallsAreSlow() {
+        // When
+        for (int i = 0; i < 4; i++) {
+            record(false, SLOW);
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void testHalfOpenClosesAfterSuccessfulTrialCalls() {
+        // Given
+        openCircuit();
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // When: sólo se permiten dos llamadas de prueba
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(false, FAST);
+        circuitBreaker.onResult(false, FAST);
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testHalfOpenReopensOnFailedTrialCall() {
+        // Given
+        openCircuit();
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        // When
+        circuitBreaker.onResult(true, FAST);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            record(true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private void record(boolean failure, long durationNanos) {
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(failure, durationNanos);
+    }
+}
@@ -0,0 +1,72 @@
+package backend_api.Backend.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("resilience.concurrency.initial-limit", "2")
+                .withProperty("resilience.concurrency.min-limit", "2")
+                .withProperty("resilience.concurrency.read-share", "0.5");
+        filter = new ConcurrencyLimitFilter(environment, meterRegistry);
+    }
+
+    @Test
+    void testRejectsReadWith503WhenReadShareIsTaken() throws Exception {
+        // Given: una lectura en curso ocupa la parte de lecturas
+        assertTrue(filter.getLimit().tryAcquire(AdaptiveConcurrencyLimit.Priority.READ));
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/payments/my-payments"), response, new MockFilterChain());
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("resilience.concurrency.rejected").tag("priority", "read").counter().count());
+    }
+
+    @Test
+    void testPaymentConfirmUsesWriteShare() throws Exception {
+        // Given
+        assertTrue(filter.getLimit().tryAcquire(AdaptiveConcurrencyLimit.Priority.READ));
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/payments/7/confirm"), response, chain);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(1, filter.getLimit().getInFlight());
+    }
+
+    @Test
+    void testIgnoresRequestsOutsideApi() throws Exception {
+        // Given
+        filter.getLimit().tryAcquire(AdaptiveConcurrencyLimit.Priority.WRITE);
+        filter.getLimit().tryAcquire(AdaptiveConcurrencyLimit.Priority.WRITE);
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, new MockFilterChain());
+
+        // Then
+        assertEquals(200, response.getStatus());
+    }
+}
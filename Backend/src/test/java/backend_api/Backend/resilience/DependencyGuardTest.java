@@ -0,0 +1,195 @@
+package backend_api.Backend.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGuardTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DependencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("resilience.test.max-concurrent-calls", "1")
+                .withProperty("resilience.test.max-wait", "0ms")
+                .withProperty("resilience.test.minimum-calls", "3")
+                .withProperty("resilience.test.timeout.min", "100ms");
+        guard = new DependencyGuard("test",
+                DependencyGuard.Settings.from(environment, "resilience.test", Duration.ofSeconds(5)), meterRegistry);
+    }
+
+    @Test
+    void testOpenCircuitFailsFastWithoutCallingDependency() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.execute(() -> {
+                throw new ResourceAccessException("Read timed out");
+            }));
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        // When / Then
+        assertThrows(DependencyUnavailableException.class, () -> guard.execute(calls::incrementAndGet));
+        assertEquals(0, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+        assertEquals(1.0, meterRegistry.get("resilience.circuit.state").tag("dependency", "test").gauge().value());
+        assertEquals(1.0, meterRegistry.get("resilience.calls").tags("dependency", "test", "outcome", "rejected_circuit")
+                .counter().count());
+    }
+
+    @Test
+    void testClientErrorsDoNotOpenCircuit() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.execute(() -> {
+                throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+            }));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void testBulkheadRejectsCallsOverConcurrencyLimit() throws Exception {
+        // Given: una llamada en curso ocupa el único permiso
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread inFlight = new Thread(() -> guard.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        inFlight.start();
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        // When / Then
+        assertThrows(DependencyUnavailableException.class, () -> guard.execute(() -> "ok"));
+        release.countDown();
+        inFlight.join();
+        assertEquals("ok", guard.execute(() -> "ok"));
+    }
+
+    @Test
+    void testReadTimeoutAdaptsToObservedLatency() {
+        // Given
+        assertEquals(5000, guard.getReadTimeoutMillis());
+
+        // When: llamadas rápidas
+        for (int i = 0; i < 20; i++) {
+            guard.execute(() -> "ok");
+        }
+
+        // Then: el timeout baja al mínimo configurado
+        assertEquals(100, guard.getReadTimeoutMillis());
+    }
+
+    @Test
+    void testReadTimeoutGrowsBackWhenLatencyStepsUp() {
+        // Given: circuito que no llega a abrir, timeout aprendido con llamadas rápidas
+        DependencyGuard slowGuard = guard(new MockEnvironment()
+                .withProperty("resilience.slow.window-size", "50")
+                .withProperty("resilience.slow.minimum-calls", "50")
+                .withProperty("resilience.slow.timeout.min", "10ms"));
+        for (int i = 0; i < 20; i++) {
+            slowGuard.execute(() -> "ok");
+        }
+        assertEquals(10, slowGuard.getReadTimeoutMillis());
+
+        // When: la dependencia pasa a tardar 30 ms
+        int attempts = callUntilSuccess(slowGuard, 30, 10);
+
+        // Then: cada timeout sube el siguiente hasta que la llamada entra
+        assertTrue(attempts > 1 && attempts <= 4, "intentos: " + attempts);
+        assertTrue(slowGuard.getReadTimeoutMillis() >= 30);
+        assertEquals(CircuitBreaker.State.CLOSED, slowGuard.getState());
+    }
+
+    @Test
+    void testGuardRecoversAfterLatencyStepUpOpensCircuit() throws Exception {
+        // Given
+        DependencyGuard slowGuard = guard(new MockEnvironment()
+                .withProperty("resilience.slow.minimum-calls", "3")
+                .withProperty("resilience.slow.failure-rate-threshold", "15")
+                .withProperty("resilience.slow.open-duration", "50ms")
+                .withProperty("resilience.slow.timeout.min", "10ms")
+                .withProperty("resilience.slow.timeout.max", "1s"));
+        for (int i = 0; i < 20; i++) {
+            slowGuard.execute(() -> "ok");
+        }
+        assertEquals(10, slowGuard.getReadTimeoutMillis());
+
+        // When: la latencia salta a 100 ms; el timeout crece pero no llega antes de que el circuito abra
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> slowGuard.execute(dependencyTaking(slowGuard, 100)));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, slowGuard.getState());
+        assertEquals(1000, slowGuard.getReadTimeoutMillis());
+        Thread.sleep(60);
+
+        // Then: las llamadas de prueba salen con el timeout máximo y el circuito cierra
+        for (int i = 0; i < 3; i++) {
+            assertEquals("ok", slowGuard.execute(dependencyTaking(slowGuard, 100)));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, slowGuard.getState());
+        assertEquals("ok", slowGuard.execute(dependencyTaking(slowGuard, 100)));
+    }
+
+    private DependencyGuard guard(MockEnvironment environment) {
+        return new DependencyGuard("slow",
+                DependencyGuard.Settings.from(environment, "resilience.slow", Duration.ofSeconds(5)), meterRegistry);
+    }
+
+    private int callUntilSuccess(DependencyGuard target, long latencyMillis, int maxAttempts) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                target.execute(dependencyTaking(target, latencyMillis));
+                return attempt;
+            } catch (ResourceAccessException e) {
+                // timeout: se reintenta con el timeout que quedó
+            }
+        }
+        return maxAttempts + 1;
+    }
+
+    /**
+     * Dependencia que tarda latencyMillis; si el timeout vigente es menor, corta ahí con un timeout.
+     */
+    private Supplier<String> dependencyTaking(DependencyGuard target, long latencyMillis) {
+        return () -> {
+            int timeout = target.getReadTimeoutMillis();
+            sleep(Math.min(timeout, latencyMillis));
+            if (timeout < latencyMillis) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return "ok";
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
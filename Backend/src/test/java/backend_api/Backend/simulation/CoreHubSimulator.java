@@ -0,0 +1,274 @@
+package backend_api.Backend.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stub HTTP local del CORE hub (/publish, /subscribe, /messages/ack/{id}) y del
+ * login del módulo de usuarios (/api/users/login), para medir los flujos de
+ * pago sin depender de api.arreglacore.click.
+ *
+ * Cada ruta tiene su {@link ResponseProfile}: latencia base más una cola
+ * exponencial y una tasa de errores, de modo que se pueda reproducir un hub
+ * lento o inestable. El servidor es el de la JDK y escucha en 127.0.0.1.
+ *
+ * Uso embebido: new CoreHubSimulator().start(0) y apuntar core.hub.api.url a
+ * baseUrl() y users.module.login-url a usersLoginUrl(). También se puede
+ * levantar suelto con main(puerto) para apuntar una instancia del backend.
+ */
+public class CoreHubSimulator implements AutoCloseable {
+
+    public enum Route {
+        PUBLISH("/publish"),
+        SUBSCRIBE("/subscribe"),
+        ACK("/messages/ack/"),
+        USERS_LOGIN("/api/users/login");
+
+        private final String path;
+
+        Route(String path) {
+            this.path = path;
+        }
+
+        public String path() {
+            return path;
+        }
+    }
+
+    /**
+     * Latencia = base + exponencial de media jitter (recortada a 10 veces la
+     * media); con probabilidad errorRate responde errorStatus.
+     */
+    public record ResponseProfile(Duration baseLatency, Duration jitter, double errorRate, int errorStatus) {
+
+        public static ResponseProfile instant() {
+            return new ResponseProfile(Duration.ZERO, Duration.ZERO, 0.0, 503);
+        }
+
+        public static ResponseProfile latency(Duration baseLatency, Duration jitter) {
+            return new ResponseProfile(baseLatency, jitter, 0.0, 503);
+        }
+
+        public ResponseProfile withErrors(double rate, int status) {
+            return new ResponseProfile(baseLatency, jitter, rate, status);
+        }
+
+        long sampleLatencyNanos(ThreadLocalRandom random) {
+            long base = baseLatency.toNanos();
+            long mean = jitter.toNanos();
+            if (mean <= 0) {
+                return base;
+            }
+            double tail = -mean * Math.log(1.0 - random.nextDouble());
+            return base + (long) Math.min(tail, mean * 10.0);
+        }
+
+        boolean sampleError(ThreadLocalRandom random) {
+            return errorRate > 0 && random.nextDouble() < errorRate;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Route, ResponseProfile> profiles = new EnumMap<>(Route.class);
+    private final Map<Route, LongAdder> calls = new EnumMap<>(Route.class);
+    private final Map<Route, LongAdder> failures = new EnumMap<>(Route.class);
+    private final int threads;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public CoreHubSimulator() {
+        this(64);
+    }
+
+    /**
+     * @param threads hilos que atienden requests; con latencias altas define
+     *                la concurrencia máxima que soporta el "hub"
+     */
+    public CoreHubSimulator(int threads) {
+        this.threads = threads;
+        for (Route route : Route.values()) {
+            profiles.put(route, ResponseProfile.instant());
+            calls.put(route, new LongAdder());
+            failures.put(route, new LongAdder());
+        }
+    }
+
+    public CoreHubSimulator profile(Route route, ResponseProfile profile) {
+        synchronized (profiles) {
+            profiles.put(route, profile);
+        }
+        return this;
+    }
+
+    public CoreHubSimulator profileAll(ResponseProfile profile) {
+        for (Route route : Route.values()) {
+            profile(route, profile);
+        }
+        return this;
+    }
+
+    public CoreHubSimulator start(int port) throws IOException {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "core-hub-sim-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        server.setExecutor(executor);
+        for (Route route : Route.values()) {
+            server.createContext(route.path(), exchange -> handle(route, exchange));
+        }
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    public String usersLoginUrl() {
+        return baseUrl() + Route.USERS_LOGIN.path();
+    }
+
+    public long calls(Route route) {
+        return calls.get(route).sum();
+    }
+
+    public long failures(Route route) {
+        return failures.get(route).sum();
+    }
+
+    public void resetCounters() {
+        calls.values().forEach(LongAdder::reset);
+        failures.values().forEach(LongAdder::reset);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(Route route, HttpExchange exchange) throws IOException {
+        try {
+            calls.get(route).increment();
+            ResponseProfile profile;
+            synchronized (profiles) {
+                profile = profiles.get(route);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            byte[] requestBody = readBody(exchange.getRequestBody());
+
+            long latency = profile.sampleLatencyNanos(random);
+            if (latency > 0) {
+                TimeUnit.NANOSECONDS.sleep(latency);
+            }
+
+            if (profile.sampleError(random)) {
+                failures.get(route).increment();
+                respond(exchange, profile.errorStatus(), Map.of("error", "simulated failure", "route", route.name()));
+                return;
+            }
+
+            switch (route) {
+                case PUBLISH -> respond(exchange, 200, Map.of(
+                        "messageId", UUID.randomUUID().toString(),
+                        "status", "PUBLISHED"));
+                case SUBSCRIBE -> respond(exchange, 200, Map.of(
+                        "subscriptionId", UUID.randomUUID().toString(),
+                        "status", "SUBSCRIBED"));
+                case ACK -> respond(exchange, 200, Map.of(
+                        "subscriptionId", exchange.getRequestURI().getPath().substring(route.path().length()),
+                        "status", "ACKNOWLEDGED"));
+                case USERS_LOGIN -> respond(exchange, 200, Map.of("userInfo", userInfo(requestBody)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Misma forma que devuelve el módulo de usuarios: userInfo anidado con id
+     * estable por email.
+     */
+    private Map<String, Object> userInfo(byte[] requestBody) throws IOException {
+        String email = "simulated@load.test";
+        if (requestBody.length > 0) {
+            Object requested = objectMapper.readValue(requestBody, Map.class).get("email");
+            if (requested != null) {
+                email = requested.toString();
+            }
+        }
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("id", (long) (email.hashCode() & Integer.MAX_VALUE));
+        info.put("email", email);
+        info.put("firstName", "Usuario");
+        info.put("lastName", "Simulado");
+        info.put("phoneNumber", "1100000000");
+        info.put("role", "CLIENTE");
+        info.put("active", true);
+        return info;
+    }
+
+    private byte[] readBody(InputStream body) throws IOException {
+        try (body) {
+            return body.readAllBytes();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Simulador suelto: java ... CoreHubSimulator [puerto] [latenciaMs] [jitterMs] [tasaErrores]
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        Duration base = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        Duration jitter = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+
+        CoreHubSimulator simulator = new CoreHubSimulator()
+                .profileAll(ResponseProfile.latency(base, jitter).withErrors(errorRate, 503))
+                .start(port);
+        System.out.printf("CORE hub simulado en %s (login usuarios: %s)%n", simulator.baseUrl(), simulator.usersLoginUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::close));
+        Thread.currentThread().join();
+    }
+}
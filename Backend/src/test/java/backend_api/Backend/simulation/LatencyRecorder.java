@@ -0,0 +1,64 @@
+package backend_api.Backend.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias exactas de un paso del load driver. Guarda todas las muestras (una
+ * corrida de capacidad son decenas de miles como mucho) y ordena al pedir el
+ * resumen, así p999 no depende de buckets.
+ */
+public class LatencyRecorder {
+
+    public record Summary(String name, long count, long errors, double p50Millis, double p99Millis,
+                          double p999Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-14s n=%-6d err=%-5d p50=%8.1fms p99=%8.1fms p999=%8.1fms max=%8.1fms",
+                    name, count, errors, p50Millis, p99Millis, p999Millis, maxMillis);
+        }
+    }
+
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private long[] samples = new long[1024];
+    private int size;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    public Summary summary() {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        return new Summary(name, sorted.length, errors.sum(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    /**
+     * Nearest-rank: el menor valor que deja al menos la fracción pedida por debajo.
+     */
+    static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
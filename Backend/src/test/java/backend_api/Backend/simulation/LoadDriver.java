@@ -0,0 +1,304 @@
+package backend_api.Backend.simulation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga para el flujo de matching: webhook PAYMENT_REQUEST
+ * (/api/core/webhook/matching-payment-requests), selección de método
+ * (PUT /api/payments/{id}/payment-method) y confirmación
+ * (PUT /api/payments/{id}/confirm).
+ *
+ * Es de lazo abierto: los flujos arrancan a la tasa pedida aunque el backend
+ * se atrase, y cada latencia se mide desde el instante en que el flujo debía
+ * arrancar. Así la espera en cola cuenta en los percentiles (sin coordinated
+ * omission) y p99/p999 reflejan lo que vería el CORE.
+ */
+public class LoadDriver {
+
+    public static final String WEBHOOK_PATH = "/api/core/webhook/matching-payment-requests";
+
+    /**
+     * @param ratePerSecond     flujos por segundo que se intentan arrancar
+     * @param maxInFlight       flujos ejecutándose a la vez; el resto espera en cola
+     * @param paymentMethod     body de PUT /payment-method; por defecto una
+     *                          tarjeta de crédito con BIN de data.sql, que al
+     *                          confirmar pasa a PENDING_APPROVAL y publica al CORE
+     */
+    public record Settings(URI baseUrl, double ratePerSecond, Duration duration, int maxInFlight,
+                           Duration requestTimeout, Map<String, Object> paymentMethod) {
+
+        public static Settings of(URI baseUrl, double ratePerSecond, Duration duration) {
+            return new Settings(baseUrl, ratePerSecond, duration, 32, Duration.ofSeconds(10), Map.of(
+                    "paymentMethodType", "CREDIT_CARD",
+                    "cardNumber", "4540000000000001",
+                    "cardHolderName", "USUARIO CARGA",
+                    "expirationMonth", 12,
+                    "expirationYear", 2030,
+                    "cvv", "123"));
+        }
+    }
+
+    /**
+     * Usuario con el que se ejecuta el flujo: token del login y los ids que
+     * matching manda en el webhook.
+     */
+    public record FlowTarget(String bearerToken, long userId, long providerId) {
+    }
+
+    public record Report(long scheduled, long completed, long failed, Duration elapsed,
+                         List<LatencyRecorder.Summary> steps) {
+
+        public double throughputPerSecond() {
+            return elapsed.isZero() ? 0.0 : completed / (elapsed.toNanos() / 1_000_000_000.0);
+        }
+
+        public LatencyRecorder.Summary step(String name) {
+            return steps.stream().filter(s -> s.name().equals(name)).findFirst().orElseThrow();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "flujos programados=%d completos=%d fallidos=%d en %.1fs -> %.1f flujos/s%n",
+                    scheduled, completed, failed, elapsed.toMillis() / 1000.0, throughputPerSecond()));
+            steps.forEach(step -> sb.append("  ").append(step).append(System.lineSeparator()));
+            return sb.toString();
+        }
+    }
+
+    public static final String STEP_WEBHOOK = "webhook";
+    public static final String STEP_SELECT_METHOD = "payment-method";
+    public static final String STEP_CONFIRM = "confirm";
+    public static final String STEP_FLOW = "flow";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Settings settings;
+    private final List<FlowTarget> targets;
+    private final HttpClient client;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    public LoadDriver(Settings settings, List<FlowTarget> targets) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un usuario para generar carga");
+        }
+        this.settings = settings;
+        this.targets = List.copyOf(targets);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(settings.requestTimeout())
+                .build();
+    }
+
+    public Report run() throws InterruptedException {
+        LatencyRecorder webhook = new LatencyRecorder(STEP_WEBHOOK);
+        LatencyRecorder selectMethod = new LatencyRecorder(STEP_SELECT_METHOD);
+        LatencyRecorder confirm = new LatencyRecorder(STEP_CONFIRM);
+        LatencyRecorder flow = new LatencyRecorder(STEP_FLOW);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(settings.maxInFlight(), r -> {
+            Thread t = new Thread(r, "load-driver-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long intervalNanos = (long) (1_000_000_000L / settings.ratePerSecond());
+        long total = Math.max(1, settings.duration().toNanos() / intervalNanos);
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long sequence = i;
+            workers.execute(() -> {
+                boolean ok = runFlow(sequence, intendedStart, webhook, selectMethod, confirm);
+                if (ok) {
+                    flow.record(System.nanoTime() - intendedStart);
+                    completed.incrementAndGet();
+                } else {
+                    flow.recordError();
+                    failed.incrementAndGet();
+                }
+            });
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(settings.duration().toMillis() + settings.requestTimeout().toMillis() * 3,
+                TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        return new Report(total, completed.get(), failed.get(), elapsed,
+                List.of(webhook.summary(), selectMethod.summary(), confirm.summary(), flow.summary()));
+    }
+
+    /**
+     * Un flujo completo. La latencia de cada paso se mide desde que el paso
+     * debía arrancar: el primero desde el instante programado, los siguientes
+     * desde que terminó el anterior.
+     */
+    private boolean runFlow(long sequence, long intendedStart, LatencyRecorder webhook,
+                            LatencyRecorder selectMethod, LatencyRecorder confirm) {
+        FlowTarget target = targets.get((int) (sequence % targets.size()));
+        try {
+            HttpResponse<String> created = send(post(WEBHOOK_PATH, matchingMessage(sequence, target), null));
+            Long paymentId = created.statusCode() == 200 ? paymentId(created.body()) : null;
+            if (paymentId == null) {
+                webhook.recordError();
+                return false;
+            }
+            long stepStart = System.nanoTime();
+            webhook.record(stepStart - intendedStart);
+
+            HttpResponse<String> selected = send(put("/api/payments/" + paymentId + "/payment-method",
+                    settings.paymentMethod(), target.bearerToken()));
+            if (selected.statusCode() / 100 != 2) {
+                selectMethod.recordError();
+                return false;
+            }
+            long confirmStart = System.nanoTime();
+            selectMethod.record(confirmStart - stepStart);
+
+            HttpResponse<String> confirmed = send(put("/api/payments/" + paymentId + "/confirm",
+                    null, target.bearerToken()));
+            if (confirmed.statusCode() / 100 != 2) {
+                confirm.recordError();
+                return false;
+            }
+            confirm.record(System.nanoTime() - confirmStart);
+            return true;
+        } catch (IOException e) {
+            webhook.recordError();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Map<String, Object> matchingMessage(long sequence, FlowTarget target) {
+        Map<String, Object> pago = new LinkedHashMap<>();
+        pago.put("idCorrelacion", "LOAD-" + runId + "-" + sequence);
+        pago.put("idUsuario", target.userId());
+        pago.put("idPrestador", target.providerId());
+        pago.put("idSolicitud", sequence + 1);
+        pago.put("montoSubtotal", new BigDecimal("1000.00"));
+        pago.put("impuestos", new BigDecimal("210.00"));
+        pago.put("comisiones", new BigDecimal("50.00"));
+        pago.put("moneda", "ARS");
+        pago.put("metodoPreferido", settings.paymentMethod().get("paymentMethodType"));
+        pago.put("descripcion", "Pago generado por el load driver");
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("squad", "Matching y Agenda");
+        payload.put("topico", "Pago");
+        payload.put("evento", "Solicitud Pago Emitida");
+        payload.put("pago", pago);
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("messageId", "load-" + runId + "-" + sequence);
+        message.put("timestamp", Instant.now().toString());
+        message.put("source", "matching");
+        message.put("destination", Map.of("channel", "matching.pago.emitida", "eventName", "emitida"));
+        message.put("payload", payload);
+        return message;
+    }
+
+    private static Long paymentId(String body) throws IOException {
+        Map<String, Object> result = MAPPER.readValue(body, new TypeReference<>() {
+        });
+        if (!Boolean.TRUE.equals(result.get("success")) || !(result.get("paymentData") instanceof Map<?, ?> data)) {
+            return null;
+        }
+        Object id = data.get("paymentId");
+        return id instanceof Number number ? number.longValue() : null;
+    }
+
+    private HttpRequest post(String path, Object body, String token) throws IOException {
+        return request(path, token).POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))).build();
+    }
+
+    private HttpRequest put(String path, Object body, String token) throws IOException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body));
+        return request(path, token).PUT(publisher).build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(settings.baseUrl().resolve(path))
+                .timeout(settings.requestTimeout())
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Token de /api/auth/login. Para usuarios sincronizados el backend valida
+     * la contraseña contra el módulo de usuarios (el simulador acepta cualquiera).
+     */
+    public static String login(URI baseUrl, String email, String password) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(
+                        Map.of("email", email, "password", password))))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login fallido para " + email + ": HTTP " + response.statusCode());
+        }
+        Map<String, Object> body = MAPPER.readValue(response.body(), new TypeReference<>() {
+        });
+        return (String) body.get("token");
+    }
+
+    /**
+     * Carga contra una instancia ya levantada:
+     * java ... LoadDriver baseUrl flujosPorSegundo segundos email password idUsuario idPrestador
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 7) {
+            System.err.println("Uso: LoadDriver baseUrl flujosPorSegundo segundos email password idUsuario idPrestador");
+            System.exit(1);
+        }
+        URI baseUrl = URI.create(args[0]);
+        Settings settings = Settings.of(baseUrl, Double.parseDouble(args[1]), Duration.ofSeconds(Long.parseLong(args[2])));
+        String token = login(baseUrl, args[3], args[4]);
+        FlowTarget target = new FlowTarget(token, Long.parseLong(args[5]), Long.parseLong(args[6]));
+
+        Report report = new LoadDriver(settings, List.of(target)).run();
+        System.out.print(report);
+    }
+}
@@ -0,0 +1,77 @@
+package backend_api.Backend.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyInitializationPostProcessorTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    @Test
+    void testMarksListedBeansAndPackagesAsLazy() {
+        // Given
+        beanFactory.registerBeanDefinition("eventTestController", new RootBeanDefinition(Object.class));
+        beanFactory.registerBeanDefinition("paymentController", new RootBeanDefinition(Object.class));
+        beanFactory.registerBeanDefinition("dependencyBean", new RootBeanDefinition(java.util.ArrayList.class));
+        LazyInitializationPostProcessor processor = processor(true);
+
+        // When
+        processor.postProcessBeanFactory(beanFactory);
+
+        // Then
+        assertTrue(beanFactory.getBeanDefinition("eventTestController").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("dependencyBean").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("paymentController").isLazyInit());
+    }
+
+    @Test
+    void testNeverDefersPostProcessorsInfrastructureOrPrototypes() {
+        // Given
+        beanFactory.registerBeanDefinition("listPostProcessor", new RootBeanDefinition(ListPostProcessor.class));
+        RootBeanDefinition infrastructure = new RootBeanDefinition(java.util.ArrayList.class);
+        infrastructure.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        beanFactory.registerBeanDefinition("infrastructure", infrastructure);
+        RootBeanDefinition prototype = new RootBeanDefinition(java.util.LinkedList.class);
+        prototype.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("prototype", prototype);
+
+        // When
+        processor(true).postProcessBeanFactory(beanFactory);
+
+        // Then
+        assertFalse(beanFactory.getBeanDefinition("listPostProcessor").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("infrastructure").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("prototype").isLazyInit());
+    }
+
+    @Test
+    void testDisabledLeavesDefinitionsUntouched() {
+        // Given
+        beanFactory.registerBeanDefinition("eventTestController", new RootBeanDefinition(Object.class));
+
+        // When
+        processor(false).postProcessBeanFactory(beanFactory);
+
+        // Then
+        assertFalse(beanFactory.getBeanDefinition("eventTestController").isLazyInit());
+    }
+
+    private LazyInitializationPostProcessor processor(boolean enabled) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("startup.lazy-init.enabled", String.valueOf(enabled))
+                .withProperty("startup.lazy-init.packages", "java.util")
+                .withProperty("startup.lazy-init.beans", "eventTestController,listPostProcessor");
+        LazyInitializationPostProcessor processor = new LazyInitializationPostProcessor();
+        processor.setEnvironment(environment);
+        return processor;
+    }
+
+    static class ListPostProcessor extends java.util.ArrayList<Object> implements BeanPostProcessor {
+    }
+}
@@ -0,0 +1,166 @@
+package backend_api.Backend.startup;
+
+import backend_api.Backend.Auth.JwtUtil;
+import backend_api.Backend.Service.Interface.InvoiceService;
+import backend_api.Backend.Service.Interface.PaymentService;
+import backend_api.Backend.persistence.ReadReplicaRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StartupWarmUpTest {
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private ObjectProvider<ReadReplicaRouter> readReplicaRouter;
+
+    @Mock
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private InvoiceService invoiceService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StartupWarmUp warmUp;
+
+    public static class SampleResponse {
+        public Long id;
+        public String status;
+    }
+
+    public static class SampleRequest {
+        public String description;
+    }
+
+    static class SampleController {
+
+        ResponseEntity<List<SampleResponse>> list() {
+            return null;
+        }
+
+        SampleResponse create(@RequestBody SampleRequest request) {
+            return null;
+        }
+
+        Map<String, Object> health() {
+            return null;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        warmUp = new StartupWarmUp(dataSource, readReplicaRouter, new ObjectMapper(), handlerMapping, jwtUtil,
+                paymentService, invoiceService, meterRegistry, Duration.ofSeconds(30), 5, 2, List.of(),
+                Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testHandlerTypesUnwrapsResponseEntitiesAndCollections() throws Exception {
+        // Given
+        when(handlerMapping.getHandlerMethods()).thenReturn(handlerMethods());
+
+        // When
+        Set<Class<?>> types = warmUp.handlerTypes();
+
+        // Then: Map es de la JDK y no entra
+        assertEquals(Set.of(SampleResponse.class, SampleRequest.class), types);
+    }
+
+    @Test
+    void testOpensMinimumIdleConnectionsAndReturnsThemToThePool() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        when(readReplicaRouter.stream()).thenReturn(Stream.empty());
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(dataSource);
+        when(dataSource.getMinimumIdle()).thenReturn(3);
+        when(dataSource.getMaximumPoolSize()).thenReturn(10);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        // When
+        warmUp.warmConnectionPools();
+
+        // Then
+        verify(dataSource, times(3)).getConnection();
+        verify(connection, times(3)).close();
+    }
+
+    @Test
+    void testReadsOnlyTouchTheSyntheticUser() {
+        // When
+        warmUp.warmReads();
+
+        // Then
+        verify(paymentService, times(2)).getPaymentsByUserId(StartupWarmUp.SYNTHETIC_ID, 0, 50);
+        verify(paymentService, times(2)).getTotalAmountByUserId(StartupWarmUp.SYNTHETIC_ID);
+        verify(invoiceService, times(2)).getInvoicesByUserId(StartupWarmUp.SYNTHETIC_ID, 0, 20);
+        verify(paymentService, never()).getPaymentsByUserId(longThat(id -> id != StartupWarmUp.SYNTHETIC_ID),
+                anyInt(), anyInt());
+    }
+
+    @Test
+    void testFailingStepDoesNotStopTheRest() throws Exception {
+        // Given: sin base, el paso de pools falla
+        when(readReplicaRouter.stream()).thenReturn(Stream.empty());
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(handlerMapping.getHandlerMethods()).thenReturn(handlerMethods());
+        when(jwtUtil.generateToken(anyString(), anyLong(), anyList())).thenReturn("token");
+        when(jwtUtil.isTokenValid("token")).thenReturn(true);
+
+        // When
+        warmUp.run(new DefaultApplicationArguments());
+
+        // Then
+        assertEquals(1, meterRegistry.get("startup.warm-up").tags("step", "pools", "outcome", "failed").timer().count());
+        assertEquals(1, meterRegistry.get("startup.warm-up").tags("step", "reads", "outcome", "completed").timer().count());
+        verify(jwtUtil, times(5)).getSubject("token");
+        verify(invoiceService, times(2)).getInvoicesByUserId(StartupWarmUp.SYNTHETIC_ID, 0, 20);
+    }
+
+    private Map<RequestMappingInfo, HandlerMethod> handlerMethods() throws Exception {
+        SampleController controller = new SampleController();
+        Map<RequestMappingInfo, HandlerMethod> methods = new LinkedHashMap<>();
+        methods.put(RequestMappingInfo.paths("/samples").build(),
+                new HandlerMethod(controller, SampleController.class.getDeclaredMethod("list")));
+        methods.put(RequestMappingInfo.paths("/samples/new").build(),
+                new HandlerMethod(controller, SampleController.class.getDeclaredMethod("create", SampleRequest.class)));
+        methods.put(RequestMappingInfo.paths("/samples/health").build(),
+                new HandlerMethod(controller, SampleController.class.getDeclaredMethod("health")));
+        return methods;
+    }
+}
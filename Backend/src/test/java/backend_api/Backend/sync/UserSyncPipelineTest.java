@@ -0,0 +1,241 @@
+package backend_api.Backend.sync;
+
+import backend_api.Backend.Service.Implementation.DataStorageServiceImpl;
+import backend_api.Backend.Service.Implementation.DataStorageServiceImpl.SyncUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSyncPipelineTest {
+
+    @Mock
+    private DataStorageServiceImpl dataStorageService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserSyncPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEventsForSameUserAreCoalescedIntoOneUpsert() {
+        // Given: el hilo flusher está ocupado con el lote de un prestador
+        pipeline = pipeline(true, Duration.ofMillis(300));
+        CountDownLatch providerBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseProviderBatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            providerBatchStarted.countDown();
+            releaseProviderBatch.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(dataStorageService).saveProviderDataBatch(anyList());
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> pipeline.submitProvider(9L, Map.of("email", "p@test.com"), null));
+        await(providerBatchStarted);
+        Map<String, Object> created = new HashMap<>(Map.of("name", "Ana", "email", "ana@test.com", "active", true));
+        Map<String, Object> updated = new HashMap<>(Map.of("name", "Ana María", "phone", "111"));
+
+        // When
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> pipeline.submitUser(7L, created, "evt-1"));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            sleep(50);
+            pipeline.submitUser(7L, updated, "evt-2");
+        });
+        sleep(100);
+        releaseProviderBatch.countDown();
+        CompletableFuture.allOf(first, second, other).join();
+
+        // Then
+        ArgumentCaptor<List<SyncUpdate>> users = ArgumentCaptor.forClass(List.class);
+        verify(dataStorageService).saveUserDataBatch(users.capture());
+        verify(dataStorageService).saveProviderDataBatch(argThat(list -> list.size() == 1 && list.get(0).id().equals(9L)));
+        verify(dataStorageService, never()).saveUserData(any(), any(), any());
+
+        SyncUpdate user = users.getValue().get(0);
+        assertEquals(1, users.getValue().size());
+        assertEquals("Ana María", user.data().get("name"));
+        assertEquals("ana@test.com", user.data().get("email"));
+        assertEquals("111", user.data().get("phone"));
+        assertEquals("evt-2", user.secondaryId());
+
+        assertEquals(1.0, meterRegistry.get("sync.pipeline.events").tags("kind", "user", "result", "accepted").counter().count());
+        assertEquals(1.0, meterRegistry.get("sync.pipeline.events").tags("kind", "user", "result", "coalesced").counter().count());
+        assertEquals(2, meterRegistry.get("sync.pipeline.lag").timer().count());
+    }
+
+    @Test
+    void testLoneEventIsAppliedWithoutWaitingForTheWindow() {
+        // Given: una ventana mucho más larga que lo que debe tardar el evento
+        pipeline = pipeline(true, Duration.ofSeconds(10));
+
+        // When
+        long start = System.nanoTime();
+        pipeline.submitUser(4L, Map.of("name", "Cuatro"), "evt-4");
+
+        // Then
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        verify(dataStorageService).saveUserDataBatch(argThat(list -> list.size() == 1 && list.get(0).id().equals(4L)));
+    }
+
+    @Test
+    void testFailedBatchIsRetriedPerRecordAndOnlyTheBadOneFails() {
+        // Given
+        pipeline = pipeline(true, Duration.ofMillis(200));
+        when(dataStorageService.saveUserDataBatch(anyList())).thenThrow(new IllegalStateException("Duplicate entry"));
+        lenient().doThrow(new RuntimeException("Error al guardar datos de usuario"))
+                .when(dataStorageService).saveUserData(eq(2L), anyMap(), any());
+
+        // When
+        CompletableFuture<Void> ok = CompletableFuture.runAsync(() -> pipeline.submitUser(1L, Map.of("name", "Uno"), null));
+        CompletableFuture<Void> bad = CompletableFuture.runAsync(() -> pipeline.submitUser(2L, Map.of("name", "Dos"), null));
+
+        // Then
+        assertDoesNotThrow(ok::join);
+        CompletionException error = assertThrows(CompletionException.class, bad::join);
+        assertEquals("Error al guardar datos de usuario", error.getCause().getMessage());
+        verify(dataStorageService).saveUserData(eq(1L), anyMap(), isNull());
+        assertEquals(1.0, meterRegistry.get("sync.pipeline.applied").tags("kind", "user", "result", "failed").counter().count());
+    }
+
+    @Test
+    void testFlushNowAppliesPendingBeforeReturning() {
+        // Given
+        pipeline = pipeline(true, Duration.ofSeconds(10));
+        CountDownLatch providerBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseProviderBatch = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            providerBatchStarted.countDown();
+            releaseProviderBatch.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(dataStorageService).saveProviderDataBatch(anyList());
+        CompletableFuture.runAsync(() -> pipeline.submitProvider(8L, Map.of("email", "p@test.com"), null));
+        await(providerBatchStarted);
+        CompletableFuture<Void> pending = CompletableFuture.runAsync(() -> pipeline.submitUser(3L, Map.of("name", "Tres"), null));
+        while (meterRegistry.get("sync.pipeline.pending").gauge().value() == 0) {
+            sleep(5);
+        }
+
+        // When
+        releaseProviderBatch.countDown();
+        pipeline.flushNow();
+
+        // Then
+        verify(dataStorageService, timeout(1000)).saveUserDataBatch(anyList());
+        assertDoesNotThrow(pending::join);
+    }
+
+    @Test
+    void testDisabledPipelineSavesInCallerThread() {
+        // Given
+        pipeline = pipeline(false, Duration.ofMillis(50));
+        Map<String, Object> data = Map.of("name", "Ana");
+
+        // When
+        pipeline.submitUser(5L, data, "evt-1");
+        pipeline.submitProvider(6L, data, "30111222");
+
+        // Then
+        verify(dataStorageService).saveUserData(5L, data, "evt-1");
+        verify(dataStorageService).saveProviderData(6L, data, "30111222");
+        verify(dataStorageService, never()).saveUserDataBatch(anyList());
+    }
+
+    @Test
+    void testMergeKeepsTheResultOfApplyingEventsInOrder() {
+        // Given: alta rechazada y después reactivada, con datos parciales
+        Map<String, Object> rejected = new HashMap<>();
+        rejected.put("status", "REJECTED");
+        rejected.put("active", false);
+        rejected.put("zones", List.of("CABA"));
+        rejected.put("address", List.of(new HashMap<>(Map.of("city", "BA", "street", "X"))));
+        UserSyncPipeline.PendingSync user = new UserSyncPipeline.PendingSync(UserSyncPipeline.Kind.USER, 1L, rejected, "evt-1");
+
+        Map<String, Object> reactivated = new HashMap<>();
+        reactivated.put("active", true);
+        reactivated.put("zones", null);
+        Map<String, Object> address = new HashMap<>();
+        address.put("street", "Y");
+        address.put("number", null);
+        reactivated.put("address", List.of(address));
+
+        // When
+        user.merge(reactivated, null);
+
+        // Then
+        assertFalse(user.data().containsKey("status"));
+        assertEquals(true, user.data().get("active"));
+        assertEquals(List.of("CABA"), user.data().get("zones"));
+        Map<String, Object> expectedAddress = new HashMap<>(Map.of("city", "BA", "street", "Y"));
+        expectedAddress.put("number", null);
+        assertEquals(List.of(expectedAddress), user.data().get("address"));
+        assertEquals("evt-1", user.secondaryId());
+    }
+
+    @Test
+    void testProviderMergeIgnoresNullAddressFieldsAndNullActive() {
+        // Given
+        Map<String, Object> created = new HashMap<>();
+        created.put("active", true);
+        created.put("address", List.of(Map.of("city", "BA")));
+        UserSyncPipeline.PendingSync provider = new UserSyncPipeline.PendingSync(UserSyncPipeline.Kind.PROVIDER, 1L, created, null);
+
+        Map<String, Object> updated = new HashMap<>();
+        updated.put("active", null);
+        updated.put("zones", null);
+        Map<String, Object> address = new HashMap<>();
+        address.put("city", null);
+        address.put("street", "Z");
+        updated.put("address", new ArrayList<>(List.of(address)));
+
+        // When
+        provider.merge(updated, "30111222");
+
+        // Then
+        assertEquals(true, provider.data().get("active"));
+        assertTrue(provider.data().containsKey("zones"));
+        assertEquals(List.of(Map.of("city", "BA", "street", "Z")), provider.data().get("address"));
+        assertEquals("30111222", provider.secondaryId());
+    }
+
+    private UserSyncPipeline pipeline(boolean enabled, Duration window) {
+        return new UserSyncPipeline(dataStorageService, meterRegistry, enabled, window, 200, Duration.ofSeconds(5));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -6,7 +6,8 @@ echo "🚀 Iniciando despliegue en servidor..."
 # Detener contenedores existentes
 echo "🛑 Deteniendo contenedores existentes..."
 docker-compose -p app-prod -f docker-compose.prod.yml down --remove-orphans || true
-docker stop backend-prod 2>/dev/null || true
+# SIGTERM y hasta 60s para drenar requests, batches y publicaciones al CORE antes del SIGKILL
+docker stop -t 60 backend-prod 2>/dev/null || true
 docker rm backend-prod 2>/dev/null || true
 
 # Limpiar imágenes antiguas
@@ -30,6 +31,7 @@ echo "🚀 Iniciando nuevo contenedor..."
 docker run -d \
   --name backend-prod \
   --restart unless-stopped \
+  --stop-timeout 60 \
   -p 8082:8080 \
   -e SPRING_PROFILES_ACTIVE=prod \
   -v /home/appuser/app/logs:/home/appuser/app/logs \
@@ -43,10 +45,10 @@ sleep 30
 echo "🔍 Verificando estado del contenedor..."
 docker ps | grep backend-prod
 
-# Verificar health check
-echo "🏥 Verificando health check..."
+# Verificar readiness (UP recién cuando la aplicación terminó de arrancar)
+echo "🏥 Verificando readiness..."
 for i in {1..10}; do
-    if curl -f -s http://localhost:8082/actuator/health >/dev/null 2>&1; then
+    if curl -f -s http://localhost:8082/actuator/health/readiness >/dev/null 2>&1; then
         echo "✅ Backend funcionando correctamente!"
         break
     fi
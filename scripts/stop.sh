@@ -27,14 +27,14 @@ echo "🛑 Stopping Backend application (PID: $PID)..."
 # Try graceful shutdown first
 kill -TERM $PID
 
-# Wait for graceful shutdown (max 30 seconds)
-for i in {1..30}; do
+# Wait for graceful shutdown (max 60 seconds: drain + web server graceful shutdown)
+for i in {1..60}; do
     if ! ps -p $PID > /dev/null 2>&1; then
         echo "✅ Application stopped gracefully"
         rm -f "$PID_FILE"
         exit 0
     fi
-    echo "⏳ Waiting for graceful shutdown... ($i/30)"
+    echo "⏳ Waiting for graceful shutdown... ($i/60)"
     sleep 1
 done
 